@@ -0,0 +1,76 @@
+#!/bin/bash
+# Startup benchmark: time to first request for each startup mode.
+#
+# Build first:  ./mvnw -DskipTests -Paot,cds package
+# Then run:     scripts/startup-benchmark.sh [runs-per-mode]
+#
+# Each run starts the extracted jar in target/app against the configured database (DB_HOST,
+# DB_USER, ... as for the app itself), polls /actuator/health until it answers 200 and reports
+# the elapsed wall-clock time, from process launch to first successful request.
+
+set -u
+cd "$(dirname "$0")/.."
+
+RUNS=${1:-5}
+PORT=${BENCH_PORT:-18080}
+APP_DIR=target/app
+JAR=$(ls "$APP_DIR"/backend-*.jar 2>/dev/null | head -n 1)
+LOG=$(mktemp)
+trap 'rm -f "$LOG"' EXIT
+
+if [ -z "$JAR" ]; then
+    echo "No extracted jar in $APP_DIR; build with: ./mvnw -DskipTests -Paot,cds package"
+    exit 1
+fi
+export JWT_SECRET=${JWT_SECRET:-startup-benchmark-secret-key-at-least-48-characters-long}
+
+declare -A MODES=(
+    [1-default]=""
+    [2-lazy]="-Dspring.profiles.active=lazy"
+    [3-aot]="-Dspring.aot.enabled=true"
+    [4-aot-cache]="-Dspring.aot.enabled=true -XX:AOTCache=$APP_DIR/app.aot"
+    [5-aot-cache-lazy]="-Dspring.aot.enabled=true -XX:AOTCache=$APP_DIR/app.aot -Dspring.profiles.active=lazy"
+)
+
+now_ms() {
+    echo $(( $(date +%s%N) / 1000000 ))
+}
+
+run_once() {
+    local opts=$1
+    local start pid elapsed
+    start=$(now_ms)
+    # shellcheck disable=SC2086
+    java $opts -Dserver.port="$PORT" -Dstartup.tasks.enabled=false -jar "$JAR" > "$LOG" 2>&1 &
+    pid=$!
+    while kill -0 "$pid" 2>/dev/null; do
+        if [ "$(curl -s -o /dev/null -w '%{http_code}' "http://localhost:$PORT/actuator/health")" = "200" ]; then
+            elapsed=$(( $(now_ms) - start ))
+            kill "$pid"
+            wait "$pid" 2>/dev/null
+            echo "$elapsed"
+            return 0
+        fi
+        sleep 0.05
+    done
+    echo "failed"
+    return 1
+}
+
+printf "%-18s %8s %8s %8s  %s\n" "mode" "min" "median" "max" "runs (ms)"
+for mode in $(printf "%s\n" "${!MODES[@]}" | sort); do
+    times=()
+    for ((i = 0; i < RUNS; i++)); do
+        t=$(run_once "${MODES[$mode]}")
+        if [ "$t" = "failed" ]; then
+            echo "${mode#*-}: failed to start, last log lines:"
+            tail -n 5 "$LOG"
+            continue 2
+        fi
+        times+=("$t")
+    done
+    sorted=($(printf "%s\n" "${times[@]}" | sort -n))
+    printf "%-18s %8s %8s %8s  %s\n" "${mode#*-}" "${sorted[0]}" "${sorted[$(( ${#sorted[@]} / 2 ))]}" \
+        "${sorted[-1]}" "${times[*]}"
+    grep -m 1 "Startup phases:" "$LOG" | sed 's/^/                   last run: /'
+done
@@ -0,0 +1,50 @@
+#!/bin/bash
+# Compare platform-thread and virtual-thread request execution under the same load.
+#
+# Build first:  ./mvnw -DskipTests package test-compile
+# Then run:     scripts/thread-mode-loadtest.sh [clients] [seconds]
+#
+# Starts the packaged app once per mode against the configured database (DB_HOST, DB_USER, ...
+# as for the app itself), runs ThreadModeLoadTest against it and prints throughput, p50 and p99
+# per endpoint. Pinning sites seen in virtual mode are printed from the app log.
+
+set -u
+cd "$(dirname "$0")/.."
+
+CLIENTS=${1:-200}
+SECONDS_MEASURED=${2:-30}
+PORT=${BENCH_PORT:-18080}
+JAR=$(ls target/backend-*.jar 2>/dev/null | head -n 1)
+LOG=$(mktemp)
+trap 'rm -f "$LOG"' EXIT
+
+if [ -z "$JAR" ]; then
+    echo "No jar in target; build with: ./mvnw -DskipTests package test-compile"
+    exit 1
+fi
+export JWT_SECRET=${JWT_SECRET:-load-test-secret-key-at-least-48-characters-long-000}
+
+run_mode() {
+    local name=$1 profile=$2
+    echo "=== $name threads ==="
+    java -Dserver.port="$PORT" -Dspring.profiles.active="$profile" -Dstartup.tasks.enabled=false \
+        -jar "$JAR" > "$LOG" 2>&1 &
+    local pid=$!
+    until [ "$(curl -s -o /dev/null -w '%{http_code}' "http://localhost:$PORT/actuator/health")" = "200" ]; do
+        if ! kill -0 "$pid" 2>/dev/null; then
+            echo "App failed to start:"
+            tail -n 20 "$LOG"
+            return 1
+        fi
+        sleep 0.5
+    done
+    ./mvnw -q exec:java -Dexec.classpathScope=test \
+        -Dexec.mainClass=com.sajilokaam.loadtest.ThreadModeLoadTest \
+        -Dexec.args="http://localhost:$PORT $CLIENTS $SECONDS_MEASURED 5"
+    grep -A 12 "Virtual thread pinned" "$LOG" || true
+    kill "$pid"
+    wait "$pid" 2>/dev/null
+}
+
+run_mode platform default
+run_mode virtual virtual
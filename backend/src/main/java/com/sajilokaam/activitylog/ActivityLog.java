@@ -1,5 +1,6 @@
 package com.sajilokaam.activitylog;
 
+import com.sajilokaam.config.IdGenerators;
 import com.sajilokaam.user.User;
 import jakarta.persistence.*;
 import java.time.Instant;
@@ -12,7 +13,10 @@ import java.time.Instant;
 })
 public class ActivityLog {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "activity_logs_id")
+    @TableGenerator(name = "activity_logs_id", table = IdGenerators.TABLE, pkColumnName = IdGenerators.NAME_COLUMN,
+            valueColumnName = IdGenerators.VALUE_COLUMN, pkColumnValue = "activity_logs",
+            allocationSize = IdGenerators.ALLOCATION_SIZE)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -1,15 +1,16 @@
 package com.sajilokaam.admin;
 
 import com.sajilokaam.auth.RequiresAdmin;
-import com.sajilokaam.bid.BidRepository;
-import com.sajilokaam.job.JobRepository;
-import com.sajilokaam.project.ProjectRepository;
-import com.sajilokaam.task.TaskRepository;
-import com.sajilokaam.user.UserRepository;
+import com.sajilokaam.platformmetrics.MetricPoint;
+import com.sajilokaam.platformmetrics.PlatformMetric;
+import com.sajilokaam.platformmetrics.PlatformMetricsStore;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+import java.time.ZoneOffset;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -17,50 +18,84 @@ import java.util.Map;
 @CrossOrigin(origins = "http://localhost:5173")
 @RequiresAdmin
 public class AdminAnalyticsController {
-    private final UserRepository userRepository;
-    private final JobRepository jobRepository;
-    private final BidRepository bidRepository;
-    private final ProjectRepository projectRepository;
-    private final TaskRepository taskRepository;
+    private final PlatformMetricsStore metricsStore;
 
-    public AdminAnalyticsController(
-            UserRepository userRepository,
-            JobRepository jobRepository,
-            BidRepository bidRepository,
-            ProjectRepository projectRepository,
-            TaskRepository taskRepository) {
-        this.userRepository = userRepository;
-        this.jobRepository = jobRepository;
-        this.bidRepository = bidRepository;
-        this.projectRepository = projectRepository;
-        this.taskRepository = taskRepository;
+    public AdminAnalyticsController(PlatformMetricsStore metricsStore) {
+        this.metricsStore = metricsStore;
     }
 
     @GetMapping("/overview")
     public ResponseEntity<Map<String, Object>> getOverview() {
+        Map<PlatformMetric, Long> current = metricsStore.currentValues();
         Map<String, Object> overview = new HashMap<>();
-        
-        // User statistics
-        long totalUsers = userRepository.count();
-        overview.put("totalUsers", totalUsers);
-        
-        // Job statistics
-        long totalJobs = jobRepository.count();
-        overview.put("totalJobs", totalJobs);
-        
-        // Bid statistics
-        long totalBids = bidRepository.count();
-        overview.put("totalBids", totalBids);
-        
-        // Project statistics
-        long totalProjects = projectRepository.count();
-        overview.put("totalProjects", totalProjects);
-        
-        // Task statistics
-        long totalTasks = taskRepository.count();
-        overview.put("totalTasks", totalTasks);
-        
+
+        // Totals are maintained from insert/delete events, not counted per request
+        overview.put("totalUsers", current.get(PlatformMetric.USERS));
+        overview.put("totalJobs", current.get(PlatformMetric.JOBS));
+        overview.put("totalBids", current.get(PlatformMetric.BIDS));
+        overview.put("totalProjects", current.get(PlatformMetric.PROJECTS));
+        overview.put("totalTasks", current.get(PlatformMetric.TASKS));
+        overview.put("asOf", metricsStore.getLastSnapshotAt());
+
         return ResponseEntity.ok(overview);
     }
-}
 
+    /**
+     * Per-minute points for the last few minutes, served from memory
+     */
+    @GetMapping("/recent")
+    public ResponseEntity<?> getRecent(@RequestParam String metric,
+                                       @RequestParam(defaultValue = "60") int minutes) {
+        PlatformMetric platformMetric = parseMetric(metric);
+        if (platformMetric == null) {
+            return unknownMetric(metric);
+        }
+        if (minutes < 1 || minutes > 1440) {
+            return ResponseEntity.badRequest().body(Map.of("error", "minutes must be between 1 and 1440"));
+        }
+        Map<String, Object> response = new HashMap<>();
+        response.put("metric", platformMetric);
+        response.put("current", metricsStore.current(platformMetric));
+        response.put("points", metricsStore.recent(platformMetric, minutes));
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Daily points and growth over the last {@code days} days, from the hourly rollups
+     */
+    @GetMapping("/trends")
+    public ResponseEntity<?> getTrends(@RequestParam String metric,
+                                       @RequestParam(defaultValue = "30") int days) {
+        PlatformMetric platformMetric = parseMetric(metric);
+        if (platformMetric == null) {
+            return unknownMetric(metric);
+        }
+        if (days < 1 || days > 366) {
+            return ResponseEntity.badRequest().body(Map.of("error", "days must be between 1 and 366"));
+        }
+        LocalDate to = LocalDate.now(ZoneOffset.UTC);
+        LocalDate from = to.minusDays(days - 1L);
+        List<MetricPoint> points = metricsStore.daily(platformMetric, from, to);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("metric", platformMetric);
+        response.put("from", from);
+        response.put("to", to);
+        response.put("current", metricsStore.current(platformMetric));
+        response.put("points", points);
+        response.put("growthRate", metricsStore.growthRate(platformMetric, points));
+        return ResponseEntity.ok(response);
+    }
+
+    private PlatformMetric parseMetric(String metric) {
+        try {
+            return PlatformMetric.valueOf(metric.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private ResponseEntity<?> unknownMetric(String metric) {
+        return ResponseEntity.badRequest().body(Map.of("error", "Unknown metric: " + metric));
+    }
+}
@@ -0,0 +1,38 @@
+package com.sajilokaam.admin;
+
+import com.sajilokaam.auth.RequiresAdmin;
+import com.sajilokaam.config.ReferenceDataCacheMetrics;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/cache")
+@CrossOrigin(origins = "http://localhost:5173")
+@RequiresAdmin
+public class AdminCacheController {
+
+    private final ReferenceDataCacheMetrics cacheMetrics;
+
+    public AdminCacheController(ReferenceDataCacheMetrics cacheMetrics) {
+        this.cacheMetrics = cacheMetrics;
+    }
+
+    /**
+     * Reference data cache hits, misses and hit ratios
+     */
+    @GetMapping
+    public ResponseEntity<Map<String, Map<String, Object>>> getCacheStats() {
+        return ResponseEntity.ok(cacheMetrics.snapshot());
+    }
+
+    /**
+     * Evict all cached reference data on this instance, after changes made outside the application
+     */
+    @PostMapping("/evict")
+    public ResponseEntity<Map<String, String>> evict() {
+        cacheMetrics.evictAll();
+        return ResponseEntity.ok(Map.of("message", "Reference data cache evicted"));
+    }
+}
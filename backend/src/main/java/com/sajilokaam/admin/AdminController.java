@@ -13,7 +13,8 @@ import com.sajilokaam.role.RoleRepository;
 import com.sajilokaam.job.JobRepository;
 import com.sajilokaam.bid.BidRepository;
 import com.sajilokaam.project.ProjectRepository;
-import com.sajilokaam.payment.PaymentRepository;
+import com.sajilokaam.platformmetrics.PlatformMetric;
+import com.sajilokaam.platformmetrics.PlatformMetricsStore;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -56,7 +57,7 @@ public class AdminController {
     private ProjectRepository projectRepository;
 
     @Autowired
-    private PaymentRepository paymentRepository;
+    private PlatformMetricsStore platformMetricsStore;
 
     @Autowired
     private PasswordEncoder passwordEncoder;
@@ -66,27 +67,17 @@ public class AdminController {
     public ResponseEntity<?> getAnalytics() {
         Map<String, Object> analytics = new HashMap<>();
         
-        analytics.put("totalUsers", userRepository.count());
-        analytics.put("totalFreelancers", freelancerProfileRepository.count());
-        analytics.put("totalClients", clientProfileRepository.count());
-        analytics.put("activeJobs", jobRepository.countByStatus("OPEN"));
-        analytics.put("pendingVerifications", 
-            freelancerProfileRepository.countByStatus(ProfileStatus.SUBMITTED) + 
-            clientProfileRepository.countByStatus(ProfileStatus.SUBMITTED));
-        analytics.put("approvedProfiles",
-            freelancerProfileRepository.countByStatus(ProfileStatus.APPROVED) + 
-            clientProfileRepository.countByStatus(ProfileStatus.APPROVED));
-        analytics.put("rejectedProfiles",
-            freelancerProfileRepository.countByStatus(ProfileStatus.REJECTED) + 
-            clientProfileRepository.countByStatus(ProfileStatus.REJECTED));
+        Map<PlatformMetric, Long> current = platformMetricsStore.currentValues();
+        analytics.put("totalUsers", current.get(PlatformMetric.USERS));
+        analytics.put("totalFreelancers", current.get(PlatformMetric.FREELANCERS));
+        analytics.put("totalClients", current.get(PlatformMetric.CLIENTS));
+        analytics.put("activeJobs", current.get(PlatformMetric.OPEN_JOBS));
+        analytics.put("pendingVerifications", current.get(PlatformMetric.PENDING_VERIFICATIONS));
+        analytics.put("approvedProfiles", current.get(PlatformMetric.APPROVED_PROFILES));
+        analytics.put("rejectedProfiles", current.get(PlatformMetric.REJECTED_PROFILES));
         
-        // Calculate total revenue from completed payments
-        BigDecimal totalRevenue = paymentRepository.sumAmountByStatus("COMPLETED");
-        if (totalRevenue == null) {
-            totalRevenue = BigDecimal.ZERO;
-        }
-        // Convert BigDecimal to double for JSON serialization
-        analytics.put("totalRevenue", totalRevenue.doubleValue());
+        // Revenue is kept in minor units; convert to double for JSON serialization
+        analytics.put("totalRevenue", BigDecimal.valueOf(current.get(PlatformMetric.REVENUE), 2).doubleValue());
         
         return ResponseEntity.ok(analytics);
     }
@@ -1,12 +1,25 @@
 package com.sajilokaam.admin;
 
 import com.sajilokaam.admin.dto.PaymentDashboardResponse;
+import com.sajilokaam.admin.dto.PaymentTimeSeriesResponse;
 import com.sajilokaam.auth.RequiresAdmin;
+import com.sajilokaam.paymentgateway.PaymentGateway;
+import com.sajilokaam.paymentgateway.PaymentGatewayRegistry;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
 @RestController
 @RequestMapping("/api/admin/payments")
 @CrossOrigin(origins = "http://localhost:5173")
@@ -14,14 +27,53 @@ import org.springframework.web.bind.annotation.RestController;
 public class AdminPaymentController {
 
     private final PaymentAnalyticsService paymentAnalyticsService;
+    private final PaymentGatewayRegistry gatewayRegistry;
 
-    public AdminPaymentController(PaymentAnalyticsService paymentAnalyticsService) {
+    public AdminPaymentController(PaymentAnalyticsService paymentAnalyticsService,
+                                  PaymentGatewayRegistry gatewayRegistry) {
         this.paymentAnalyticsService = paymentAnalyticsService;
+        this.gatewayRegistry = gatewayRegistry;
     }
 
     @GetMapping("/dashboard")
     public PaymentDashboardResponse getDashboard() {
         return paymentAnalyticsService.getDashboard();
     }
-}
 
+    @GetMapping("/timeseries")
+    public ResponseEntity<?> getTimeSeries(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "status") String groupBy) {
+        if (!"status".equalsIgnoreCase(groupBy) && !"gateway".equalsIgnoreCase(groupBy)) {
+            return ResponseEntity.badRequest().body(Map.of("error", "groupBy must be 'status' or 'gateway'"));
+        }
+        LocalDate end = to != null ? to : LocalDate.now(ZoneOffset.UTC);
+        LocalDate start = from != null ? from : end.minusDays(29);
+        if (start.isAfter(end)) {
+            return ResponseEntity.badRequest().body(Map.of("error", "from must not be after to"));
+        }
+        if (ChronoUnit.DAYS.between(start, end) > 366) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Range must not exceed 366 days"));
+        }
+        PaymentTimeSeriesResponse response = paymentAnalyticsService.getTimeSeries(start, end, groupBy);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Circuit state and in-flight calls of each gateway's HTTP client
+     */
+    @GetMapping("/gateways")
+    public List<Map<String, Object>> getGateways() {
+        List<Map<String, Object>> gateways = new ArrayList<>();
+        for (String name : gatewayRegistry.names()) {
+            PaymentGateway gateway = gatewayRegistry.get(name);
+            if (gateway.getHttpClient() != null) {
+                gateways.add(gateway.getHttpClient().stats());
+            } else {
+                gateways.add(Map.of("gateway", name));
+            }
+        }
+        return gateways;
+    }
+}
@@ -0,0 +1,34 @@
+package com.sajilokaam.admin;
+
+import com.sajilokaam.auth.RequiresAdmin;
+import com.sajilokaam.startup.StartupTaskRunner;
+import com.sajilokaam.startup.StartupTimings;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/startup")
+@CrossOrigin(origins = "http://localhost:5173")
+@RequiresAdmin
+public class AdminStartupController {
+
+    private final StartupTimings startupTimings;
+    private final StartupTaskRunner startupTaskRunner;
+
+    public AdminStartupController(StartupTimings startupTimings, StartupTaskRunner startupTaskRunner) {
+        this.startupTimings = startupTimings;
+        this.startupTaskRunner = startupTaskRunner;
+    }
+
+    /**
+     * Startup phase durations of this instance and the recorded startup task runs
+     */
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getStartup() {
+        return ResponseEntity.ok(Map.of(
+                "phases", startupTimings.phases(),
+                "tasks", startupTaskRunner.history()));
+    }
+}
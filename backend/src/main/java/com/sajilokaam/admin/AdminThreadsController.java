@@ -0,0 +1,69 @@
+package com.sajilokaam.admin;
+
+import com.sajilokaam.auth.RequiresAdmin;
+import com.sajilokaam.datasource.ReadWriteRoutingDataSource;
+import com.sajilokaam.diagnostics.VirtualThreadPinningMonitor;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/threads")
+@CrossOrigin(origins = "http://localhost:5173")
+@RequiresAdmin
+public class AdminThreadsController {
+
+    private final VirtualThreadPinningMonitor pinningMonitor;
+    private final DataSource dataSource;
+    private final boolean virtualThreads;
+
+    public AdminThreadsController(VirtualThreadPinningMonitor pinningMonitor,
+                                  DataSource dataSource,
+                                  @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.pinningMonitor = pinningMonitor;
+        this.dataSource = dataSource;
+        this.virtualThreads = virtualThreads;
+    }
+
+    /**
+     * Request thread mode, JDBC pool usage (per pool with a read replica) and virtual thread pinning sites
+     */
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getThreads() {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("virtualThreads", virtualThreads);
+        if (dataSource instanceof ReadWriteRoutingDataSource routing) {
+            Map<String, Object> pools = new LinkedHashMap<>();
+            pools.put("primary", poolStats(routing.getPrimary()));
+            pools.put("replica", poolStats(routing.getReplica()));
+            body.put("jdbcPools", pools);
+            String unavailable = routing.replicaUnavailableReason();
+            body.put("replicaStatus", unavailable != null ? unavailable : "available");
+        } else if (dataSource instanceof HikariDataSource hikari) {
+            body.put("jdbcPool", poolStats(hikari));
+        }
+        body.put("pinningMonitorRunning", pinningMonitor.isRunning());
+        body.put("pinnedTotal", pinningMonitor.totalPinned());
+        body.put("pinnedSites", pinningMonitor.sites());
+        return ResponseEntity.ok(body);
+    }
+
+    private Map<String, Object> poolStats(HikariDataSource hikari) {
+        HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+        if (pool == null) {
+            // Pool not started yet
+            return Map.of("maximumPoolSize", hikari.getMaximumPoolSize());
+        }
+        return Map.of(
+                "maximumPoolSize", hikari.getMaximumPoolSize(),
+                "active", pool.getActiveConnections(),
+                "idle", pool.getIdleConnections(),
+                "awaiting", pool.getThreadsAwaitingConnection());
+    }
+}
@@ -1,38 +1,75 @@
 package com.sajilokaam.admin;
 
 import com.sajilokaam.admin.dto.PaymentDashboardResponse;
+import com.sajilokaam.admin.dto.PaymentTimeSeriesResponse;
 import com.sajilokaam.payment.Payment;
 import com.sajilokaam.payment.PaymentRepository;
+import com.sajilokaam.payment.PaymentRollupService;
+import com.sajilokaam.payment.PaymentRollupService.PaymentRollup;
 import com.sajilokaam.paymentdispute.PaymentDispute;
 import com.sajilokaam.paymentdispute.PaymentDisputeRepository;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
+/**
+ * Admin payment dashboard. Totals and breakdowns come from the daily rollups maintained by
+ * {@link com.sajilokaam.payment.PaymentRollupListener}, so the cost does not grow with the
+ * number of payments; the assembled response is cached briefly.
+ */
 @Service
 public class PaymentAnalyticsService {
 
     private final PaymentRepository paymentRepository;
     private final PaymentDisputeRepository disputeRepository;
+    private final PaymentRollupService rollupService;
+    private final long cacheTtlMillis;
+
+    private volatile PaymentDashboardResponse cachedDashboard;
+    private volatile long cachedAt;
 
     public PaymentAnalyticsService(PaymentRepository paymentRepository,
-                                   PaymentDisputeRepository disputeRepository) {
+                                   PaymentDisputeRepository disputeRepository,
+                                   PaymentRollupService rollupService,
+                                   @Value("${payment.analytics.cache-ttl-ms:30000}") long cacheTtlMillis) {
         this.paymentRepository = paymentRepository;
         this.disputeRepository = disputeRepository;
+        this.rollupService = rollupService;
+        this.cacheTtlMillis = cacheTtlMillis;
     }
 
-    @Transactional(readOnly = true)
     public PaymentDashboardResponse getDashboard() {
+        PaymentDashboardResponse cached = cachedDashboard;
+        if (cached != null && System.currentTimeMillis() - cachedAt < cacheTtlMillis) {
+            return cached;
+        }
+        synchronized (this) {
+            // Only one request rebuilds an expired dashboard; the rest reuse its result
+            if (cachedDashboard == null || System.currentTimeMillis() - cachedAt >= cacheTtlMillis) {
+                cachedDashboard = buildDashboard();
+                cachedAt = System.currentTimeMillis();
+            }
+            return cachedDashboard;
+        }
+    }
+
+    private PaymentDashboardResponse buildDashboard() {
+        List<PaymentRollup> totals = rollupService.totals();
         PaymentDashboardResponse response = new PaymentDashboardResponse();
 
-        response.setSummary(buildSummary());
-        response.setGateways(buildGatewayBreakdown());
-        response.setStatuses(buildStatusBreakdown());
+        response.setSummary(buildSummary(totals));
+        response.setGateways(buildGatewayBreakdown(totals));
+        response.setStatuses(buildStatusBreakdown(totals));
         response.setRecentPayments(buildRecentPayments());
         response.setDisputes(buildDisputeSummary());
         response.setRecentDisputes(buildRecentDisputes());
@@ -40,12 +77,54 @@ public class PaymentAnalyticsService {
         return response;
     }
 
-    private PaymentDashboardResponse.PaymentSummary buildSummary() {
-        BigDecimal totalCollected = safe(paymentRepository.sumAmountByStatus("COMPLETED"));
-        BigDecimal pending = safe(paymentRepository.sumAmountByStatus("PENDING"));
-        BigDecimal refunded = safe(paymentRepository.sumAmountByStatus("REFUNDED"));
-        long totalTransactions = paymentRepository.count();
-        long completedCount = paymentRepository.countByStatus("COMPLETED");
+    /**
+     * Daily payment counts and amounts between from and to (inclusive, UTC days), grouped by
+     * "status" or "gateway"
+     */
+    public PaymentTimeSeriesResponse getTimeSeries(LocalDate from, LocalDate to, String groupBy) {
+        boolean byGateway = "gateway".equalsIgnoreCase(groupBy);
+        Map<LocalDate, Map<String, PaymentTimeSeriesResponse.Point>> byDay = new TreeMap<>();
+        for (PaymentRollup rollup : rollupService.daily(from, to)) {
+            String key = byGateway ? rollup.getGateway() : rollup.getStatus();
+            PaymentTimeSeriesResponse.Point point = byDay
+                    .computeIfAbsent(rollup.getDay(), day -> new LinkedHashMap<>())
+                    .computeIfAbsent(key, k -> {
+                        PaymentTimeSeriesResponse.Point p = new PaymentTimeSeriesResponse.Point();
+                        p.setDay(rollup.getDay());
+                        p.setKey(k);
+                        p.setTotalAmount(BigDecimal.ZERO);
+                        return p;
+                    });
+            point.setCount(point.getCount() + rollup.getCount());
+            point.setTotalAmount(point.getTotalAmount().add(rollup.getAmount()));
+        }
+
+        PaymentTimeSeriesResponse response = new PaymentTimeSeriesResponse();
+        response.setFrom(from);
+        response.setTo(to);
+        response.setGroupBy(byGateway ? "gateway" : "status");
+        byDay.values().forEach(points -> response.getPoints().addAll(points.values()));
+        return response;
+    }
+
+    private PaymentDashboardResponse.PaymentSummary buildSummary(List<PaymentRollup> totals) {
+        BigDecimal totalCollected = BigDecimal.ZERO;
+        BigDecimal pending = BigDecimal.ZERO;
+        BigDecimal refunded = BigDecimal.ZERO;
+        long totalTransactions = 0;
+        long completedCount = 0;
+        for (PaymentRollup rollup : totals) {
+            totalTransactions += rollup.getCount();
+            switch (rollup.getStatus()) {
+                case "COMPLETED" -> {
+                    totalCollected = totalCollected.add(rollup.getAmount());
+                    completedCount += rollup.getCount();
+                }
+                case "PENDING" -> pending = pending.add(rollup.getAmount());
+                case "REFUNDED" -> refunded = refunded.add(rollup.getAmount());
+                default -> { }
+            }
+        }
 
         BigDecimal averageTicket = completedCount > 0
                 ? totalCollected.divide(BigDecimal.valueOf(completedCount), 2, RoundingMode.HALF_UP)
@@ -60,28 +139,37 @@ public class PaymentAnalyticsService {
         return summary;
     }
 
-    private List<PaymentDashboardResponse.GatewayBreakdown> buildGatewayBreakdown() {
-        List<Object[]> raw = paymentRepository.aggregateByGateway();
-        List<PaymentDashboardResponse.GatewayBreakdown> breakdowns = new ArrayList<>();
-
-        for (Object[] row : raw) {
-            PaymentDashboardResponse.GatewayBreakdown breakdown = new PaymentDashboardResponse.GatewayBreakdown();
-            breakdown.setGateway(row[0] != null ? row[0].toString() : "OFFLINE");
-            breakdown.setCount(asLong(row[1]));
-            breakdown.setTotalAmount(row[2] instanceof BigDecimal ? (BigDecimal) row[2] : BigDecimal.ZERO);
-            breakdowns.add(breakdown);
+    private List<PaymentDashboardResponse.GatewayBreakdown> buildGatewayBreakdown(List<PaymentRollup> totals) {
+        Map<String, PaymentDashboardResponse.GatewayBreakdown> byGateway = new LinkedHashMap<>();
+        for (PaymentRollup rollup : totals) {
+            if (rollup.getCount() == 0) {
+                continue;
+            }
+            PaymentDashboardResponse.GatewayBreakdown breakdown = byGateway.computeIfAbsent(rollup.getGateway(), gateway -> {
+                PaymentDashboardResponse.GatewayBreakdown b = new PaymentDashboardResponse.GatewayBreakdown();
+                b.setGateway(gateway);
+                b.setTotalAmount(BigDecimal.ZERO);
+                return b;
+            });
+            breakdown.setCount(breakdown.getCount() + rollup.getCount());
+            breakdown.setTotalAmount(breakdown.getTotalAmount().add(rollup.getAmount()));
         }
-        return breakdowns;
+        return new ArrayList<>(byGateway.values());
     }
 
-    private List<PaymentDashboardResponse.StatusBreakdown> buildStatusBreakdown() {
-        List<Object[]> raw = paymentRepository.aggregateStatusCounts();
-        return raw.stream().map(row -> {
-            PaymentDashboardResponse.StatusBreakdown breakdown = new PaymentDashboardResponse.StatusBreakdown();
-            breakdown.setStatus(row[0] != null ? row[0].toString() : "UNKNOWN");
-            breakdown.setCount(asLong(row[1]));
-            return breakdown;
-        }).collect(Collectors.toList());
+    private List<PaymentDashboardResponse.StatusBreakdown> buildStatusBreakdown(List<PaymentRollup> totals) {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (PaymentRollup rollup : totals) {
+            counts.merge(rollup.getStatus(), rollup.getCount(), Long::sum);
+        }
+        return counts.entrySet().stream()
+                .filter(entry -> entry.getValue() != 0)
+                .map(entry -> {
+                    PaymentDashboardResponse.StatusBreakdown breakdown = new PaymentDashboardResponse.StatusBreakdown();
+                    breakdown.setStatus(entry.getKey());
+                    breakdown.setCount(entry.getValue());
+                    return breakdown;
+                }).collect(Collectors.toList());
     }
 
     private List<PaymentDashboardResponse.PaymentSnapshot> buildRecentPayments() {
@@ -111,12 +199,19 @@ public class PaymentAnalyticsService {
     }
 
     private PaymentDashboardResponse.DisputeSummary buildDisputeSummary() {
+        Map<String, Long> counts = new HashMap<>();
+        long total = 0;
+        for (Object[] row : disputeRepository.aggregateStatusCounts()) {
+            long count = asLong(row[1]);
+            counts.put(row[0] != null ? row[0].toString() : "UNKNOWN", count);
+            total += count;
+        }
         PaymentDashboardResponse.DisputeSummary summary = new PaymentDashboardResponse.DisputeSummary();
-        summary.setOpen(disputeRepository.countByStatus("OPEN"));
-        summary.setInReview(disputeRepository.countByStatus("IN_REVIEW"));
-        summary.setResolved(disputeRepository.countByStatus("RESOLVED"));
-        summary.setClosed(disputeRepository.countByStatus("CLOSED"));
-        summary.setTotal(disputeRepository.count());
+        summary.setOpen(counts.getOrDefault("OPEN", 0L));
+        summary.setInReview(counts.getOrDefault("IN_REVIEW", 0L));
+        summary.setResolved(counts.getOrDefault("RESOLVED", 0L));
+        summary.setClosed(counts.getOrDefault("CLOSED", 0L));
+        summary.setTotal(total);
         return summary;
     }
 
@@ -148,9 +243,5 @@ public class PaymentAnalyticsService {
         }
         return 0L;
     }
-
-    private BigDecimal safe(BigDecimal value) {
-        return value != null ? value : BigDecimal.ZERO;
-    }
 }
 
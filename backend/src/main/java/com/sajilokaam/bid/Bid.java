@@ -2,6 +2,7 @@ package com.sajilokaam.bid;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.sajilokaam.job.Job;
+import com.sajilokaam.platformmetrics.PlatformMetricsListener;
 import com.sajilokaam.user.User;
 import jakarta.persistence.*;
 import java.math.BigDecimal;
@@ -9,6 +10,7 @@ import java.time.Instant;
 import java.time.LocalDate;
 
 @Entity
+@EntityListeners({BidLeaderboardListener.class, PlatformMetricsListener.class})
 @Table(name = "bids", indexes = {
         @Index(name = "idx_bids_job", columnList = "job_id")
 })
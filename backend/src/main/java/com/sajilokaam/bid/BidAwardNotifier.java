@@ -0,0 +1,48 @@
+package com.sajilokaam.bid;
+
+import com.sajilokaam.notification.NotificationService;
+import com.sajilokaam.user.User;
+import com.sajilokaam.user.UserRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Notifies the winning and the rejected freelancers once an award has committed
+ */
+@Component
+public class BidAwardNotifier {
+
+    private final NotificationService notificationService;
+    private final UserRepository userRepository;
+
+    public BidAwardNotifier(NotificationService notificationService, UserRepository userRepository) {
+        this.notificationService = notificationService;
+        this.userRepository = userRepository;
+    }
+
+    // The award transaction has committed; writes need a transaction of their own
+    @TransactionalEventListener
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onBidAwarded(BidAwardedEvent event) {
+        try {
+            Optional<User> winner = userRepository.findById(event.getFreelancerId());
+            winner.ifPresent(user -> notificationService.notifyUser(user, "BID_ACCEPTED", "Your bid was accepted",
+                    "Your bid on \"" + event.getJobTitle() + "\" was accepted.", "bid", event.getAcceptedBidId()));
+
+            if (!event.getRejectedFreelancerIds().isEmpty()) {
+                List<User> rejected = userRepository.findAllById(new LinkedHashSet<>(event.getRejectedFreelancerIds()));
+                notificationService.notifyUsers(rejected, "BID_REJECTED", "Job awarded to another freelancer",
+                        "\"" + event.getJobTitle() + "\" was awarded to another freelancer.", "job", event.getJobId());
+            }
+        } catch (RuntimeException e) {
+            // The award stands either way
+            System.err.println("Failed to send award notifications for job " + event.getJobId() + ": " + e.getMessage());
+        }
+    }
+}
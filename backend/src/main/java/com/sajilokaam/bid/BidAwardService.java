@@ -0,0 +1,124 @@
+package com.sajilokaam.bid;
+
+import com.sajilokaam.connects.ConnectsService;
+import com.sajilokaam.job.Job;
+import com.sajilokaam.job.JobRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Awards a job to one bid.
+ *
+ * The job row is locked for the rest of the transaction, so concurrent awards for a job run
+ * one after another and only the first succeeds; a double click gets BID_NOT_PENDING, a
+ * second bid on the same job JOB_ALREADY_AWARDED. Competing pending bids are rejected with a
+ * single UPDATE, their connects refunded in one batch, and one {@link BidAwardedEvent} is
+ * published for notifications. Callers creating the project or invoice must do so in the
+ * same transaction, so the lock covers them too.
+ */
+@Service
+public class BidAwardService {
+
+    public enum Status { AWARDED, BID_NOT_FOUND, WRONG_JOB, NOT_JOB_OWNER, BID_NOT_PENDING, JOB_ALREADY_AWARDED }
+
+    private final BidRepository bidRepository;
+    private final JobRepository jobRepository;
+    private final ConnectsService connectsService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MeterRegistry meterRegistry;
+
+    public BidAwardService(BidRepository bidRepository,
+                           JobRepository jobRepository,
+                           ConnectsService connectsService,
+                           ApplicationEventPublisher eventPublisher,
+                           MeterRegistry meterRegistry) {
+        this.bidRepository = bidRepository;
+        this.jobRepository = jobRepository;
+        this.connectsService = connectsService;
+        this.eventPublisher = eventPublisher;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Accept the bid on behalf of the job's client and reject the job's other pending bids.
+     *
+     * @param jobId job the caller expects the bid to belong to, or null to skip the check
+     */
+    @Transactional
+    public BidAward award(Long jobId, Long bidId, Long clientId) {
+        Optional<Bid> bidOpt = bidRepository.findById(bidId);
+        if (bidOpt.isEmpty()) {
+            return result(Status.BID_NOT_FOUND, null, List.of(), 0);
+        }
+        Bid bid = bidOpt.get();
+        if (jobId != null && !jobId.equals(bid.getJob().getId())) {
+            return result(Status.WRONG_JOB, bid, List.of(), 0);
+        }
+
+        Optional<Job> jobOpt = jobRepository.findByIdForUpdate(bid.getJob().getId());
+        if (jobOpt.isEmpty()) {
+            return result(Status.BID_NOT_FOUND, bid, List.of(), 0);
+        }
+        Job job = jobOpt.get();
+        if (!job.getClient().getId().equals(clientId)) {
+            return result(Status.NOT_JOB_OWNER, bid, List.of(), 0);
+        }
+
+        // Checked with locking reads: the bid loaded above may predate a concurrent award
+        if (bidRepository.countAcceptedForUpdate(job.getId()) > 0) {
+            return result(Status.JOB_ALREADY_AWARDED, bid, List.of(), 0);
+        }
+        if (bidRepository.acceptIfPending(bid.getId()) == 0) {
+            return result(Status.BID_NOT_PENDING, bid, List.of(), 0);
+        }
+        bid.setStatus("ACCEPTED");
+
+        List<Long> rejectedBidIds = new ArrayList<>();
+        List<Long> rejectedFreelancerIds = new ArrayList<>();
+        for (Object[] row : bidRepository.findCompetingPendingForUpdate(job.getId(), bid.getId())) {
+            rejectedBidIds.add(((Number) row[0]).longValue());
+            rejectedFreelancerIds.add(((Number) row[1]).longValue());
+        }
+        int refunded = 0;
+        if (!rejectedBidIds.isEmpty()) {
+            bidRepository.rejectCompetingPending(job.getId(), bid.getId());
+            refunded = connectsService.refundBids(rejectedBidIds, "Bid not selected for: " + job.getTitle());
+        }
+
+        eventPublisher.publishEvent(new BidAwardedEvent(job.getId(), job.getTitle(), bid.getId(),
+                bid.getFreelancer().getId(), clientId, rejectedBidIds, rejectedFreelancerIds));
+        return result(Status.AWARDED, bid, rejectedBidIds, refunded);
+    }
+
+    private BidAward result(Status status, Bid bid, List<Long> rejectedBidIds, int refunded) {
+        Counter.builder("bids.awards").tag("result", status.name()).register(meterRegistry).increment();
+        return new BidAward(status, bid, rejectedBidIds, refunded);
+    }
+
+    public static class BidAward {
+        private final Status status;
+        private final Bid bid;
+        private final List<Long> rejectedBidIds;
+        private final int connectsRefunds;
+
+        BidAward(Status status, Bid bid, List<Long> rejectedBidIds, int connectsRefunds) {
+            this.status = status;
+            this.bid = bid;
+            this.rejectedBidIds = rejectedBidIds;
+            this.connectsRefunds = connectsRefunds;
+        }
+
+        public boolean isAwarded() { return status == Status.AWARDED; }
+        public Status getStatus() { return status; }
+        public Bid getBid() { return bid; }
+        public List<Long> getRejectedBidIds() { return rejectedBidIds; }
+        public int getConnectsRefunds() { return connectsRefunds; }
+    }
+}
@@ -0,0 +1,35 @@
+package com.sajilokaam.bid;
+
+import java.util.List;
+
+/**
+ * Published once per awarded job, after the award is made; listeners run after it commits
+ */
+public class BidAwardedEvent {
+    private final Long jobId;
+    private final String jobTitle;
+    private final Long acceptedBidId;
+    private final Long freelancerId;
+    private final Long clientId;
+    private final List<Long> rejectedBidIds;
+    private final List<Long> rejectedFreelancerIds;
+
+    public BidAwardedEvent(Long jobId, String jobTitle, Long acceptedBidId, Long freelancerId, Long clientId,
+                           List<Long> rejectedBidIds, List<Long> rejectedFreelancerIds) {
+        this.jobId = jobId;
+        this.jobTitle = jobTitle;
+        this.acceptedBidId = acceptedBidId;
+        this.freelancerId = freelancerId;
+        this.clientId = clientId;
+        this.rejectedBidIds = List.copyOf(rejectedBidIds);
+        this.rejectedFreelancerIds = List.copyOf(rejectedFreelancerIds);
+    }
+
+    public Long getJobId() { return jobId; }
+    public String getJobTitle() { return jobTitle; }
+    public Long getAcceptedBidId() { return acceptedBidId; }
+    public Long getFreelancerId() { return freelancerId; }
+    public Long getClientId() { return clientId; }
+    public List<Long> getRejectedBidIds() { return rejectedBidIds; }
+    public List<Long> getRejectedFreelancerIds() { return rejectedFreelancerIds; }
+}
@@ -2,13 +2,12 @@ package com.sajilokaam.bid;
 
 import com.sajilokaam.auth.JwtService;
 import com.sajilokaam.bid.dto.BidComparisonResponse;
+import com.sajilokaam.bid.dto.BidLeaderboardResponse;
 import com.sajilokaam.bid.dto.BidResponse;
 import com.sajilokaam.invoice.Invoice;
 import com.sajilokaam.invoice.InvoiceRepository;
 import com.sajilokaam.job.Job;
 import com.sajilokaam.job.JobRepository;
-import com.sajilokaam.profile.FreelancerProfile;
-import com.sajilokaam.profile.FreelancerProfileRepository;
 import com.sajilokaam.project.Project;
 import com.sajilokaam.project.ProjectRepository;
 import com.sajilokaam.user.User;
@@ -34,22 +33,25 @@ public class BidController {
     private final JobRepository jobRepository;
     private final UserRepository userRepository;
     private final JwtService jwtService;
-    private final FreelancerProfileRepository freelancerProfileRepository;
     private final InvoiceRepository invoiceRepository;
     private final ProjectRepository projectRepository;
+    private final BidAwardService bidAwardService;
+    private final BidLeaderboard bidLeaderboard;
 
     public BidController(BidRepository bidRepository, JobRepository jobRepository,
                         UserRepository userRepository, JwtService jwtService,
-                        FreelancerProfileRepository freelancerProfileRepository,
                         InvoiceRepository invoiceRepository,
-                        ProjectRepository projectRepository) {
+                        ProjectRepository projectRepository,
+                        BidAwardService bidAwardService,
+                        BidLeaderboard bidLeaderboard) {
         this.bidRepository = bidRepository;
         this.jobRepository = jobRepository;
         this.userRepository = userRepository;
         this.jwtService = jwtService;
-        this.freelancerProfileRepository = freelancerProfileRepository;
         this.invoiceRepository = invoiceRepository;
         this.projectRepository = projectRepository;
+        this.bidAwardService = bidAwardService;
+        this.bidLeaderboard = bidLeaderboard;
     }
 
     @GetMapping("/{jobId}/bids")
@@ -216,30 +218,26 @@ public class BidController {
         }
         User client = userOpt.get();
 
-        Optional<Bid> bidOpt = bidRepository.findById(bidId);
-        if (bidOpt.isEmpty()) {
-            return ResponseEntity.notFound().build();
-        }
-
-        Bid bid = bidOpt.get();
-        if (!bid.getJob().getId().equals(jobId)) {
-            return ResponseEntity.badRequest().build();
-        }
-
-        // Verify user is the client who owns the job
-        if (!bid.getJob().getClient().getId().equals(client.getId())) {
-            return ResponseEntity.status(403).build();
-        }
-
-        // Only accept if bid is still pending
-        if (!bid.getStatus().equals("PENDING")) {
-            return ResponseEntity.badRequest()
-                    .body(Map.of("error", "Bid is not in pending status"));
-        }
-
-        // Update bid status
-        bid.setStatus("ACCEPTED");
-        bidRepository.save(bid);
+        // Locks the job: a second click or a competing accept waits here and is then refused,
+        // so only one project and invoice are ever created per job
+        BidAwardService.BidAward award = bidAwardService.award(jobId, bidId, client.getId());
+        switch (award.getStatus()) {
+            case BID_NOT_FOUND:
+                return ResponseEntity.notFound().build();
+            case WRONG_JOB:
+                return ResponseEntity.badRequest().build();
+            case NOT_JOB_OWNER:
+                return ResponseEntity.status(403).build();
+            case BID_NOT_PENDING:
+                return ResponseEntity.badRequest()
+                        .body(Map.of("error", "Bid is not in pending status"));
+            case JOB_ALREADY_AWARDED:
+                return ResponseEntity.status(409)
+                        .body(Map.of("error", "Another bid has already been accepted for this job"));
+            default:
+                break;
+        }
+        Bid bid = award.getBid();
 
         // Create project FIRST (pending payment)
         Project project = new Project();
@@ -428,15 +426,24 @@ public class BidController {
 
     @GetMapping("/{jobId}/bids/count")
     public ResponseEntity<Long> getBidCount(@PathVariable Long jobId) {
-        if (!jobRepository.existsById(jobId)) {
+        // Served from the in-memory aggregate; live updates go to /topic/jobs/{jobId}/bids
+        Long count = bidLeaderboard.count(jobId);
+        if (count == null) {
             return ResponseEntity.notFound().build();
         }
-        long count = bidRepository.countByJobId(jobId);
         return ResponseEntity.ok(count);
     }
 
+    @GetMapping("/{jobId}/bids/leaderboard")
+    public ResponseEntity<BidLeaderboardResponse> getBidLeaderboard(@PathVariable Long jobId) {
+        BidLeaderboardResponse summary = bidLeaderboard.summary(jobId);
+        if (summary == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(summary);
+    }
+
     @GetMapping("/{jobId}/bids/compare")
-    @Transactional(readOnly = true)
     public ResponseEntity<List<BidComparisonResponse>> compareBids(
             @PathVariable Long jobId,
             @RequestHeader(name = "Authorization", required = false) String authorization) {
@@ -455,46 +462,21 @@ public class BidController {
             return ResponseEntity.status(401).build();
         }
 
-        Optional<Job> jobOpt = jobRepository.findById(jobId);
-        if (jobOpt.isEmpty()) {
+        Long clientId = bidLeaderboard.clientId(jobId);
+        if (clientId == null) {
             return ResponseEntity.notFound().build();
         }
 
         // Verify user is the client who owns the job
-        if (!jobOpt.get().getClient().getId().equals(userOpt.get().getId())) {
+        if (!clientId.equals(userOpt.get().getId())) {
             return ResponseEntity.status(403).build();
         }
 
-        // Get all bids for this job, sorted by amount (ascending)
-        List<Bid> bids = bidRepository.findByJobId(jobId);
-        bids.sort((b1, b2) -> b1.getAmount().compareTo(b2.getAmount()));
-        
-        // Enrich with freelancer profile data
-        List<BidComparisonResponse> comparisons = new ArrayList<>();
-        for (Bid bid : bids) {
-            User freelancer = bid.getFreelancer();
-            Optional<FreelancerProfile> profileOpt = freelancerProfileRepository.findByUserId(freelancer.getId());
-            
-            String experienceLevel = null;
-            if (profileOpt.isPresent() && profileOpt.get().getExperienceLevel() != null) {
-                experienceLevel = profileOpt.get().getExperienceLevel().name();
-            }
-            
-            BidComparisonResponse response = new BidComparisonResponse(
-                bid.getId(),
-                freelancer.getId(),
-                freelancer.getFullName(),
-                freelancer.getEmail(),
-                bid.getAmount(),
-                bid.getMessage(),
-                bid.getStatus(),
-                bid.getCreatedAt(),
-                experienceLevel,
-                null // Rating not implemented yet
-            );
-            comparisons.add(response);
+        // All bids sorted by amount (ascending) with freelancer experience, kept in memory
+        List<BidComparisonResponse> comparisons = bidLeaderboard.ranked(jobId);
+        if (comparisons == null) {
+            return ResponseEntity.notFound().build();
         }
-        
         return ResponseEntity.ok(comparisons);
     }
 
@@ -0,0 +1,250 @@
+package com.sajilokaam.bid;
+
+import com.sajilokaam.bid.dto.BidComparisonResponse;
+import com.sajilokaam.bid.dto.BidLeaderboardResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * In-memory bid aggregates for the jobs being looked at, so bid counts and comparisons are
+ * not recomputed from the database on every poll.
+ *
+ * A job is loaded with one query on first access and kept up to date from committed bid
+ * changes ({@link BidLeaderboardListener}) and awards; every change is pushed to
+ * /topic/jobs/{jobId}/bids. Reads through JDBC, since it is used from a JPA entity listener.
+ * At most {@code max-jobs} jobs are kept, least recently read evicted first.
+ *
+ * Only changes committed on this instance reach the aggregates, so this assumes a single
+ * instance. Aggregates are reloaded once they are older than {@code ttl-seconds}, which bounds
+ * how long counts and comparisons can lag behind bids placed through another instance.
+ */
+@Component
+public class BidLeaderboard {
+
+    private static final int STRIPES = 64;
+
+    private static final String LOAD_BIDS =
+            "SELECT b.id, b.amount, b.message, b.status, b.created_at, u.id AS freelancer_id, u.full_name, "
+                    + "u.email, fp.experience_level "
+                    + "FROM bids b JOIN users u ON u.id = b.freelancer_id "
+                    + "LEFT JOIN freelancer_profiles fp ON fp.user_id = u.id ";
+
+    private static final RowMapper<JobBidAggregate.RankedBid> RANKED_BID = (rs, rowNum) -> {
+        Timestamp createdAt = rs.getTimestamp("created_at");
+        return new JobBidAggregate.RankedBid(rs.getLong("id"), rs.getLong("freelancer_id"),
+                rs.getString("full_name"), rs.getString("email"), rs.getString("experience_level"),
+                rs.getBigDecimal("amount"), rs.getString("message"), rs.getString("status"),
+                createdAt != null ? createdAt.toInstant() : null);
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final int topN;
+    private final int maxJobs;
+    private final long ttlNanos;
+
+    private final Map<Long, JobBidAggregate> jobs = new ConcurrentHashMap<>();
+    // Bumped on every change, so a load that raced with a change is not cached
+    private final AtomicLongArray generations = new AtomicLongArray(STRIPES);
+    private final Counter loads;
+
+    public BidLeaderboard(JdbcTemplate jdbcTemplate,
+                          SimpMessagingTemplate messagingTemplate,
+                          MeterRegistry meterRegistry,
+                          @Value("${bids.leaderboard.top-n:10}") int topN,
+                          @Value("${bids.leaderboard.max-jobs:2000}") int maxJobs,
+                          @Value("${bids.leaderboard.ttl-seconds:60}") long ttlSeconds) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.messagingTemplate = messagingTemplate;
+        this.topN = Math.max(1, topN);
+        this.maxJobs = Math.max(1, maxJobs);
+        this.ttlNanos = Duration.ofSeconds(Math.max(0, ttlSeconds)).toNanos();
+        this.loads = Counter.builder("bids.leaderboard.loads")
+                .description("Jobs whose bids were loaded from the database")
+                .register(meterRegistry);
+        Gauge.builder("bids.leaderboard.jobs", jobs, Map::size)
+                .description("Jobs with bid aggregates held in memory")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Summary and leading bids for a job, or null if the job does not exist
+     */
+    public BidLeaderboardResponse summary(Long jobId) {
+        JobBidAggregate aggregate = aggregate(jobId);
+        return aggregate != null ? aggregate.summary(topN) : null;
+    }
+
+    /**
+     * Number of bids on a job, or null if the job does not exist
+     */
+    public Long count(Long jobId) {
+        JobBidAggregate aggregate = aggregate(jobId);
+        return aggregate != null ? aggregate.count() : null;
+    }
+
+    /**
+     * Client who owns the job, or null if the job does not exist
+     */
+    public Long clientId(Long jobId) {
+        JobBidAggregate aggregate = aggregate(jobId);
+        return aggregate != null ? aggregate.getClientId() : null;
+    }
+
+    /**
+     * Every bid on a job, lowest amount first, or null if the job does not exist
+     */
+    public List<BidComparisonResponse> ranked(Long jobId) {
+        JobBidAggregate aggregate = aggregate(jobId);
+        return aggregate != null ? aggregate.ranked() : null;
+    }
+
+    /**
+     * A bid was created or edited and the change committed
+     */
+    public void bidSaved(Long jobId, Long bidId, BigDecimal amount, String message, String status) {
+        JobBidAggregate aggregate = changed(jobId);
+        if (aggregate != null && !aggregate.update(bidId, amount, message, status)) {
+            // New bid: fetch it with its freelancer summary
+            List<JobBidAggregate.RankedBid> rows = jdbcTemplate.query(LOAD_BIDS + "WHERE b.id = ?", RANKED_BID, bidId);
+            if (!rows.isEmpty()) {
+                aggregate.put(rows.get(0));
+            }
+        }
+        publish(jobId, aggregate);
+    }
+
+    /**
+     * A bid was withdrawn and the delete committed
+     */
+    public void bidRemoved(Long jobId, Long bidId) {
+        JobBidAggregate aggregate = changed(jobId);
+        if (aggregate != null) {
+            aggregate.remove(bidId);
+        }
+        publish(jobId, aggregate);
+    }
+
+    /**
+     * Awards change statuses with bulk updates, which entity listeners do not see
+     */
+    @TransactionalEventListener
+    public void onBidAwarded(BidAwardedEvent event) {
+        try {
+            JobBidAggregate aggregate = changed(event.getJobId());
+            if (aggregate != null) {
+                aggregate.setStatus(event.getAcceptedBidId(), "ACCEPTED");
+                event.getRejectedBidIds().forEach(bidId -> aggregate.setStatus(bidId, "REJECTED"));
+            }
+            publish(event.getJobId(), aggregate);
+        } catch (RuntimeException e) {
+            System.err.println("Failed to update bid leaderboard for job " + event.getJobId() + ": " + e.getMessage());
+            invalidate(event.getJobId());
+        }
+    }
+
+    /**
+     * Drop a job's aggregate so the next read reloads it
+     */
+    public void invalidate(Long jobId) {
+        changed(jobId);
+        jobs.remove(jobId);
+    }
+
+    int cachedJobs() {
+        return jobs.size();
+    }
+
+    private JobBidAggregate aggregate(Long jobId) {
+        JobBidAggregate cached = jobs.get(jobId);
+        if (cached != null && !cached.loadedBefore(ttlNanos)) {
+            cached.touch();
+            return cached;
+        }
+        if (cached != null) {
+            // Expired: may be missing changes made on another instance
+            jobs.remove(jobId, cached);
+        }
+
+        int stripe = stripe(jobId);
+        long generation = generations.get(stripe);
+        JobBidAggregate loaded = load(jobId);
+        if (loaded == null) {
+            return null;
+        }
+        JobBidAggregate existing = jobs.putIfAbsent(jobId, loaded);
+        if (existing != null) {
+            existing.touch();
+            return existing;
+        }
+        if (generations.get(stripe) != generation) {
+            // A change committed while loading may be missing; serve this once, reload next time
+            jobs.remove(jobId, loaded);
+        } else if (jobs.size() > maxJobs) {
+            evictLeastRecentlyUsed();
+        }
+        return loaded;
+    }
+
+    /**
+     * Mark a job as changed and return its cached aggregate, if any
+     */
+    private JobBidAggregate changed(Long jobId) {
+        generations.incrementAndGet(stripe(jobId));
+        return jobs.get(jobId);
+    }
+
+    private JobBidAggregate load(Long jobId) {
+        List<Long> clientIds = jdbcTemplate.queryForList("SELECT client_id FROM jobs WHERE id = ?", Long.class, jobId);
+        if (clientIds.isEmpty()) {
+            return null;
+        }
+        List<JobBidAggregate.RankedBid> bids = jdbcTemplate.query(LOAD_BIDS + "WHERE b.job_id = ?", RANKED_BID, jobId);
+        loads.increment();
+        return new JobBidAggregate(jobId, clientIds.get(0), bids);
+    }
+
+    private void publish(Long jobId, JobBidAggregate aggregate) {
+        try {
+            // Not cached: load it, which already includes the committed change
+            BidLeaderboardResponse summary = aggregate != null ? aggregate.summary(topN) : summary(jobId);
+            if (summary != null) {
+                messagingTemplate.convertAndSend("/topic/jobs/" + jobId + "/bids", summary);
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Failed to publish bid leaderboard for job " + jobId + ": " + e.getMessage());
+        }
+    }
+
+    private void evictLeastRecentlyUsed() {
+        while (jobs.size() > maxJobs) {
+            JobBidAggregate oldest = jobs.values().stream()
+                    .min(Comparator.comparingLong(JobBidAggregate::getLastAccess))
+                    .orElse(null);
+            if (oldest == null) {
+                return;
+            }
+            jobs.remove(oldest.getJobId(), oldest);
+        }
+    }
+
+    private int stripe(Long jobId) {
+        return Math.floorMod(jobId.hashCode(), STRIPES);
+    }
+}
@@ -0,0 +1,70 @@
+package com.sajilokaam.bid;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+
+/**
+ * JPA entity listener that feeds bid inserts, edits and deletes into {@link BidLeaderboard}.
+ * Values are captured at flush and applied after commit, so rolled-back changes never show.
+ */
+@Component
+public class BidLeaderboardListener {
+
+    private final BidLeaderboard leaderboard;
+
+    public BidLeaderboardListener(BidLeaderboard leaderboard) {
+        this.leaderboard = leaderboard;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(Bid bid) {
+        if (bid.getJob() == null) {
+            return;
+        }
+        Long jobId = bid.getJob().getId();
+        Long bidId = bid.getId();
+        BigDecimal amount = bid.getAmount();
+        String message = bid.getMessage();
+        String status = bid.getStatus();
+        afterCommit(jobId, () -> leaderboard.bidSaved(jobId, bidId, amount, message, status));
+    }
+
+    @PostRemove
+    public void onRemove(Bid bid) {
+        if (bid.getJob() == null) {
+            return;
+        }
+        Long jobId = bid.getJob().getId();
+        Long bidId = bid.getId();
+        afterCommit(jobId, () -> leaderboard.bidRemoved(jobId, bidId));
+    }
+
+    private void afterCommit(Long jobId, Runnable action) {
+        Runnable guarded = () -> {
+            try {
+                action.run();
+            } catch (RuntimeException e) {
+                // The bid change itself is committed; rebuild the job on its next read
+                System.err.println("Failed to update bid leaderboard for job " + jobId + ": " + e.getMessage());
+                leaderboard.invalidate(jobId);
+            }
+        };
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            guarded.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                guarded.run();
+            }
+        });
+    }
+}
@@ -2,6 +2,9 @@ package com.sajilokaam.bid;
 
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 
@@ -13,5 +16,25 @@ public interface BidRepository extends JpaRepository<Bid, Long> {
     List<Bid> findByFreelancerId(Long freelancerId);
     
     long countByJobId(Long jobId);
-}
 
+    // Locking reads see the latest committed rows, not the transaction's snapshot, and keep
+    // new bids for the job out until the award commits
+
+    @Query(value = "SELECT COUNT(*) FROM bids WHERE job_id = :jobId AND status = 'ACCEPTED' FOR UPDATE", nativeQuery = true)
+    long countAcceptedForUpdate(@Param("jobId") Long jobId);
+
+    /**
+     * Pending bids of the job other than the given one, as [bid id, freelancer id]
+     */
+    @Query(value = "SELECT id, freelancer_id FROM bids WHERE job_id = :jobId AND status = 'PENDING' AND id <> :bidId FOR UPDATE",
+           nativeQuery = true)
+    List<Object[]> findCompetingPendingForUpdate(@Param("jobId") Long jobId, @Param("bidId") Long bidId);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Bid b SET b.status = 'ACCEPTED' WHERE b.id = :bidId AND b.status = 'PENDING'")
+    int acceptIfPending(@Param("bidId") Long bidId);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Bid b SET b.status = 'REJECTED' WHERE b.job.id = :jobId AND b.status = 'PENDING' AND b.id <> :bidId")
+    int rejectCompetingPending(@Param("jobId") Long jobId, @Param("bidId") Long bidId);
+}
@@ -0,0 +1,200 @@
+package com.sajilokaam.bid;
+
+import com.sajilokaam.bid.dto.BidComparisonResponse;
+import com.sajilokaam.bid.dto.BidLeaderboardResponse;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * All bids of one job kept sorted by amount (then id), so count, min, max, median and the
+ * leading bids are read without sorting. Thread-safe; changes are a binary search plus an
+ * array shift, which is cheap at the bid counts a single job sees.
+ */
+final class JobBidAggregate {
+
+    private static final Comparator<RankedBid> ORDER = Comparator
+            .comparing((RankedBid bid) -> bid.amount)
+            .thenComparing(bid -> bid.bidId);
+
+    private final Long jobId;
+    private final Long clientId;
+    private final List<RankedBid> bids = new ArrayList<>();
+    private Instant updatedAt = Instant.now();
+    private final long loadedAt = System.nanoTime();
+    private volatile long lastAccess = loadedAt;
+
+    JobBidAggregate(Long jobId, Long clientId, List<RankedBid> initial) {
+        this.jobId = jobId;
+        this.clientId = clientId;
+        this.bids.addAll(initial);
+        this.bids.sort(ORDER);
+    }
+
+    Long getJobId() {
+        return jobId;
+    }
+
+    Long getClientId() {
+        return clientId;
+    }
+
+    long getLastAccess() {
+        return lastAccess;
+    }
+
+    /**
+     * Whether this aggregate was loaded at least {@code ttlNanos} ago
+     */
+    boolean loadedBefore(long ttlNanos) {
+        return System.nanoTime() - loadedAt >= ttlNanos;
+    }
+
+    void touch() {
+        lastAccess = System.nanoTime();
+    }
+
+    synchronized long count() {
+        return bids.size();
+    }
+
+    synchronized boolean contains(Long bidId) {
+        return indexOf(bidId) >= 0;
+    }
+
+    /**
+     * Add a bid, replacing any entry with the same id
+     */
+    synchronized void put(RankedBid bid) {
+        int existing = indexOf(bid.bidId);
+        if (existing >= 0) {
+            bids.remove(existing);
+        }
+        insert(bid);
+    }
+
+    /**
+     * Apply an edit to a known bid, keeping its freelancer summary. Returns false if the bid
+     * is not part of this aggregate.
+     */
+    synchronized boolean update(Long bidId, BigDecimal amount, String message, String status) {
+        int index = indexOf(bidId);
+        if (index < 0) {
+            return false;
+        }
+        RankedBid current = bids.remove(index);
+        insert(current.with(amount != null ? amount : current.amount, message, status != null ? status : current.status));
+        return true;
+    }
+
+    synchronized boolean setStatus(Long bidId, String status) {
+        int index = indexOf(bidId);
+        if (index < 0) {
+            return false;
+        }
+        RankedBid current = bids.get(index);
+        bids.set(index, current.with(current.amount, current.message, status));
+        updatedAt = Instant.now();
+        return true;
+    }
+
+    synchronized boolean remove(Long bidId) {
+        int index = indexOf(bidId);
+        if (index < 0) {
+            return false;
+        }
+        bids.remove(index);
+        updatedAt = Instant.now();
+        return true;
+    }
+
+    synchronized BidLeaderboardResponse summary(int topN) {
+        int size = bids.size();
+        List<BidLeaderboardResponse.Entry> top = new ArrayList<>(Math.min(size, topN));
+        for (int i = 0; i < size && i < topN; i++) {
+            RankedBid bid = bids.get(i);
+            top.add(new BidLeaderboardResponse.Entry(i + 1, bid.bidId, bid.freelancerId, bid.freelancerName,
+                    bid.experienceLevel, bid.amount, bid.status, bid.createdAt));
+        }
+        if (size == 0) {
+            return new BidLeaderboardResponse(jobId, 0, null, null, null, top, updatedAt);
+        }
+        return new BidLeaderboardResponse(jobId, size, bids.get(0).amount, bids.get(size - 1).amount,
+                median(), top, updatedAt);
+    }
+
+    /**
+     * Every bid, lowest amount first
+     */
+    synchronized List<BidComparisonResponse> ranked() {
+        List<BidComparisonResponse> ranked = new ArrayList<>(bids.size());
+        for (RankedBid bid : bids) {
+            ranked.add(new BidComparisonResponse(bid.bidId, bid.freelancerId, bid.freelancerName,
+                    bid.freelancerEmail, bid.amount, bid.message, bid.status, bid.createdAt,
+                    bid.experienceLevel, null));
+        }
+        return ranked;
+    }
+
+    private BigDecimal median() {
+        int size = bids.size();
+        if (size % 2 == 1) {
+            return bids.get(size / 2).amount;
+        }
+        return bids.get(size / 2 - 1).amount.add(bids.get(size / 2).amount)
+                .divide(BigDecimal.valueOf(2), 2, RoundingMode.HALF_UP);
+    }
+
+    private void insert(RankedBid bid) {
+        int index = Collections.binarySearch(bids, bid, ORDER);
+        bids.add(index >= 0 ? index : -index - 1, bid);
+        updatedAt = Instant.now();
+    }
+
+    private int indexOf(Long bidId) {
+        for (int i = 0; i < bids.size(); i++) {
+            if (bids.get(i).bidId.equals(bidId)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * One bid with the freelancer details the leaderboard and comparison need
+     */
+    static final class RankedBid {
+        private final Long bidId;
+        private final Long freelancerId;
+        private final String freelancerName;
+        private final String freelancerEmail;
+        private final String experienceLevel;
+        private final BigDecimal amount;
+        private final String message;
+        private final String status;
+        private final Instant createdAt;
+
+        RankedBid(Long bidId, Long freelancerId, String freelancerName, String freelancerEmail,
+                  String experienceLevel, BigDecimal amount, String message, String status, Instant createdAt) {
+            this.bidId = bidId;
+            this.freelancerId = freelancerId;
+            this.freelancerName = freelancerName;
+            this.freelancerEmail = freelancerEmail;
+            this.experienceLevel = experienceLevel;
+            this.amount = amount;
+            this.message = message;
+            this.status = status;
+            this.createdAt = createdAt;
+        }
+
+        RankedBid with(BigDecimal amount, String message, String status) {
+            return new RankedBid(bidId, freelancerId, freelancerName, freelancerEmail, experienceLevel,
+                    amount, message, status, createdAt);
+        }
+    }
+}
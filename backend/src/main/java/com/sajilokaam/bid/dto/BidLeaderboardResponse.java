@@ -0,0 +1,70 @@
+package com.sajilokaam.bid.dto;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Bid aggregate for one job: amount statistics over all its bids and the lowest bids first.
+ * Also pushed to /topic/jobs/{jobId}/bids whenever a bid changes.
+ */
+public class BidLeaderboardResponse {
+    private final Long jobId;
+    private final long count;
+    private final BigDecimal minAmount;
+    private final BigDecimal maxAmount;
+    private final BigDecimal medianAmount;
+    private final List<Entry> top;
+    private final Instant updatedAt;
+
+    public BidLeaderboardResponse(Long jobId, long count, BigDecimal minAmount, BigDecimal maxAmount,
+                                  BigDecimal medianAmount, List<Entry> top, Instant updatedAt) {
+        this.jobId = jobId;
+        this.count = count;
+        this.minAmount = minAmount;
+        this.maxAmount = maxAmount;
+        this.medianAmount = medianAmount;
+        this.top = top;
+        this.updatedAt = updatedAt;
+    }
+
+    public Long getJobId() { return jobId; }
+    public long getCount() { return count; }
+    public BigDecimal getMinAmount() { return minAmount; }
+    public BigDecimal getMaxAmount() { return maxAmount; }
+    public BigDecimal getMedianAmount() { return medianAmount; }
+    public List<Entry> getTop() { return top; }
+    public Instant getUpdatedAt() { return updatedAt; }
+
+    public static class Entry {
+        private final int rank;
+        private final Long bidId;
+        private final Long freelancerId;
+        private final String freelancerName;
+        private final String experienceLevel;
+        private final BigDecimal amount;
+        private final String status;
+        private final Instant createdAt;
+
+        public Entry(int rank, Long bidId, Long freelancerId, String freelancerName, String experienceLevel,
+                     BigDecimal amount, String status, Instant createdAt) {
+            this.rank = rank;
+            this.bidId = bidId;
+            this.freelancerId = freelancerId;
+            this.freelancerName = freelancerName;
+            this.experienceLevel = experienceLevel;
+            this.amount = amount;
+            this.status = status;
+            this.createdAt = createdAt;
+        }
+
+        public int getRank() { return rank; }
+        public Long getBidId() { return bidId; }
+        public Long getFreelancerId() { return freelancerId; }
+        public String getFreelancerName() { return freelancerName; }
+        public String getExperienceLevel() { return experienceLevel; }
+        public BigDecimal getAmount() { return amount; }
+        public String getStatus() { return status; }
+        public Instant getCreatedAt() { return createdAt; }
+    }
+}
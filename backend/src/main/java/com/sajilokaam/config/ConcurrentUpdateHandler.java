@@ -0,0 +1,25 @@
+package com.sajilokaam.config;
+
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.util.Map;
+
+/**
+ * Answers a failed {@code @Version} check (e.g. two concurrent saves of the same invoice) with
+ * 409 Conflict instead of a 500, so the client can reload and retry. The check usually fails
+ * at commit, after the controller method has returned, so it cannot be caught at the call site.
+ */
+@RestControllerAdvice
+public class ConcurrentUpdateHandler {
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<Map<String, String>> handleConcurrentUpdate(OptimisticLockingFailureException e) {
+        System.err.println("Concurrent update rejected: " + e.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(Map.of("error", "This record was changed by someone else. Please reload and try again."));
+    }
+}
@@ -0,0 +1,18 @@
+package com.sajilokaam.config;
+
+/**
+ * Settings shared by the pooled table id generators of high-volume entities. Unlike IDENTITY,
+ * ids are reserved {@link #ALLOCATION_SIZE} at a time from the id_generators table, so Hibernate
+ * can batch the inserts of these entities.
+ */
+public final class IdGenerators {
+
+    public static final String TABLE = "id_generators";
+    public static final String NAME_COLUMN = "name";
+    public static final String VALUE_COLUMN = "next_val";
+    // Must match the seed step in V62__create_id_generators.sql
+    public static final int ALLOCATION_SIZE = 50;
+
+    private IdGenerators() {
+    }
+}
@@ -0,0 +1,32 @@
+package com.sajilokaam.config;
+
+import com.sajilokaam.invoicepdf.InvoicePdfService;
+import com.sajilokaam.mldocument.OcrService;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.mail.javamail.JavaMailSender;
+
+import java.util.List;
+
+/**
+ * With {@code spring.main.lazy-initialization=true} (the "lazy" profile) only the heavy beans
+ * listed here are created on first use; every other bean is excluded from lazy initialization,
+ * so scheduled jobs, entity listeners and caches start as usual. Their consumers inject them
+ * through {@code @Lazy} or {@code ObjectProvider} so nothing resolves them during startup.
+ * Without that property this filter is not consulted and all beans are eager.
+ */
+@Configuration
+public class LazyBeansConfig {
+
+    private static final List<Class<?>> LAZY_TYPES = List.of(
+            OcrService.class,
+            InvoicePdfService.class,
+            JavaMailSender.class);
+
+    @Bean
+    static LazyInitializationExcludeFilter onlyHeavyBeansLazy() {
+        return (beanName, beanDefinition, beanType) ->
+                beanType == null || LAZY_TYPES.stream().noneMatch(type -> type.isAssignableFrom(beanType));
+    }
+}
@@ -27,8 +27,15 @@ public class MailConfig {
     public JavaMailSender javaMailSender() {
         // Only create JavaMailSender if credentials are provided
         if (username == null || username.isBlank() || password == null || password.isBlank()) {
-            System.out.println("MailConfig: SMTP credentials not provided. Email sending will be disabled.");
-            System.out.println("To enable email sending, set SMTP_USERNAME and SMTP_PASSWORD environment variables.");
+            System.out.println("================================================");
+            System.out.println("WARNING: Email sending is DISABLED!");
+            System.out.println("Password reset tokens will be logged to console.");
+            System.out.println("To enable email sending, set these environment variables:");
+            System.out.println("  - SMTP_USERNAME=your-email@gmail.com");
+            System.out.println("  - SMTP_PASSWORD=your-app-password");
+            System.out.println("  - SMTP_HOST=smtp.gmail.com (optional, defaults to Gmail)");
+            System.out.println("  - SMTP_PORT=587 (optional, defaults to 587)");
+            System.out.println("================================================");
             return null;
         }
 
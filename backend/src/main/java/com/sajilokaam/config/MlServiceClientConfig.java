@@ -0,0 +1,24 @@
+package com.sajilokaam.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.client.RestTemplate;
+
+@Configuration
+public class MlServiceClientConfig {
+
+    @Value("${ml.service.http.max-connections:20}")
+    private int maxConnections;
+
+    @Value("${ml.service.http.connect-timeout-ms:2000}")
+    private long connectTimeoutMs;
+
+    @Value("${ml.service.http.read-timeout-ms:30000}")
+    private long readTimeoutMs;
+
+    @Bean
+    public RestTemplate mlServiceRestTemplate() {
+        return PooledRestTemplates.create(maxConnections, connectTimeoutMs, readTimeoutMs);
+    }
+}
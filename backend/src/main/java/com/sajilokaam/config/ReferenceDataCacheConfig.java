@@ -0,0 +1,87 @@
+package com.sajilokaam.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hibernate second-level and query cache for reference data (categories, skills, roles, plans,
+ * settings, templates, labels), held in process by Caffeine through JCache.
+ *
+ * Cached entities use READ_WRITE, so writes through JPA update or invalidate their entries and
+ * the cached query results over their tables in the same transaction. Every region is bounded
+ * by size and TTL; the TTL also bounds how long another instance can serve a stale value after
+ * a write elsewhere. Regions must be declared here: an unknown region fails startup rather than
+ * getting an unbounded cache.
+ */
+@Configuration
+public class ReferenceDataCacheConfig {
+
+    /** Region of all cached reference entities */
+    public static final String ENTITY_REGION = "reference";
+    /** Region of cached collections of reference entities (such as a user's roles) */
+    public static final String COLLECTION_REGION = "reference-collections";
+
+    private final long maxEntries;
+    private final long ttlSeconds;
+    private final long queryMaxEntries;
+
+    public ReferenceDataCacheConfig(@Value("${reference-cache.max-entries:5000}") long maxEntries,
+                                    @Value("${reference-cache.ttl-seconds:300}") long ttlSeconds,
+                                    @Value("${reference-cache.query-max-entries:1000}") long queryMaxEntries) {
+        this.maxEntries = maxEntries;
+        this.ttlSeconds = ttlSeconds;
+        this.queryMaxEntries = queryMaxEntries;
+    }
+
+    @Bean
+    HibernatePropertiesCustomizer referenceDataCacheCustomizer() {
+        CacheManager cacheManager = createCacheManager();
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(AvailableSettings.USE_QUERY_CACHE, true);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            properties.put("hibernate.javax.cache.cache_manager", cacheManager);
+            properties.put("hibernate.javax.cache.missing_cache_strategy", "fail");
+            // Cache hit and miss counts for ReferenceDataCacheMetrics
+            properties.put(AvailableSettings.GENERATE_STATISTICS, true);
+        };
+    }
+
+    private CacheManager createCacheManager() {
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        // Managers are shared per (URI, class loader); a private loader gives each application
+        // context its own, since Hibernate closes the manager when the context shuts down
+        ClassLoader classLoader = new ClassLoader(getClass().getClassLoader()) { };
+        CacheManager cacheManager = provider.getCacheManager(provider.getDefaultURI(), classLoader);
+
+        cacheManager.createCache(ENTITY_REGION, bounded(maxEntries, ttlSeconds));
+        cacheManager.createCache(COLLECTION_REGION, bounded(maxEntries, ttlSeconds));
+        cacheManager.createCache(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME,
+                bounded(queryMaxEntries, ttlSeconds));
+        // One entry per table; must not be evicted, or cached query results could outlive a write
+        CaffeineConfiguration<Object, Object> timestamps = new CaffeineConfiguration<>();
+        timestamps.setStoreByValue(false);
+        cacheManager.createCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, timestamps);
+        return cacheManager;
+    }
+
+    private static CaffeineConfiguration<Object, Object> bounded(long maximumSize, long ttlSeconds) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setStoreByValue(false);
+        configuration.setMaximumSize(OptionalLong.of(maximumSize));
+        configuration.setExpireAfterWrite(OptionalLong.of(TimeUnit.SECONDS.toNanos(ttlSeconds)));
+        return configuration;
+    }
+}
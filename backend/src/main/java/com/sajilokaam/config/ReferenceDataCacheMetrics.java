@@ -0,0 +1,103 @@
+package com.sajilokaam.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheableDataStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Second-level cache metrics from Hibernate statistics: {@code hibernate.cache.gets} with
+ * result hit/miss and {@code hibernate.cache.hit.ratio}, per cached entity (tag {@code name}),
+ * for the cached collections and for the query cache ({@code name=query}).
+ */
+@Component
+public class ReferenceDataCacheMetrics {
+
+    private final SessionFactory sessionFactory;
+    private final Statistics statistics;
+    private final Map<String, Supplier<CacheableDataStatistics>> cached = new LinkedHashMap<>();
+
+    public ReferenceDataCacheMetrics(EntityManagerFactory entityManagerFactory, MeterRegistry meterRegistry) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        this.statistics = sessionFactory.getStatistics();
+
+        for (String entity : statistics.getEntityNames()) {
+            if (statistics.getEntityStatistics(entity).getCacheRegionName() != null) {
+                cached.put(shortName(entity), () -> statistics.getEntityStatistics(entity));
+            }
+        }
+        for (String role : statistics.getCollectionRoleNames()) {
+            if (statistics.getCollectionStatistics(role).getCacheRegionName() != null) {
+                cached.put(shortName(role), () -> statistics.getCollectionStatistics(role));
+            }
+        }
+
+        cached.forEach((name, stats) -> register(meterRegistry, name,
+                () -> stats.get().getCacheHitCount(), () -> stats.get().getCacheMissCount()));
+        register(meterRegistry, "query", statistics::getQueryCacheHitCount, statistics::getQueryCacheMissCount);
+    }
+
+    /**
+     * Hits, misses and hit ratio per cached entity, collection and the query cache
+     */
+    public Map<String, Map<String, Object>> snapshot() {
+        Map<String, Map<String, Object>> result = new LinkedHashMap<>();
+        cached.forEach((name, stats) -> result.put(name,
+                entry(stats.get().getCacheHitCount(), stats.get().getCacheMissCount())));
+        result.put("query", entry(statistics.getQueryCacheHitCount(), statistics.getQueryCacheMissCount()));
+        return result;
+    }
+
+    /**
+     * Drop all cached reference entities, collections and query results, for changes made
+     * outside JPA (SQL console, another instance)
+     */
+    public void evictAll() {
+        sessionFactory.getCache().evictAllRegions();
+    }
+
+    // From the class name on: com.sajilokaam.role.Role -> Role, com.sajilokaam.user.User.roles -> User.roles
+    private static String shortName(String name) {
+        String[] parts = name.split("\\.");
+        for (int i = 0; i < parts.length; i++) {
+            if (!parts[i].isEmpty() && Character.isUpperCase(parts[i].charAt(0))) {
+                return String.join(".", Arrays.copyOfRange(parts, i, parts.length));
+            }
+        }
+        return name;
+    }
+
+    private static void register(MeterRegistry registry, String name, Supplier<Long> hits, Supplier<Long> misses) {
+        FunctionCounter.builder("hibernate.cache.gets", hits, Supplier::get)
+                .tag("name", name).tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("hibernate.cache.gets", misses, Supplier::get)
+                .tag("name", name).tag("result", "miss")
+                .register(registry);
+        Gauge.builder("hibernate.cache.hit.ratio", () -> ratio(hits.get(), misses.get()))
+                .tag("name", name)
+                .register(registry);
+    }
+
+    private static Map<String, Object> entry(long hits, long misses) {
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("hits", hits);
+        entry.put("misses", misses);
+        entry.put("hitRatio", hits + misses == 0 ? null : ratio(hits, misses));
+        return entry;
+    }
+
+    private static double ratio(long hits, long misses) {
+        long total = hits + misses;
+        return total == 0 ? Double.NaN : (double) hits / total;
+    }
+}
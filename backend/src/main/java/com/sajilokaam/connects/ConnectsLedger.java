@@ -0,0 +1,269 @@
+package com.sajilokaam.connects;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Connects balances and their append-only transaction log.
+ *
+ * A balance lives in the narrow connects_balances row and only changes through single
+ * statements: a debit is {@code balance = balance - n WHERE balance >= n}, so concurrent
+ * spends can never overdraw, and credits are upserts. Each change writes its
+ * connects_transactions rows in one JDBC batch in the same transaction. Every row carries a
+ * version, which lets the read cache for balance checks accept only newer values.
+ */
+@Component
+public class ConnectsLedger {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final long cacheTtlMillis;
+    private final int cacheMaxEntries;
+
+    private final Map<Long, CachedBalance> cache = new ConcurrentHashMap<>();
+
+    private final Counter debited;
+    private final Counter insufficient;
+    private final Counter cacheHits;
+    private final Counter cacheMisses;
+
+    public ConnectsLedger(JdbcTemplate jdbcTemplate,
+                          MeterRegistry meterRegistry,
+                          @Value("${connects.balance-cache.ttl-ms:30000}") long cacheTtlMillis,
+                          @Value("${connects.balance-cache.max-entries:10000}") int cacheMaxEntries) {
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.cacheTtlMillis = cacheTtlMillis;
+        this.cacheMaxEntries = Math.max(1, cacheMaxEntries);
+        this.debited = Counter.builder("connects.debits").tag("result", "debited").register(meterRegistry);
+        this.insufficient = Counter.builder("connects.debits").tag("result", "insufficient").register(meterRegistry);
+        this.cacheHits = Counter.builder("connects.balance.cache").tag("result", "hit").register(meterRegistry);
+        this.cacheMisses = Counter.builder("connects.balance.cache").tag("result", "miss").register(meterRegistry);
+    }
+
+    /**
+     * Take {@code amount} connects from the user if the balance covers it. Returns the balance
+     * after the debit, or null (and changes nothing) if it does not.
+     */
+    @Transactional
+    public Integer debit(Long userId, int amount, ConnectTransactionType type,
+                         String referenceType, Long referenceId, String description) {
+        int updated = jdbcTemplate.update(
+                "UPDATE connects_balances SET balance = balance - :amount, version = version + 1, updated_at = :now " +
+                "WHERE user_id = :userId AND balance >= :amount",
+                new MapSqlParameterSource()
+                        .addValue("userId", userId)
+                        .addValue("amount", amount)
+                        .addValue("now", Timestamp.from(Instant.now())));
+        if (updated == 0) {
+            insufficient.increment();
+            return null;
+        }
+        debited.increment();
+        Entry entry = new Entry(userId, -amount, type, referenceType, referenceId, description);
+        return record(List.of(entry)).get(userId);
+    }
+
+    /**
+     * Add connects to one user. Returns the balance after the credit.
+     */
+    @Transactional
+    public int credit(Long userId, int amount, ConnectTransactionType type,
+                      String referenceType, Long referenceId, String description) {
+        return creditAll(List.of(new Entry(userId, amount, type, referenceType, referenceId, description))).get(userId);
+    }
+
+    /**
+     * Apply many credits at once: one upsert per user and one batched insert of transaction
+     * rows, whatever the number of entries. Returns the final balance per user.
+     */
+    @Transactional
+    public Map<Long, Integer> creditAll(List<Entry> entries) {
+        if (entries.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, long[]> byUser = new LinkedHashMap<>();
+        for (Entry entry : entries) {
+            long[] totals = byUser.computeIfAbsent(entry.userId, id -> new long[2]);
+            totals[0] += entry.amount;
+            if (entry.type == ConnectTransactionType.PURCHASE) {
+                totals[1] += entry.amount;
+            }
+        }
+
+        Timestamp now = Timestamp.from(Instant.now());
+        List<MapSqlParameterSource> credits = new ArrayList<>();
+        byUser.forEach((userId, totals) -> credits.add(new MapSqlParameterSource()
+                .addValue("userId", userId)
+                .addValue("amount", totals[0])
+                .addValue("purchased", totals[1])
+                .addValue("now", now)));
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO connects_balances (user_id, balance, total_purchased, version, updated_at) " +
+                "VALUES (:userId, :amount, :purchased, 1, :now) ON DUPLICATE KEY UPDATE " +
+                "balance = balance + :amount, total_purchased = total_purchased + :purchased, " +
+                "version = version + 1, updated_at = :now",
+                credits.toArray(new MapSqlParameterSource[0]));
+        return record(entries);
+    }
+
+    /**
+     * Current balance, from the cache when it is fresh. Good for pre-checks; debits are
+     * checked against the database regardless.
+     */
+    public int balance(Long userId) {
+        CachedBalance cached = cache.get(userId);
+        if (cached != null && cached.loadedAt + cacheTtlMillis > System.currentTimeMillis()) {
+            cacheHits.increment();
+            return cached.balance;
+        }
+        cacheMisses.increment();
+        List<CachedBalance> rows = jdbcTemplate.query(
+                "SELECT balance, version FROM connects_balances WHERE user_id = :userId",
+                new MapSqlParameterSource("userId", userId),
+                (rs, rowNum) -> new CachedBalance(rs.getInt("balance"), rs.getLong("version"), System.currentTimeMillis()));
+        CachedBalance loaded = rows.isEmpty() ? new CachedBalance(0, 0, System.currentTimeMillis()) : rows.get(0);
+        cache(userId, loaded);
+        return loaded.balance;
+    }
+
+    int cachedBalances() {
+        return cache.size();
+    }
+
+    /**
+     * Write the transaction rows for balance changes already applied in this transaction, and
+     * refresh the cache once it commits. Returns the final balance per user.
+     */
+    private Map<Long, Integer> record(List<Entry> entries) {
+        Map<Long, Long> totals = new LinkedHashMap<>();
+        for (Entry entry : entries) {
+            totals.merge(entry.userId, (long) entry.amount, Long::sum);
+        }
+
+        // The rows are locked by the update above, so this reads the values it produced
+        Map<Long, CachedBalance> after = new HashMap<>();
+        jdbcTemplate.query("SELECT user_id, balance, version FROM connects_balances WHERE user_id IN (:userIds)",
+                new MapSqlParameterSource("userIds", totals.keySet()),
+                rs -> {
+                    after.put(rs.getLong("user_id"), new CachedBalance(rs.getInt("balance"), rs.getLong("version"), 0));
+                });
+
+        // Balance after each entry, counting up from the balance before this change
+        Map<Long, Long> running = new HashMap<>();
+        totals.forEach((userId, total) -> running.put(userId, after.get(userId).balance - total));
+
+        Timestamp now = Timestamp.from(Instant.now());
+        List<MapSqlParameterSource> rows = new ArrayList<>(entries.size());
+        for (Entry entry : entries) {
+            long balanceAfter = running.merge(entry.userId, (long) entry.amount, Long::sum);
+            rows.add(new MapSqlParameterSource()
+                    .addValue("userId", entry.userId)
+                    .addValue("amount", entry.amount)
+                    .addValue("type", entry.type.name())
+                    .addValue("referenceId", entry.referenceId)
+                    .addValue("referenceType", entry.referenceType)
+                    .addValue("description", entry.description)
+                    .addValue("balanceAfter", balanceAfter)
+                    .addValue("createdAt", now));
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO connects_transactions (user_id, amount, type, reference_id, reference_type, description, " +
+                "balance_after, created_at) VALUES (:userId, :amount, :type, :referenceId, :referenceType, " +
+                ":description, :balanceAfter, :createdAt)",
+                rows.toArray(new MapSqlParameterSource[0]));
+
+        afterCommit(() -> {
+            long loadedAt = System.currentTimeMillis();
+            after.forEach((userId, balance) -> cache(userId, new CachedBalance(balance.balance, balance.version, loadedAt)));
+        });
+        Map<Long, Integer> balances = new LinkedHashMap<>();
+        totals.keySet().forEach(userId -> balances.put(userId, after.get(userId).balance));
+        return balances;
+    }
+
+    private void cache(Long userId, CachedBalance balance) {
+        // Commits can finish out of order; never replace a newer version with an older one
+        cache.merge(userId, balance, (current, candidate) -> candidate.version >= current.version ? candidate : current);
+        if (cache.size() <= cacheMaxEntries) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        cache.values().removeIf(entry -> entry.loadedAt + cacheTtlMillis <= now);
+        cache.entrySet().stream()
+                .sorted(Comparator.comparingLong(entry -> entry.getValue().loadedAt))
+                .limit(Math.max(0, cache.size() - cacheMaxEntries))
+                .toList()
+                .forEach(entry -> cache.remove(entry.getKey(), entry.getValue()));
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * One connects movement: positive amounts credit, negative amounts debit
+     */
+    public static class Entry {
+        private final Long userId;
+        private final int amount;
+        private final ConnectTransactionType type;
+        private final String referenceType;
+        private final Long referenceId;
+        private final String description;
+
+        public Entry(Long userId, int amount, ConnectTransactionType type,
+                     String referenceType, Long referenceId, String description) {
+            this.userId = userId;
+            this.amount = amount;
+            this.type = type;
+            this.referenceType = referenceType;
+            this.referenceId = referenceId;
+            this.description = description;
+        }
+
+        public Long getUserId() { return userId; }
+        public int getAmount() { return amount; }
+        public ConnectTransactionType getType() { return type; }
+        public String getReferenceType() { return referenceType; }
+        public Long getReferenceId() { return referenceId; }
+        public String getDescription() { return description; }
+    }
+
+    private static class CachedBalance {
+        private final int balance;
+        private final long version;
+        private final long loadedAt;
+
+        CachedBalance(int balance, long version, long loadedAt) {
+            this.balance = balance;
+            this.version = version;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
@@ -1,74 +1,42 @@
 package com.sajilokaam.connects;
 
-import com.sajilokaam.profile.FreelancerProfile;
-import com.sajilokaam.profile.FreelancerProfileRepository;
 import com.sajilokaam.user.User;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Optional;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 
 @Service
 public class ConnectsService {
     
-    private final FreelancerProfileRepository freelancerProfileRepository;
-    private final ConnectTransactionRepository connectTransactionRepository;
+    private final ConnectsLedger ledger;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
     
-    public ConnectsService(
-            FreelancerProfileRepository freelancerProfileRepository,
-            ConnectTransactionRepository connectTransactionRepository) {
-        this.freelancerProfileRepository = freelancerProfileRepository;
-        this.connectTransactionRepository = connectTransactionRepository;
+    public ConnectsService(ConnectsLedger ledger, JdbcTemplate jdbcTemplate) {
+        this.ledger = ledger;
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
     }
     
     /**
-     * Check if user has enough connects
+     * Check if user has enough connects. Reads the cached balance; spending re-checks it
+     * atomically.
      */
     public boolean hasEnoughConnects(Long userId, int required) {
-        Optional<FreelancerProfile> profileOpt = freelancerProfileRepository.findByUserId(userId);
-        if (profileOpt.isEmpty()) {
-            return false;
-        }
-        
-        FreelancerProfile profile = profileOpt.get();
-        Integer available = profile.getConnectsAvailable();
-        return available != null && available >= required;
+        return ledger.balance(userId) >= required;
     }
     
     /**
-     * Spend connects (for submitting bid)
+     * Spend connects (for submitting bid). Returns false, without recording anything, if the
+     * balance does not cover it.
      */
     @Transactional
     public boolean spendConnects(User user, int amount, Long bidId, String description) {
-        Optional<FreelancerProfile> profileOpt = freelancerProfileRepository.findByUserId(user.getId());
-        if (profileOpt.isEmpty()) {
-            return false;
-        }
-        
-        FreelancerProfile profile = profileOpt.get();
-        Integer available = profile.getConnectsAvailable();
-        
-        if (available == null || available < amount) {
-            return false;
-        }
-        
-        // Deduct connects
-        int newBalance = available - amount;
-        profile.setConnectsAvailable(newBalance);
-        freelancerProfileRepository.save(profile);
-        
-        // Record transaction
-        ConnectTransaction transaction = new ConnectTransaction();
-        transaction.setUser(user);
-        transaction.setAmount(-amount); // Negative for spending
-        transaction.setType(ConnectTransactionType.SPENT);
-        transaction.setReferenceId(bidId);
-        transaction.setReferenceType("bid");
-        transaction.setDescription(description);
-        transaction.setBalanceAfter(newBalance);
-        connectTransactionRepository.save(transaction);
-        
-        return true;
+        return ledger.debit(user.getId(), amount, ConnectTransactionType.SPENT, "bid", bidId, description) != null;
     }
     
     /**
@@ -76,28 +44,38 @@ public class ConnectsService {
      */
     @Transactional
     public void refundConnects(User user, int amount, Long bidId, String reason) {
-        Optional<FreelancerProfile> profileOpt = freelancerProfileRepository.findByUserId(user.getId());
-        if (profileOpt.isEmpty()) {
-            return;
+        ledger.credit(user.getId(), amount, ConnectTransactionType.REFUND, "bid", bidId, reason);
+    }
+    
+    /**
+     * Refund the connects spent on each of these bids, in one pass for all of them: one upsert
+     * per freelancer and one batched insert of REFUND transactions. Bids without a recorded
+     * spend, or already refunded, are skipped. Returns the number of bids refunded.
+     */
+    @Transactional
+    public int refundBids(Collection<Long> bidIds, String reason) {
+        if (bidIds.isEmpty()) {
+            return 0;
+        }
+        // [bid id, user id, connects spent] for spends not yet refunded
+        List<long[]> spends = jdbcTemplate.query(
+                "SELECT s.reference_id, s.user_id, -s.amount AS spent FROM connects_transactions s " +
+                "WHERE s.reference_type = 'bid' AND s.type = 'SPENT' AND s.reference_id IN (:bidIds) " +
+                "AND NOT EXISTS (SELECT 1 FROM connects_transactions r WHERE r.reference_type = 'bid' " +
+                "AND r.type = 'REFUND' AND r.reference_id = s.reference_id)",
+                new MapSqlParameterSource("bidIds", bidIds),
+                (rs, rowNum) -> new long[] { rs.getLong(1), rs.getLong(2), rs.getLong("spent") });
+        if (spends.isEmpty()) {
+            return 0;
+        }
+
+        List<ConnectsLedger.Entry> refunds = new ArrayList<>();
+        for (long[] spend : spends) {
+            refunds.add(new ConnectsLedger.Entry(spend[1], (int) spend[2], ConnectTransactionType.REFUND,
+                    "bid", spend[0], reason));
         }
-        
-        FreelancerProfile profile = profileOpt.get();
-        Integer available = profile.getConnectsAvailable();
-        int newBalance = (available != null ? available : 0) + amount;
-        
-        profile.setConnectsAvailable(newBalance);
-        freelancerProfileRepository.save(profile);
-        
-        // Record transaction
-        ConnectTransaction transaction = new ConnectTransaction();
-        transaction.setUser(user);
-        transaction.setAmount(amount);
-        transaction.setType(ConnectTransactionType.REFUND);
-        transaction.setReferenceId(bidId);
-        transaction.setReferenceType("bid");
-        transaction.setDescription(reason);
-        transaction.setBalanceAfter(newBalance);
-        connectTransactionRepository.save(transaction);
+        ledger.creditAll(refunds);
+        return spends.size();
     }
     
     /**
@@ -105,42 +83,14 @@ public class ConnectsService {
      */
     @Transactional
     public void purchaseConnects(User user, int amount, String paymentReference) {
-        Optional<FreelancerProfile> profileOpt = freelancerProfileRepository.findByUserId(user.getId());
-        if (profileOpt.isEmpty()) {
-            return;
-        }
-        
-        FreelancerProfile profile = profileOpt.get();
-        Integer available = profile.getConnectsAvailable();
-        Integer totalPurchased = profile.getConnectsTotalPurchased();
-        
-        int newBalance = (available != null ? available : 0) + amount;
-        int newTotal = (totalPurchased != null ? totalPurchased : 0) + amount;
-        
-        profile.setConnectsAvailable(newBalance);
-        profile.setConnectsTotalPurchased(newTotal);
-        freelancerProfileRepository.save(profile);
-        
-        // Record transaction
-        ConnectTransaction transaction = new ConnectTransaction();
-        transaction.setUser(user);
-        transaction.setAmount(amount);
-        transaction.setType(ConnectTransactionType.PURCHASE);
-        transaction.setDescription("Purchased " + amount + " connects");
-        transaction.setBalanceAfter(newBalance);
-        connectTransactionRepository.save(transaction);
+        ledger.credit(user.getId(), amount, ConnectTransactionType.PURCHASE, null, null,
+                "Purchased " + amount + " connects");
     }
     
     /**
      * Get current connects balance
      */
     public int getConnectsBalance(Long userId) {
-        Optional<FreelancerProfile> profileOpt = freelancerProfileRepository.findByUserId(userId);
-        if (profileOpt.isEmpty()) {
-            return 0;
-        }
-        
-        Integer available = profileOpt.get().getConnectsAvailable();
-        return available != null ? available : 0;
+        return ledger.balance(userId);
     }
 }
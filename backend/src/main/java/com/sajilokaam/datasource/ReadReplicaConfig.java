@@ -0,0 +1,77 @@
+package com.sajilokaam.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+
+/**
+ * Read replica routing, enabled by setting {@code datasource.replica.url}.
+ *
+ * Replaces the auto-configured pool with a {@link ReadWriteRoutingDataSource} over two Hikari
+ * pools: "primary" from {@code spring.datasource.*} and "replica" from
+ * {@code datasource.replica.*}, whose username and password default to the primary's. Both
+ * report the usual {@code hikaricp.*} metrics tagged with their pool name. The pools are not
+ * beans of their own, so everything else (JPA, JdbcTemplate, Flyway, health checks) goes
+ * through the routing DataSource.
+ *
+ * Routing relies on Spring setting the read-only flag on the connection when a read-only
+ * transaction begins, which Hibernate allows only with the default connection handling
+ * (connection held until the session closes); do not change
+ * {@code hibernate.connection.handling_mode} with a replica configured.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "datasource.replica", name = "url")
+public class ReadReplicaConfig {
+
+    @Bean(destroyMethod = "close")
+    @Primary
+    public ReadWriteRoutingDataSource dataSource(DataSourceProperties properties,
+                                                 Environment environment,
+                                                 MeterRegistry meterRegistry,
+                                                 @Value("${datasource.replica.url}") String replicaUrl,
+                                                 @Value("${datasource.replica.username:${spring.datasource.username:}}") String replicaUsername,
+                                                 @Value("${datasource.replica.password:${spring.datasource.password:}}") String replicaPassword,
+                                                 @Value("${datasource.replica.heartbeat-interval-ms:1000}") long heartbeatIntervalMs) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        configurePool(primary, "primary", "spring.datasource.hikari", environment, meterRegistry);
+
+        HikariDataSource replica = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .driverClassName(properties.determineDriverClassName())
+                .url(replicaUrl)
+                .username(replicaUsername)
+                .password(replicaPassword)
+                .build();
+        replica.setReadOnly(true);
+        // Fail over to the primary quickly rather than queue for a replica that is not answering
+        replica.setConnectionTimeout(1000);
+        configurePool(replica, "replica", "datasource.replica.hikari", environment, meterRegistry);
+
+        // Three missed heartbeats and the replica counts as unchecked
+        return new ReadWriteRoutingDataSource(primary, replica, heartbeatIntervalMs * 3, meterRegistry);
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(ReadWriteRoutingDataSource dataSource,
+                                               MeterRegistry meterRegistry,
+                                               @Value("${datasource.replica.max-lag-ms:5000}") long maxLagMillis) {
+        return new ReplicaLagMonitor(dataSource, maxLagMillis, meterRegistry);
+    }
+
+    private static void configurePool(HikariDataSource pool, String name, String prefix,
+                                      Environment environment, MeterRegistry meterRegistry) {
+        Binder.get(environment).bind(prefix, Bindable.ofInstance(pool));
+        pool.setPoolName(name);
+        pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+    }
+}
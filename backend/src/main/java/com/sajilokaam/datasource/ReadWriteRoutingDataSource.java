@@ -0,0 +1,270 @@
+package com.sajilokaam.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.ConnectionProxy;
+
+import java.io.Closeable;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+
+/**
+ * DataSource that sends read-only transactions to a replica pool and everything else to the
+ * primary pool.
+ *
+ * Each connection it hands out takes a physical connection only when first used: from the
+ * replica if it has been marked read-only by then (as Spring does when a
+ * {@code @Transactional(readOnly = true)} transaction begins) and the replica is usable, else
+ * from the primary. Between transactions the physical connection is given back whenever the
+ * read-only flag changes, so a session held for a whole request (open-in-view) still routes
+ * each of its transactions. Once a read-write transaction has begun on a connection it stays on
+ * the primary, so a request always reads its own writes.
+ *
+ * The replica is usable while the last {@link ReplicaLagMonitor} check found it caught up and
+ * that check is recent. A replica connection that cannot be obtained falls back to the primary
+ * at once. Every physical connection taken is counted as {@code datasource.routing.connections}
+ * by target pool and reason.
+ */
+public class ReadWriteRoutingDataSource extends AbstractDataSource implements Closeable {
+
+    static final String READ_WRITE = "read-write";
+    static final String READ_ONLY = "read-only";
+    static final String AFTER_WRITE = "after-write";
+    static final String REPLICA_UNCHECKED = "replica-unchecked";
+    static final String REPLICA_LAGGING = "replica-lagging";
+    static final String REPLICA_DOWN = "replica-down";
+
+    private final HikariDataSource primary;
+    private final HikariDataSource replica;
+    private final long checkValidMillis;
+    private final MeterRegistry meterRegistry;
+
+    // null while the replica is caught up
+    private volatile String replicaStatus = REPLICA_UNCHECKED;
+    private volatile long replicaCheckedAt;
+
+    public ReadWriteRoutingDataSource(HikariDataSource primary, HikariDataSource replica,
+                                      long checkValidMillis, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replica = replica;
+        this.checkValidMillis = checkValidMillis;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Connection getConnection() {
+        return (Connection) Proxy.newProxyInstance(ConnectionProxy.class.getClassLoader(),
+                new Class<?>[] { ConnectionProxy.class }, new RoutingConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Connections come from the configured primary and replica pools");
+    }
+
+    public HikariDataSource getPrimary() {
+        return primary;
+    }
+
+    public HikariDataSource getReplica() {
+        return replica;
+    }
+
+    /**
+     * Why read-only transactions currently go to the primary, or null if they go to the replica
+     */
+    public String replicaUnavailableReason() {
+        String status = replicaStatus;
+        if (status == null && System.currentTimeMillis() - replicaCheckedAt > checkValidMillis) {
+            return REPLICA_UNCHECKED;
+        }
+        return status;
+    }
+
+    /**
+     * Record the outcome of a replica check; null if the replica is caught up
+     */
+    void replicaChecked(String unavailableReason) {
+        replicaStatus = unavailableReason;
+        replicaCheckedAt = System.currentTimeMillis();
+    }
+
+    @Override
+    public void close() {
+        replica.close();
+        primary.close();
+    }
+
+    private void count(String target, String reason) {
+        Counter.builder("datasource.routing.connections")
+                .description("Physical connections taken, by pool and routing reason")
+                .tag("target", target)
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * Logical connection: records read-only, auto-commit and isolation until a statement needs a
+     * physical connection, then applies them to one from the chosen pool
+     */
+    private class RoutingConnection implements InvocationHandler {
+
+        private boolean readOnly;
+        private boolean autoCommit = true;
+        private Integer isolation;
+        private boolean wrote;
+        private boolean closed;
+        private Connection target;
+        private boolean onReplica;
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Routing connection to " + (target == null ? "no pool yet" : onReplica ? "replica" : "primary");
+                case "unwrap":
+                    if (((Class<?>) args[0]).isInstance(proxy)) {
+                        return proxy;
+                    }
+                    break;
+                case "isWrapperFor":
+                    if (((Class<?>) args[0]).isInstance(proxy)) {
+                        return true;
+                    }
+                    break;
+                case "isClosed":
+                    return closed;
+                case "close":
+                    closed = true;
+                    release();
+                    return null;
+                case "getTargetConnection":
+                    return target();
+                case "setReadOnly":
+                    readOnly = (Boolean) args[0];
+                    reroute();
+                    if (target != null) {
+                        target.setReadOnly(readOnly);
+                    }
+                    return null;
+                case "isReadOnly":
+                    return target != null ? target.isReadOnly() : readOnly;
+                case "setAutoCommit":
+                    autoCommit = (Boolean) args[0];
+                    if (!autoCommit && !readOnly) {
+                        wrote = true;
+                    }
+                    // Apply first: turning auto-commit back on commits the open transaction
+                    if (target != null) {
+                        target.setAutoCommit(autoCommit);
+                    }
+                    reroute();
+                    return null;
+                case "getAutoCommit":
+                    return target != null ? target.getAutoCommit() : autoCommit;
+                case "setTransactionIsolation":
+                    isolation = (Integer) args[0];
+                    if (target != null) {
+                        target.setTransactionIsolation(isolation);
+                    }
+                    return null;
+                case "getTransactionIsolation":
+                    if (target == null && isolation != null) {
+                        return isolation;
+                    }
+                    break;
+                case "commit":
+                case "rollback":
+                case "clearWarnings":
+                case "getWarnings":
+                    if (target == null) {
+                        // Nothing has run on this connection yet
+                        return null;
+                    }
+                    break;
+                default:
+                    break;
+            }
+            try {
+                return method.invoke(target(), args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        }
+
+        private Connection target() throws SQLException {
+            if (closed) {
+                throw new SQLException("Connection is closed");
+            }
+            if (target == null) {
+                target = open();
+                if (target.isReadOnly() != readOnly) {
+                    target.setReadOnly(readOnly);
+                }
+                if (isolation != null) {
+                    target.setTransactionIsolation(isolation);
+                }
+                if (target.getAutoCommit() != autoCommit) {
+                    target.setAutoCommit(autoCommit);
+                }
+            }
+            return target;
+        }
+
+        private Connection open() throws SQLException {
+            String reason = !readOnly ? READ_WRITE : wrote ? AFTER_WRITE : replicaUnavailableReason();
+            if (reason == null) {
+                try {
+                    Connection connection = replica.getConnection();
+                    onReplica = true;
+                    count("replica", READ_ONLY);
+                    return connection;
+                } catch (SQLException e) {
+                    replicaChecked(REPLICA_DOWN);
+                    reason = REPLICA_DOWN;
+                    System.err.println("Replica connection failed, using the primary: " + e.getMessage());
+                }
+            }
+            Connection connection = primary.getConnection();
+            onReplica = false;
+            count("primary", reason);
+            return connection;
+        }
+
+        /**
+         * Between transactions, give back a physical connection from the wrong pool for the
+         * current read-only flag; the next statement takes one from the right pool
+         */
+        private void reroute() throws SQLException {
+            if (target == null || !autoCommit) {
+                return;
+            }
+            boolean replicaWanted = readOnly && !wrote && replicaUnavailableReason() == null;
+            if (replicaWanted != onReplica) {
+                release();
+            }
+        }
+
+        private void release() throws SQLException {
+            if (target != null) {
+                try {
+                    target.close();
+                } finally {
+                    target = null;
+                }
+            }
+        }
+    }
+}
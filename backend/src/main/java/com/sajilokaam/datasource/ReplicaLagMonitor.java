@@ -0,0 +1,78 @@
+package com.sajilokaam.datasource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.Objects;
+
+/**
+ * Measures replication lag with a heartbeat row: each check writes the current time to
+ * replication_heartbeat on the primary, then reads it back from the replica. The age of the
+ * value read is the lag, plus at most one check interval. Above the maximum lag, or when the
+ * replica cannot be read, {@link ReadWriteRoutingDataSource} sends read-only transactions to the
+ * primary until a later check finds the replica caught up. The last lag is the
+ * {@code datasource.replica.lag} gauge, in milliseconds.
+ */
+public class ReplicaLagMonitor {
+
+    private final ReadWriteRoutingDataSource dataSource;
+    private final JdbcTemplate primary;
+    private final JdbcTemplate replica;
+    private final long maxLagMillis;
+
+    private volatile double lagMillis = Double.NaN;
+    private String lastReason = ReadWriteRoutingDataSource.REPLICA_UNCHECKED;
+
+    public ReplicaLagMonitor(ReadWriteRoutingDataSource dataSource, long maxLagMillis, MeterRegistry meterRegistry) {
+        this.dataSource = dataSource;
+        this.primary = new JdbcTemplate(dataSource.getPrimary());
+        this.replica = new JdbcTemplate(dataSource.getReplica());
+        this.maxLagMillis = maxLagMillis;
+        Gauge.builder("datasource.replica.lag", this, ReplicaLagMonitor::getLagMillis)
+                .description("Replication lag of the read replica, NaN while it cannot be read")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Write a heartbeat on the primary and update the replica status from the replica's copy
+     */
+    @Scheduled(fixedDelayString = "${datasource.replica.heartbeat-interval-ms:1000}")
+    public synchronized void check() {
+        try {
+            primary.update("UPDATE replication_heartbeat SET beat_millis = ? WHERE id = 1", System.currentTimeMillis());
+        } catch (RuntimeException e) {
+            System.err.println("Failed to write replication heartbeat: " + e.getMessage());
+        }
+
+        String reason;
+        try {
+            Long beat = replica.queryForObject("SELECT beat_millis FROM replication_heartbeat WHERE id = 1", Long.class);
+            lagMillis = Math.max(0, System.currentTimeMillis() - (beat != null ? beat : 0));
+            reason = lagMillis > maxLagMillis ? ReadWriteRoutingDataSource.REPLICA_LAGGING : null;
+        } catch (RuntimeException e) {
+            lagMillis = Double.NaN;
+            reason = ReadWriteRoutingDataSource.REPLICA_DOWN;
+            if (!reason.equals(lastReason)) {
+                System.err.println("Failed to read replication heartbeat: " + e.getMessage());
+            }
+        }
+        dataSource.replicaChecked(reason);
+
+        if (!Objects.equals(reason, lastReason)) {
+            System.out.println(reason == null
+                    ? "Read replica caught up, read-only transactions use the replica"
+                    : "Read replica unavailable (" + reason + "), read-only transactions use the primary");
+            lastReason = reason;
+        }
+    }
+
+    /**
+     * Last measured lag in milliseconds, NaN if the replica could not be read
+     */
+    public double getLagMillis() {
+        return lagMillis;
+    }
+}
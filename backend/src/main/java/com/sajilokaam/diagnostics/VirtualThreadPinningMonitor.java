@@ -0,0 +1,187 @@
+package com.sajilokaam.diagnostics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Reports virtual threads pinned to their carrier thread, from the JFR
+ * {@code jdk.VirtualThreadPinned} event, which the JDK emits when a virtual thread blocks
+ * while it cannot unmount (inside native code or a class initializer, for example) for
+ * longer than the threshold.
+ *
+ * Pinnings are grouped by site: the first application frame of the stack, or the top frame
+ * when there is none. The first pinning at each site is logged with its stack; all are
+ * counted in {@code jvm.threads.virtual.pinned} and served on the admin threads endpoint.
+ * Runs only when enabled, by default together with virtual threads.
+ */
+@Component
+public class VirtualThreadPinningMonitor {
+
+    static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    static final String SUBMIT_FAILED_EVENT = "jdk.VirtualThreadSubmitFailed";
+    private static final String APP_PACKAGE = "com.sajilokaam.";
+    private static final int MAX_SITES = 100;
+    private static final int STACK_DEPTH = 12;
+
+    private final boolean enabled;
+    private final Duration threshold;
+    private final Timer pinned;
+    private final Counter submitFailed;
+    private final Map<String, PinnedSite> sites = new ConcurrentHashMap<>();
+    private volatile RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(MeterRegistry meterRegistry,
+                                       @Value("${threads.virtual.pinning.enabled:${spring.threads.virtual.enabled:false}}") boolean enabled,
+                                       @Value("${threads.virtual.pinning.threshold-ms:20}") long thresholdMs) {
+        this.enabled = enabled;
+        this.threshold = Duration.ofMillis(thresholdMs);
+        this.pinned = Timer.builder("jvm.threads.virtual.pinned")
+                .description("Virtual threads blocked while pinned to their carrier thread")
+                .register(meterRegistry);
+        this.submitFailed = Counter.builder("jvm.threads.virtual.submit.failed").register(meterRegistry);
+    }
+
+    @EventListener
+    public void onReady(ApplicationReadyEvent event) {
+        if (enabled) {
+            start();
+        }
+    }
+
+    /**
+     * Start streaming pinning events; does nothing if already started
+     */
+    public synchronized void start() {
+        if (stream != null) {
+            return;
+        }
+        try {
+            RecordingStream recording = new RecordingStream();
+            recording.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+            recording.enable(SUBMIT_FAILED_EVENT);
+            recording.onEvent(PINNED_EVENT, this::onPinned);
+            recording.onEvent(SUBMIT_FAILED_EVENT, event -> submitFailed.increment());
+            recording.startAsync();
+            stream = recording;
+            System.out.println("Virtual thread pinning monitor started, threshold " + threshold.toMillis() + "ms");
+        } catch (RuntimeException e) {
+            System.err.println("Failed to start virtual thread pinning monitor: " + e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        if (stream != null) {
+            stream.close();
+            stream = null;
+        }
+    }
+
+    public boolean isRunning() {
+        return stream != null;
+    }
+
+    /**
+     * Pinning sites, most pinned first
+     */
+    public List<PinnedSite> sites() {
+        List<PinnedSite> result = new ArrayList<>(sites.values());
+        result.sort(Comparator.comparingLong(PinnedSite::getCount).reversed());
+        return result;
+    }
+
+    public long totalPinned() {
+        return pinned.count();
+    }
+
+    private void onPinned(RecordedEvent event) {
+        List<String> frames = new ArrayList<>();
+        String site = null;
+        if (event.getStackTrace() != null) {
+            for (RecordedFrame frame : event.getStackTrace().getFrames()) {
+                String description = frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                        + (frame.getLineNumber() > 0 ? ":" + frame.getLineNumber() : "");
+                if (frames.size() < STACK_DEPTH) {
+                    frames.add(description);
+                }
+                if (site == null && frame.getMethod().getType().getName().startsWith(APP_PACKAGE)) {
+                    site = description;
+                }
+            }
+        }
+        if (site == null) {
+            site = frames.isEmpty() ? "unknown" : frames.get(0);
+        }
+        String reason = event.hasField("pinnedReason") ? event.getString("pinnedReason") : null;
+        record(site, reason, event.getDuration(), frames);
+    }
+
+    void record(String site, String reason, Duration duration, List<String> frames) {
+        pinned.record(duration);
+        PinnedSite existing = sites.get(site);
+        if (existing == null) {
+            if (sites.size() >= MAX_SITES) {
+                existing = sites.computeIfAbsent("other", key -> new PinnedSite(key, null, List.of()));
+            } else {
+                PinnedSite created = new PinnedSite(site, reason, List.copyOf(frames));
+                existing = sites.putIfAbsent(site, created);
+                if (existing == null) {
+                    existing = created;
+                    System.err.println("Virtual thread pinned for " + duration.toMillis() + "ms at " + site
+                            + (reason != null ? " (" + reason + ")" : "") + "\n\tat " + String.join("\n\tat ", frames));
+                }
+            }
+        }
+        existing.add(duration);
+    }
+
+    /**
+     * Pinnings seen at one site
+     */
+    public static class PinnedSite {
+        private final String site;
+        private final String reason;
+        private final List<String> stack;
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalMillis = new LongAdder();
+        private final AtomicLong maxMillis = new AtomicLong();
+
+        PinnedSite(String site, String reason, List<String> stack) {
+            this.site = site;
+            this.reason = reason;
+            this.stack = stack;
+        }
+
+        void add(Duration duration) {
+            long millis = duration.toMillis();
+            count.increment();
+            totalMillis.add(millis);
+            maxMillis.accumulateAndGet(millis, Math::max);
+        }
+
+        public String getSite() { return site; }
+        public String getReason() { return reason; }
+        public List<String> getStack() { return stack; }
+        public long getCount() { return count.sum(); }
+        public long getTotalMillis() { return totalMillis.sum(); }
+        public long getMaxMillis() { return maxMillis.get(); }
+    }
+}
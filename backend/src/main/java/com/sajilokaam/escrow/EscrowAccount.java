@@ -7,6 +7,7 @@ import java.math.BigDecimal;
 import java.time.Instant;
 
 @Entity
+@EntityListeners(EscrowLedgerListener.class)
 @Table(name = "escrow_accounts", indexes = {
         @Index(name = "idx_escrow_project", columnList = "project_id"),
         @Index(name = "idx_escrow_status", columnList = "status")
@@ -28,24 +29,36 @@ public class EscrowAccount {
     @JoinColumn(name = "freelancer_id", nullable = false)
     private User freelancer;
 
-    @Column(name = "total_amount", nullable = false, precision = 12, scale = 2)
+    // Balances, status and updated_at are written on insert only; afterwards EscrowLedger
+    // changes them with postings, so flushing a stale entity can never overwrite them
+    @Column(name = "total_amount", nullable = false, updatable = false, precision = 12, scale = 2)
     private BigDecimal totalAmount;
 
-    @Column(name = "released_amount", precision = 12, scale = 2)
+    @Column(name = "released_amount", updatable = false, precision = 12, scale = 2)
     private BigDecimal releasedAmount = BigDecimal.ZERO;
 
-    @Column(name = "refunded_amount", precision = 12, scale = 2)
+    @Column(name = "refunded_amount", updatable = false, precision = 12, scale = 2)
     private BigDecimal refundedAmount = BigDecimal.ZERO;
 
-    @Column(nullable = false, length = 50)
+    @Column(name = "held_amount", nullable = false, updatable = false, precision = 12, scale = 2)
+    private BigDecimal heldAmount = BigDecimal.ZERO;
+
+    @Column(nullable = false, updatable = false, length = 50)
     private String status = "ACTIVE"; // ACTIVE, RELEASED, REFUNDED, DISPUTED
 
     @Column(name = "created_at", nullable = false, updatable = false)
     private Instant createdAt = Instant.now();
 
-    @Column(name = "updated_at", nullable = false)
+    @Column(name = "updated_at", nullable = false, updatable = false)
     private Instant updatedAt = Instant.now();
 
+    @PrePersist
+    protected void onCreate() {
+        BigDecimal released = releasedAmount != null ? releasedAmount : BigDecimal.ZERO;
+        BigDecimal refunded = refundedAmount != null ? refundedAmount : BigDecimal.ZERO;
+        heldAmount = totalAmount.subtract(released).subtract(refunded).max(BigDecimal.ZERO);
+    }
+
     // Getters and Setters
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
@@ -61,6 +74,7 @@ public class EscrowAccount {
     public void setReleasedAmount(BigDecimal releasedAmount) { this.releasedAmount = releasedAmount; }
     public BigDecimal getRefundedAmount() { return refundedAmount; }
     public void setRefundedAmount(BigDecimal refundedAmount) { this.refundedAmount = refundedAmount; }
+    public BigDecimal getHeldAmount() { return heldAmount; }
     public String getStatus() { return status; }
     public void setStatus(String status) { this.status = status; }
     public Instant getCreatedAt() { return createdAt; }
@@ -1,6 +1,8 @@
 package com.sajilokaam.escrow;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import java.util.List;
 import java.util.Optional;
 
@@ -11,5 +13,8 @@ public interface EscrowAccountRepository extends JpaRepository<EscrowAccount, Lo
     List<EscrowAccount> findByFreelancer_Id(Long freelancerId);
     List<EscrowAccount> findByStatus(String status);
     List<EscrowAccount> findAllByProject_Id(Long projectId);
+
+    @Query("SELECT e.id FROM EscrowAccount e WHERE e.project.id = :projectId ORDER BY e.id")
+    List<Long> findIdsByProjectId(@Param("projectId") Long projectId);
 }
 
@@ -0,0 +1,35 @@
+package com.sajilokaam.escrow;
+
+import java.math.BigDecimal;
+
+/**
+ * Running balances of one escrow account, as kept by {@link EscrowLedger}
+ */
+public class EscrowBalance {
+    private final Long accountId;
+    private final BigDecimal deposited;
+    private final BigDecimal released;
+    private final BigDecimal refunded;
+    private final BigDecimal held;
+    private final String status;
+    private final long version;
+
+    public EscrowBalance(Long accountId, BigDecimal deposited, BigDecimal released, BigDecimal refunded,
+                         BigDecimal held, String status, long version) {
+        this.accountId = accountId;
+        this.deposited = deposited;
+        this.released = released;
+        this.refunded = refunded;
+        this.held = held;
+        this.status = status;
+        this.version = version;
+    }
+
+    public Long getAccountId() { return accountId; }
+    public BigDecimal getDeposited() { return deposited; }
+    public BigDecimal getReleased() { return released; }
+    public BigDecimal getRefunded() { return refunded; }
+    public BigDecimal getHeld() { return held; }
+    public String getStatus() { return status; }
+    public long getVersion() { return version; }
+}
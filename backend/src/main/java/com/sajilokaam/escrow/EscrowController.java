@@ -1,5 +1,6 @@
 package com.sajilokaam.escrow;
 
+import com.sajilokaam.auth.AdminSecurityService;
 import com.sajilokaam.user.User;
 import com.sajilokaam.user.UserContextService;
 import org.springframework.http.ResponseEntity;
@@ -7,6 +8,7 @@ import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @RestController
@@ -17,13 +19,16 @@ public class EscrowController {
     private final EscrowService escrowService;
     private final EscrowAccountRepository accountRepository;
     private final UserContextService userContextService;
+    private final AdminSecurityService adminSecurityService;
 
     public EscrowController(EscrowService escrowService,
                             EscrowAccountRepository accountRepository,
-                            UserContextService userContextService) {
+                            UserContextService userContextService,
+                            AdminSecurityService adminSecurityService) {
         this.escrowService = escrowService;
         this.accountRepository = accountRepository;
         this.userContextService = userContextService;
+        this.adminSecurityService = adminSecurityService;
     }
 
     @GetMapping("/project/{projectId}")
@@ -48,8 +53,36 @@ public class EscrowController {
         return ResponseEntity.ok(account);
     }
 
+    /**
+     * Balances of an account, for its client, its freelancer or an admin
+     */
+    @GetMapping("/{accountId}/balance")
+    public ResponseEntity<EscrowBalance> getBalance(
+            @PathVariable Long accountId,
+            @RequestHeader(name = "Authorization", required = false) String authorization) {
+        Optional<User> userOpt = userContextService.resolveUser(authorization);
+        if (userOpt.isEmpty()) {
+            return ResponseEntity.status(401).build();
+        }
+        Optional<EscrowAccount> accountOpt = accountRepository.findById(accountId);
+        if (accountOpt.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        User user = userOpt.get();
+        EscrowAccount account = accountOpt.get();
+        if (!isParty(account.getClient(), user) && !isParty(account.getFreelancer(), user)
+                && !adminSecurityService.isAdmin(user)) {
+            return ResponseEntity.status(403).build();
+        }
+        EscrowBalance balance = escrowService.getBalance(accountId);
+        if (balance == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(balance);
+    }
+
     @PostMapping("/{accountId}/release")
-    public ResponseEntity<EscrowRelease> releaseFunds(
+    public ResponseEntity<?> releaseFunds(
             @PathVariable Long accountId,
             @RequestBody EscrowReleaseRequest request,
             @RequestHeader(name = "Authorization", required = false) String authorization) {
@@ -57,16 +90,60 @@ public class EscrowController {
         if (userOpt.isEmpty()) {
             return ResponseEntity.status(401).build();
         }
-        EscrowRelease release = escrowService.releaseFunds(
-                accountId,
-                request.getAmount(),
-                request.getReleaseType(),
-                userOpt.get().getId(),
-                request.getMilestoneId(),
-                request.getTransactionId(),
-                request.getNotes()
-        );
-        return ResponseEntity.ok(release);
+        // Releases pay the client's held funds to the freelancer, so only the client or an admin may ask
+        Optional<EscrowAccount> accountOpt = accountRepository.findById(accountId);
+        if (accountOpt.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (!isParty(accountOpt.get().getClient(), userOpt.get()) && !adminSecurityService.isAdmin(userOpt.get())) {
+            return ResponseEntity.status(403).body(Map.of("error", "Only the client or an admin can release this escrow"));
+        }
+        try {
+            EscrowRelease release = escrowService.releaseFunds(
+                    accountId,
+                    request.getAmount(),
+                    request.getReleaseType(),
+                    userOpt.get().getId(),
+                    request.getMilestoneId(),
+                    request.getTransactionId(),
+                    request.getNotes()
+            );
+            return ResponseEntity.ok(release);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(409).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @PostMapping("/{accountId}/refund")
+    public ResponseEntity<?> refundFunds(
+            @PathVariable Long accountId,
+            @RequestBody EscrowRefundRequest request,
+            @RequestHeader(name = "Authorization", required = false) String authorization) {
+        Optional<User> userOpt = userContextService.resolveUser(authorization);
+        if (userOpt.isEmpty()) {
+            return ResponseEntity.status(401).build();
+        }
+        // Refunds return held funds to the client, so only the client or an admin may ask
+        Optional<EscrowAccount> accountOpt = accountRepository.findById(accountId);
+        if (accountOpt.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (!isParty(accountOpt.get().getClient(), userOpt.get()) && !adminSecurityService.isAdmin(userOpt.get())) {
+            return ResponseEntity.status(403).body(Map.of("error", "Only the client or an admin can refund this escrow"));
+        }
+        try {
+            return ResponseEntity.ok(escrowService.refundFunds(accountId, request.getAmount(), userOpt.get().getId()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(409).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    private boolean isParty(User party, User user) {
+        return party != null && party.getId() != null && party.getId().equals(user.getId());
     }
 
     public static class EscrowCreateRequest {
@@ -103,5 +180,11 @@ public class EscrowController {
         public String getNotes() { return notes; }
         public void setNotes(String notes) { this.notes = notes; }
     }
-}
 
+    public static class EscrowRefundRequest {
+        private BigDecimal amount;
+
+        public BigDecimal getAmount() { return amount; }
+        public void setAmount(BigDecimal amount) { this.amount = amount; }
+    }
+}
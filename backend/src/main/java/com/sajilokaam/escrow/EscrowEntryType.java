@@ -0,0 +1,26 @@
+package com.sajilokaam.escrow;
+
+/**
+ * Kinds of escrow postings, each with the ledger accounts it debits and credits
+ */
+public enum EscrowEntryType {
+    DEPOSIT("ESCROW_HELD", "CLIENT_FUNDING"),
+    RELEASE("FREELANCER_PAYABLE", "ESCROW_HELD"),
+    REFUND("CLIENT_REFUND", "ESCROW_HELD");
+
+    private final String debitAccount;
+    private final String creditAccount;
+
+    EscrowEntryType(String debitAccount, String creditAccount) {
+        this.debitAccount = debitAccount;
+        this.creditAccount = creditAccount;
+    }
+
+    public String getDebitAccount() {
+        return debitAccount;
+    }
+
+    public String getCreditAccount() {
+        return creditAccount;
+    }
+}
@@ -0,0 +1,180 @@
+package com.sajilokaam.escrow;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Double-entry ledger for escrow accounts.
+ *
+ * Every deposit, release and refund appends an escrow_postings row that debits one ledger
+ * account and credits another (see {@link EscrowEntryType}), and moves the running balances
+ * on the escrow_accounts row in the same transaction. Releases and refunds are one
+ * conditional UPDATE ({@code held_amount >= amount}), so they are serialized per account by
+ * its row lock and can never take out more than is held; other accounts are not blocked.
+ * Balance reads are a primary key lookup. Uses JDBC only, since it is called from a JPA
+ * entity listener.
+ */
+@Component
+public class EscrowLedger {
+
+    private static final String MOVE_OUT =
+            "UPDATE escrow_accounts SET %1$s = %1$s + :amount, held_amount = held_amount - :amount, " +
+            "ledger_version = ledger_version + 1, updated_at = :now, " +
+            // MySQL applies assignments left to right, so held_amount here is the new value
+            "status = CASE WHEN held_amount = 0 THEN :closedStatus ELSE status END " +
+            "WHERE id = :accountId AND held_amount >= :amount";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+
+    public EscrowLedger(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Post the opening entries of a newly inserted account, whose balances were written with
+     * the row itself
+     */
+    public void opened(Long accountId, BigDecimal deposited, BigDecimal released, BigDecimal refunded, Long createdBy) {
+        int postings = 0;
+        postings += postIfPositive(accountId, EscrowEntryType.DEPOSIT, deposited, createdBy);
+        postings += postIfPositive(accountId, EscrowEntryType.RELEASE, released, createdBy);
+        postings += postIfPositive(accountId, EscrowEntryType.REFUND, refunded, createdBy);
+        if (postings > 0) {
+            jdbcTemplate.update("UPDATE escrow_accounts SET ledger_version = ledger_version + :postings, " +
+                            "updated_at = updated_at WHERE id = :accountId",
+                    new MapSqlParameterSource()
+                            .addValue("postings", postings)
+                            .addValue("accountId", accountId));
+        }
+    }
+
+    /**
+     * Pay {@code amount} of the held funds to the freelancer. Returns the posting id.
+     *
+     * @throws IllegalArgumentException if the account does not exist or the amount is not positive
+     * @throws IllegalStateException if the account holds less than {@code amount}
+     */
+    @Transactional
+    public long release(Long accountId, BigDecimal amount, Long createdBy, String referenceType, Long referenceId) {
+        return moveOut(accountId, EscrowEntryType.RELEASE, amount, createdBy, referenceType, referenceId);
+    }
+
+    /**
+     * Return {@code amount} of the held funds to the client. Returns the posting id.
+     *
+     * @throws IllegalArgumentException if the account does not exist or the amount is not positive
+     * @throws IllegalStateException if the account holds less than {@code amount}
+     */
+    @Transactional
+    public long refund(Long accountId, BigDecimal amount, Long createdBy, String referenceType, Long referenceId) {
+        return moveOut(accountId, EscrowEntryType.REFUND, amount, createdBy, referenceType, referenceId);
+    }
+
+    /**
+     * Release whatever the account still holds. Returns the amount released, zero if nothing
+     * was held.
+     */
+    @Transactional
+    public BigDecimal releaseRemaining(Long accountId, Long createdBy, String referenceType, Long referenceId) {
+        List<BigDecimal> held = jdbcTemplate.queryForList(
+                "SELECT held_amount FROM escrow_accounts WHERE id = :accountId FOR UPDATE",
+                new MapSqlParameterSource("accountId", accountId), BigDecimal.class);
+        if (held.isEmpty()) {
+            throw new IllegalArgumentException("Escrow account not found");
+        }
+        if (held.get(0).signum() <= 0) {
+            return BigDecimal.ZERO;
+        }
+        moveOut(accountId, EscrowEntryType.RELEASE, held.get(0), createdBy, referenceType, referenceId);
+        return held.get(0);
+    }
+
+    /**
+     * Current balances, or null if the account does not exist
+     */
+    public EscrowBalance balance(Long accountId) {
+        List<EscrowBalance> rows = jdbcTemplate.query(
+                "SELECT id, total_amount, released_amount, refunded_amount, held_amount, status, ledger_version " +
+                "FROM escrow_accounts WHERE id = :accountId",
+                new MapSqlParameterSource("accountId", accountId),
+                (rs, rowNum) -> new EscrowBalance(rs.getLong("id"), rs.getBigDecimal("total_amount"),
+                        rs.getBigDecimal("released_amount"), rs.getBigDecimal("refunded_amount"),
+                        rs.getBigDecimal("held_amount"), rs.getString("status"), rs.getLong("ledger_version")));
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    private long moveOut(Long accountId, EscrowEntryType type, BigDecimal amount, Long createdBy,
+                         String referenceType, Long referenceId) {
+        if (amount == null || amount.signum() <= 0) {
+            throw new IllegalArgumentException("Amount must be positive");
+        }
+        String column = type == EscrowEntryType.RELEASE ? "released_amount" : "refunded_amount";
+        String closedStatus = type == EscrowEntryType.RELEASE ? "RELEASED" : "REFUNDED";
+        int updated = jdbcTemplate.update(String.format(MOVE_OUT, column), new MapSqlParameterSource()
+                .addValue("amount", amount)
+                .addValue("now", Timestamp.from(Instant.now()))
+                .addValue("closedStatus", closedStatus)
+                .addValue("accountId", accountId));
+        if (updated == 0) {
+            count(type, "rejected");
+            if (balance(accountId) == null) {
+                throw new IllegalArgumentException("Escrow account not found");
+            }
+            throw new IllegalStateException(type == EscrowEntryType.RELEASE
+                    ? "Release exceeds held amount" : "Refund exceeds held amount");
+        }
+        return post(accountId, type, amount, createdBy, referenceType, referenceId);
+    }
+
+    private int postIfPositive(Long accountId, EscrowEntryType type, BigDecimal amount, Long createdBy) {
+        if (amount == null || amount.signum() <= 0) {
+            return 0;
+        }
+        post(accountId, type, amount, createdBy, null, null);
+        return 1;
+    }
+
+    private long post(Long accountId, EscrowEntryType type, BigDecimal amount, Long createdBy,
+                      String referenceType, Long referenceId) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(
+                "INSERT INTO escrow_postings (escrow_account_id, entry_type, debit_account, credit_account, amount, " +
+                "reference_type, reference_id, created_by, created_at) VALUES (:accountId, :type, :debit, :credit, " +
+                ":amount, :referenceType, :referenceId, :createdBy, :now)",
+                new MapSqlParameterSource()
+                        .addValue("accountId", accountId)
+                        .addValue("type", type.name())
+                        .addValue("debit", type.getDebitAccount())
+                        .addValue("credit", type.getCreditAccount())
+                        .addValue("amount", amount)
+                        .addValue("referenceType", referenceType)
+                        .addValue("referenceId", referenceId)
+                        .addValue("createdBy", createdBy)
+                        .addValue("now", Timestamp.from(Instant.now())),
+                keyHolder, new String[] { "id" });
+        count(type, "posted");
+        return keyHolder.getKey().longValue();
+    }
+
+    private void count(EscrowEntryType type, String result) {
+        Counter.builder("escrow.ledger.postings")
+                .tag("type", type.name())
+                .tag("result", result)
+                .register(meterRegistry)
+                .increment();
+    }
+}
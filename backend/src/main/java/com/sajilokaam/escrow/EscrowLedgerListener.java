@@ -0,0 +1,25 @@
+package com.sajilokaam.escrow;
+
+import jakarta.persistence.PostPersist;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA entity listener that posts the opening deposit of every new escrow account, in the same
+ * transaction as the insert, however the account was created.
+ */
+@Component
+public class EscrowLedgerListener {
+
+    private final EscrowLedger ledger;
+
+    public EscrowLedgerListener(EscrowLedger ledger) {
+        this.ledger = ledger;
+    }
+
+    @PostPersist
+    public void onPersist(EscrowAccount account) {
+        Long clientId = account.getClient() != null ? account.getClient().getId() : null;
+        ledger.opened(account.getId(), account.getTotalAmount(), account.getReleasedAmount(),
+                account.getRefundedAmount(), clientId);
+    }
+}
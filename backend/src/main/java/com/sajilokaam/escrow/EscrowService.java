@@ -25,19 +25,22 @@ public class EscrowService {
     private final UserRepository userRepository;
     private final MilestoneRepository milestoneRepository;
     private final TransactionRepository transactionRepository;
+    private final EscrowLedger ledger;
 
     public EscrowService(EscrowAccountRepository accountRepository,
                          EscrowReleaseRepository releaseRepository,
                          ProjectRepository projectRepository,
                          UserRepository userRepository,
                          MilestoneRepository milestoneRepository,
-                         TransactionRepository transactionRepository) {
+                         TransactionRepository transactionRepository,
+                         EscrowLedger ledger) {
         this.accountRepository = accountRepository;
         this.releaseRepository = releaseRepository;
         this.projectRepository = projectRepository;
         this.userRepository = userRepository;
         this.milestoneRepository = milestoneRepository;
         this.transactionRepository = transactionRepository;
+        this.ledger = ledger;
     }
 
     @Transactional
@@ -70,17 +73,52 @@ public class EscrowService {
         return releaseRepository.findByEscrowAccountId(accountId);
     }
 
+    public EscrowBalance getBalance(Long accountId) {
+        return ledger.balance(accountId);
+    }
+
+    /**
+     * Release part of the held funds to the freelancer. The ledger checks and moves the
+     * balance in one statement, so concurrent releases cannot exceed what was deposited.
+     */
     @Transactional
     public EscrowRelease releaseFunds(Long accountId, BigDecimal amount, String releaseType, Long releasedById, Long milestoneId, Long transactionId, String notes) {
-        EscrowAccount account = accountRepository.findById(accountId)
-                .orElseThrow(() -> new IllegalArgumentException("Escrow account not found"));
-        if (account.getReleasedAmount().add(amount).compareTo(account.getTotalAmount()) > 0) {
-            throw new IllegalStateException("Release exceeds deposited amount");
-        }
-
         User releasedBy = userRepository.findById(releasedById)
                 .orElseThrow(() -> new IllegalArgumentException("User not found"));
 
+        ledger.release(accountId, amount, releasedById,
+                milestoneId != null ? "milestone" : null, milestoneId);
+        return recordRelease(accountId, amount, releaseType, releasedBy, milestoneId, transactionId, notes);
+    }
+
+    /**
+     * Release everything the account still holds, e.g. when the project is completed.
+     * Returns null if nothing was held.
+     */
+    @Transactional
+    public EscrowRelease releaseRemaining(Long accountId, User releasedBy, String notes) {
+        BigDecimal released = ledger.releaseRemaining(accountId, releasedBy.getId(), "project_completion", null);
+        if (released.signum() == 0) {
+            return null;
+        }
+        return recordRelease(accountId, released, "COMPLETE", releasedBy, null, null, notes);
+    }
+
+    /**
+     * Return part of the held funds to the client
+     */
+    @Transactional
+    public EscrowBalance refundFunds(Long accountId, BigDecimal amount, Long refundedById) {
+        ledger.refund(accountId, amount, refundedById, null, null);
+        return ledger.balance(accountId);
+    }
+
+    private EscrowRelease recordRelease(Long accountId, BigDecimal amount, String releaseType, User releasedBy,
+                                        Long milestoneId, Long transactionId, String notes) {
+        // Loaded after the ledger update, so it carries the new balances
+        EscrowAccount account = accountRepository.findById(accountId)
+                .orElseThrow(() -> new IllegalArgumentException("Escrow account not found"));
+
         Milestone milestone = null;
         if (milestoneId != null) {
             milestone = milestoneRepository.findById(milestoneId)
@@ -101,16 +139,6 @@ public class EscrowService {
         release.setTransaction(transaction);
         release.setNotes(notes);
         release.setReleasedAt(Instant.now());
-
-        account.setReleasedAmount(account.getReleasedAmount().add(amount));
-        account.setUpdatedAt(Instant.now());
-        if (account.getReleasedAmount().compareTo(account.getTotalAmount()) >= 0) {
-            account.setStatus("RELEASED");
-        }
-
-        releaseRepository.save(release);
-        accountRepository.save(account);
-        return release;
+        return releaseRepository.save(release);
     }
 }
-
@@ -0,0 +1,138 @@
+package com.sajilokaam.escrow;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Periodically checkpoints escrow balances from the postings.
+ *
+ * For every account with postings since its last snapshot, the new postings are added to that
+ * snapshot and the result is written as the next one, so each run replays only recent
+ * postings. The result is compared with the running balances on the account; a mismatch is
+ * reported and counted, and the snapshot keeps the posting-derived values. Each account is
+ * checked in its own short transaction holding only that account's row lock.
+ */
+@Component
+public class EscrowSnapshotJob {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Counter snapshots;
+    private final Counter drift;
+
+    public EscrowSnapshotJob(JdbcTemplate jdbcTemplate,
+                             PlatformTransactionManager transactionManager,
+                             MeterRegistry meterRegistry,
+                             @Value("${escrow.ledger.snapshot-batch-size:200}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = Math.max(1, batchSize);
+        this.snapshots = Counter.builder("escrow.ledger.snapshots").register(meterRegistry);
+        this.drift = Counter.builder("escrow.ledger.drift")
+                .description("Escrow accounts whose running balances disagreed with their postings")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Snapshot accounts changed since their last snapshot. Returns the number snapshotted.
+     */
+    @Scheduled(fixedDelayString = "${escrow.ledger.snapshot-interval-ms:3600000}",
+            initialDelayString = "${escrow.ledger.snapshot-interval-ms:3600000}")
+    public int snapshotChanged() {
+        int taken = 0;
+        try {
+            List<Long> accountIds = jdbcTemplate.queryForList(
+                    "SELECT id FROM escrow_accounts WHERE ledger_version > snapshot_version ORDER BY id LIMIT ?",
+                    Long.class, batchSize);
+            for (Long accountId : accountIds) {
+                try {
+                    if (Boolean.TRUE.equals(transactionTemplate.execute(status -> snapshot(accountId)))) {
+                        taken++;
+                    }
+                } catch (RuntimeException e) {
+                    System.err.println("Failed to snapshot escrow account " + accountId + ": " + e.getMessage());
+                }
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Failed to snapshot escrow balances: " + e.getMessage());
+        }
+        return taken;
+    }
+
+    /**
+     * Snapshot one account; must run in a transaction
+     */
+    boolean snapshot(Long accountId) {
+        // Postings are appended under this row lock, so none can appear while we count
+        List<Map<String, Object>> accounts = jdbcTemplate.queryForList(
+                "SELECT total_amount, released_amount, refunded_amount, held_amount, ledger_version " +
+                "FROM escrow_accounts WHERE id = ? FOR UPDATE", accountId);
+        if (accounts.isEmpty()) {
+            return false;
+        }
+        Map<String, Object> account = accounts.get(0);
+
+        BigDecimal deposited = BigDecimal.ZERO;
+        BigDecimal released = BigDecimal.ZERO;
+        BigDecimal refunded = BigDecimal.ZERO;
+        long lastPostingId = 0;
+        List<Map<String, Object>> previous = jdbcTemplate.queryForList(
+                "SELECT last_posting_id, deposited_amount, released_amount, refunded_amount " +
+                "FROM escrow_balance_snapshots WHERE escrow_account_id = ? ORDER BY last_posting_id DESC LIMIT 1",
+                accountId);
+        if (!previous.isEmpty()) {
+            lastPostingId = ((Number) previous.get(0).get("last_posting_id")).longValue();
+            deposited = (BigDecimal) previous.get(0).get("deposited_amount");
+            released = (BigDecimal) previous.get(0).get("released_amount");
+            refunded = (BigDecimal) previous.get(0).get("refunded_amount");
+        }
+
+        List<Map<String, Object>> sums = jdbcTemplate.queryForList(
+                "SELECT entry_type, SUM(amount) AS total, MAX(id) AS last_id FROM escrow_postings " +
+                "WHERE escrow_account_id = ? AND id > ? GROUP BY entry_type", accountId, lastPostingId);
+        long newLastPostingId = lastPostingId;
+        for (Map<String, Object> sum : sums) {
+            BigDecimal total = (BigDecimal) sum.get("total");
+            switch (EscrowEntryType.valueOf((String) sum.get("entry_type"))) {
+                case DEPOSIT -> deposited = deposited.add(total);
+                case RELEASE -> released = released.add(total);
+                case REFUND -> refunded = refunded.add(total);
+            }
+            newLastPostingId = Math.max(newLastPostingId, ((Number) sum.get("last_id")).longValue());
+        }
+        BigDecimal held = deposited.subtract(released).subtract(refunded);
+
+        if (!matches(account.get("total_amount"), deposited) || !matches(account.get("released_amount"), released)
+                || !matches(account.get("refunded_amount"), refunded) || !matches(account.get("held_amount"), held)) {
+            drift.increment();
+            System.err.println("Escrow account " + accountId + " balances differ from its postings: deposited "
+                    + deposited + ", released " + released + ", refunded " + refunded + ", held " + held);
+        }
+
+        long version = ((Number) account.get("ledger_version")).longValue();
+        jdbcTemplate.update(
+                "INSERT INTO escrow_balance_snapshots (escrow_account_id, last_posting_id, ledger_version, " +
+                "deposited_amount, released_amount, refunded_amount, held_amount) VALUES (?, ?, ?, ?, ?, ?, ?)",
+                accountId, newLastPostingId, version, deposited, released, refunded, held);
+        jdbcTemplate.update("UPDATE escrow_accounts SET snapshot_version = ?, updated_at = updated_at WHERE id = ?",
+                version, accountId);
+        snapshots.increment();
+        return true;
+    }
+
+    private boolean matches(Object stored, BigDecimal computed) {
+        BigDecimal value = stored != null ? (BigDecimal) stored : BigDecimal.ZERO;
+        return value.compareTo(computed) == 0;
+    }
+}
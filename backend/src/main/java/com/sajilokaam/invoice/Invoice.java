@@ -82,6 +82,11 @@ public class Invoice {
     @Column(name = "sent_at")
     private Instant sentAt;
 
+    // Bumped on every update; rendered PDFs are keyed by (id, version)
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     @OneToMany(mappedBy = "invoice", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     @JsonIgnore
     private List<InvoiceItem> items = new ArrayList<>();
@@ -129,6 +134,8 @@ public class Invoice {
     public void setPaidAt(Instant paidAt) { this.paidAt = paidAt; }
     public Instant getSentAt() { return sentAt; }
     public void setSentAt(Instant sentAt) { this.sentAt = sentAt; }
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
     public List<InvoiceItem> getItems() { return items; }
     public void setItems(List<InvoiceItem> items) { this.items = items; }
     public Instant getCreatedAt() { return createdAt; }
@@ -1,20 +1,25 @@
 package com.sajilokaam.invoice;
 
+import com.sajilokaam.auth.AdminSecurityService;
 import com.sajilokaam.auth.JwtService;
-import com.sajilokaam.invoicepdf.InvoicePdfService;
+import com.sajilokaam.invoicepdf.InvoicePdfStore;
 import com.sajilokaam.project.Project;
 import com.sajilokaam.project.ProjectRepository;
 import com.sajilokaam.user.User;
 import com.sajilokaam.user.UserRepository;
-import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
 import java.net.URI;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
@@ -30,20 +35,23 @@ public class InvoiceController {
     private final ProjectRepository projectRepository;
     private final UserRepository userRepository;
     private final JwtService jwtService;
-    private final InvoicePdfService invoicePdfService;
+    private final InvoicePdfStore invoicePdfStore;
+    private final AdminSecurityService adminSecurityService;
 
     public InvoiceController(InvoiceRepository invoiceRepository,
                             InvoiceItemRepository invoiceItemRepository,
                             ProjectRepository projectRepository,
                             UserRepository userRepository,
                             JwtService jwtService,
-                            InvoicePdfService invoicePdfService) {
+                            InvoicePdfStore invoicePdfStore,
+                            AdminSecurityService adminSecurityService) {
         this.invoiceRepository = invoiceRepository;
         this.invoiceItemRepository = invoiceItemRepository;
         this.projectRepository = projectRepository;
         this.userRepository = userRepository;
         this.jwtService = jwtService;
-        this.invoicePdfService = invoicePdfService;
+        this.invoicePdfStore = invoicePdfStore;
+        this.adminSecurityService = adminSecurityService;
     }
 
     @GetMapping
@@ -209,6 +217,9 @@ public class InvoiceController {
             }
         }
 
+        // Render the PDF once at issue time; downloads are served from the stored file
+        invoicePdfStore.renderAsync(created);
+
         URI location = URI.create("/api/invoices/" + created.getId());
         return ResponseEntity.created(location).body(created);
     }
@@ -264,27 +275,93 @@ public class InvoiceController {
         }
 
         Invoice updated = invoiceRepository.save(invoice);
+
+        // The save bumped the version: drop PDFs of older versions and pre-render the new one
+        invoicePdfStore.invalidate(updated.getId(), updated.getVersion());
+        invoicePdfStore.renderAsync(updated);
+
         return ResponseEntity.ok(updated);
     }
 
     @GetMapping("/{id}/pdf")
-    public ResponseEntity<Resource> generatePdf(@PathVariable Long id) {
-        Optional<Invoice> invoiceOpt = invoiceRepository.findById(id);
-        if (invoiceOpt.isEmpty()) {
+    public ResponseEntity<Resource> generatePdf(
+            @PathVariable Long id,
+            @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        Optional<InvoiceRepository.PdfKey> keyOpt = invoiceRepository.findPdfKeyById(id);
+        if (keyOpt.isEmpty()) {
             return ResponseEntity.notFound().build();
         }
 
-        Invoice invoice = invoiceOpt.get();
-        byte[] pdfBytes = invoicePdfService.generateInvoicePdf(invoice);
+        InvoiceRepository.PdfKey key = keyOpt.get();
+        String etag = InvoicePdfStore.etag(id, key.getVersion());
+        CacheControl cacheControl = CacheControl.noCache().cachePrivate();
+        if (etagMatches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .cacheControl(cacheControl)
+                    .build();
+        }
+
+        Path pdf = invoicePdfStore.find(id, key.getVersion());
+        if (pdf == null) {
+            // Not rendered yet (e.g. issued before PDFs were stored); render it now
+            Optional<Invoice> invoiceOpt = invoiceRepository.findById(id);
+            if (invoiceOpt.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+            Invoice invoice = invoiceOpt.get();
+            pdf = invoicePdfStore.getOrRender(invoice);
+            etag = InvoicePdfStore.etag(id, invoice.getVersion());
+        }
 
-        ByteArrayResource resource = new ByteArrayResource(pdfBytes);
+        FileSystemResource resource = new FileSystemResource(pdf);
         return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=invoice-" + invoice.getInvoiceNumber() + ".pdf")
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=invoice-" + key.getInvoiceNumber() + ".pdf")
                 .contentType(MediaType.APPLICATION_PDF)
-                .contentLength(pdfBytes.length)
+                .eTag(etag)
+                .cacheControl(cacheControl)
                 .body(resource);
     }
 
+    /**
+     * Render stored PDFs for every invoice issued in a period (e.g. at month end), in parallel.
+     * Invoices whose current version is already rendered are skipped.
+     */
+    @PostMapping("/pdf/render")
+    public ResponseEntity<InvoicePdfStore.BulkRenderResult> renderPdfsForPeriod(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestHeader(name = "Authorization", required = false) String authorization) {
+        if (adminSecurityService.verifyAdmin(authorization).isEmpty()) {
+            return ResponseEntity.status(403).build();
+        }
+        if (to.isBefore(from)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(invoicePdfStore.renderPeriod(from, to));
+    }
+
+    private boolean etagMatches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String opaque = etag.startsWith("W/") ? etag.substring(2) : etag;
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.equals("*")) {
+                return true;
+            }
+            // Weak comparison, as required for If-None-Match
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals(opaque)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     private String generateInvoiceNumber() {
         String prefix = "INV-" + LocalDate.now().format(DateTimeFormatter.ofPattern("yyyyMM"));
         List<Invoice> existing = invoiceRepository.findByInvoiceNumberPrefix(prefix + "%");
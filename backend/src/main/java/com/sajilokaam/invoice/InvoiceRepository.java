@@ -2,6 +2,8 @@ package com.sajilokaam.invoice;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,6 +14,19 @@ public interface InvoiceRepository extends JpaRepository<Invoice, Long> {
     List<Invoice> findByProject_IdOrderByCreatedAtDesc(Long projectId);
     List<Invoice> findByStatus(String status);
     
+    /**
+     * What a PDF download needs to find the stored file, without loading the invoice
+     */
+    interface PdfKey {
+        Long getVersion();
+        String getInvoiceNumber();
+    }
+
+    @Query("SELECT i.version AS version, i.invoiceNumber AS invoiceNumber FROM Invoice i WHERE i.id = :id")
+    Optional<PdfKey> findPdfKeyById(@Param("id") Long id);
+
+    List<Invoice> findByIssueDateBetween(LocalDate from, LocalDate to);
+
     @Query("SELECT i FROM Invoice i WHERE i.invoiceNumber LIKE :prefix% ORDER BY i.invoiceNumber DESC")
     List<Invoice> findByInvoiceNumberPrefix(String prefix);
 }
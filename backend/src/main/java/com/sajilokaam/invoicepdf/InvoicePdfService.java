@@ -3,241 +3,109 @@ package com.sajilokaam.invoicepdf;
 import com.sajilokaam.invoice.Invoice;
 import com.sajilokaam.invoice.InvoiceItem;
 import com.sajilokaam.invoice.InvoiceItemRepository;
-import org.apache.pdfbox.pdmodel.PDDocument;
-import org.apache.pdfbox.pdmodel.PDPage;
-import org.apache.pdfbox.pdmodel.PDPageContentStream;
-import org.apache.pdfbox.pdmodel.font.PDType1Font;
-import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 
 @Service
 public class InvoicePdfService {
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("MMM dd, yyyy");
+    private static final float MARGIN = PdfLayout.MARGIN;
+
     private final InvoiceItemRepository invoiceItemRepository;
+    private final long maxMainMemoryBytes;
 
-    public InvoicePdfService(InvoiceItemRepository invoiceItemRepository) {
+    public InvoicePdfService(InvoiceItemRepository invoiceItemRepository,
+                             @Value("${pdf.render.max-main-memory-bytes:4194304}") long maxMainMemoryBytes) {
         this.invoiceItemRepository = invoiceItemRepository;
+        this.maxMainMemoryBytes = maxMainMemoryBytes;
     }
 
     public byte[] generateInvoicePdf(Invoice invoice) throws RuntimeException {
-        try (PDDocument document = new PDDocument()) {
-            PDPage page = new PDPage();
-            document.addPage(page);
-
-            PDPageContentStream contentStream = null;
-            try {
-                contentStream = new PDPageContentStream(document, page);
-                float margin = 50;
-                float yPosition = 750;
-                float currentY = yPosition;
-
-                // Title
-                contentStream.beginText();
-                contentStream.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA_BOLD), 24);
-                contentStream.newLineAtOffset(margin, currentY);
-                contentStream.showText("INVOICE");
-                contentStream.endText();
-                currentY -= 30;
-
-                // Invoice Number and Date
-                contentStream.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA), 10);
-                contentStream.beginText();
-                contentStream.newLineAtOffset(margin, currentY);
-                contentStream.showText("Invoice #: " + invoice.getInvoiceNumber());
-                contentStream.endText();
-                
-                contentStream.beginText();
-                contentStream.newLineAtOffset(400, currentY);
-                contentStream.showText("Date: " + invoice.getIssueDate().format(DateTimeFormatter.ofPattern("MMM dd, yyyy")));
-                contentStream.endText();
-                currentY -= 20;
-
-                contentStream.beginText();
-                contentStream.newLineAtOffset(margin, currentY);
-                contentStream.showText("Status: " + invoice.getStatus());
-                contentStream.endText();
-                
-                contentStream.beginText();
-                contentStream.newLineAtOffset(400, currentY);
-                contentStream.showText("Due Date: " + invoice.getDueDate().format(DateTimeFormatter.ofPattern("MMM dd, yyyy")));
-                contentStream.endText();
-                currentY -= 40;
-
-                // From/To Section
-                contentStream.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA_BOLD), 12);
-                contentStream.beginText();
-                contentStream.newLineAtOffset(margin, currentY);
-                contentStream.showText("From:");
-                contentStream.endText();
-
-                contentStream.beginText();
-                contentStream.newLineAtOffset(300, currentY);
-                contentStream.showText("To:");
-                contentStream.endText();
-                currentY -= 20;
-
-                contentStream.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA), 10);
-                contentStream.beginText();
-                contentStream.newLineAtOffset(margin, currentY);
-                contentStream.showText(invoice.getFreelancer().getFullName());
-                contentStream.endText();
-
-                contentStream.beginText();
-                contentStream.newLineAtOffset(300, currentY);
-                contentStream.showText(invoice.getClient().getFullName());
-                contentStream.endText();
-                currentY -= 40;
-
-                // Items Table Header
-                contentStream.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA_BOLD), 10);
-                float tableY = currentY;
-                contentStream.beginText();
-                contentStream.newLineAtOffset(margin, tableY);
-                contentStream.showText("Description");
-                contentStream.endText();
-
-                contentStream.beginText();
-                contentStream.newLineAtOffset(250, tableY);
-                contentStream.showText("Qty");
-                contentStream.endText();
-
-                contentStream.beginText();
-                contentStream.newLineAtOffset(300, tableY);
-                contentStream.showText("Price");
-                contentStream.endText();
-
-                contentStream.beginText();
-                contentStream.newLineAtOffset(400, tableY);
-                contentStream.showText("Amount");
-                contentStream.endText();
-
-                // Draw line
-                contentStream.moveTo(margin, tableY - 5);
-                contentStream.lineTo(500, tableY - 5);
-                contentStream.stroke();
-
-                currentY = tableY - 25;
-
-                // Invoice Items
-                List<InvoiceItem> items = invoiceItemRepository.findByInvoiceId(invoice.getId());
-                contentStream.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA), 10);
-                for (InvoiceItem item : items) {
-                    if (currentY < 200) {
-                        // New page if needed
-                        contentStream.close();
-                        PDPage newPage = new PDPage();
-                        document.addPage(newPage);
-                        contentStream = new PDPageContentStream(document, newPage);
-                        currentY = 750;
-                    }
-
-                    contentStream.beginText();
-                    contentStream.newLineAtOffset(margin, currentY);
-                    String description = item.getDescription();
-                    if (description.length() > 40) {
-                        description = description.substring(0, 37) + "...";
-                    }
-                    contentStream.showText(description);
-                    contentStream.endText();
-
-                    contentStream.beginText();
-                    contentStream.newLineAtOffset(250, currentY);
-                    contentStream.showText(item.getQuantity().toString());
-                    contentStream.endText();
-
-                    contentStream.beginText();
-                    contentStream.newLineAtOffset(300, currentY);
-                    contentStream.showText(formatCurrency(item.getUnitPrice(), invoice.getCurrency()));
-                    contentStream.endText();
-
-                    contentStream.beginText();
-                    contentStream.newLineAtOffset(400, currentY);
-                    contentStream.showText(formatCurrency(item.getAmount(), invoice.getCurrency()));
-                    contentStream.endText();
-
-                    currentY -= 20;
-                }
-
-                currentY -= 20;
-
-                // Totals
-                contentStream.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA), 10);
-                contentStream.beginText();
-                contentStream.newLineAtOffset(300, currentY);
-                contentStream.showText("Subtotal:");
-                contentStream.endText();
-                contentStream.beginText();
-                contentStream.newLineAtOffset(400, currentY);
-                contentStream.showText(formatCurrency(invoice.getSubtotal(), invoice.getCurrency()));
-                contentStream.endText();
-                currentY -= 15;
-
-                if (invoice.getTaxRate().compareTo(BigDecimal.ZERO) > 0) {
-                    contentStream.beginText();
-                    contentStream.newLineAtOffset(300, currentY);
-                    contentStream.showText("Tax (" + invoice.getTaxRate() + "%):");
-                    contentStream.endText();
-                    contentStream.beginText();
-                    contentStream.newLineAtOffset(400, currentY);
-                    contentStream.showText(formatCurrency(invoice.getTaxAmount(), invoice.getCurrency()));
-                    contentStream.endText();
-                    currentY -= 15;
-                }
-
-                if (invoice.getDiscount().compareTo(BigDecimal.ZERO) > 0) {
-                    contentStream.beginText();
-                    contentStream.newLineAtOffset(300, currentY);
-                    contentStream.showText("Discount:");
-                    contentStream.endText();
-                    contentStream.beginText();
-                    contentStream.newLineAtOffset(400, currentY);
-                    contentStream.showText("-" + formatCurrency(invoice.getDiscount(), invoice.getCurrency()));
-                    contentStream.endText();
-                    currentY -= 15;
-                }
-
-                contentStream.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA_BOLD), 12);
-                contentStream.beginText();
-                contentStream.newLineAtOffset(300, currentY);
-                contentStream.showText("Total:");
-                contentStream.endText();
-                contentStream.beginText();
-                contentStream.newLineAtOffset(400, currentY);
-                contentStream.showText(formatCurrency(invoice.getTotalAmount(), invoice.getCurrency()));
-                contentStream.endText();
-                currentY -= 30;
-
-                // Notes and Terms
-                if (invoice.getNotes() != null && !invoice.getNotes().isEmpty()) {
-                    contentStream.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA), 10);
-                    contentStream.beginText();
-                    contentStream.newLineAtOffset(margin, currentY);
-                    contentStream.showText("Notes: " + invoice.getNotes());
-                    contentStream.endText();
-                    currentY -= 20;
-                }
-
-                if (invoice.getTerms() != null && !invoice.getTerms().isEmpty()) {
-                    contentStream.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA), 10);
-                    contentStream.beginText();
-                    contentStream.newLineAtOffset(margin, currentY);
-                    contentStream.showText("Terms: " + invoice.getTerms());
-                    contentStream.endText();
-                }
-            } finally {
-                if (contentStream != null) {
-                    contentStream.close();
-                }
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        writeInvoicePdf(invoice, baos);
+        return baos.toByteArray();
+    }
+
+    /**
+     * Render the invoice straight to the given stream (response body or file). The stream is not closed.
+     */
+    public void writeInvoicePdf(Invoice invoice, OutputStream out) throws RuntimeException {
+        List<InvoiceItem> items = invoiceItemRepository.findByInvoiceId(invoice.getId());
+        try (PdfLayout layout = new PdfLayout(maxMainMemoryBytes)) {
+            // Title
+            layout.text(PdfFont.BOLD, 24, MARGIN, "INVOICE").space(30);
+
+            // Invoice Number and Date
+            layout.text(PdfFont.REGULAR, 10, MARGIN, "Invoice #: " + invoice.getInvoiceNumber())
+                    .text(PdfFont.REGULAR, 10, 400, "Date: " + invoice.getIssueDate().format(DATE_FORMAT))
+                    .space(20);
+            layout.text(PdfFont.REGULAR, 10, MARGIN, "Status: " + invoice.getStatus())
+                    .text(PdfFont.REGULAR, 10, 400, "Due Date: " + invoice.getDueDate().format(DATE_FORMAT))
+                    .space(40);
+
+            // From/To Section
+            layout.text(PdfFont.BOLD, 12, MARGIN, "From:")
+                    .text(PdfFont.BOLD, 12, 300, "To:")
+                    .space(20);
+            layout.text(PdfFont.REGULAR, 10, MARGIN, invoice.getFreelancer().getFullName())
+                    .text(PdfFont.REGULAR, 10, 300, invoice.getClient().getFullName())
+                    .space(40);
+
+            // Items table, continued under a repeated header on following pages
+            PdfTable table = new PdfTable()
+                    .column("Description", MARGIN, 190)
+                    .column("Qty", 250, 45)
+                    .column("Price", 300, 95)
+                    .column("Amount", 400, 100)
+                    .ruleTo(500);
+            layout.beginTable(table);
+            for (InvoiceItem item : items) {
+                layout.row(item.getDescription(),
+                        item.getQuantity().toString(),
+                        formatCurrency(item.getUnitPrice(), invoice.getCurrency()),
+                        formatCurrency(item.getAmount(), invoice.getCurrency()));
+            }
+            layout.endTable().space(20);
+
+            // Totals, kept together on one page
+            layout.ensureSpace(75);
+            layout.text(PdfFont.REGULAR, 10, 300, "Subtotal:")
+                    .text(PdfFont.REGULAR, 10, 400, formatCurrency(invoice.getSubtotal(), invoice.getCurrency()))
+                    .space(15);
+
+            if (invoice.getTaxRate().compareTo(BigDecimal.ZERO) > 0) {
+                layout.text(PdfFont.REGULAR, 10, 300, "Tax (" + invoice.getTaxRate() + "%):")
+                        .text(PdfFont.REGULAR, 10, 400, formatCurrency(invoice.getTaxAmount(), invoice.getCurrency()))
+                        .space(15);
+            }
+
+            if (invoice.getDiscount().compareTo(BigDecimal.ZERO) > 0) {
+                layout.text(PdfFont.REGULAR, 10, 300, "Discount:")
+                        .text(PdfFont.REGULAR, 10, 400, "-" + formatCurrency(invoice.getDiscount(), invoice.getCurrency()))
+                        .space(15);
             }
 
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            document.save(baos);
-            return baos.toByteArray();
+            layout.text(PdfFont.BOLD, 12, 300, "Total:")
+                    .text(PdfFont.BOLD, 12, 400, formatCurrency(invoice.getTotalAmount(), invoice.getCurrency()))
+                    .space(30);
+
+            // Notes and Terms
+            if (invoice.getNotes() != null && !invoice.getNotes().isEmpty()) {
+                layout.paragraph(PdfFont.REGULAR, 10, 14, "Notes: " + invoice.getNotes()).space(6);
+            }
+
+            if (invoice.getTerms() != null && !invoice.getTerms().isEmpty()) {
+                layout.paragraph(PdfFont.REGULAR, 10, 14, "Terms: " + invoice.getTerms());
+            }
+
+            layout.writeTo(out);
         } catch (IOException e) {
             throw new RuntimeException("Failed to generate invoice PDF", e);
         }
@@ -250,4 +118,3 @@ public class InvoicePdfService {
         return currency + " " + amount.setScale(2, java.math.RoundingMode.HALF_UP).toString();
     }
 }
-
@@ -0,0 +1,235 @@
+package com.sajilokaam.invoicepdf;
+
+import com.sajilokaam.invoice.Invoice;
+import com.sajilokaam.invoice.InvoiceRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Rendered invoice PDFs on local disk, one file per (invoice id, invoice version).
+ *
+ * Invoices are rendered once when issued or updated and downloads are served from the stored
+ * file; any update to the invoice bumps its version, so a stale file is never served. Files of
+ * older versions are deleted when an invoice is invalidated or a newer version is rendered.
+ */
+@Service
+public class InvoicePdfStore {
+
+    private final Path directory;
+    private final InvoicePdfService invoicePdfService;
+    private final InvoiceRepository invoiceRepository;
+    private final ExecutorService renderExecutor;
+
+    // One render per (invoice, version) at a time; concurrent requests share it
+    private final Map<String, CompletableFuture<Path>> inFlight = new ConcurrentHashMap<>();
+
+    public InvoicePdfStore(@Lazy InvoicePdfService invoicePdfService,
+                           InvoiceRepository invoiceRepository,
+                           @Value("${invoice.pdf.dir:invoices/pdf}") String directory,
+                           @Value("${invoice.pdf.render-threads:4}") int renderThreads) {
+        this.invoicePdfService = invoicePdfService;
+        this.invoiceRepository = invoiceRepository;
+        this.directory = Paths.get(directory);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.renderExecutor = Executors.newFixedThreadPool(Math.max(1, renderThreads), runnable -> {
+            Thread thread = new Thread(runnable, "invoice-pdf-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            Files.createDirectories(this.directory);
+        } catch (IOException e) {
+            System.err.println("Failed to create invoice PDF directory: " + e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        renderExecutor.shutdownNow();
+    }
+
+    /**
+     * Weak ETag for a stored invoice PDF. Derived from the version alone, so conditional
+     * requests can be answered without reading the file.
+     */
+    public static String etag(Long invoiceId, Long version) {
+        return "W/\"invoice-" + invoiceId + "-v" + version + "\"";
+    }
+
+    /**
+     * Path of the stored PDF for this exact version, or null if it has not been rendered
+     */
+    public Path find(Long invoiceId, Long version) {
+        Path file = fileFor(invoiceId, version);
+        return Files.exists(file) ? file : null;
+    }
+
+    /**
+     * Stored PDF for the invoice's current version, waiting for it to be rendered if missing
+     */
+    public Path getOrRender(Invoice invoice) {
+        Path existing = find(invoice.getId(), invoice.getVersion());
+        if (existing != null) {
+            return existing;
+        }
+        try {
+            return renderAsync(invoice).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Render in the background, e.g. right after an invoice is issued or updated
+     */
+    public CompletableFuture<Path> renderAsync(Invoice invoice) {
+        String key = key(invoice);
+        CompletableFuture<Path> render = new CompletableFuture<>();
+        CompletableFuture<Path> existing = inFlight.putIfAbsent(key, render);
+        if (existing != null) {
+            return existing;
+        }
+        try {
+            renderExecutor.execute(() -> {
+                try {
+                    render.complete(renderNow(invoice));
+                } catch (RuntimeException e) {
+                    render.completeExceptionally(e);
+                } finally {
+                    inFlight.remove(key, render);
+                }
+            });
+        } catch (RuntimeException e) {
+            inFlight.remove(key, render);
+            throw e;
+        }
+        return render;
+    }
+
+    /**
+     * Delete stored PDFs of versions older than the current one
+     */
+    public void invalidate(Long invoiceId, Long currentVersion) {
+        String prefix = "invoice-" + invoiceId + "-v";
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, prefix + "*.pdf")) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                try {
+                    long version = Long.parseLong(name.substring(prefix.length(), name.length() - ".pdf".length()));
+                    if (version < currentVersion) {
+                        Files.deleteIfExists(file);
+                    }
+                } catch (NumberFormatException e) {
+                    // Not one of ours
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to invalidate invoice PDFs for invoice " + invoiceId + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Render every invoice issued in the period that has no stored PDF for its current
+     * version, in parallel on the render pool. Blocks until all renders have finished.
+     */
+    public BulkRenderResult renderPeriod(LocalDate from, LocalDate to) {
+        List<Invoice> invoices = invoiceRepository.findByIssueDateBetween(from, to);
+        BulkRenderResult result = new BulkRenderResult(invoices.size());
+        List<CompletableFuture<Path>> renders = new ArrayList<>();
+        for (Invoice invoice : invoices) {
+            if (find(invoice.getId(), invoice.getVersion()) != null) {
+                result.alreadyCurrent++;
+                continue;
+            }
+            renders.add(renderAsync(invoice));
+        }
+        for (CompletableFuture<Path> render : renders) {
+            try {
+                render.join();
+                result.rendered++;
+            } catch (CompletionException e) {
+                result.failed++;
+                System.err.println("Failed to render invoice PDF: " + e.getCause());
+            }
+        }
+        return result;
+    }
+
+    private Path renderNow(Invoice invoice) {
+        Path target = fileFor(invoice.getId(), invoice.getVersion());
+        if (Files.exists(target)) {
+            return target;
+        }
+        Path temp = directory.resolve(target.getFileName() + "." + Thread.currentThread().threadId() + ".tmp");
+        try {
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temp))) {
+                invoicePdfService.writeInvoicePdf(invoice, out);
+            }
+            // Readers only ever see complete files
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            // Also covers updates made outside PUT /api/invoices/{id}, e.g. payments marking it paid
+            invalidate(invoice.getId(), invoice.getVersion());
+            return target;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to store invoice PDF", e);
+        } finally {
+            try {
+                Files.deleteIfExists(temp);
+            } catch (IOException ignored) {
+                // Best effort
+            }
+        }
+    }
+
+    private Path fileFor(Long invoiceId, Long version) {
+        return directory.resolve("invoice-" + invoiceId + "-v" + version + ".pdf");
+    }
+
+    private String key(Invoice invoice) {
+        return invoice.getId() + ":" + invoice.getVersion();
+    }
+
+    /**
+     * Outcome of a bulk period render.
+     */
+    public static class BulkRenderResult {
+        private final int total;
+        private int rendered;
+        private int alreadyCurrent;
+        private int failed;
+
+        BulkRenderResult(int total) {
+            this.total = total;
+        }
+
+        public int getTotal() { return total; }
+        public int getRendered() { return rendered; }
+        public int getAlreadyCurrent() { return alreadyCurrent; }
+        public int getFailed() { return failed; }
+    }
+}
@@ -0,0 +1,161 @@
+package com.sajilokaam.invoicepdf;
+
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+import org.apache.pdfbox.pdmodel.font.encoding.GlyphList;
+import org.apache.pdfbox.pdmodel.font.encoding.WinAnsiEncoding;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Standard 14 fonts used by generated PDFs, with glyph widths loaded once per JVM.
+ *
+ * PDType1Font instances keep mutable per-instance caches and are bound to the document
+ * whose resources they are added to, so each document gets its own instance (see
+ * {@link PdfLayout}). Measuring, wrapping and truncating text only needs the immutable
+ * width table here, which is shared by every render thread.
+ */
+public enum PdfFont {
+    REGULAR(Standard14Fonts.FontName.HELVETICA),
+    BOLD(Standard14Fonts.FontName.HELVETICA_BOLD);
+
+    private static final String ELLIPSIS = "...";
+
+    private final Standard14Fonts.FontName fontName;
+    private final Map<Character, Float> widths; // Glyph widths in 1/1000 text space units
+    private final float replacementWidth;
+
+    PdfFont(Standard14Fonts.FontName fontName) {
+        this.fontName = fontName;
+        PDType1Font font = new PDType1Font(fontName);
+        GlyphList glyphList = GlyphList.getAdobeGlyphList();
+        Map<Character, Float> table = new HashMap<>();
+        try {
+            for (Map.Entry<Integer, String> entry : WinAnsiEncoding.INSTANCE.getCodeToNameMap().entrySet()) {
+                String unicode = glyphList.toUnicode(entry.getValue());
+                if (unicode != null && unicode.length() == 1) {
+                    table.put(unicode.charAt(0), font.getWidth(entry.getKey()));
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to load metrics for " + fontName, e);
+        }
+        this.widths = Map.copyOf(table);
+        this.replacementWidth = widths.getOrDefault('?', 556f);
+    }
+
+    /**
+     * New font instance for a single document
+     */
+    PDType1Font newFont() {
+        return new PDType1Font(fontName);
+    }
+
+    /**
+     * Replace characters the font cannot encode, so showText never fails on user input.
+     * Tabs and line breaks become spaces; anything else unknown becomes '?'.
+     */
+    public String sanitize(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder sb = null;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (widths.containsKey(c)) {
+                if (sb != null) {
+                    sb.append(c);
+                }
+                continue;
+            }
+            if (sb == null) {
+                sb = new StringBuilder(text.length()).append(text, 0, i);
+            }
+            sb.append(c == '\t' || c == '\n' || c == '\r' ? ' ' : '?');
+        }
+        return sb != null ? sb.toString() : text;
+    }
+
+    /**
+     * Width in points of already sanitized text at the given size
+     */
+    public float width(String text, float size) {
+        float total = 0;
+        for (int i = 0; i < text.length(); i++) {
+            total += widths.getOrDefault(text.charAt(i), replacementWidth);
+        }
+        return total * size / 1000f;
+    }
+
+    /**
+     * Sanitize and truncate text with "..." so it fits within maxWidth
+     */
+    public String fit(String text, float size, float maxWidth) {
+        String clean = sanitize(text);
+        if (width(clean, size) <= maxWidth) {
+            return clean;
+        }
+        float budget = maxWidth - width(ELLIPSIS, size);
+        float used = 0;
+        int end = 0;
+        while (end < clean.length()) {
+            float w = widths.getOrDefault(clean.charAt(end), replacementWidth) * size / 1000f;
+            if (used + w > budget) {
+                break;
+            }
+            used += w;
+            end++;
+        }
+        return clean.substring(0, end) + ELLIPSIS;
+    }
+
+    /**
+     * Sanitize and word-wrap text into lines no wider than maxWidth. Words longer than a
+     * whole line are broken at the character that overflows.
+     */
+    public List<String> wrap(String text, float size, float maxWidth) {
+        List<String> lines = new ArrayList<>();
+        if (text == null) {
+            return lines;
+        }
+        for (String paragraph : text.split("\r?\n", -1)) {
+            String clean = sanitize(paragraph);
+            StringBuilder line = new StringBuilder();
+            float lineWidth = 0;
+            float spaceWidth = width(" ", size);
+            for (String word : clean.split(" +")) {
+                if (word.isEmpty()) {
+                    continue;
+                }
+                float wordWidth = width(word, size);
+                if (line.length() > 0 && lineWidth + spaceWidth + wordWidth <= maxWidth) {
+                    line.append(' ').append(word);
+                    lineWidth += spaceWidth + wordWidth;
+                    continue;
+                }
+                if (line.length() > 0) {
+                    lines.add(line.toString());
+                    line.setLength(0);
+                    lineWidth = 0;
+                }
+                while (wordWidth > maxWidth) {
+                    int end = 1;
+                    while (end < word.length() && width(word.substring(0, end + 1), size) <= maxWidth) {
+                        end++;
+                    }
+                    lines.add(word.substring(0, end));
+                    word = word.substring(end);
+                    wordWidth = width(word, size);
+                }
+                line.append(word);
+                lineWidth = wordWidth;
+            }
+            lines.add(line.toString());
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,214 @@
+package com.sajilokaam.invoicepdf;
+
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Small top-to-bottom layout engine over PDFBox. Keeps a cursor on the current page, starts a
+ * new page whenever the next line would cross the bottom margin, and flows tables across pages.
+ *
+ * Each font is added to the document once and reused on every page. Document buffers live in
+ * main memory up to a limit and spill to a scratch file beyond it, so large reports don't hold
+ * every page on the heap. Not thread-safe; use one instance per render.
+ */
+public class PdfLayout implements Closeable {
+
+    public static final float MARGIN = 50;
+    public static final float TOP = 750;
+    public static final float BOTTOM = 50;
+    public static final float PAGE_WIDTH = PDRectangle.LETTER.getWidth();
+
+    private final PDDocument document;
+    private final Map<PdfFont, PDType1Font> fonts = new EnumMap<>(PdfFont.class);
+
+    private PDPageContentStream content;
+    private PDType1Font currentFont;
+    private float currentFontSize;
+    private float y;
+    private PdfTable activeTable;
+
+    /**
+     * @param maxMainMemoryBytes document buffer size kept on the heap before spilling to a scratch file
+     */
+    public PdfLayout(long maxMainMemoryBytes) throws IOException {
+        this.document = new PDDocument(MemoryUsageSetting.setupMixed(maxMainMemoryBytes).streamCache);
+        newPage();
+    }
+
+    public float getY() {
+        return y;
+    }
+
+    public int getPageCount() {
+        return document.getNumberOfPages();
+    }
+
+    /**
+     * Move the cursor down
+     */
+    public PdfLayout space(float height) {
+        y -= height;
+        return this;
+    }
+
+    /**
+     * Start a new page unless there is room for a block of the given height
+     */
+    public PdfLayout ensureSpace(float height) throws IOException {
+        if (y - height < BOTTOM) {
+            newPage();
+        }
+        return this;
+    }
+
+    /**
+     * Draw text at x on the current line without moving the cursor
+     */
+    public PdfLayout text(PdfFont font, float size, float x, String text) throws IOException {
+        showText(font, size, x, font.sanitize(text));
+        return this;
+    }
+
+    /**
+     * Draw one line at the left margin, truncated to the page width, then move down by lineHeight
+     */
+    public PdfLayout line(PdfFont font, float size, float lineHeight, String text) throws IOException {
+        ensureSpace(0);
+        showText(font, size, MARGIN, font.fit(text, size, PAGE_WIDTH - 2 * MARGIN));
+        y -= lineHeight;
+        return this;
+    }
+
+    /**
+     * Word-wrap text to the page width, paginating as needed
+     */
+    public PdfLayout paragraph(PdfFont font, float size, float lineHeight, String text) throws IOException {
+        for (String wrapped : font.wrap(text, size, PAGE_WIDTH - 2 * MARGIN)) {
+            ensureSpace(0);
+            showText(font, size, MARGIN, wrapped);
+            y -= lineHeight;
+        }
+        return this;
+    }
+
+    /**
+     * Horizontal rule at the given offset below the cursor
+     */
+    public PdfLayout rule(float fromX, float toX, float offset) throws IOException {
+        content.moveTo(fromX, y - offset);
+        content.lineTo(toX, y - offset);
+        content.stroke();
+        return this;
+    }
+
+    /**
+     * Draw the table header and make rows flow onto new pages under a repeated header
+     */
+    public PdfLayout beginTable(PdfTable table) throws IOException {
+        ensureSpace(table.getHeaderGap() + table.getRowHeight());
+        activeTable = table;
+        drawTableHeader();
+        return this;
+    }
+
+    public PdfLayout row(String... cells) throws IOException {
+        PdfTable table = activeTable;
+        if (table == null) {
+            throw new IllegalStateException("No table in progress");
+        }
+        ensureSpace(0);
+        List<PdfTable.Column> columns = table.getColumns();
+        float size = table.getFontSize();
+        for (int i = 0; i < columns.size() && i < cells.length; i++) {
+            PdfTable.Column column = columns.get(i);
+            String cell = PdfFont.REGULAR.fit(cells[i], size, column.width);
+            float x = column.align == PdfTable.Align.RIGHT
+                    ? column.x + column.width - PdfFont.REGULAR.width(cell, size)
+                    : column.x;
+            showText(PdfFont.REGULAR, size, x, cell);
+        }
+        y -= table.getRowHeight();
+        return this;
+    }
+
+    public PdfLayout endTable() {
+        activeTable = null;
+        return this;
+    }
+
+    /**
+     * Finish the document and write it out. The stream is not closed.
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        closeContent();
+        document.save(out);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            closeContent();
+        } finally {
+            document.close();
+        }
+    }
+
+    private void newPage() throws IOException {
+        closeContent();
+        PDPage page = new PDPage(PDRectangle.LETTER);
+        document.addPage(page);
+        content = new PDPageContentStream(document, page);
+        y = TOP;
+        if (activeTable != null) {
+            drawTableHeader();
+        }
+    }
+
+    private void drawTableHeader() throws IOException {
+        PdfTable table = activeTable;
+        float size = table.getFontSize();
+        for (PdfTable.Column column : table.getColumns()) {
+            String header = PdfFont.BOLD.fit(column.header, size, column.width);
+            float x = column.align == PdfTable.Align.RIGHT
+                    ? column.x + column.width - PdfFont.BOLD.width(header, size)
+                    : column.x;
+            showText(PdfFont.BOLD, size, x, header);
+        }
+        if (table.getRuleEnd() > 0 && !table.getColumns().isEmpty()) {
+            rule(table.getColumns().get(0).x, table.getRuleEnd(), 5);
+        }
+        y -= table.getHeaderGap();
+    }
+
+    private void showText(PdfFont font, float size, float x, String sanitized) throws IOException {
+        PDType1Font pdFont = fonts.computeIfAbsent(font, PdfFont::newFont);
+        if (pdFont != currentFont || size != currentFontSize) {
+            content.setFont(pdFont, size);
+            currentFont = pdFont;
+            currentFontSize = size;
+        }
+        content.beginText();
+        content.newLineAtOffset(x, y);
+        content.showText(sanitized);
+        content.endText();
+    }
+
+    private void closeContent() throws IOException {
+        if (content != null) {
+            content.close();
+            content = null;
+            currentFont = null;
+        }
+    }
+}
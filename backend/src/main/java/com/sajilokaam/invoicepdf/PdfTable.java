@@ -0,0 +1,71 @@
+package com.sajilokaam.invoicepdf;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Column layout for a table flowed by {@link PdfLayout}. The header row is repeated at the
+ * top of every page the table continues onto; cells are truncated to their column width.
+ */
+public class PdfTable {
+
+    public enum Align { LEFT, RIGHT }
+
+    private final List<Column> columns = new ArrayList<>();
+    private float fontSize = 10;
+    private float rowHeight = 20;
+    private float headerGap = 25; // From header baseline to first row baseline
+    private float ruleEnd = -1;
+
+    public PdfTable column(String header, float x, float width) {
+        return column(header, x, width, Align.LEFT);
+    }
+
+    public PdfTable column(String header, float x, float width, Align align) {
+        columns.add(new Column(header, x, width, align));
+        return this;
+    }
+
+    public PdfTable fontSize(float fontSize) {
+        this.fontSize = fontSize;
+        return this;
+    }
+
+    public PdfTable rowHeight(float rowHeight) {
+        this.rowHeight = rowHeight;
+        return this;
+    }
+
+    public PdfTable headerGap(float headerGap) {
+        this.headerGap = headerGap;
+        return this;
+    }
+
+    /**
+     * Draw a rule under the header from the first column to this x position
+     */
+    public PdfTable ruleTo(float ruleEnd) {
+        this.ruleEnd = ruleEnd;
+        return this;
+    }
+
+    List<Column> getColumns() { return columns; }
+    float getFontSize() { return fontSize; }
+    float getRowHeight() { return rowHeight; }
+    float getHeaderGap() { return headerGap; }
+    float getRuleEnd() { return ruleEnd; }
+
+    static class Column {
+        final String header;
+        final float x;
+        final float width;
+        final Align align;
+
+        Column(String header, float x, float width, Align align) {
+            this.header = header;
+            this.x = x;
+            this.width = width;
+            this.align = align;
+        }
+    }
+}
@@ -5,6 +5,7 @@ import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.sajilokaam.jobcategory.JobCategory;
 import com.sajilokaam.jobskill.JobSkill;
+import com.sajilokaam.platformmetrics.PlatformMetricsListener;
 import com.sajilokaam.user.User;
 import jakarta.persistence.*;
 import java.math.BigDecimal;
@@ -17,6 +18,7 @@ import java.util.Set;
 import java.util.stream.Collectors;
 
 @Entity
+@EntityListeners(PlatformMetricsListener.class)
 @Table(name = "jobs", indexes = {
         @Index(name = "idx_jobs_client", columnList = "client_id"),
         @Index(name = "idx_jobs_category", columnList = "category_id"),
@@ -1,8 +1,12 @@
 package com.sajilokaam.job;
 
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.Optional;
@@ -16,5 +20,11 @@ public interface JobRepository extends JpaRepository<Job, Long>, JpaSpecificatio
     
     @EntityGraph(attributePaths = {"client", "category", "requiredSkills"})
     List<Job> findAll();
-}
 
+    /**
+     * Loads the job with a row lock held until the transaction ends (SELECT ... FOR UPDATE)
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT j FROM Job j WHERE j.id = :id")
+    Optional<Job> findByIdForUpdate(@Param("id") Long id);
+}
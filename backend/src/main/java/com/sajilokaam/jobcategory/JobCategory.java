@@ -1,10 +1,14 @@
 package com.sajilokaam.jobcategory;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.sajilokaam.config.ReferenceDataCacheConfig;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.Instant;
 
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = ReferenceDataCacheConfig.ENTITY_REGION)
 @Table(name = "job_categories")
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class JobCategory {
@@ -1,9 +1,17 @@
 package com.sajilokaam.jobcategory;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
+import java.util.List;
 import java.util.Optional;
 
 public interface JobCategoryRepository extends JpaRepository<JobCategory, Long> {
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<JobCategory> findAll();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<JobCategory> findByName(String name);
 }
 
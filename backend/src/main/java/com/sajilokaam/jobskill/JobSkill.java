@@ -1,11 +1,15 @@
 package com.sajilokaam.jobskill;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.sajilokaam.config.ReferenceDataCacheConfig;
 import com.sajilokaam.jobcategory.JobCategory;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.Instant;
 
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = ReferenceDataCacheConfig.ENTITY_REGION)
 @Table(name = "job_skills", indexes = {
         @Index(name = "idx_skills_category", columnList = "category_id")
 })
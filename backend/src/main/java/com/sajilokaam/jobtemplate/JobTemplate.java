@@ -1,10 +1,14 @@
 package com.sajilokaam.jobtemplate;
 
+import com.sajilokaam.config.ReferenceDataCacheConfig;
 import com.sajilokaam.jobcategory.JobCategory;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.Instant;
 
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = ReferenceDataCacheConfig.ENTITY_REGION)
 @Table(name = "job_templates")
 public class JobTemplate {
     @Id
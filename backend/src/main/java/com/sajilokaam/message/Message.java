@@ -1,6 +1,7 @@
 package com.sajilokaam.message;
 
 import com.fasterxml.jackson.annotation.JsonManagedReference;
+import com.sajilokaam.config.IdGenerators;
 import com.sajilokaam.conversation.Conversation;
 import com.sajilokaam.user.User;
 import jakarta.persistence.*;
@@ -17,7 +18,10 @@ import java.util.List;
 })
 public class Message {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "messages_id")
+    @TableGenerator(name = "messages_id", table = IdGenerators.TABLE, pkColumnName = IdGenerators.NAME_COLUMN,
+            valueColumnName = IdGenerators.VALUE_COLUMN, pkColumnValue = "messages",
+            allocationSize = IdGenerators.ALLOCATION_SIZE)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -8,7 +8,8 @@ import java.time.Instant;
 @Entity
 @Table(name = "document_processings", indexes = {
         @Index(name = "idx_doc_processing_project", columnList = "project_id"),
-        @Index(name = "idx_doc_processing_status", columnList = "status")
+        @Index(name = "idx_doc_processing_status", columnList = "status"),
+        @Index(name = "idx_doc_processing_content_hash", columnList = "content_hash")
 })
 public class DocumentProcessing {
     @Id
@@ -35,12 +36,27 @@ public class DocumentProcessing {
     @Column(name = "file_size_bytes", nullable = false)
     private Long fileSizeBytes;
 
+    @Column(name = "content_hash", length = 64)
+    private String contentHash; // SHA-256 of the stored file, hex encoded
+
+    @Column(name = "extractor_version", length = 50)
+    private String extractorVersion; // Version of the OCR/extraction pipeline that produced ocrText
+
+    @Column(name = "extraction_method", length = 20)
+    private String extractionMethod; // ML or RULE_BASED, whichever produced the suggestions
+
     @Column(nullable = false, length = 50)
     private String status = "PENDING"; // PENDING, PROCESSING, COMPLETED, FAILED
 
     @Column(name = "ocr_text", columnDefinition = "TEXT")
     private String ocrText; // Extracted text from OCR
 
+    @Column(name = "pages_total")
+    private Integer pagesTotal; // Pages to OCR/extract; updated as the document is processed
+
+    @Column(name = "pages_processed")
+    private Integer pagesProcessed;
+
     @Column(name = "extracted_tasks_count")
     private Integer extractedTasksCount = 0;
 
@@ -74,10 +90,20 @@ public class DocumentProcessing {
     public void setFileType(String fileType) { this.fileType = fileType; }
     public Long getFileSizeBytes() { return fileSizeBytes; }
     public void setFileSizeBytes(Long fileSizeBytes) { this.fileSizeBytes = fileSizeBytes; }
+    public String getContentHash() { return contentHash; }
+    public void setContentHash(String contentHash) { this.contentHash = contentHash; }
+    public String getExtractorVersion() { return extractorVersion; }
+    public void setExtractorVersion(String extractorVersion) { this.extractorVersion = extractorVersion; }
+    public String getExtractionMethod() { return extractionMethod; }
+    public void setExtractionMethod(String extractionMethod) { this.extractionMethod = extractionMethod; }
     public String getStatus() { return status; }
     public void setStatus(String status) { this.status = status; }
     public String getOcrText() { return ocrText; }
     public void setOcrText(String ocrText) { this.ocrText = ocrText; }
+    public Integer getPagesTotal() { return pagesTotal; }
+    public void setPagesTotal(Integer pagesTotal) { this.pagesTotal = pagesTotal; }
+    public Integer getPagesProcessed() { return pagesProcessed; }
+    public void setPagesProcessed(Integer pagesProcessed) { this.pagesProcessed = pagesProcessed; }
     public Integer getExtractedTasksCount() { return extractedTasksCount; }
     public void setExtractedTasksCount(Integer extractedTasksCount) { this.extractedTasksCount = extractedTasksCount; }
     public Instant getProcessingStartedAt() { return processingStartedAt; }
@@ -6,10 +6,14 @@ import com.sajilokaam.project.ProjectRepository;
 import com.sajilokaam.task.Task;
 import com.sajilokaam.user.User;
 import com.sajilokaam.user.UserRepository;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -21,6 +25,7 @@ import java.util.concurrent.CompletableFuture;
 public class DocumentProcessingController {
 
     private final DocumentProcessingService documentProcessingService;
+    private final DocumentStorageService documentStorageService;
     private final DocumentProcessingRepository documentProcessingRepository;
     private final ExtractedTaskSuggestionRepository extractedTaskSuggestionRepository;
     private final ProjectRepository projectRepository;
@@ -29,12 +34,14 @@ public class DocumentProcessingController {
 
     public DocumentProcessingController(
             DocumentProcessingService documentProcessingService,
+            DocumentStorageService documentStorageService,
             DocumentProcessingRepository documentProcessingRepository,
             ExtractedTaskSuggestionRepository extractedTaskSuggestionRepository,
             ProjectRepository projectRepository,
             UserRepository userRepository,
             JwtService jwtService) {
         this.documentProcessingService = documentProcessingService;
+        this.documentStorageService = documentStorageService;
         this.documentProcessingRepository = documentProcessingRepository;
         this.extractedTaskSuggestionRepository = extractedTaskSuggestionRepository;
         this.projectRepository = projectRepository;
@@ -43,13 +50,37 @@ public class DocumentProcessingController {
     }
 
     /**
-     * Upload and process a document
+     * Upload and process a document (multipart form upload)
      */
     @PostMapping("/upload")
     public ResponseEntity<Map<String, Object>> uploadDocument(
             @PathVariable Long projectId,
             @RequestParam("file") MultipartFile file,
             @RequestHeader(name = "Authorization", required = false) String authorization) {
+        return handleUpload(projectId, authorization, () -> {
+            try (InputStream in = file.getInputStream()) {
+                return documentStorageService.store(in, file.getOriginalFilename(), file.getContentType());
+            }
+        });
+    }
+
+    /**
+     * Upload and process a document sent as the raw request body.
+     * The body is streamed straight to storage without a multipart temp file.
+     */
+    @PostMapping(value = "/upload-stream", consumes = MediaType.ALL_VALUE)
+    public ResponseEntity<Map<String, Object>> uploadDocumentStream(
+            @PathVariable Long projectId,
+            @RequestParam(name = "filename", required = false) String filename,
+            @RequestHeader(name = "Content-Type", required = false) String contentType,
+            @RequestHeader(name = "Authorization", required = false) String authorization,
+            HttpServletRequest request) {
+        return handleUpload(projectId, authorization,
+                () -> documentStorageService.store(request.getInputStream(), filename, contentType));
+    }
+
+    private ResponseEntity<Map<String, Object>> handleUpload(
+            Long projectId, String authorization, DocumentSource source) {
         
         if (authorization == null || !authorization.startsWith("Bearer ")) {
             return ResponseEntity.status(401).build();
@@ -78,8 +109,11 @@ public class DocumentProcessingController {
                 ));
             }
 
+            // Stream to durable storage before handing off to the async processor
+            StoredDocument document = source.store();
+
             CompletableFuture<DocumentProcessing> future = documentProcessingService.processDocument(
-                    file, projectId, user);
+                    document, projectId, user);
             
             // Wait for completion to get suggestions count
             DocumentProcessing processing = future.get();
@@ -224,6 +258,11 @@ public class DocumentProcessingController {
         return ResponseEntity.ok(processings);
     }
 
+    @FunctionalInterface
+    private interface DocumentSource {
+        StoredDocument store() throws IOException;
+    }
+
     public static class CreateTasksRequest {
         private List<Long> suggestionIds;
 
@@ -1,12 +1,25 @@
 package com.sajilokaam.mldocument;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface DocumentProcessingRepository extends JpaRepository<DocumentProcessing, Long> {
     List<DocumentProcessing> findByProjectIdOrderByCreatedAtDesc(Long projectId);
     List<DocumentProcessing> findByStatus(String status);
+    Optional<DocumentProcessing> findFirstByContentHashAndExtractorVersionAndExtractionMethodAndStatusOrderByProcessingCompletedAtDesc(
+            String contentHash, String extractorVersion, String extractionMethod, String status);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE DocumentProcessing d SET d.pagesProcessed = :processed, d.pagesTotal = :total " +
+           "WHERE d.id = :id AND (d.pagesProcessed IS NULL OR d.pagesProcessed <= :processed)")
+    int updatePageProgress(@Param("id") Long id, @Param("processed") int processed, @Param("total") int total);
 }
 
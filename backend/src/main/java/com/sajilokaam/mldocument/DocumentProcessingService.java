@@ -6,26 +6,23 @@ import com.sajilokaam.task.Task;
 import com.sajilokaam.task.TaskRepository;
 import com.sajilokaam.task.TaskPriority;
 import com.sajilokaam.user.User;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.multipart.MultipartFile;
 
-import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
 import java.time.Instant;
 import java.util.List;
-import java.util.UUID;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Service
 public class DocumentProcessingService {
 
-    private static final String UPLOAD_DIR = "uploads/documents";
-    private static final long MAX_FILE_SIZE = 10 * 1024 * 1024; // 10MB
+    static final String METHOD_ML = "ML";
+    static final String METHOD_RULE_BASED = "RULE_BASED";
 
     private final DocumentProcessingRepository documentProcessingRepository;
     private final ExtractedTaskSuggestionRepository extractedTaskSuggestionRepository;
@@ -34,15 +31,17 @@ public class DocumentProcessingService {
     private final OcrService ocrService;
     private final TaskExtractionService taskExtractionService;
     private final MlTaskExtractionClient mlTaskExtractionClient;
+    private final ExtractionCache extractionCache;
 
     public DocumentProcessingService(
             DocumentProcessingRepository documentProcessingRepository,
             ExtractedTaskSuggestionRepository extractedTaskSuggestionRepository,
             ProjectRepository projectRepository,
             TaskRepository taskRepository,
-            OcrService ocrService,
+            @Lazy OcrService ocrService,
             TaskExtractionService taskExtractionService,
-            MlTaskExtractionClient mlTaskExtractionClient) {
+            MlTaskExtractionClient mlTaskExtractionClient,
+            ExtractionCache extractionCache) {
         this.documentProcessingRepository = documentProcessingRepository;
         this.extractedTaskSuggestionRepository = extractedTaskSuggestionRepository;
         this.projectRepository = projectRepository;
@@ -50,71 +49,32 @@ public class DocumentProcessingService {
         this.ocrService = ocrService;
         this.taskExtractionService = taskExtractionService;
         this.mlTaskExtractionClient = mlTaskExtractionClient;
-
-        // Create upload directory
-        try {
-            Path uploadPath = Paths.get(UPLOAD_DIR);
-            if (!Files.exists(uploadPath)) {
-                Files.createDirectories(uploadPath);
-            }
-        } catch (IOException e) {
-            System.err.println("Failed to create upload directory: " + e.getMessage());
-        }
+        this.extractionCache = extractionCache;
     }
 
     /**
-     * Upload and process a document asynchronously
+     * Process an already stored document asynchronously.
+     * Takes the durable stored file rather than the request-scoped upload, which
+     * is no longer valid once the request has completed.
      */
     @Async
     public CompletableFuture<DocumentProcessing> processDocument(
-            MultipartFile file, Long projectId, User uploadedBy) {
+            StoredDocument document, Long projectId, User uploadedBy) {
         
         DocumentProcessing processing = new DocumentProcessing();
         processing.setStatus("PROCESSING");
         processing.setProcessingStartedAt(Instant.now());
 
         try {
-            // Validate file
-            if (file.isEmpty()) {
-                throw new IllegalArgumentException("File is empty");
-            }
-
-            if (file.getSize() > MAX_FILE_SIZE) {
-                throw new IllegalArgumentException("File size exceeds maximum allowed size");
-            }
-
             // Get project
             Project project = projectRepository.findById(projectId)
                     .orElseThrow(() -> new IllegalArgumentException("Project not found"));
 
-            // Save file
-            String originalFilename = file.getOriginalFilename();
-            if (originalFilename == null || originalFilename.trim().isEmpty()) {
-                originalFilename = "uploaded_file";
-            }
-            
-            // Extract extension from original filename
-            String extension = "";
-            if (originalFilename.contains(".")) {
-                extension = originalFilename.substring(originalFilename.lastIndexOf("."));
-            }
-            
-            // If no extension found, try to infer from content type
-            if (extension.isEmpty() && file.getContentType() != null) {
-                String ct = file.getContentType().toLowerCase();
-                if (ct.contains("text/plain") || ct.contains("text")) {
-                    extension = ".txt";
-                } else if (ct.contains("pdf")) {
-                    extension = ".pdf";
-                }
-            }
-            
-            String uniqueFilename = UUID.randomUUID().toString() + extension;
-            Path filePath = Paths.get(UPLOAD_DIR, uniqueFilename);
-            Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
+            String originalFilename = document.getOriginalFilename();
+            Path filePath = document.getPath();
 
             // Determine file type (check filename first, then file path, then content type)
-            String contentType = file.getContentType();
+            String contentType = document.getContentType();
             String fileType = determineFileType(contentType, originalFilename, filePath.toString());
             
             // Log for debugging
@@ -122,6 +82,7 @@ public class DocumentProcessingService {
             System.out.println("Content Type: " + contentType);
             System.out.println("Original Filename: " + originalFilename);
             System.out.println("File Path: " + filePath.toString());
+            System.out.println("Content Hash: " + document.getContentHash());
             System.out.println("Detected File Type: " + fileType);
             System.out.println("========================");
 
@@ -138,35 +99,43 @@ public class DocumentProcessingService {
             processing.setOriginalFilename(originalFilename);
             processing.setFilePath(filePath.toString());
             processing.setFileType(fileType);
-            processing.setFileSizeBytes(file.getSize());
+            processing.setFileSizeBytes(document.getSizeBytes());
+            processing.setContentHash(document.getContentHash());
             processing = documentProcessingRepository.save(processing);
 
-            // Perform OCR/text extraction (fileType is now guaranteed to be TXT if it was UNKNOWN)
-            String ocrText = ocrService.extractText(filePath, fileType);
-            processing.setOcrText(ocrText);
-            documentProcessingRepository.save(processing);
-
-            // Extract tasks using Python ML service (with fallback to rule-based)
-            Long processingId = processing.getId();
+            // Reuse a previous extraction of identical content if we have one
+            String ocrText;
             List<ExtractedTaskSuggestion> suggestions;
-            
-            // Try Python ML service first
-            if (mlTaskExtractionClient.isServiceAvailable()) {
-                try {
-                    suggestions = mlTaskExtractionClient.extractTasksFromMlService(ocrText, processingId);
-                    if (suggestions.isEmpty()) {
-                        // Fallback to rule-based if ML returns nothing
-                        suggestions = taskExtractionService.extractTasks(ocrText, processingId);
-                    }
-                } catch (Exception e) {
-                    System.err.println("ML service error, falling back to rule-based: " + e.getMessage());
-                    // Fallback to rule-based extraction
-                    suggestions = taskExtractionService.extractTasks(ocrText, processingId);
-                }
+            ExtractionCache.CachedExtraction cached = findCachedExtraction(document.getContentHash());
+
+            if (cached != null) {
+                System.out.println("Extraction cache hit for content hash " + document.getContentHash());
+                ocrText = cached.getOcrText();
+                suggestions = cached.copySuggestions();
+                processing.setOcrText(ocrText);
+                processing.setExtractorVersion(extractionCache.getExtractorVersion());
+                processing.setExtractionMethod(METHOD_ML);
+                documentProcessingRepository.save(processing);
             } else {
-                // ML service not available, use rule-based extraction
-                System.out.println("ML service not available, using rule-based extraction");
-                suggestions = taskExtractionService.extractTasks(ocrText, processingId);
+                // Perform OCR/text extraction (fileType is now guaranteed to be TXT if it was UNKNOWN)
+                // Progress is written straight to the row so status polling sees pages as they finish
+                Long trackedId = processing.getId();
+                AtomicInteger pagesTotal = new AtomicInteger();
+                ocrText = ocrService.extractText(filePath, fileType, (pagesProcessed, total) -> {
+                    pagesTotal.set(total);
+                    documentProcessingRepository.updatePageProgress(trackedId, pagesProcessed, total);
+                });
+                processing.setPagesTotal(pagesTotal.get());
+                processing.setPagesProcessed(pagesTotal.get());
+                processing.setOcrText(ocrText);
+                processing.setExtractorVersion(extractionCache.getExtractorVersion());
+                documentProcessingRepository.save(processing);
+
+                suggestions = extractSuggestions(ocrText, processing);
+                // Rule-based results stand in while the ML service is down; never reuse them
+                if (METHOD_ML.equals(processing.getExtractionMethod())) {
+                    extractionCache.put(document.getContentHash(), ocrText, suggestions);
+                }
             }
 
             // Save suggestions
@@ -193,6 +162,62 @@ public class DocumentProcessingService {
         }
     }
 
+    /**
+     * Extract tasks using Python ML service (with fallback to rule-based). Records which one
+     * produced them as the processing's extraction method.
+     */
+    private List<ExtractedTaskSuggestion> extractSuggestions(String ocrText, DocumentProcessing processing) {
+        Long processingId = processing.getId();
+        // Try Python ML service first
+        if (mlTaskExtractionClient.isServiceAvailable()) {
+            try {
+                List<ExtractedTaskSuggestion> suggestions =
+                        mlTaskExtractionClient.extractTasksFromMlService(ocrText, processingId);
+                if (!suggestions.isEmpty()) {
+                    processing.setExtractionMethod(METHOD_ML);
+                    return suggestions;
+                }
+                // Fallback to rule-based if ML returns nothing
+            } catch (Exception e) {
+                System.err.println("ML service error, falling back to rule-based: " + e.getMessage());
+            }
+        } else {
+            System.out.println("ML service not available, using rule-based extraction");
+        }
+        processing.setExtractionMethod(METHOD_RULE_BASED);
+        return taskExtractionService.extractTasks(ocrText, processingId);
+    }
+
+    /**
+     * Find a cached extraction for this content, first in memory and then from the most
+     * recent completed ML processing of the same file with the current extractor version.
+     */
+    private ExtractionCache.CachedExtraction findCachedExtraction(String contentHash) {
+        ExtractionCache.CachedExtraction cached = loadCachedExtraction(contentHash);
+        extractionCache.recordLookup(cached != null);
+        return cached;
+    }
+
+    private ExtractionCache.CachedExtraction loadCachedExtraction(String contentHash) {
+        if (contentHash == null) {
+            return null;
+        }
+        ExtractionCache.CachedExtraction cached = extractionCache.get(contentHash);
+        if (cached != null) {
+            return cached;
+        }
+
+        Optional<DocumentProcessing> previous = documentProcessingRepository
+                .findFirstByContentHashAndExtractorVersionAndExtractionMethodAndStatusOrderByProcessingCompletedAtDesc(
+                        contentHash, extractionCache.getExtractorVersion(), METHOD_ML, "COMPLETED");
+        if (previous.isEmpty() || previous.get().getOcrText() == null) {
+            return null;
+        }
+        List<ExtractedTaskSuggestion> previousSuggestions = extractedTaskSuggestionRepository
+                .findByDocumentProcessingIdOrderByConfidenceScoreDesc(previous.get().getId());
+        return extractionCache.put(contentHash, previous.get().getOcrText(), previousSuggestions);
+    }
+
     /**
      * Create tasks from approved suggestions
      */
@@ -0,0 +1,110 @@
+package com.sajilokaam.mldocument;
+
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * Writes uploaded documents straight from the request stream to their final
+ * location under uploads/documents, computing the size and SHA-256 hash in the
+ * same pass so every byte is written exactly once.
+ */
+@Service
+public class DocumentStorageService {
+
+    static final String UPLOAD_DIR = "uploads/documents";
+    static final long MAX_FILE_SIZE = 10 * 1024 * 1024; // 10MB
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    public DocumentStorageService() {
+        // Create upload directory
+        try {
+            Path uploadPath = Paths.get(UPLOAD_DIR);
+            if (!Files.exists(uploadPath)) {
+                Files.createDirectories(uploadPath);
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to create upload directory: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Stream the given input to storage. The stream is read once and is not closed.
+     * Partially written files are removed if the upload fails or exceeds the size limit.
+     */
+    public StoredDocument store(InputStream in, String originalFilename, String contentType) throws IOException {
+        if (in == null) {
+            throw new IllegalArgumentException("File is empty");
+        }
+        if (originalFilename == null || originalFilename.trim().isEmpty()) {
+            originalFilename = "uploaded_file";
+        }
+        // Strip any client-supplied directory components
+        originalFilename = Paths.get(originalFilename.trim()).getFileName().toString();
+
+        Path filePath = Paths.get(UPLOAD_DIR, UUID.randomUUID() + resolveExtension(originalFilename, contentType));
+        MessageDigest digest = newDigest();
+        long size = 0;
+        boolean completed = false;
+
+        try (OutputStream out = Files.newOutputStream(filePath, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                size += read;
+                if (size > MAX_FILE_SIZE) {
+                    throw new IllegalArgumentException("File size exceeds maximum allowed size");
+                }
+                digest.update(buffer, 0, read);
+                out.write(buffer, 0, read);
+            }
+            if (size == 0) {
+                throw new IllegalArgumentException("File is empty");
+            }
+            completed = true;
+        } finally {
+            if (!completed) {
+                Files.deleteIfExists(filePath);
+            }
+        }
+
+        return new StoredDocument(filePath, originalFilename, contentType, size,
+                HexFormat.of().formatHex(digest.digest()));
+    }
+
+    private String resolveExtension(String originalFilename, String contentType) {
+        // Extract extension from original filename
+        if (originalFilename.contains(".")) {
+            return originalFilename.substring(originalFilename.lastIndexOf("."));
+        }
+        // If no extension found, try to infer from content type
+        if (contentType != null) {
+            String ct = contentType.toLowerCase();
+            if (ct.contains("pdf")) {
+                return ".pdf";
+            }
+            if (ct.contains("text")) {
+                return ".txt";
+            }
+        }
+        return "";
+    }
+
+    private MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.sajilokaam.mldocument;
 
+import com.sajilokaam.config.IdGenerators;
 import jakarta.persistence.*;
 import java.time.Instant;
 import java.time.LocalDate;
@@ -11,7 +12,10 @@ import java.time.LocalDate;
 })
 public class ExtractedTaskSuggestion {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "extracted_task_suggestions_id")
+    @TableGenerator(name = "extracted_task_suggestions_id", table = IdGenerators.TABLE, pkColumnName = IdGenerators.NAME_COLUMN,
+            valueColumnName = IdGenerators.VALUE_COLUMN, pkColumnValue = "extracted_task_suggestions",
+            allocationSize = IdGenerators.ALLOCATION_SIZE)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -0,0 +1,176 @@
+package com.sajilokaam.mldocument;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory LRU cache of OCR text and extracted task suggestions, keyed by
+ * document content hash plus extractor version. Only results from the ML service are cached,
+ * never the rule-based fallback used while it is unavailable. Bounded by entry count and by
+ * an estimate of retained bytes; least recently used entries are evicted first.
+ */
+@Service
+public class ExtractionCache {
+
+    private final String extractorVersion;
+    private final int maxEntries;
+    private final long maxBytes;
+
+    // Access-ordered, so iteration starts at the least recently used entry
+    private final LinkedHashMap<String, CachedExtraction> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long currentBytes = 0;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    public ExtractionCache(
+            @Value("${ml.extraction.extractor-version:1}") String extractorVersion,
+            @Value("${ml.extraction.cache.max-entries:500}") int maxEntries,
+            @Value("${ml.extraction.cache.max-bytes:67108864}") long maxBytes,
+            MeterRegistry meterRegistry) {
+        this.extractorVersion = extractorVersion;
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+        this.hits = Counter.builder("mldocument.extraction.cache.requests")
+                .tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("mldocument.extraction.cache.requests")
+                .tag("result", "miss").register(meterRegistry);
+        this.evictions = Counter.builder("mldocument.extraction.cache.evictions").register(meterRegistry);
+        Gauge.builder("mldocument.extraction.cache.entries", this, ExtractionCache::size).register(meterRegistry);
+        Gauge.builder("mldocument.extraction.cache.bytes", this, ExtractionCache::estimatedBytes).register(meterRegistry);
+    }
+
+    public String getExtractorVersion() {
+        return extractorVersion;
+    }
+
+    /**
+     * Look up a cached extraction, null if absent. Not counted; see {@link #recordLookup}.
+     */
+    public synchronized CachedExtraction get(String contentHash) {
+        return contentHash != null ? entries.get(key(contentHash)) : null;
+    }
+
+    /**
+     * Count a lookup as a hit or miss, once it has also tried the stored results of earlier
+     * processings
+     */
+    public void recordLookup(boolean hit) {
+        (hit ? hits : misses).increment();
+    }
+
+    /**
+     * Store an extraction. Suggestions are copied, so callers may keep mutating
+     * and persisting the instances they passed in. Returns the snapshot, even if it
+     * was too large to retain.
+     */
+    public synchronized CachedExtraction put(String contentHash, String ocrText, List<ExtractedTaskSuggestion> suggestions) {
+        if (contentHash == null || ocrText == null) {
+            return null;
+        }
+        CachedExtraction cached = new CachedExtraction(ocrText, suggestions);
+        if (cached.estimatedBytes > maxBytes) {
+            return cached; // Never cache a single entry larger than the whole budget
+        }
+        CachedExtraction previous = entries.put(key(contentHash), cached);
+        if (previous != null) {
+            currentBytes -= previous.estimatedBytes;
+        }
+        currentBytes += cached.estimatedBytes;
+        evictIfNeeded();
+        return cached;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long estimatedBytes() {
+        return currentBytes;
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        currentBytes = 0;
+    }
+
+    private void evictIfNeeded() {
+        Iterator<Map.Entry<String, CachedExtraction>> it = entries.entrySet().iterator();
+        while ((entries.size() > maxEntries || currentBytes > maxBytes) && it.hasNext()) {
+            currentBytes -= it.next().getValue().estimatedBytes;
+            it.remove();
+            evictions.increment();
+        }
+    }
+
+    private String key(String contentHash) {
+        return contentHash + ":" + extractorVersion;
+    }
+
+    /**
+     * Immutable snapshot of one extraction result.
+     */
+    public static class CachedExtraction {
+        private final String ocrText;
+        private final List<ExtractedTaskSuggestion> suggestions;
+        private final long estimatedBytes;
+
+        CachedExtraction(String ocrText, List<ExtractedTaskSuggestion> suggestions) {
+            this.ocrText = ocrText;
+            this.suggestions = new ArrayList<>(suggestions.size());
+            long bytes = 64 + 2L * ocrText.length();
+            for (ExtractedTaskSuggestion suggestion : suggestions) {
+                ExtractedTaskSuggestion copy = copyOf(suggestion);
+                this.suggestions.add(copy);
+                bytes += 128 + 2L * (length(copy.getSuggestedTitle())
+                        + length(copy.getSuggestedDescription())
+                        + length(copy.getRawTextSnippet()));
+            }
+            this.estimatedBytes = bytes;
+        }
+
+        public String getOcrText() {
+            return ocrText;
+        }
+
+        /**
+         * Fresh, unsaved copies of the cached suggestions, ready to attach to a new document.
+         */
+        public List<ExtractedTaskSuggestion> copySuggestions() {
+            List<ExtractedTaskSuggestion> copies = new ArrayList<>(suggestions.size());
+            for (ExtractedTaskSuggestion suggestion : suggestions) {
+                copies.add(copyOf(suggestion));
+            }
+            return copies;
+        }
+
+        private static ExtractedTaskSuggestion copyOf(ExtractedTaskSuggestion source) {
+            ExtractedTaskSuggestion copy = new ExtractedTaskSuggestion();
+            copy.setSuggestedTitle(source.getSuggestedTitle());
+            copy.setSuggestedDescription(source.getSuggestedDescription());
+            copy.setSuggestedPriority(source.getSuggestedPriority());
+            copy.setSuggestedDueDate(source.getSuggestedDueDate());
+            copy.setSuggestedEstimatedHours(source.getSuggestedEstimatedHours());
+            copy.setConfidenceScore(source.getConfidenceScore());
+            copy.setExtractionMethod(source.getExtractionMethod());
+            copy.setRawTextSnippet(source.getRawTextSnippet());
+            copy.setLineNumber(source.getLineNumber());
+            copy.setStatus("PENDING");
+            return copy;
+        }
+
+        private static int length(String value) {
+            return value != null ? value.length() : 0;
+        }
+    }
+}
@@ -1,78 +1,240 @@
 package com.sajilokaam.mldocument;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sajilokaam.util.CircuitBreaker;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 /**
- * Client for calling Python ML service for task extraction
+ * Client for calling Python ML service for task extraction.
+ * Uses a pooled keep-alive HTTP client with timeouts and a circuit breaker; while the
+ * circuit is open callers get an empty result immediately and fall back to rule-based
+ * extraction. Optionally coalesces concurrent requests into batched /extract-tasks calls;
+ * a batched caller waits at most {@code result-timeout-ms}, and gets an empty result once
+ * the client is shut down.
  */
 @Service
 public class MlTaskExtractionClient {
 
-    @Value("${ml.service.url:http://ml-service:5000}")
-    private String mlServiceUrl;
-
+    private final String mlServiceUrl;
     private final RestTemplate restTemplate;
-    private final ObjectMapper objectMapper;
+    private final CircuitBreaker circuitBreaker;
+
+    private final boolean batchingEnabled;
+    private final int batchMaxSize;
+    private final long batchMaxWaitMs;
+    private final long batchResultTimeoutMs;
+    private final LinkedBlockingQueue<PendingExtraction> batchQueue = new LinkedBlockingQueue<>();
+    private final Thread batchWorker;
+    private volatile boolean shutDown = false;
+
+    public MlTaskExtractionClient(
+            @Qualifier("mlServiceRestTemplate") RestTemplate restTemplate,
+            @Value("${ml.service.url:http://ml-service:5000}") String mlServiceUrl,
+            @Value("${ml.service.circuit-breaker.failure-threshold:5}") int failureThreshold,
+            @Value("${ml.service.circuit-breaker.open-duration-ms:30000}") long openDurationMs,
+            @Value("${ml.service.batch.enabled:false}") boolean batchingEnabled,
+            @Value("${ml.service.batch.max-size:8}") int batchMaxSize,
+            @Value("${ml.service.batch.max-wait-ms:50}") long batchMaxWaitMs,
+            @Value("${ml.service.batch.result-timeout-ms:35000}") long batchResultTimeoutMs) {
+        this.restTemplate = restTemplate;
+        this.mlServiceUrl = mlServiceUrl;
+        this.circuitBreaker = new CircuitBreaker("ml-service", failureThreshold, openDurationMs);
+        this.batchingEnabled = batchingEnabled;
+        this.batchMaxSize = Math.max(1, batchMaxSize);
+        this.batchMaxWaitMs = batchMaxWaitMs;
+        this.batchResultTimeoutMs = batchResultTimeoutMs;
+
+        if (batchingEnabled) {
+            batchWorker = new Thread(this::runBatchLoop, "ml-extraction-batcher");
+            batchWorker.setDaemon(true);
+            batchWorker.start();
+        } else {
+            batchWorker = null;
+        }
+    }
 
-    public MlTaskExtractionClient() {
-        this.restTemplate = new RestTemplate();
-        this.objectMapper = new ObjectMapper();
+    @PreDestroy
+    public void shutdown() {
+        shutDown = true;
+        if (batchWorker != null) {
+            batchWorker.interrupt();
+        }
+        releaseQueued();
     }
 
     /**
-     * Call Python ML service to extract tasks from text
+     * Call Python ML service to extract tasks from text.
+     * Returns an empty list on error or when the circuit is open, so callers fall back to rule-based extraction.
      */
     public List<ExtractedTaskSuggestion> extractTasksFromMlService(String ocrText, Long documentProcessingId) {
+        if (batchingEnabled) {
+            return extractBatched(ocrText, documentProcessingId);
+        }
+
+        if (!circuitBreaker.tryAcquire()) {
+            return new ArrayList<>();
+        }
         try {
             // Prepare request
             Map<String, String> requestBody = new HashMap<>();
             requestBody.put("text", ocrText);
 
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-
-            HttpEntity<Map<String, String>> request = new HttpEntity<>(requestBody, headers);
-
             // Call Python ML service
-            String url = mlServiceUrl + "/extract-tasks";
-            ResponseEntity<Map> response = restTemplate.postForEntity(url, request, Map.class);
+            ResponseEntity<Map> response = restTemplate.postForEntity(
+                    mlServiceUrl + "/extract-tasks", jsonRequest(requestBody), Map.class);
 
             if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
-                Map<String, Object> body = response.getBody();
-                
-                @SuppressWarnings("unchecked")
-                List<Map<String, Object>> tasks = (List<Map<String, Object>>) body.get("tasks");
-
-                if (tasks == null) {
-                    return new ArrayList<>();
-                }
-
-                // Convert to ExtractedTaskSuggestion entities
-                List<ExtractedTaskSuggestion> suggestions = new ArrayList<>();
-                for (Map<String, Object> taskData : tasks) {
-                    ExtractedTaskSuggestion suggestion = convertToSuggestion(taskData, documentProcessingId);
-                    suggestions.add(suggestion);
-                }
-
-                return suggestions;
+                circuitBreaker.recordSuccess();
+                return toSuggestions(response.getBody().get("tasks"), documentProcessingId);
             }
 
+            circuitBreaker.recordFailure();
             return new ArrayList<>();
 
         } catch (Exception e) {
+            circuitBreaker.recordFailure();
             System.err.println("Error calling ML service: " + e.getMessage());
-            e.printStackTrace();
             // Return empty list on error - fallback to rule-based extraction
             return new ArrayList<>();
         }
     }
 
+    private List<ExtractedTaskSuggestion> extractBatched(String ocrText, Long documentProcessingId) {
+        if (shutDown) {
+            return new ArrayList<>();
+        }
+        PendingExtraction pending = new PendingExtraction(ocrText, documentProcessingId);
+        batchQueue.add(pending);
+        if (shutDown) {
+            // Shut down while enqueueing: the worker may already be gone
+            releaseQueued();
+        }
+        try {
+            return pending.result.orTimeout(batchResultTimeoutMs, TimeUnit.MILLISECONDS).join();
+        } catch (CompletionException e) {
+            System.err.println("Timed out waiting for batched ML extraction: " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Complete every queued request with an empty result, so no caller waits on a stopped worker
+     */
+    private void releaseQueued() {
+        PendingExtraction pending;
+        while ((pending = batchQueue.poll()) != null) {
+            pending.result.complete(new ArrayList<>());
+        }
+    }
+
+    /**
+     * Drain the queue into batches of up to batchMaxSize, waiting at most batchMaxWaitMs
+     * after the first request for others to join.
+     */
+    private void runBatchLoop() {
+        while (!Thread.currentThread().isInterrupted()) {
+            List<PendingExtraction> batch = new ArrayList<>(batchMaxSize);
+            try {
+                batch.add(batchQueue.take());
+                long deadline = System.nanoTime() + batchMaxWaitMs * 1_000_000L;
+                while (batch.size() < batchMaxSize) {
+                    long remaining = deadline - System.nanoTime();
+                    PendingExtraction next = remaining > 0
+                            ? batchQueue.poll(remaining, TimeUnit.NANOSECONDS)
+                            : batchQueue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                sendBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                // Never leave a caller waiting, whatever happened to the batch
+                for (PendingExtraction pending : batch) {
+                    pending.result.complete(new ArrayList<>());
+                }
+            }
+        }
+    }
+
+    private void sendBatch(List<PendingExtraction> batch) {
+        if (!circuitBreaker.tryAcquire()) {
+            return;
+        }
+        try {
+            List<Map<String, String>> documents = new ArrayList<>(batch.size());
+            for (int i = 0; i < batch.size(); i++) {
+                Map<String, String> document = new HashMap<>();
+                document.put("id", String.valueOf(i));
+                document.put("text", batch.get(i).ocrText);
+                documents.add(document);
+            }
+
+            ResponseEntity<Map> response = restTemplate.postForEntity(
+                    mlServiceUrl + "/extract-tasks", jsonRequest(Map.of("documents", documents)), Map.class);
+
+            if (response.getStatusCode() != HttpStatus.OK || response.getBody() == null) {
+                circuitBreaker.recordFailure();
+                return;
+            }
+            circuitBreaker.recordSuccess();
+
+            @SuppressWarnings("unchecked")
+            List<Map<String, Object>> results = (List<Map<String, Object>>) response.getBody().get("results");
+            if (results == null) {
+                return;
+            }
+            for (Map<String, Object> result : results) {
+                int index = Integer.parseInt(String.valueOf(result.get("id")));
+                if (index >= 0 && index < batch.size()) {
+                    PendingExtraction pending = batch.get(index);
+                    pending.result.complete(toSuggestions(result.get("tasks"), pending.documentProcessingId));
+                }
+            }
+        } catch (Exception e) {
+            circuitBreaker.recordFailure();
+            System.err.println("Error calling ML service (batch of " + batch.size() + "): " + e.getMessage());
+        }
+    }
+
+    private HttpEntity<Object> jsonRequest(Object body) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        return new HttpEntity<>(body, headers);
+    }
+
+    private List<ExtractedTaskSuggestion> toSuggestions(Object tasksObj, Long documentProcessingId) {
+        List<ExtractedTaskSuggestion> suggestions = new ArrayList<>();
+        if (!(tasksObj instanceof List<?> tasks)) {
+            return suggestions;
+        }
+        // Convert to ExtractedTaskSuggestion entities
+        for (Object taskObj : tasks) {
+            if (taskObj instanceof Map<?, ?>) {
+                @SuppressWarnings("unchecked")
+                Map<String, Object> taskData = (Map<String, Object>) taskObj;
+                suggestions.add(convertToSuggestion(taskData, documentProcessingId));
+            }
+        }
+        return suggestions;
+    }
+
+    public CircuitBreaker.State getCircuitState() {
+        return circuitBreaker.getState();
+    }
+
     /**
      * Convert ML service response to ExtractedTaskSuggestion entity
      */
@@ -135,16 +297,36 @@ public class MlTaskExtractionClient {
     }
 
     /**
-     * Check if ML service is available
+     * Check if ML service is available. Returns false immediately while the circuit is open.
      */
     public boolean isServiceAvailable() {
+        if (!circuitBreaker.tryAcquire()) {
+            return false;
+        }
         try {
             String url = mlServiceUrl + "/health";
             ResponseEntity<Map> response = restTemplate.getForEntity(url, Map.class);
-            return response.getStatusCode() == HttpStatus.OK;
+            boolean healthy = response.getStatusCode() == HttpStatus.OK;
+            if (healthy) {
+                circuitBreaker.recordSuccess();
+            } else {
+                circuitBreaker.recordFailure();
+            }
+            return healthy;
         } catch (Exception e) {
+            circuitBreaker.recordFailure();
             return false;
         }
     }
-}
 
+    private static class PendingExtraction {
+        private final String ocrText;
+        private final Long documentProcessingId;
+        private final CompletableFuture<List<ExtractedTaskSuggestion>> result = new CompletableFuture<>();
+
+        PendingExtraction(String ocrText, Long documentProcessingId) {
+            this.ocrText = ocrText;
+            this.documentProcessingId = documentProcessingId;
+        }
+    }
+}
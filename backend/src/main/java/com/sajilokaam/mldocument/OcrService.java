@@ -3,22 +3,67 @@ package com.sajilokaam.mldocument;
 import net.sourceforge.tess4j.Tesseract;
 import net.sourceforge.tess4j.TesseractException;
 import org.apache.pdfbox.Loader;
+import jakarta.annotation.PreDestroy;
 import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.rendering.ImageType;
+import org.apache.pdfbox.rendering.PDFRenderer;
 import org.apache.pdfbox.text.PDFTextStripper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 @Service
 public class OcrService {
 
-    private final Tesseract tesseract;
+    private static final float RENDER_DPI = 300f;
+    // Pages with fewer characters than this in their text layer are treated as scanned
+    private static final int MIN_TEXT_LAYER_CHARS = 16;
 
-    public OcrService() {
-        this.tesseract = new Tesseract();
+    private final int parallelism;
+    private final ExecutorService ocrExecutor;
+    // Tesseract instances are not thread-safe, so each OCR worker thread owns one
+    private final ThreadLocal<Tesseract> tesseract;
+
+    @Autowired
+    public OcrService(@Value("${ocr.parallelism:0}") int configuredParallelism) {
+        this(configuredParallelism, OcrService::createTesseract);
+    }
+
+    OcrService(int configuredParallelism, Supplier<Tesseract> tesseractFactory) {
+        this.tesseract = ThreadLocal.withInitial(tesseractFactory);
+        this.parallelism = configuredParallelism > 0
+                ? configuredParallelism
+                : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCounter = new AtomicInteger();
+        this.ocrExecutor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "ocr-worker-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        ocrExecutor.shutdownNow();
+    }
+
+    private static Tesseract createTesseract() {
+        Tesseract tesseract = new Tesseract();
         // Set Tesseract data path (adjust based on your installation)
         // For production, you may need to configure this path
         try {
@@ -32,12 +77,21 @@ public class OcrService {
         } catch (Exception e) {
             System.err.println("Warning: Could not configure Tesseract data path: " + e.getMessage());
         }
+        return tesseract;
     }
 
     /**
      * Extract text from a file (PDF, image, or text file)
      */
     public String extractText(Path filePath, String fileType) throws IOException, TesseractException {
+        return extractText(filePath, fileType, null);
+    }
+
+    /**
+     * Extract text from a file (PDF, image, or text file), reporting page progress to the listener
+     */
+    public String extractText(Path filePath, String fileType, ProgressListener listener)
+            throws IOException, TesseractException {
         if (fileType == null) {
             fileType = "";
         }
@@ -52,7 +106,7 @@ public class OcrService {
         
         // Handle PDF files
         if (lowerType.equals("pdf") || filePathLower.endsWith(".pdf")) {
-            return extractTextFromPdf(filePath);
+            return extractTextFromPdf(filePath, listener);
         }
         
         // Handle DOC/DOCX files (if Apache POI is available)
@@ -67,7 +121,7 @@ public class OcrService {
         if (lowerType.equals("png") || lowerType.equals("jpg") || lowerType.equals("jpeg") || 
                    lowerType.equals("gif") || lowerType.equals("bmp") ||
                    filePathLower.matches(".*\\.(png|jpg|jpeg|gif|bmp)$")) {
-            return extractTextFromImage(filePath);
+            return extractTextFromImage(filePath, listener);
         }
         
         // If file type is UNKNOWN, null, or empty, try to read as text file (common case)
@@ -80,7 +134,7 @@ public class OcrService {
                 // Try PDF as fallback
                 try {
                     System.out.println("Trying PDF format as fallback...");
-                    return extractTextFromPdf(filePath);
+                    return extractTextFromPdf(filePath, listener);
                 } catch (Exception e2) {
                     System.err.println("Failed to read as PDF: " + e2.getMessage());
                     throw new UnsupportedOperationException(
@@ -119,24 +173,156 @@ public class OcrService {
     }
 
     /**
-     * Extract text from PDF using PDFBox
+     * Extract text from PDF page by page. Pages with a text layer are read with PDFTextStripper;
+     * scanned pages are rendered and OCR'd in parallel, then reassembled in page order. A page
+     * whose OCR fails (no Tesseract or tessdata, or a Tesseract error) keeps whatever its text
+     * layer had, so such a PDF still extracts as it did before OCR; blank pages are common.
      */
-    private String extractTextFromPdf(Path filePath) throws IOException {
+    private String extractTextFromPdf(Path filePath, ProgressListener listener)
+            throws IOException, TesseractException {
         try (PDDocument document = Loader.loadPDF(filePath.toFile())) {
+            int pageCount = document.getNumberOfPages();
+            PageProgress progress = new PageProgress(pageCount, listener);
+            String[] pageTexts = new String[pageCount];
+            List<Future<?>> pending = new ArrayList<>();
+            // Bound the number of rendered page images held in memory at once
+            Semaphore inFlight = new Semaphore(parallelism * 2);
+
             PDFTextStripper stripper = new PDFTextStripper();
-            return stripper.getText(document);
+            PDFRenderer renderer = new PDFRenderer(document);
+
+            try {
+                for (int i = 0; i < pageCount; i++) {
+                    // PDDocument is not thread-safe: strip and render on this thread, OCR on the pool
+                    stripper.setStartPage(i + 1);
+                    stripper.setEndPage(i + 1);
+                    String layerText = stripper.getText(document);
+                    if (layerText.trim().length() >= MIN_TEXT_LAYER_CHARS) {
+                        pageTexts[i] = layerText;
+                        progress.pageCompleted();
+                        continue;
+                    }
+
+                    BufferedImage image = renderer.renderImageWithDPI(i, RENDER_DPI, ImageType.GRAY);
+                    int pageIndex = i;
+                    inFlight.acquire();
+                    try {
+                        pending.add(ocrExecutor.submit(() -> {
+                            try {
+                                pageTexts[pageIndex] = tesseract.get().doOCR(image);
+                            } catch (Exception | Error e) {
+                                if (e instanceof VirtualMachineError) {
+                                    throw e;
+                                }
+                                // Missing native library or tessdata surfaces as an Error from JNA
+                                System.err.println("OCR failed on page " + (pageIndex + 1) + " of " + filePath
+                                        + ", using its text layer: " + e.getMessage());
+                                pageTexts[pageIndex] = layerText;
+                            } finally {
+                                inFlight.release();
+                            }
+                            progress.pageCompleted();
+                            return null;
+                        }));
+                    } catch (RejectedExecutionException e) {
+                        inFlight.release();
+                        throw e;
+                    }
+                }
+                for (Future<?> future : pending) {
+                    future.get();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while running OCR on " + filePath, e);
+            } catch (ExecutionException e) {
+                throw unwrap(e);
+            } finally {
+                for (Future<?> future : pending) {
+                    future.cancel(true);
+                }
+            }
+
+            StringBuilder text = new StringBuilder();
+            for (String pageText : pageTexts) {
+                if (pageText != null) {
+                    text.append(pageText);
+                    if (!pageText.endsWith("\n")) {
+                        text.append('\n');
+                    }
+                }
+            }
+            return text.toString();
         }
     }
 
     /**
      * Extract text from image using Tesseract OCR
      */
-    private String extractTextFromImage(Path filePath) throws IOException, TesseractException {
+    private String extractTextFromImage(Path filePath, ProgressListener listener)
+            throws IOException, TesseractException {
         BufferedImage image = ImageIO.read(filePath.toFile());
         if (image == null) {
             throw new IOException("Could not read image from: " + filePath);
         }
-        return tesseract.doOCR(image);
+        PageProgress progress = new PageProgress(1, listener);
+        try {
+            String text = ocrExecutor.submit(() -> tesseract.get().doOCR(image)).get();
+            progress.pageCompleted();
+            return text;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while running OCR on " + filePath, e);
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        }
     }
-}
 
+    private IOException unwrap(ExecutionException e) throws TesseractException {
+        Throwable cause = e.getCause();
+        if (cause instanceof TesseractException tesseractException) {
+            throw tesseractException;
+        }
+        if (cause instanceof IOException ioException) {
+            return ioException;
+        }
+        if (cause instanceof RuntimeException runtimeException) {
+            throw runtimeException;
+        }
+        return new IOException("OCR failed: " + cause.getMessage(), cause);
+    }
+
+    /**
+     * Receives page progress while a document is being extracted.
+     * May be called from OCR worker threads.
+     */
+    @FunctionalInterface
+    public interface ProgressListener {
+        void onProgress(int pagesProcessed, int pagesTotal);
+    }
+
+    private static class PageProgress {
+        private final int total;
+        private final ProgressListener listener;
+        private final AtomicInteger completed = new AtomicInteger();
+
+        PageProgress(int total, ProgressListener listener) {
+            this.total = total;
+            this.listener = listener;
+            if (listener != null) {
+                listener.onProgress(0, total);
+            }
+        }
+
+        void pageCompleted() {
+            int done = completed.incrementAndGet();
+            if (listener != null) {
+                try {
+                    listener.onProgress(done, total);
+                } catch (Exception e) {
+                    System.err.println("Failed to report OCR progress: " + e.getMessage());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.sajilokaam.mldocument;
+
+import java.nio.file.Path;
+
+/**
+ * A document that has been fully written to durable storage.
+ * Safe to hand to async processing after the upload request has completed.
+ */
+public class StoredDocument {
+    private final Path path;
+    private final String originalFilename;
+    private final String contentType;
+    private final long sizeBytes;
+    private final String contentHash; // SHA-256, hex encoded
+
+    public StoredDocument(Path path, String originalFilename, String contentType, long sizeBytes, String contentHash) {
+        this.path = path;
+        this.originalFilename = originalFilename;
+        this.contentType = contentType;
+        this.sizeBytes = sizeBytes;
+        this.contentHash = contentHash;
+    }
+
+    public Path getPath() { return path; }
+    public String getOriginalFilename() { return originalFilename; }
+    public String getContentType() { return contentType; }
+    public long getSizeBytes() { return sizeBytes; }
+    public String getContentHash() { return contentHash; }
+}
@@ -0,0 +1,326 @@
+package com.sajilokaam.mldocument;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Near-duplicate removal for extracted task suggestions.
+ *
+ * Two titles are duplicates if they are equal, one contains the other (both longer than 10
+ * characters), or their Levenshtein similarity is above 80%. Instead of comparing every pair,
+ * candidates come from two indexes and only candidates are verified, with a banded,
+ * early-terminating Levenshtein on two rolling rows. Similar titles are found with MinHash over
+ * character 3-shingles and banded LSH buckets; very short near-duplicates may be missed. A bucket
+ * holds at most 16 titles, since titles with a common prefix fall into the same buckets; identical
+ * titles are found through a map instead.
+ * Contained titles are found exactly through 11-character substrings (grams): a contained
+ * title is longer than 10 characters, so every one of its grams is also a gram of its container,
+ * however different their lengths. Containers of a new title are looked up under its rarest
+ * gram among the kept titles, and each kept title is indexed under one anchor gram, the one
+ * with the fewest titles so far, so titles that share a long prefix ("the system shall ...")
+ * do not all land in one bucket.
+ * Runs in roughly linear time in the total length of the titles.
+ */
+class SuggestionDeduplicator {
+
+    private static final double SIMILARITY_THRESHOLD = 0.8;
+    private static final int SHINGLE_SIZE = 3;
+    private static final int BANDS = 30;
+    private static final int ROWS_PER_BAND = 2;
+    private static final int NUM_HASHES = BANDS * ROWS_PER_BAND;
+    // Titles sharing a long prefix collide in most bands; past this many titles a bucket takes no more
+    private static final int MAX_BUCKET_SIZE = 16;
+    // Containment only counts for titles longer than 10 characters
+    private static final int CONTAINMENT_GRAM = 11;
+
+    // Fixed seeds so signatures are deterministic across runs
+    private static final long[] HASH_SEEDS = new long[NUM_HASHES];
+    static {
+        long seed = 0x9E3779B97F4A7C15L;
+        for (int i = 0; i < NUM_HASHES; i++) {
+            seed = mix(seed + i);
+            HASH_SEEDS[i] = seed | 1L;
+        }
+    }
+
+    /**
+     * Remove near-duplicates, keeping the higher-confidence suggestion of each group, and sort by
+     * confidence (descending). Same result as comparing each suggestion against every suggestion
+     * kept so far, for all exact and containment duplicates and the similar ones LSH surfaces.
+     */
+    List<ExtractedTaskSuggestion> deduplicateAndSort(List<ExtractedTaskSuggestion> suggestions) {
+        List<Slot> slots = new ArrayList<>();
+        Map<Long, List<Slot>> buckets = new HashMap<>();
+        // Kept titles by their exact text, as a full LSH bucket may not hold an identical title
+        Map<String, Slot> exact = new HashMap<>();
+        // Every CONTAINMENT_GRAM-character substring of kept titles, and one anchor gram per title
+        Map<String, List<Slot>> grams = new HashMap<>();
+        Map<String, List<Slot>> anchors = new HashMap<>();
+        long orderCounter = 0;
+        long visitCounter = 0;
+
+        for (ExtractedTaskSuggestion suggestion : suggestions) {
+            String title = normalize(suggestion.getSuggestedTitle());
+            if (title == null) {
+                slots.add(new Slot(suggestion, null, orderCounter++));
+                continue;
+            }
+
+            long[] bandKeys = bandKeys(title);
+            long visit = ++visitCounter;
+            Slot identical = exact.get(title);
+            Slot match = earlierMatch(null, identical != null ? List.of(identical) : null, title, visit);
+            for (long key : bandKeys) {
+                match = earlierMatch(match, buckets.get(key), title, visit);
+            }
+            if (title.length() >= CONTAINMENT_GRAM) {
+                // Kept titles containing this one have all its grams, so also its rarest one
+                match = earlierMatch(match, rarestGramBucket(grams, title), title, visit);
+                // Kept titles contained in this one have their anchor among its grams
+                for (int i = 0; i + CONTAINMENT_GRAM <= title.length(); i++) {
+                    match = earlierMatch(match, anchors.get(title.substring(i, i + CONTAINMENT_GRAM)), title, visit);
+                }
+            }
+
+            if (match == null) {
+                Slot slot = new Slot(suggestion, title, orderCounter++);
+                slots.add(slot);
+                index(buckets, bandKeys, slot, false);
+                exact.put(title, slot);
+                indexContainment(grams, anchors, slot);
+            } else if (suggestion.getConfidenceScore().compareTo(match.suggestion.getConfidenceScore()) > 0) {
+                // Keep the one with higher confidence; it moves to the end of the kept list
+                match.suggestion = suggestion;
+                match.title = title;
+                match.order = orderCounter++;
+                index(buckets, bandKeys, match, true);
+                exact.put(title, match);
+                indexContainment(grams, anchors, match);
+            }
+        }
+
+        slots.sort((a, b) -> Long.compare(a.order, b.order));
+        List<ExtractedTaskSuggestion> unique = new ArrayList<>(slots.size());
+        for (Slot slot : slots) {
+            unique.add(slot.suggestion);
+        }
+
+        // Sort by confidence (descending)
+        unique.sort((a, b) -> b.getConfidenceScore().compareTo(a.getConfidenceScore()));
+        return unique;
+    }
+
+    /**
+     * Check if two normalized titles are similar
+     */
+    static boolean areSimilar(String t1, String t2) {
+        // Exact match
+        if (t1.equals(t2)) return true;
+
+        // One contains the other (for partial matches)
+        if (t1.length() > 10 && t2.length() > 10) {
+            if (t1.contains(t2) || t2.contains(t1)) {
+                return true;
+            }
+        }
+
+        int maxLen = Math.max(t1.length(), t2.length());
+        if (maxLen == 0) return true;
+
+        int maxDistance = maxAllowedDistance(maxLen);
+        if (Math.abs(t1.length() - t2.length()) > maxDistance) {
+            return false;
+        }
+        return boundedLevenshtein(t1, t2, maxDistance) <= maxDistance;
+    }
+
+    /**
+     * Largest edit distance that still counts as more than 80% similar
+     */
+    static int maxAllowedDistance(int maxLen) {
+        int k = (int) (maxLen * (1.0 - SIMILARITY_THRESHOLD)) + 1;
+        while (k >= 0 && !(1.0 - (double) k / maxLen > SIMILARITY_THRESHOLD)) {
+            k--;
+        }
+        return k;
+    }
+
+    /**
+     * Levenshtein distance restricted to a diagonal band of width 2 * maxDistance + 1, using two
+     * rolling rows. Returns maxDistance + 1 as soon as the distance is known to exceed maxDistance.
+     */
+    static int boundedLevenshtein(String s1, String s2, int maxDistance) {
+        if (maxDistance < 0) {
+            return 0;
+        }
+        int n = s1.length();
+        int m = s2.length();
+        if (Math.abs(n - m) > maxDistance) {
+            return maxDistance + 1;
+        }
+        int outside = maxDistance + 1;
+        int[] previous = new int[m + 1];
+        int[] current = new int[m + 1];
+        for (int j = 0; j <= m; j++) {
+            previous[j] = j <= maxDistance ? j : outside;
+        }
+
+        for (int i = 1; i <= n; i++) {
+            int from = Math.max(1, i - maxDistance);
+            int to = Math.min(m, i + maxDistance);
+            // Only the cells just outside the band can hold stale values from two rows ago
+            current[from - 1] = outside;
+            if (to < m) {
+                current[to + 1] = outside;
+            }
+            current[0] = i <= maxDistance ? i : outside;
+            int rowMin = current[0];
+            char c1 = s1.charAt(i - 1);
+            for (int j = from; j <= to; j++) {
+                int cost = c1 == s2.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                current[j] = Math.min(value, outside);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > maxDistance) {
+                return outside; // Early termination: no path through this row stays within the bound
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return Math.min(previous[m], outside);
+    }
+
+    private static String normalize(String title) {
+        return title == null ? null : title.toLowerCase().trim();
+    }
+
+    /**
+     * Verify the candidates not yet seen for this title; the earliest kept suggestion wins, as
+     * with a front-to-back scan of the kept list
+     */
+    private static Slot earlierMatch(Slot match, List<Slot> candidates, String title, long visit) {
+        if (candidates == null) {
+            return match;
+        }
+        for (Slot candidate : candidates) {
+            if (candidate.lastVisit == visit) {
+                continue; // Already verified via another band or substring
+            }
+            candidate.lastVisit = visit;
+            if ((match == null || candidate.order < match.order) && areSimilar(title, candidate.title)) {
+                match = candidate;
+            }
+        }
+        return match;
+    }
+
+    /**
+     * Kept titles sharing the title's least common gram; null if some gram of the title occurs
+     * in no kept title, in which case no kept title contains it
+     */
+    private static List<Slot> rarestGramBucket(Map<String, List<Slot>> grams, String title) {
+        List<Slot> rarest = null;
+        for (int i = 0; i + CONTAINMENT_GRAM <= title.length(); i++) {
+            List<Slot> bucket = grams.get(title.substring(i, i + CONTAINMENT_GRAM));
+            if (bucket == null) {
+                return null;
+            }
+            if (rarest == null || bucket.size() < rarest.size()) {
+                rarest = bucket;
+            }
+        }
+        return rarest;
+    }
+
+    /**
+     * Index a kept title for containment lookups: all its grams, and its anchor, the gram with
+     * the fewest anchored titles so far. Entries for a slot's earlier title are left in place;
+     * candidates are always verified against the current title.
+     */
+    private static void indexContainment(Map<String, List<Slot>> grams, Map<String, List<Slot>> anchors, Slot slot) {
+        String title = slot.title;
+        if (title.length() < CONTAINMENT_GRAM) {
+            return;
+        }
+        String anchor = null;
+        int anchorLoad = Integer.MAX_VALUE;
+        for (int i = 0; i + CONTAINMENT_GRAM <= title.length(); i++) {
+            String gram = title.substring(i, i + CONTAINMENT_GRAM);
+            grams.computeIfAbsent(gram, k -> new ArrayList<>(2)).add(slot);
+            List<Slot> anchored = anchors.get(gram);
+            int load = anchored != null ? anchored.size() : 0;
+            if (load < anchorLoad) {
+                anchor = gram;
+                anchorLoad = load;
+            }
+        }
+        anchors.computeIfAbsent(anchor, k -> new ArrayList<>(2)).add(slot);
+    }
+
+    private static void index(Map<Long, List<Slot>> buckets, long[] bandKeys, Slot slot, boolean mayBePresent) {
+        for (long key : bandKeys) {
+            List<Slot> bucket = buckets.computeIfAbsent(key, k -> new ArrayList<>(2));
+            if (bucket.size() < MAX_BUCKET_SIZE && (!mayBePresent || !bucket.contains(slot))) {
+                bucket.add(slot);
+            }
+        }
+    }
+
+    /**
+     * MinHash signature of the title's character shingles, folded into one key per LSH band
+     */
+    private static long[] bandKeys(String title) {
+        long[] signature = new long[NUM_HASHES];
+        Arrays.fill(signature, Long.MAX_VALUE);
+
+        int shingleCount = Math.max(1, title.length() - SHINGLE_SIZE + 1);
+        for (int s = 0; s < shingleCount; s++) {
+            long shingle = 0;
+            int end = Math.min(title.length(), s + SHINGLE_SIZE);
+            for (int c = s; c < end; c++) {
+                shingle = shingle * 31 + title.charAt(c);
+            }
+            for (int h = 0; h < NUM_HASHES; h++) {
+                long value = mix(shingle * HASH_SEEDS[h]);
+                if (value < signature[h]) {
+                    signature[h] = value;
+                }
+            }
+        }
+
+        long[] keys = new long[BANDS];
+        for (int b = 0; b < BANDS; b++) {
+            long key = b;
+            for (int r = 0; r < ROWS_PER_BAND; r++) {
+                key = mix(key * 0x100000001B3L + signature[b * ROWS_PER_BAND + r]);
+            }
+            keys[b] = key;
+        }
+        return keys;
+    }
+
+    // SplitMix64 finalizer
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static class Slot {
+        private ExtractedTaskSuggestion suggestion;
+        private String title;
+        private long order;
+        private long lastVisit;
+
+        Slot(ExtractedTaskSuggestion suggestion, String title, long order) {
+            this.suggestion = suggestion;
+            this.title = title;
+            this.order = order;
+        }
+    }
+}
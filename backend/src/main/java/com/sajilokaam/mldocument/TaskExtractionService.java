@@ -14,6 +14,8 @@ import java.util.regex.Pattern;
 @Service
 public class TaskExtractionService {
 
+    private final SuggestionDeduplicator deduplicator = new SuggestionDeduplicator();
+
     // Patterns for task extraction
     private static final Pattern TASK_NUMBER_PATTERN = Pattern.compile(
         "(?i)(?:task|item|step|requirement|feature|deliverable)\\s*[#:]?\\s*(\\d+)[\\.:]?\\s*(.+?)(?=(?:task|item|step|requirement|feature|deliverable)\\s*[#:]?\\s*\\d+|$)",
@@ -366,82 +368,6 @@ public class TaskExtractionService {
      * Remove duplicates and sort by confidence
      */
     private List<ExtractedTaskSuggestion> deduplicateAndSort(List<ExtractedTaskSuggestion> suggestions) {
-        // Simple deduplication based on title similarity
-        List<ExtractedTaskSuggestion> unique = new ArrayList<>();
-        for (ExtractedTaskSuggestion suggestion : suggestions) {
-            boolean isDuplicate = false;
-            for (ExtractedTaskSuggestion existing : unique) {
-                if (areSimilar(suggestion.getSuggestedTitle(), existing.getSuggestedTitle())) {
-                    // Keep the one with higher confidence
-                    if (suggestion.getConfidenceScore().compareTo(existing.getConfidenceScore()) > 0) {
-                        unique.remove(existing);
-                        unique.add(suggestion);
-                    }
-                    isDuplicate = true;
-                    break;
-                }
-            }
-            if (!isDuplicate) {
-                unique.add(suggestion);
-            }
-        }
-        
-        // Sort by confidence (descending)
-        unique.sort((a, b) -> b.getConfidenceScore().compareTo(a.getConfidenceScore()));
-        
-        return unique;
-    }
-
-    /**
-     * Check if two titles are similar (simple string similarity)
-     */
-    private boolean areSimilar(String title1, String title2) {
-        if (title1 == null || title2 == null) return false;
-        String t1 = title1.toLowerCase().trim();
-        String t2 = title2.toLowerCase().trim();
-        
-        // Exact match
-        if (t1.equals(t2)) return true;
-        
-        // One contains the other (for partial matches)
-        if (t1.length() > 10 && t2.length() > 10) {
-            if (t1.contains(t2) || t2.contains(t1)) {
-                return true;
-            }
-        }
-        
-        // Calculate simple similarity (Levenshtein-like)
-        int maxLen = Math.max(t1.length(), t2.length());
-        if (maxLen == 0) return true;
-        
-        int distance = levenshteinDistance(t1, t2);
-        double similarity = 1.0 - (double) distance / maxLen;
-        
-        return similarity > 0.8; // 80% similarity threshold
-    }
-
-    /**
-     * Calculate Levenshtein distance between two strings
-     */
-    private int levenshteinDistance(String s1, String s2) {
-        int[][] dp = new int[s1.length() + 1][s2.length() + 1];
-        
-        for (int i = 0; i <= s1.length(); i++) {
-            for (int j = 0; j <= s2.length(); j++) {
-                if (i == 0) {
-                    dp[i][j] = j;
-                } else if (j == 0) {
-                    dp[i][j] = i;
-                } else {
-                    dp[i][j] = Math.min(
-                        Math.min(dp[i - 1][j] + 1, dp[i][j - 1] + 1),
-                        dp[i - 1][j - 1] + (s1.charAt(i - 1) == s2.charAt(j - 1) ? 0 : 1)
-                    );
-                }
-            }
-        }
-        
-        return dp[s1.length()][s2.length()];
+        return deduplicator.deduplicateAndSort(suggestions);
     }
 }
-
@@ -1,5 +1,6 @@
 package com.sajilokaam.notification;
 
+import com.sajilokaam.config.IdGenerators;
 import com.sajilokaam.user.User;
 import jakarta.persistence.*;
 import java.time.Instant;
@@ -12,7 +13,10 @@ import java.time.Instant;
 })
 public class Notification {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "notifications_id")
+    @TableGenerator(name = "notifications_id", table = IdGenerators.TABLE, pkColumnName = IdGenerators.NAME_COLUMN,
+            valueColumnName = IdGenerators.VALUE_COLUMN, pkColumnValue = "notifications",
+            allocationSize = IdGenerators.ALLOCATION_SIZE)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
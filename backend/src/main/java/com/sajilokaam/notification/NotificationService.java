@@ -5,6 +5,10 @@ import com.sajilokaam.user.User;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
 @Service
 public class NotificationService {
     private final NotificationRepository notificationRepository;
@@ -35,6 +39,31 @@ public class NotificationService {
         return saved;
     }
 
+    /**
+     * Same notification for many users, saved in one batch
+     */
+    public List<Notification> notifyUsers(Collection<User> users,
+                                          String type,
+                                          String title,
+                                          String message,
+                                          String entityType,
+                                          Long entityId) {
+        List<Notification> notifications = new ArrayList<>();
+        for (User user : users) {
+            Notification notification = new Notification();
+            notification.setUser(user);
+            notification.setType(type);
+            notification.setTitle(title);
+            notification.setMessage(message);
+            notification.setEntityType(entityType);
+            notification.setEntityId(entityId);
+            notifications.add(notification);
+        }
+        List<Notification> saved = notificationRepository.saveAll(notifications);
+        saved.forEach(this::sendToWebSocket);
+        return saved;
+    }
+
     public void sendToWebSocket(Notification notification) {
         NotificationPayload payload = toPayload(notification);
         messagingTemplate.convertAndSend("/queue/notifications/" + notification.getUser().getId(), payload);
@@ -1,11 +1,13 @@
 package com.sajilokaam.payment;
 
 import com.sajilokaam.invoice.Invoice;
+import com.sajilokaam.platformmetrics.PlatformMetricsListener;
 import jakarta.persistence.*;
 import java.math.BigDecimal;
 import java.time.Instant;
 
 @Entity
+@EntityListeners({PaymentRollupListener.class, PlatformMetricsListener.class})
 @Table(name = "payments", indexes = {
         @Index(name = "idx_payments_invoice", columnList = "invoice_id"),
         @Index(name = "idx_payments_status", columnList = "status")
@@ -34,6 +36,10 @@ public class Payment {
     @Column(name = "gateway_transaction_id", length = 100)
     private String gatewayTransactionId;
 
+    // "<METHOD>:<gateway transaction id>"; unique, so a gateway transaction is recorded once
+    @Column(name = "idempotency_key", length = 150, unique = true)
+    private String idempotencyKey;
+
     @Column(nullable = false, length = 50)
     private String status = "PENDING"; // PENDING, COMPLETED, FAILED, REFUNDED
 
@@ -43,12 +49,26 @@ public class Payment {
     @Column(columnDefinition = "TEXT")
     private String notes;
 
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     private Instant createdAt = Instant.now();
 
     @Column(name = "updated_at", nullable = false)
     private Instant updatedAt = Instant.now();
 
+    // Rollup cell this row was last counted in; maintained by PaymentRollupListener
+    @Transient
+    private String rolledUpStatus;
+
+    @Transient
+    private String rolledUpGateway;
+
+    @Transient
+    private BigDecimal rolledUpAmount;
+
     // Getters and Setters
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
@@ -64,15 +84,28 @@ public class Payment {
     public void setGateway(String gateway) { this.gateway = gateway; }
     public String getGatewayTransactionId() { return gatewayTransactionId; }
     public void setGatewayTransactionId(String gatewayTransactionId) { this.gatewayTransactionId = gatewayTransactionId; }
+    public String getIdempotencyKey() { return idempotencyKey; }
+    public void setIdempotencyKey(String idempotencyKey) { this.idempotencyKey = idempotencyKey; }
     public String getStatus() { return status; }
     public void setStatus(String status) { this.status = status; }
     public Instant getPaidAt() { return paidAt; }
     public void setPaidAt(Instant paidAt) { this.paidAt = paidAt; }
     public String getNotes() { return notes; }
     public void setNotes(String notes) { this.notes = notes; }
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
     public Instant getCreatedAt() { return createdAt; }
     public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
     public Instant getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(Instant updatedAt) { this.updatedAt = updatedAt; }
-}
 
+    String getRolledUpStatus() { return rolledUpStatus; }
+    String getRolledUpGateway() { return rolledUpGateway; }
+    BigDecimal getRolledUpAmount() { return rolledUpAmount; }
+
+    void markRolledUp() {
+        this.rolledUpStatus = status;
+        this.rolledUpGateway = gateway;
+        this.rolledUpAmount = amount;
+    }
+}
@@ -6,8 +6,15 @@ import com.sajilokaam.invoice.Invoice;
 import com.sajilokaam.invoice.InvoiceRepository;
 import com.sajilokaam.project.Project;
 import com.sajilokaam.project.ProjectRepository;
+import com.sajilokaam.user.User;
+import com.sajilokaam.user.UserContextService;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
@@ -15,26 +22,40 @@ import java.time.Instant;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/payments")
 @CrossOrigin(origins = "http://localhost:5173")
 public class PaymentController {
 
+    /** Transaction code the payment success page sends when eSewa returned no refId */
+    private static final String ESEWA_PLACEHOLDER_CODE = "MANUAL_VERIFY";
+
     private final PaymentRepository paymentRepository;
     private final InvoiceRepository invoiceRepository;
     private final ProjectRepository projectRepository;
     private final EscrowAccountRepository escrowAccountRepository;
+    private final PaymentIdempotency paymentIdempotency;
+    private final UserContextService userContextService;
+    private final TransactionTemplate transactionTemplate;
 
     public PaymentController(
             PaymentRepository paymentRepository,
             InvoiceRepository invoiceRepository,
             ProjectRepository projectRepository,
-            EscrowAccountRepository escrowAccountRepository) {
+            EscrowAccountRepository escrowAccountRepository,
+            PaymentIdempotency paymentIdempotency,
+            UserContextService userContextService,
+            PlatformTransactionManager transactionManager) {
         this.paymentRepository = paymentRepository;
         this.invoiceRepository = invoiceRepository;
         this.projectRepository = projectRepository;
         this.escrowAccountRepository = escrowAccountRepository;
+        this.paymentIdempotency = paymentIdempotency;
+        this.userContextService = userContextService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     /**
@@ -240,13 +261,23 @@ public class PaymentController {
     }
     
     /**
-     * Verify Khalti payment
+     * Verify Khalti payment. Repeated requests for the same token (or Idempotency-Key) are
+     * answered once; see {@link PaymentIdempotency}.
      */
     @PostMapping("/khalti/verify")
-    @Transactional
     public ResponseEntity<Map<String, Object>> verifyKhaltiPayment(
-            @RequestBody Map<String, Object> request) {
-        
+            @RequestBody Map<String, Object> request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @RequestHeader(value = "Authorization", required = false) String authorization) {
+        String token = request.get("token") != null ? request.get("token").toString() : null;
+        String paymentKey = token != null ? "KHALTI:" + token : null;
+        String requestKey = requestKey("khalti", idempotencyKey, authorization, request.get("invoiceId"), paymentKey);
+        String fingerprint = PaymentIdempotency.fingerprint(new TreeMap<>(request).toString());
+        return paymentIdempotency.execute(requestKey, fingerprint,
+                () -> verifyOnce(paymentKey, () -> verifyKhaltiPaymentOnce(request, paymentKey)));
+    }
+
+    private ResponseEntity<Map<String, Object>> verifyKhaltiPaymentOnce(Map<String, Object> request, String paymentKey) {
         try {
             System.out.println("=== Khalti Payment Verification ===");
             System.out.println("Request: " + request);
@@ -347,6 +378,7 @@ public class PaymentController {
             payment.setAmount(amountInRupees);
             payment.setPaymentMethod("KHALTI");
             payment.setGatewayTransactionId(token);
+            payment.setIdempotencyKey(paymentKey);
             payment.setStatus("COMPLETED");
             payment.setPaidAt(Instant.now());
             
@@ -411,6 +443,9 @@ public class PaymentController {
                 "status", "PARTIAL_SUCCESS"
             ));
             
+        } catch (DataIntegrityViolationException | OptimisticLockingFailureException e) {
+            // A concurrent verification won the race; handled by verifyOnce
+            throw e;
         } catch (Exception e) {
             e.printStackTrace();
             System.err.println("Khalti payment verification error: " + e.getMessage());
@@ -497,13 +532,26 @@ public class PaymentController {
     }
 
     /**
-     * Handle eSewa payment success callback
+     * Handle eSewa payment success callback. Repeated callbacks for the same transaction (or
+     * Idempotency-Key) are answered once; see {@link PaymentIdempotency}.
      */
     @PostMapping("/esewa/verify")
-    @Transactional
     public ResponseEntity<Map<String, Object>> verifyPayment(
-            @RequestBody VerifyPaymentRequest request) {
-        
+            @RequestBody VerifyPaymentRequest request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @RequestHeader(value = "Authorization", required = false) String authorization) {
+        String paymentKey = esewaPaymentKey(request);
+        Object invoice = request.getInvoiceId() != null ? request.getInvoiceId() : request.getProductId();
+        String requestKey = requestKey("esewa", idempotencyKey, authorization, invoice, paymentKey);
+        String fingerprint = PaymentIdempotency.fingerprint(String.join("|",
+                String.valueOf(request.getProductId()), String.valueOf(request.getTransactionCode()),
+                String.valueOf(request.getAmount()), String.valueOf(request.getInvoiceId()),
+                String.valueOf(request.getProjectId())));
+        return paymentIdempotency.execute(requestKey, fingerprint,
+                () -> verifyOnce(paymentKey, () -> verifyESewaPaymentOnce(request, paymentKey)));
+    }
+
+    private ResponseEntity<Map<String, Object>> verifyESewaPaymentOnce(VerifyPaymentRequest request, String paymentKey) {
         try {
             System.out.println("=== Payment Verification ===");
             System.out.println("Request: " + request);
@@ -559,6 +607,7 @@ public class PaymentController {
             payment.setAmount(invoice.getTotalAmount());
             payment.setPaymentMethod("ESEWA");
             payment.setGatewayTransactionId(request.getTransactionCode());
+            payment.setIdempotencyKey(paymentKey);
             payment.setStatus("COMPLETED");
             payment.setPaidAt(Instant.now());
             
@@ -623,6 +672,9 @@ public class PaymentController {
                 "status", "PARTIAL_SUCCESS"
             ));
             
+        } catch (DataIntegrityViolationException | OptimisticLockingFailureException e) {
+            // A concurrent verification won the race; handled by verifyOnce
+            throw e;
         } catch (Exception e) {
             e.printStackTrace();
             System.err.println("Payment verification error: " + e.getMessage());
@@ -632,6 +684,77 @@ public class PaymentController {
         }
     }
 
+    /**
+     * Run a verification in its own transaction. The unique idempotency key on payments and the
+     * optimistic lock on invoices reject the loser of a race between instances or requests that
+     * were not coalesced; the loser answers with the payment the winner recorded.
+     */
+    private ResponseEntity<Map<String, Object>> verifyOnce(String paymentKey,
+                                                           Supplier<ResponseEntity<Map<String, Object>>> verification) {
+        try {
+            return transactionTemplate.execute(status -> {
+                ResponseEntity<Map<String, Object>> response = verification.get();
+                if (!response.getStatusCode().is2xxSuccessful()) {
+                    status.setRollbackOnly();
+                }
+                return response;
+            });
+        } catch (DataIntegrityViolationException | OptimisticLockingFailureException e) {
+            Optional<Payment> existing = paymentKey != null
+                    ? paymentRepository.findByIdempotencyKey(paymentKey)
+                    : Optional.empty();
+            if (existing.isPresent()) {
+                return ResponseEntity.ok(Map.of(
+                    "message", "Payment already verified",
+                    "paymentId", existing.get().getId(),
+                    "invoiceId", existing.get().getInvoice().getId(),
+                    "status", "SUCCESS"
+                ));
+            }
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of(
+                "error", "Invoice was updated concurrently, please retry"
+            ));
+        }
+    }
+
+    /**
+     * Deduplication key of a verify request. A client's Idempotency-Key counts only for a
+     * signed-in caller and is scoped to that user and the invoice, so a reused or guessed key
+     * never replays someone else's result. Otherwise the payment key is used.
+     */
+    private String requestKey(String gateway, String idempotencyKey, String authorization,
+                              Object invoice, String paymentKey) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return paymentKey;
+        }
+        Optional<User> user = userContextService.resolveUser(authorization);
+        if (user.isEmpty()) {
+            return paymentKey;
+        }
+        return gateway + ":user-" + user.get().getId() + ":invoice-" + invoice + ":" + idempotencyKey;
+    }
+
+    /**
+     * Key of an eSewa verification: always the invoice, plus the transaction code when eSewa
+     * returned one. Callbacks without a code send a placeholder (MANUAL_VERIFY) that is the same
+     * for every invoice, so the code alone must never be the key.
+     */
+    private String esewaPaymentKey(VerifyPaymentRequest request) {
+        String invoice;
+        if (request.getInvoiceId() != null) {
+            invoice = "INV-" + request.getInvoiceId();
+        } else if (request.getProductId() != null && request.getProductId().startsWith("INV-")) {
+            invoice = request.getProductId();
+        } else {
+            return null;
+        }
+        String code = request.getTransactionCode();
+        if (code == null || code.isBlank() || ESEWA_PLACEHOLDER_CODE.equals(code)) {
+            return "ESEWA:" + invoice;
+        }
+        return "ESEWA:" + invoice + ":" + code;
+    }
+
     /**
      * Get payment details
      */
@@ -0,0 +1,213 @@
+package com.sajilokaam.payment;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Idempotency layer for payment verification endpoints, which browsers hit repeatedly through
+ * redirects and retries.
+ *
+ * Requests are keyed by gateway transaction id or Idempotency-Key header. Concurrent requests
+ * with the same key share one in-flight execution; successful responses are replayed for the
+ * TTL. Failures are never cached, so a retry after a gateway error runs again.
+ *
+ * Each key remembers a fingerprint of the request it was first used with. A key reused for a
+ * different request is answered with 422 instead of the other request's result.
+ */
+@Component
+public class PaymentIdempotency {
+
+    private final long ttlMillis;
+    private final int maxEntries;
+
+    private final Map<String, Execution> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, CompletedResponse> completed = new ConcurrentHashMap<>();
+
+    private final Counter executed;
+    private final Counter coalesced;
+    private final Counter replayed;
+    private final Counter mismatched;
+
+    public PaymentIdempotency(@Value("${payment.verify.idempotency-ttl-ms:600000}") long ttlMillis,
+                              @Value("${payment.verify.idempotency-max-entries:10000}") int maxEntries,
+                              MeterRegistry meterRegistry) {
+        this.ttlMillis = ttlMillis;
+        this.maxEntries = maxEntries;
+        this.executed = Counter.builder("payment.verify.idempotency").tag("result", "executed").register(meterRegistry);
+        this.coalesced = Counter.builder("payment.verify.idempotency").tag("result", "coalesced").register(meterRegistry);
+        this.replayed = Counter.builder("payment.verify.idempotency").tag("result", "replayed").register(meterRegistry);
+        this.mismatched = Counter.builder("payment.verify.idempotency").tag("result", "mismatched").register(meterRegistry);
+    }
+
+    /**
+     * Run the action once per key, without checking which request the key was used with
+     */
+    public ResponseEntity<Map<String, Object>> execute(String key, Supplier<ResponseEntity<Map<String, Object>>> action) {
+        return execute(key, null, action);
+    }
+
+    /**
+     * Run the action once per key: replay a cached success, join an in-flight execution, or
+     * execute on the calling thread. A null key runs the action without deduplication. If the
+     * key was used with a different fingerprint (see {@link #fingerprint}), answers 422.
+     */
+    public ResponseEntity<Map<String, Object>> execute(String key, String fingerprint,
+                                                       Supplier<ResponseEntity<Map<String, Object>>> action) {
+        if (key == null) {
+            return action.get();
+        }
+
+        CompletedResponse cached = cached(key);
+        if (cached != null) {
+            return replay(cached.fingerprint, cached.response, fingerprint);
+        }
+
+        Execution execution = new Execution(fingerprint);
+        Execution existing = inFlight.putIfAbsent(key, execution);
+        if (existing != null) {
+            if (!matches(existing.fingerprint, fingerprint)) {
+                return mismatch();
+            }
+            coalesced.increment();
+            return join(existing.future);
+        }
+
+        try {
+            // Another execution may have finished between the cache check and putIfAbsent
+            cached = cached(key);
+            if (cached != null) {
+                ResponseEntity<Map<String, Object>> response = replay(cached.fingerprint, cached.response, fingerprint);
+                execution.future.complete(response);
+                return response;
+            }
+
+            executed.increment();
+            ResponseEntity<Map<String, Object>> response = action.get();
+            if (response != null && response.getStatusCode().is2xxSuccessful()) {
+                store(key, fingerprint, response);
+            }
+            execution.future.complete(response);
+            return response;
+        } catch (RuntimeException | Error e) {
+            execution.future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, execution);
+        }
+    }
+
+    /**
+     * SHA-256 of a canonical form of the request, to tell requests sharing a key apart
+     */
+    public static String fingerprint(String canonicalRequest) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(canonicalRequest.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private ResponseEntity<Map<String, Object>> replay(String storedFingerprint,
+                                                       ResponseEntity<Map<String, Object>> response,
+                                                       String fingerprint) {
+        if (!matches(storedFingerprint, fingerprint)) {
+            return mismatch();
+        }
+        replayed.increment();
+        return response;
+    }
+
+    private ResponseEntity<Map<String, Object>> mismatch() {
+        mismatched.increment();
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(Map.of(
+                "error", "Idempotency-Key was already used for a different request"));
+    }
+
+    private static boolean matches(String storedFingerprint, String fingerprint) {
+        return storedFingerprint == null || fingerprint == null || Objects.equals(storedFingerprint, fingerprint);
+    }
+
+    int cachedCount() {
+        return completed.size();
+    }
+
+    private CompletedResponse cached(String key) {
+        CompletedResponse entry = completed.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt <= System.currentTimeMillis()) {
+            completed.remove(key, entry);
+            return null;
+        }
+        return entry;
+    }
+
+    private void store(String key, String fingerprint, ResponseEntity<Map<String, Object>> response) {
+        long now = System.currentTimeMillis();
+        completed.put(key, new CompletedResponse(response, fingerprint, now + ttlMillis));
+        if (completed.size() <= maxEntries) {
+            return;
+        }
+        completed.values().removeIf(entry -> entry.expiresAt <= now);
+        // Still over the bound: drop whatever expires soonest
+        List<Map.Entry<String, CompletedResponse>> oldest = completed.entrySet().stream()
+                .sorted(Comparator.comparingLong(entry -> entry.getValue().expiresAt))
+                .limit(Math.max(0, completed.size() - maxEntries))
+                .toList();
+        oldest.forEach(entry -> completed.remove(entry.getKey(), entry.getValue()));
+    }
+
+    private ResponseEntity<Map<String, Object>> join(CompletableFuture<ResponseEntity<Map<String, Object>>> execution) {
+        try {
+            return execution.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    private static class Execution {
+        private final String fingerprint;
+        private final CompletableFuture<ResponseEntity<Map<String, Object>>> future = new CompletableFuture<>();
+
+        Execution(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+    }
+
+    private static class CompletedResponse {
+        private final ResponseEntity<Map<String, Object>> response;
+        private final String fingerprint;
+        private final long expiresAt;
+
+        CompletedResponse(ResponseEntity<Map<String, Object>> response, String fingerprint, long expiresAt) {
+            this.response = response;
+            this.fingerprint = fingerprint;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
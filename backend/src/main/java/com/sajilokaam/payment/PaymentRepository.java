@@ -1,15 +1,19 @@
 package com.sajilokaam.payment;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Optional;
 
 public interface PaymentRepository extends JpaRepository<Payment, Long> {
     List<Payment> findByInvoiceIdOrderByCreatedAtDesc(Long invoiceId);
     List<Payment> findByStatus(String status);
+    Optional<Payment> findByIdempotencyKey(String idempotencyKey);
+    @EntityGraph(attributePaths = {"invoice", "invoice.client", "invoice.freelancer"})
     List<Payment> findTop10ByOrderByCreatedAtDesc();
     long countByStatus(String status);
     long countByGateway(String gateway);
@@ -0,0 +1,65 @@
+package com.sajilokaam.payment;
+
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.Objects;
+
+/**
+ * JPA entity listener on {@link Payment} that keeps payment_rollups_daily in step with the
+ * payments table. Runs inside the flush, so the rollup delta commits or rolls back together
+ * with the payment write, whichever code path changed the payment.
+ * Bulk JPQL/SQL statements bypass entity listeners; use {@link PaymentRollupService#rebuild()}
+ * after those.
+ */
+@Component
+public class PaymentRollupListener {
+
+    private final PaymentRollupService rollupService;
+
+    public PaymentRollupListener(PaymentRollupService rollupService) {
+        this.rollupService = rollupService;
+    }
+
+    @PostLoad
+    public void onLoad(Payment payment) {
+        payment.markRolledUp();
+    }
+
+    @PostPersist
+    public void onPersist(Payment payment) {
+        rollupService.apply(payment.getCreatedAt(), payment.getGateway(), payment.getStatus(), 1, payment.getAmount());
+        payment.markRolledUp();
+    }
+
+    @PostUpdate
+    public void onUpdate(Payment payment) {
+        if (Objects.equals(payment.getRolledUpStatus(), payment.getStatus())
+                && Objects.equals(payment.getRolledUpGateway(), payment.getGateway())
+                && sameAmount(payment.getRolledUpAmount(), payment.getAmount())) {
+            return;
+        }
+        rollupService.apply(payment.getCreatedAt(), payment.getRolledUpGateway(), payment.getRolledUpStatus(),
+                -1, negate(payment.getRolledUpAmount()));
+        rollupService.apply(payment.getCreatedAt(), payment.getGateway(), payment.getStatus(), 1, payment.getAmount());
+        payment.markRolledUp();
+    }
+
+    @PostRemove
+    public void onRemove(Payment payment) {
+        rollupService.apply(payment.getCreatedAt(), payment.getRolledUpGateway(), payment.getRolledUpStatus(),
+                -1, negate(payment.getRolledUpAmount()));
+    }
+
+    private boolean sameAmount(BigDecimal a, BigDecimal b) {
+        return a == null ? b == null : b != null && a.compareTo(b) == 0;
+    }
+
+    private BigDecimal negate(BigDecimal amount) {
+        return amount != null ? amount.negate() : BigDecimal.ZERO;
+    }
+}
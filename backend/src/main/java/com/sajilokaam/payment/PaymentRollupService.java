@@ -0,0 +1,120 @@
+package com.sajilokaam.payment;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * Per-day payment counters by gateway and status (table payment_rollups_daily).
+ *
+ * {@link PaymentRollupListener} applies a delta for every payment insert, status or gateway
+ * change, and delete, in the same transaction as the payment write. Dashboards and time series
+ * then read O(days) rollup rows instead of scanning the payments table.
+ */
+@Service
+public class PaymentRollupService {
+
+    static final String OFFLINE_GATEWAY = "OFFLINE";
+    static final String UNKNOWN_STATUS = "PENDING";
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO payment_rollups_daily (day, gateway, status, payment_count, total_amount) " +
+            "VALUES (?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE payment_count = payment_count + VALUES(payment_count), " +
+            "total_amount = total_amount + VALUES(total_amount)";
+
+    private static final RowMapper<PaymentRollup> ROW_MAPPER = (rs, rowNum) -> new PaymentRollup(
+            rs.getDate("day") != null ? rs.getDate("day").toLocalDate() : null,
+            rs.getString("gateway"),
+            rs.getString("status"),
+            rs.getLong("payment_count"),
+            rs.getBigDecimal("total_amount"));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public PaymentRollupService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Add (or, with negative deltas, remove) payments to one rollup cell
+     */
+    public void apply(Instant createdAt, String gateway, String status, long countDelta, BigDecimal amountDelta) {
+        jdbcTemplate.update(UPSERT_SQL,
+                Date.valueOf(dayOf(createdAt)),
+                gateway != null ? gateway : OFFLINE_GATEWAY,
+                status != null ? status : UNKNOWN_STATUS,
+                countDelta,
+                amountDelta != null ? amountDelta : BigDecimal.ZERO);
+    }
+
+    /**
+     * All-time totals per (gateway, status); day is null
+     */
+    public List<PaymentRollup> totals() {
+        return jdbcTemplate.query(
+                "SELECT NULL AS day, gateway, status, SUM(payment_count) AS payment_count, " +
+                "SUM(total_amount) AS total_amount FROM payment_rollups_daily GROUP BY gateway, status",
+                ROW_MAPPER);
+    }
+
+    /**
+     * Daily rows per (gateway, status) for days in [from, to], ordered by day
+     */
+    public List<PaymentRollup> daily(LocalDate from, LocalDate to) {
+        return jdbcTemplate.query(
+                "SELECT day, gateway, status, payment_count, total_amount FROM payment_rollups_daily " +
+                "WHERE day BETWEEN ? AND ? AND payment_count <> 0 ORDER BY day, gateway, status",
+                ROW_MAPPER, Date.valueOf(from), Date.valueOf(to));
+    }
+
+    /**
+     * Recompute every rollup from the payments table, e.g. after payments were changed with
+     * bulk SQL that bypassed the entity listener.
+     */
+    @Transactional
+    public void rebuild() {
+        jdbcTemplate.update("DELETE FROM payment_rollups_daily");
+        jdbcTemplate.query("SELECT created_at, gateway, status, amount FROM payments", rs -> {
+            apply(rs.getTimestamp("created_at").toInstant(), rs.getString("gateway"), rs.getString("status"),
+                    1, rs.getBigDecimal("amount"));
+        });
+    }
+
+    static LocalDate dayOf(Instant createdAt) {
+        return LocalDate.ofInstant(createdAt != null ? createdAt : Instant.now(), ZoneOffset.UTC);
+    }
+
+    /**
+     * One rollup cell.
+     */
+    public static class PaymentRollup {
+        private final LocalDate day;
+        private final String gateway;
+        private final String status;
+        private final long count;
+        private final BigDecimal amount;
+
+        public PaymentRollup(LocalDate day, String gateway, String status, long count, BigDecimal amount) {
+            this.day = day;
+            this.gateway = gateway;
+            this.status = status;
+            this.count = count;
+            this.amount = amount != null ? amount : BigDecimal.ZERO;
+        }
+
+        public LocalDate getDay() { return day; }
+        public String getGateway() { return gateway; }
+        public String getStatus() { return status; }
+        public long getCount() { return count; }
+        public BigDecimal getAmount() { return amount; }
+    }
+}
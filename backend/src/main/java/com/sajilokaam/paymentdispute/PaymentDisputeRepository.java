@@ -1,6 +1,8 @@
 package com.sajilokaam.paymentdispute;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import java.util.List;
 
 public interface PaymentDisputeRepository extends JpaRepository<PaymentDispute, Long> {
@@ -8,6 +10,11 @@ public interface PaymentDisputeRepository extends JpaRepository<PaymentDispute,
     List<PaymentDispute> findByStatus(String status);
     List<PaymentDispute> findByRaisedById(Long userId);
     long countByStatus(String status);
+
+    @EntityGraph(attributePaths = {"payment", "payment.invoice"})
     List<PaymentDispute> findTop5ByOrderByCreatedAtDesc();
+
+    @Query("SELECT d.status, COUNT(d) FROM PaymentDispute d GROUP BY d.status")
+    List<Object[]> aggregateStatusCounts();
 }
 
@@ -0,0 +1,152 @@
+package com.sajilokaam.paymentgateway;
+
+import com.sajilokaam.util.CircuitBreaker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * HTTP access to one payment gateway: a dedicated connection pool with timeouts, a bulkhead
+ * limiting concurrent calls and a circuit breaker, so a slow or failing gateway can hold at
+ * most its own share of request threads. Every call is timed in the
+ * payment.gateway.http histogram by gateway, operation and outcome.
+ */
+public class GatewayHttpClient implements AutoCloseable {
+
+    private final String gateway;
+    private final RestTemplate restTemplate;
+    private final int maxConcurrentCalls;
+    private final long bulkheadWaitMs;
+    private final Semaphore bulkhead;
+    private final CircuitBreaker circuitBreaker;
+    private final MeterRegistry meterRegistry;
+
+    public GatewayHttpClient(String gateway, RestTemplate restTemplate, int maxConcurrentCalls, long bulkheadWaitMs,
+                             CircuitBreaker circuitBreaker, MeterRegistry meterRegistry) {
+        this.gateway = gateway;
+        this.restTemplate = restTemplate;
+        this.maxConcurrentCalls = Math.max(1, maxConcurrentCalls);
+        this.bulkheadWaitMs = bulkheadWaitMs;
+        this.bulkhead = new Semaphore(this.maxConcurrentCalls);
+        this.circuitBreaker = circuitBreaker;
+        this.meterRegistry = meterRegistry;
+
+        Gauge.builder("payment.gateway.http.in.flight", bulkhead, b -> this.maxConcurrentCalls - b.availablePermits())
+                .description("Calls to the gateway currently in progress")
+                .tag("gateway", gateway)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Run a call against the gateway's RestTemplate.
+     *
+     * 4xx responses are the gateway answering, so they are rethrown as is and do not count
+     * against the circuit.
+     *
+     * @throws GatewayUnavailableException if the bulkhead is full, the circuit is open, or the
+     *                                     call failed without an answer from the gateway
+     */
+    public <T> T execute(String operation, Function<RestTemplate, T> call) {
+        if (!acquireBulkhead()) {
+            count(operation, "rejected");
+            throw new GatewayUnavailableException(gateway + " has too many calls in progress");
+        }
+        try {
+            if (!circuitBreaker.tryAcquire()) {
+                count(operation, "circuit_open");
+                throw new GatewayUnavailableException(gateway + " is unavailable (circuit open)");
+            }
+
+            long start = System.nanoTime();
+            String outcome = "error";
+            try {
+                T result = call.apply(restTemplate);
+                circuitBreaker.recordSuccess();
+                outcome = "success";
+                return result;
+            } catch (HttpClientErrorException e) {
+                circuitBreaker.recordSuccess();
+                outcome = "client_error";
+                throw e;
+            } catch (RestClientException e) {
+                circuitBreaker.recordFailure();
+                throw new GatewayUnavailableException(gateway + " " + operation + " failed: " + e.getMessage(), e);
+            } catch (RuntimeException e) {
+                // A bad response body: the gateway is reachable
+                circuitBreaker.recordSuccess();
+                throw e;
+            } finally {
+                Timer.builder("payment.gateway.http")
+                        .description("Latency of payment gateway HTTP calls")
+                        .tag("gateway", gateway)
+                        .tag("operation", operation)
+                        .tag("outcome", outcome)
+                        .publishPercentileHistogram()
+                        .register(meterRegistry)
+                        .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    public String getGateway() {
+        return gateway;
+    }
+
+    public CircuitBreaker.State getCircuitState() {
+        return circuitBreaker.getState();
+    }
+
+    /**
+     * Current load and health, for the admin gateway overview
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("gateway", gateway);
+        stats.put("circuitState", circuitBreaker.getState());
+        stats.put("inFlight", maxConcurrentCalls - bulkhead.availablePermits());
+        stats.put("maxConcurrentCalls", maxConcurrentCalls);
+        return stats;
+    }
+
+    @Override
+    public void close() {
+        if (restTemplate.getRequestFactory() instanceof DisposableBean factory) {
+            try {
+                factory.destroy();
+            } catch (Exception e) {
+                System.err.println("Failed to close " + gateway + " HTTP client: " + e.getMessage());
+            }
+        }
+    }
+
+    private boolean acquireBulkhead() {
+        try {
+            return bulkhead.tryAcquire(bulkheadWaitMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void count(String operation, String result) {
+        Counter.builder("payment.gateway.http.rejected")
+                .tag("gateway", gateway)
+                .tag("operation", operation)
+                .tag("reason", result)
+                .register(meterRegistry)
+                .increment();
+    }
+}
@@ -0,0 +1,61 @@
+package com.sajilokaam.paymentgateway;
+
+import com.sajilokaam.config.PooledRestTemplates;
+import com.sajilokaam.util.CircuitBreaker;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Creates one {@link GatewayHttpClient} per gateway. Settings are read from
+ * payment.gateway.http.&lt;gateway&gt;.* and fall back to payment.gateway.http.*, so a
+ * gateway only needs its own entries where it differs from the rest.
+ */
+@Component
+public class GatewayHttpClients {
+
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, GatewayHttpClient> clients = new ConcurrentHashMap<>();
+
+    public GatewayHttpClients(Environment environment, MeterRegistry meterRegistry) {
+        this.environment = environment;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public GatewayHttpClient forGateway(String gateway) {
+        return clients.computeIfAbsent(gateway.toUpperCase(Locale.ROOT), this::create);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        clients.values().forEach(GatewayHttpClient::close);
+    }
+
+    private GatewayHttpClient create(String gateway) {
+        String prefix = gateway.toLowerCase(Locale.ROOT);
+        int maxConnections = setting(prefix, "max-connections", Integer.class, 20);
+        long connectTimeoutMs = setting(prefix, "connect-timeout-ms", Long.class, 2000L);
+        long readTimeoutMs = setting(prefix, "read-timeout-ms", Long.class, 10000L);
+        int maxConcurrentCalls = setting(prefix, "max-concurrent-calls", Integer.class, 10);
+        long bulkheadWaitMs = setting(prefix, "bulkhead-wait-ms", Long.class, 100L);
+        int failureThreshold = setting(prefix, "circuit-breaker.failure-threshold", Integer.class, 5);
+        long openDurationMs = setting(prefix, "circuit-breaker.open-duration-ms", Long.class, 30000L);
+
+        return new GatewayHttpClient(gateway,
+                PooledRestTemplates.create(maxConnections, connectTimeoutMs, readTimeoutMs),
+                maxConcurrentCalls, bulkheadWaitMs,
+                new CircuitBreaker("gateway-" + prefix, failureThreshold, openDurationMs),
+                meterRegistry);
+    }
+
+    private <T> T setting(String gateway, String key, Class<T> type, T defaultValue) {
+        T value = environment.getProperty("payment.gateway.http." + gateway + "." + key, type);
+        return value != null ? value : environment.getProperty("payment.gateway.http." + key, type, defaultValue);
+    }
+}
@@ -0,0 +1,17 @@
+package com.sajilokaam.paymentgateway;
+
+/**
+ * A gateway call did not get an answer: timeout, connection failure, 5xx, full bulkhead or
+ * open circuit. The outcome of the operation at the gateway is unknown, so callers must not
+ * treat it as a declined payment.
+ */
+public class GatewayUnavailableException extends RuntimeException {
+
+    public GatewayUnavailableException(String message) {
+        super(message);
+    }
+
+    public GatewayUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
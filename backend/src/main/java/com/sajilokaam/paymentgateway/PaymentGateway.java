@@ -11,14 +11,56 @@ public interface PaymentGateway {
     
     /**
      * Verify payment status from gateway
+     *
+     * @throws GatewayUnavailableException if the gateway could not be asked; the payment may
+     *                                     still complete, so this is not a failed verification
      */
     PaymentVerificationResponse verifyPayment(String transactionId);
+
+    /**
+     * Verify payment status, for gateways whose status lookup also needs the expected amount
+     */
+    default PaymentVerificationResponse verifyPayment(String transactionId, BigDecimal amount) {
+        return verifyPayment(transactionId);
+    }
     
     /**
      * Process webhook/callback from gateway
      */
     PaymentWebhookResponse processWebhook(Map<String, Object> webhookData);
     
+    /**
+     * Id of the gateway event a webhook payload carries, used to drop redelivered webhooks.
+     * Null if the gateway sends none; the raw payload is then used instead.
+     */
+    default String webhookEventId(Map<String, Object> webhookData) {
+        Object eventId = webhookData.get("event_id");
+        return eventId != null ? eventId.toString() : null;
+    }
+
+    /**
+     * Transaction a webhook payload is about; webhooks with the same key are processed in order
+     */
+    default String webhookTransactionKey(Map<String, Object> webhookData) {
+        Object transactionId = webhookData.get("transaction_id");
+        return transactionId != null ? transactionId.toString() : null;
+    }
+
+    /**
+     * Whether the gateway talks to the real payment provider. A simulated gateway confirms
+     * every payment, so its verifications must never settle anything on their own.
+     */
+    default boolean isLive() {
+        return true;
+    }
+
+    /**
+     * HTTP client the gateway calls through, or null if it makes no remote calls
+     */
+    default GatewayHttpClient getHttpClient() {
+        return null;
+    }
+
     /**
      * Refund a payment
      */
@@ -0,0 +1,38 @@
+package com.sajilokaam.paymentgateway;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * All {@link PaymentGateway} beans, looked up by gateway name (KHALTI, ESEWA, ...).
+ * Callers resolve gateways here rather than injecting implementations, so tests can register
+ * local fakes.
+ */
+@Component
+public class PaymentGatewayRegistry {
+
+    private final Map<String, PaymentGateway> gateways = new TreeMap<>();
+
+    public PaymentGatewayRegistry(List<PaymentGateway> gateways) {
+        for (PaymentGateway gateway : gateways) {
+            this.gateways.put(gateway.getGatewayName().toUpperCase(Locale.ROOT), gateway);
+        }
+    }
+
+    /**
+     * Gateway with this name (case-insensitive), or null if there is none
+     */
+    public PaymentGateway get(String name) {
+        return name != null ? gateways.get(name.toUpperCase(Locale.ROOT)) : null;
+    }
+
+    public Collection<String> names() {
+        return Collections.unmodifiableSet(gateways.keySet());
+    }
+}
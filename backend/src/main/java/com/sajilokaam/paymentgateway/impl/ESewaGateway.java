@@ -3,7 +3,7 @@ package com.sajilokaam.paymentgateway.impl;
 import com.sajilokaam.paymentgateway.*;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
 
 import java.math.BigDecimal;
 import java.util.HashMap;
@@ -13,16 +13,24 @@ import java.util.UUID;
 @Service
 public class ESewaGateway implements PaymentGateway {
     
-    @Value("${esewa.merchant.id:test_merchant_id}")
-    private String merchantId;
-    
-    @Value("${esewa.secret.key:test_secret_key}")
-    private String secretKey;
-    
-    @Value("${esewa.base.url:https://uat.esewa.com.np}")
-    private String baseUrl;
-    
-    private final RestTemplate restTemplate = new RestTemplate();
+    private final String merchantId;
+    private final String secretKey;
+    private final String baseUrl;
+    // Off in development: payments are simulated instead of calling eSewa
+    private final boolean live;
+    private final GatewayHttpClient httpClient;
+
+    public ESewaGateway(GatewayHttpClients httpClients,
+                        @Value("${esewa.merchant.id:test_merchant_id}") String merchantId,
+                        @Value("${esewa.secret.key:test_secret_key}") String secretKey,
+                        @Value("${esewa.base.url:https://uat.esewa.com.np}") String baseUrl,
+                        @Value("${esewa.live:false}") boolean live) {
+        this.merchantId = merchantId;
+        this.secretKey = secretKey;
+        this.baseUrl = baseUrl;
+        this.live = live;
+        this.httpClient = httpClients.forGateway(getGatewayName());
+    }
 
     @Override
     public PaymentInitiationResponse initiatePayment(PaymentRequest request) {
@@ -61,31 +69,44 @@ public class ESewaGateway implements PaymentGateway {
 
     @Override
     public PaymentVerificationResponse verifyPayment(String transactionId) {
+        return verifyPayment(transactionId, null);
+    }
+
+    @Override
+    public PaymentVerificationResponse verifyPayment(String transactionId, BigDecimal amount) {
         try {
-            // Mock verification - in production, verify with eSewa API
-            /*
-            Map<String, String> params = new HashMap<>();
-            params.put("pid", transactionId);
-            params.put("scd", merchantId);
-            
-            // Generate verification hash
-            String hashString = merchantId + "," + transactionId + "," + secretKey;
-            String hash = generateMD5Hash(hashString);
-            params.put("h", hash);
-            
-            ResponseEntity<Map> response = restTemplate.postForEntity(
-                baseUrl + "/epay/transrec",
-                params,
-                Map.class
-            );
-            */
-            
-            // Mock successful verification
-            return PaymentVerificationResponse.success(
-                transactionId,
-                "ESW-GATEWAY-" + UUID.randomUUID().toString(),
-                BigDecimal.valueOf(1000) // Mock amount
-            );
+            if (!live) {
+                // Simulated successful verification
+                return PaymentVerificationResponse.success(
+                    transactionId,
+                    "ESW-GATEWAY-" + UUID.randomUUID().toString(),
+                    BigDecimal.valueOf(1000) // Mock amount
+                );
+            }
+
+            UriComponentsBuilder uri = UriComponentsBuilder.fromUriString(baseUrl + "/api/epay/transaction/status/")
+                .queryParam("product_code", merchantId)
+                .queryParam("transaction_uuid", transactionId);
+            if (amount != null) {
+                uri.queryParam("total_amount", amount.toPlainString());
+            }
+            String url = uri.toUriString();
+            Map<?, ?> response = httpClient.execute("status", restTemplate -> restTemplate.getForObject(url, Map.class));
+            if (response == null) {
+                return PaymentVerificationResponse.failure("Empty eSewa status response");
+            }
+            String status = String.valueOf(response.get("status"));
+            BigDecimal total = response.get("total_amount") != null
+                ? new BigDecimal(response.get("total_amount").toString()) : amount;
+            if ("COMPLETE".equals(status)) {
+                return PaymentVerificationResponse.success(transactionId, (String) response.get("ref_id"), total);
+            }
+            if ("PENDING".equals(status) || "AMBIGUOUS".equals(status)) {
+                return new PaymentVerificationResponse(false, "PENDING", transactionId, null, total, "eSewa payment " + status);
+            }
+            return PaymentVerificationResponse.failure("eSewa payment " + status);
+        } catch (GatewayUnavailableException e) {
+            throw e;
         } catch (Exception e) {
             return PaymentVerificationResponse.failure("Failed to verify eSewa payment: " + e.getMessage());
         }
@@ -114,6 +135,19 @@ public class ESewaGateway implements PaymentGateway {
         }
     }
 
+    @Override
+    public String webhookEventId(Map<String, Object> webhookData) {
+        // No event id is sent; each status change of a pid is one event
+        Object pid = webhookData.get("pid");
+        return pid != null ? pid + ":" + webhookData.get("status") : null;
+    }
+
+    @Override
+    public String webhookTransactionKey(Map<String, Object> webhookData) {
+        Object pid = webhookData.get("pid");
+        return pid != null ? pid.toString() : null;
+    }
+
     @Override
     public RefundResponse refund(String transactionId, BigDecimal amount, String reason) {
         try {
@@ -125,6 +159,16 @@ public class ESewaGateway implements PaymentGateway {
         }
     }
 
+    @Override
+    public GatewayHttpClient getHttpClient() {
+        return httpClient;
+    }
+
+    @Override
+    public boolean isLive() {
+        return live;
+    }
+
     @Override
     public String getGatewayName() {
         return "ESEWA";
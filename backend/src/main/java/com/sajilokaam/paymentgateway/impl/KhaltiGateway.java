@@ -2,8 +2,10 @@ package com.sajilokaam.paymentgateway.impl;
 
 import com.sajilokaam.paymentgateway.*;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
 import java.math.BigDecimal;
 import java.util.HashMap;
@@ -13,27 +15,34 @@ import java.util.UUID;
 @Service
 public class KhaltiGateway implements PaymentGateway {
     
-    @Value("${khalti.secret.key:test_secret_key}")
-    private String secretKey;
-    
-    @Value("${khalti.public.key:test_public_key}")
-    private String publicKey;
-    
-    @Value("${khalti.base.url:https://khalti.com/api/v2}")
-    private String baseUrl;
-    
-    private final RestTemplate restTemplate = new RestTemplate();
+    private final String secretKey;
+    private final String publicKey;
+    private final String baseUrl;
+    // Off in development: payments are simulated instead of calling Khalti
+    private final boolean live;
+    private final GatewayHttpClient httpClient;
+
+    public KhaltiGateway(GatewayHttpClients httpClients,
+                         @Value("${khalti.secret.key:test_secret_key}") String secretKey,
+                         @Value("${khalti.public.key:test_public_key}") String publicKey,
+                         @Value("${khalti.base.url:https://khalti.com/api/v2}") String baseUrl,
+                         @Value("${khalti.live:false}") boolean live) {
+        this.secretKey = secretKey;
+        this.publicKey = publicKey;
+        this.baseUrl = baseUrl;
+        this.live = live;
+        this.httpClient = httpClients.forGateway(getGatewayName());
+    }
 
     @Override
     public PaymentInitiationResponse initiatePayment(PaymentRequest request) {
         try {
-            // In production, this would make an actual API call to Khalti
-            // For now, we'll simulate the response
-            String paymentUrl = baseUrl + "/payment/initiate/" + UUID.randomUUID().toString();
-            String transactionId = "KHT-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
-            
-            // Mock API call structure (commented out for production use):
-            /*
+            if (!live) {
+                String paymentUrl = baseUrl + "/payment/initiate/" + UUID.randomUUID().toString();
+                String transactionId = "KHT-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+                return PaymentInitiationResponse.success(paymentUrl, transactionId);
+            }
+
             Map<String, Object> payload = new HashMap<>();
             payload.put("return_url", request.getReturnUrl());
             payload.put("website_url", "https://sajilokaam.com");
@@ -41,22 +50,18 @@ public class KhaltiGateway implements PaymentGateway {
             payload.put("purchase_order_id", request.getTransactionId());
             payload.put("purchase_order_name", request.getProductName());
             payload.put("customer_info", Map.of(
-                "name", request.getCustomerName(),
-                "email", request.getCustomerEmail(),
-                "phone", request.getCustomerPhone()
+                "name", String.valueOf(request.getCustomerName()),
+                "email", String.valueOf(request.getCustomerEmail()),
+                "phone", String.valueOf(request.getCustomerPhone())
             ));
-            
-            HttpHeaders headers = new HttpHeaders();
-            headers.set("Authorization", "Key " + secretKey);
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            
-            HttpEntity<Map<String, Object>> entity = new HttpEntity<>(payload, headers);
-            ResponseEntity<Map> response = restTemplate.postForEntity(
-                baseUrl + "/epayment/initiate/", entity, Map.class
-            );
-            */
-            
-            return PaymentInitiationResponse.success(paymentUrl, transactionId);
+
+            Map<?, ?> response = httpClient.execute("initiate", restTemplate -> restTemplate.postForObject(
+                baseUrl + "/epayment/initiate/", new HttpEntity<>(payload, headers()), Map.class
+            ));
+            if (response == null || response.get("pidx") == null) {
+                return PaymentInitiationResponse.failure("Khalti returned no pidx", "KHALTI_ERROR");
+            }
+            return PaymentInitiationResponse.success((String) response.get("payment_url"), (String) response.get("pidx"));
         } catch (Exception e) {
             return PaymentInitiationResponse.failure("Failed to initiate Khalti payment: " + e.getMessage(), "KHALTI_ERROR");
         }
@@ -65,27 +70,33 @@ public class KhaltiGateway implements PaymentGateway {
     @Override
     public PaymentVerificationResponse verifyPayment(String transactionId) {
         try {
-            // Mock verification - in production, verify with Khalti API
-            /*
-            HttpHeaders headers = new HttpHeaders();
-            headers.set("Authorization", "Key " + secretKey);
-            HttpEntity<?> entity = new HttpEntity<>(headers);
-            
-            ResponseEntity<Map> response = restTemplate.exchange(
-                baseUrl + "/epayment/lookup/",
-                HttpMethod.POST,
-                entity,
-                Map.class,
-                Map.of("pidx", transactionId)
-            );
-            */
-            
-            // Mock successful verification
-            return PaymentVerificationResponse.success(
-                transactionId,
-                "KHT-GATEWAY-" + UUID.randomUUID().toString(),
-                BigDecimal.valueOf(1000) // Mock amount
-            );
+            if (!live) {
+                // Simulated successful verification
+                return PaymentVerificationResponse.success(
+                    transactionId,
+                    "KHT-GATEWAY-" + UUID.randomUUID().toString(),
+                    BigDecimal.valueOf(1000) // Mock amount
+                );
+            }
+
+            Map<?, ?> response = httpClient.execute("lookup", restTemplate -> restTemplate.postForObject(
+                baseUrl + "/epayment/lookup/", new HttpEntity<>(Map.of("pidx", transactionId), headers()), Map.class
+            ));
+            if (response == null) {
+                return PaymentVerificationResponse.failure("Empty Khalti lookup response");
+            }
+            String status = String.valueOf(response.get("status"));
+            BigDecimal amount = response.get("total_amount") instanceof Number total
+                ? BigDecimal.valueOf(total.longValue()).movePointLeft(2) : null;
+            if ("Completed".equals(status)) {
+                return PaymentVerificationResponse.success(transactionId, (String) response.get("transaction_id"), amount);
+            }
+            if ("Pending".equals(status) || "Initiated".equals(status)) {
+                return new PaymentVerificationResponse(false, "PENDING", transactionId, null, amount, "Khalti payment " + status);
+            }
+            return PaymentVerificationResponse.failure("Khalti payment " + status);
+        } catch (GatewayUnavailableException e) {
+            throw e;
         } catch (Exception e) {
             return PaymentVerificationResponse.failure("Failed to verify Khalti payment: " + e.getMessage());
         }
@@ -115,6 +126,19 @@ public class KhaltiGateway implements PaymentGateway {
         }
     }
 
+    @Override
+    public String webhookEventId(Map<String, Object> webhookData) {
+        // No event id is sent; each status change of a pidx is one event
+        Object pidx = webhookData.get("pidx");
+        return pidx != null ? pidx + ":" + webhookData.get("status") : null;
+    }
+
+    @Override
+    public String webhookTransactionKey(Map<String, Object> webhookData) {
+        Object pidx = webhookData.get("pidx");
+        return pidx != null ? pidx.toString() : null;
+    }
+
     @Override
     public RefundResponse refund(String transactionId, BigDecimal amount, String reason) {
         try {
@@ -126,9 +150,26 @@ public class KhaltiGateway implements PaymentGateway {
         }
     }
 
+    @Override
+    public GatewayHttpClient getHttpClient() {
+        return httpClient;
+    }
+
+    @Override
+    public boolean isLive() {
+        return live;
+    }
+
     @Override
     public String getGatewayName() {
         return "KHALTI";
     }
+
+    private HttpHeaders headers() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Authorization", "Key " + secretKey);
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        return headers;
+    }
 }
 
@@ -0,0 +1,240 @@
+package com.sajilokaam.paymentservice;
+
+import com.sajilokaam.paymentgateway.PaymentGateway;
+import com.sajilokaam.paymentgateway.PaymentGatewayRegistry;
+import com.sajilokaam.paymentgateway.PaymentVerificationResponse;
+import com.sajilokaam.transaction.Transaction;
+import com.sajilokaam.transaction.TransactionRepository;
+import com.sajilokaam.util.RateLimiter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Settles gateway transactions that were left PENDING because the user never came back to
+ * the verify endpoint (closed tab, lost redirect).
+ *
+ * Every sweep picks stale pending transactions in batches, least recently checked first, and
+ * verifies them against their gateway on a small worker pool, with a per-gateway rate limit
+ * so a backlog cannot flood a gateway. Results go through {@link PaymentSettlementService},
+ * the same state machine as the verify and webhook paths. Transactions still pending after
+ * the expiry window are marked FAILED.
+ *
+ * Transactions of gateways that are not live are only marked as checked: a simulated gateway
+ * would confirm them without any money having been received.
+ */
+@Service
+public class PaymentReconciliationService {
+
+    public enum Result { SETTLED, FAILED, STILL_PENDING, EXPIRED, ALREADY_FINAL, ERROR }
+
+    private final TransactionRepository transactionRepository;
+    private final PaymentGatewayRegistry gatewayRegistry;
+    private final PaymentSettlementService settlementService;
+    private final MeterRegistry meterRegistry;
+
+    private final boolean enabled;
+    private final Duration staleAfter;
+    private final Duration recheckAfter;
+    private final Duration expireAfter;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final double gatewayRatePerSecond;
+
+    private final ExecutorService executor;
+    private final Map<String, RateLimiter> rateLimiters = new ConcurrentHashMap<>();
+    private final AtomicLong oldestPendingSeconds = new AtomicLong();
+
+    public PaymentReconciliationService(TransactionRepository transactionRepository,
+                                        PaymentGatewayRegistry gatewayRegistry,
+                                        PaymentSettlementService settlementService,
+                                        MeterRegistry meterRegistry,
+                                        @Value("${payment.reconciliation.enabled:true}") boolean enabled,
+                                        @Value("${payment.reconciliation.stale-after-minutes:15}") long staleAfterMinutes,
+                                        @Value("${payment.reconciliation.recheck-after-minutes:10}") long recheckAfterMinutes,
+                                        @Value("${payment.reconciliation.expire-after-hours:72}") long expireAfterHours,
+                                        @Value("${payment.reconciliation.batch-size:50}") int batchSize,
+                                        @Value("${payment.reconciliation.max-batches-per-run:20}") int maxBatchesPerRun,
+                                        @Value("${payment.reconciliation.concurrency:4}") int concurrency,
+                                        @Value("${payment.reconciliation.gateway-rate-per-second:5}") double gatewayRatePerSecond) {
+        this.transactionRepository = transactionRepository;
+        this.gatewayRegistry = gatewayRegistry;
+        this.settlementService = settlementService;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.staleAfter = Duration.ofMinutes(staleAfterMinutes);
+        this.recheckAfter = Duration.ofMinutes(recheckAfterMinutes);
+        this.expireAfter = Duration.ofHours(expireAfterHours);
+        this.batchSize = Math.max(1, batchSize);
+        this.maxBatchesPerRun = Math.max(1, maxBatchesPerRun);
+        this.gatewayRatePerSecond = gatewayRatePerSecond;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Math.max(1, concurrency), runnable -> {
+            Thread thread = new Thread(runnable, "payment-reconcile-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        Gauge.builder("payment.reconciliation.oldest.pending", oldestPendingSeconds, AtomicLong::get)
+                .description("Age in seconds of the oldest pending transaction at the last sweep")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * One reconciliation sweep. Returns the number of transactions per result, nothing if
+     * reconciliation is disabled.
+     */
+    @Scheduled(fixedDelayString = "${payment.reconciliation.interval-ms:60000}",
+            initialDelayString = "${payment.reconciliation.interval-ms:60000}")
+    public Map<Result, Integer> reconcile() {
+        Map<Result, Integer> results = new EnumMap<>(Result.class);
+        if (!enabled) {
+            return results;
+        }
+        Instant now = Instant.now();
+        Set<Long> seen = new HashSet<>();
+
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            List<Transaction> pending = transactionRepository.findStalePending(
+                    now.minus(staleAfter), now.minus(recheckAfter), PageRequest.of(0, batchSize));
+
+            List<CompletableFuture<Result>> checks = new ArrayList<>();
+            for (Transaction transaction : pending) {
+                // Skip anything a failed touch left at the head of the queue
+                if (seen.add(transaction.getId())) {
+                    checks.add(CompletableFuture.supplyAsync(() -> reconcile(transaction), executor));
+                }
+            }
+            for (CompletableFuture<Result> check : checks) {
+                results.merge(check.join(), 1, Integer::sum);
+            }
+            if (pending.size() < batchSize || checks.isEmpty()) {
+                break;
+            }
+        }
+
+        try {
+            Instant oldest = transactionRepository.findOldestPendingCreatedAt();
+            oldestPendingSeconds.set(oldest != null ? Duration.between(oldest, Instant.now()).toSeconds() : 0);
+        } catch (RuntimeException e) {
+            System.err.println("Failed to read oldest pending transaction: " + e.getMessage());
+        }
+        return results;
+    }
+
+    private Result reconcile(Transaction transaction) {
+        String gatewayName = transaction.getGateway();
+        PaymentGateway gateway = gatewayRegistry.get(gatewayName);
+        Result result;
+        try {
+            if (gateway == null) {
+                // Offline methods (bank transfer etc.) are settled by hand; just mark as checked
+                settlementService.apply(transaction.getTransactionId(), stillPending("No gateway to verify with"));
+                result = Result.STILL_PENDING;
+            } else if (!gateway.isLive()) {
+                settlementService.apply(transaction.getTransactionId(), stillPending("Gateway is simulated"));
+                result = Result.STILL_PENDING;
+            } else {
+                rateLimiter(gatewayName).acquire();
+                PaymentVerificationResponse response = verify(gateway, transaction);
+                boolean expired = transaction.getCreatedAt() != null
+                        && transaction.getCreatedAt().isBefore(Instant.now().minus(expireAfter));
+                if (response == null) {
+                    // Gateway outage: mark as checked and try again on a later sweep
+                    settlementService.apply(transaction.getTransactionId(), stillPending("Gateway unavailable"));
+                    result = Result.ERROR;
+                } else if (expired && "PENDING".equals(response.getStatus())) {
+                    result = toResult(settlementService.fail(transaction.getTransactionId(),
+                            "Expired without gateway confirmation"));
+                    if (result == Result.FAILED) {
+                        result = Result.EXPIRED;
+                    }
+                } else {
+                    result = toResult(settlementService.apply(transaction.getTransactionId(), response));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result = Result.ERROR;
+        } catch (RuntimeException e) {
+            System.err.println("Failed to reconcile transaction " + transaction.getTransactionId() + ": " + e.getMessage());
+            result = Result.ERROR;
+        }
+
+        String tag = gatewayName != null ? gatewayName : "UNKNOWN";
+        Counter.builder("payment.reconciliation.outcomes")
+                .tag("gateway", tag)
+                .tag("result", result.name())
+                .register(meterRegistry)
+                .increment();
+        if ((result == Result.SETTLED || result == Result.FAILED || result == Result.EXPIRED)
+                && transaction.getCreatedAt() != null) {
+            Timer.builder("payment.reconciliation.lag")
+                    .description("Time from transaction creation until reconciliation resolved it")
+                    .tag("gateway", tag)
+                    .register(meterRegistry)
+                    .record(Duration.between(transaction.getCreatedAt(), Instant.now()));
+        }
+        return result;
+    }
+
+    /**
+     * Gateway verdict, or null if the gateway could not be reached
+     */
+    private PaymentVerificationResponse verify(PaymentGateway gateway, Transaction transaction) {
+        try {
+            return gateway.verifyPayment(transaction.getTransactionId(), transaction.getAmount());
+        } catch (RuntimeException e) {
+            System.err.println("Gateway " + gateway.getGatewayName() + " failed to verify "
+                    + transaction.getTransactionId() + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private PaymentVerificationResponse stillPending(String message) {
+        return new PaymentVerificationResponse(false, "PENDING", null, null, null, message);
+    }
+
+    private RateLimiter rateLimiter(String gateway) {
+        return rateLimiters.computeIfAbsent(gateway, name ->
+                new RateLimiter("reconcile-" + name, gatewayRatePerSecond, (int) Math.ceil(gatewayRatePerSecond)));
+    }
+
+    private Result toResult(PaymentSettlementService.Outcome outcome) {
+        return switch (outcome) {
+            case SETTLED -> Result.SETTLED;
+            case FAILED -> Result.FAILED;
+            case STILL_PENDING -> Result.STILL_PENDING;
+            case ALREADY_FINAL, NOT_FOUND -> Result.ALREADY_FINAL;
+            case UNVERIFIED -> Result.STILL_PENDING;
+        };
+    }
+}
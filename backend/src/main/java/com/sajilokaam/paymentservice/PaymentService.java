@@ -3,8 +3,6 @@ package com.sajilokaam.paymentservice;
 import com.sajilokaam.payment.Payment;
 import com.sajilokaam.payment.PaymentRepository;
 import com.sajilokaam.paymentgateway.*;
-import com.sajilokaam.paymentgateway.impl.KhaltiGateway;
-import com.sajilokaam.paymentgateway.impl.ESewaGateway;
 import com.sajilokaam.transaction.Transaction;
 import com.sajilokaam.transaction.TransactionRepository;
 import org.springframework.http.ResponseEntity;
@@ -15,25 +13,26 @@ import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 
 @Service
 public class PaymentService {
     private final PaymentRepository paymentRepository;
     private final TransactionRepository transactionRepository;
-    private final KhaltiGateway khaltiGateway;
-    private final ESewaGateway eSewaGateway;
+    private final PaymentGatewayRegistry gatewayRegistry;
+    private final PaymentSettlementService settlementService;
     private final ESewaPaymentHelper eSewaPaymentHelper;
 
     public PaymentService(PaymentRepository paymentRepository,
                          TransactionRepository transactionRepository,
-                         KhaltiGateway khaltiGateway,
-                         ESewaGateway eSewaGateway,
+                         PaymentGatewayRegistry gatewayRegistry,
+                         PaymentSettlementService settlementService,
                          ESewaPaymentHelper eSewaPaymentHelper) {
         this.paymentRepository = paymentRepository;
         this.transactionRepository = transactionRepository;
-        this.khaltiGateway = khaltiGateway;
-        this.eSewaGateway = eSewaGateway;
+        this.gatewayRegistry = gatewayRegistry;
+        this.settlementService = settlementService;
         this.eSewaPaymentHelper = eSewaPaymentHelper;
     }
 
@@ -85,62 +84,39 @@ public class PaymentService {
             return PaymentVerificationResponse.failure("Invalid payment gateway");
         }
 
-        PaymentVerificationResponse response = gateway.verifyPayment(transactionId);
-        
-        if (response.isSuccess() && "SUCCESS".equals(response.getStatus())) {
-            transaction.setStatus("SUCCESS");
-            transaction.setProcessedAt(Instant.now());
-            transaction.setGatewayTransactionId(response.getGatewayTransactionId());
-            transactionRepository.save(transaction);
-
-            // Update payment status
-            Payment payment = transaction.getPayment();
-            if (payment != null) {
-                payment.setStatus("COMPLETED");
-                payment.setPaidAt(Instant.now());
-                payment.setGateway(transaction.getGateway());
-                payment.setGatewayTransactionId(response.getGatewayTransactionId());
-                paymentRepository.save(payment);
-            }
-        } else {
-            transaction.setStatus("FAILED");
-            transaction.setFailureReason(response.getMessage());
-            transactionRepository.save(transaction);
-        }
-
+        PaymentVerificationResponse response = gateway.verifyPayment(transactionId, transaction.getAmount());
+        settlementService.apply(transactionId, response);
         return response;
     }
 
-    public PaymentWebhookResponse processWebhook(String gateway, Map<String, Object> webhookData) {
-        PaymentGateway gatewayImpl = getGateway(gateway);
-        if (gatewayImpl == null) {
-            return new PaymentWebhookResponse(false, null, null, "FAILED", null, "Invalid gateway");
+    /**
+     * Apply a parsed gateway webhook. Webhooks are unsigned and arrive on a public endpoint, so
+     * the body only tells which transaction changed; its status is never trusted. The outcome
+     * comes from asking the gateway about the transaction, as reconciliation does. A simulated
+     * gateway would confirm anything, so its webhooks are not applied at all.
+     *
+     * @throws RuntimeException if the gateway could not be asked; the webhook is retried later
+     */
+    public PaymentSettlementService.Outcome applyWebhook(PaymentGateway gateway, PaymentWebhookResponse webhook) {
+        if (!gateway.isLive()) {
+            return PaymentSettlementService.Outcome.UNVERIFIED;
         }
-
-        PaymentWebhookResponse response = gatewayImpl.processWebhook(webhookData);
-        
-        if (response.isSuccess()) {
-            Transaction transaction = transactionRepository.findByTransactionId(response.getTransactionId())
-                    .orElse(null);
-            
-            if (transaction != null) {
-                transaction.setStatus("SUCCESS");
-                transaction.setProcessedAt(Instant.now());
-                transaction.setGatewayTransactionId(response.getGatewayTransactionId());
-                transactionRepository.save(transaction);
-
-                Payment payment = transaction.getPayment();
-                if (payment != null) {
-                    payment.setStatus("COMPLETED");
-                    payment.setPaidAt(Instant.now());
-                    payment.setGateway(transaction.getGateway());
-                    payment.setGatewayTransactionId(response.getGatewayTransactionId());
-                    paymentRepository.save(payment);
-                }
-            }
+        if (webhook.getTransactionId() == null) {
+            return PaymentSettlementService.Outcome.NOT_FOUND;
+        }
+        Optional<Transaction> transactionOpt = settlementService.find(webhook.getTransactionId());
+        if (transactionOpt.isEmpty() || !gateway.getGatewayName().equalsIgnoreCase(transactionOpt.get().getGateway())) {
+            return PaymentSettlementService.Outcome.NOT_FOUND;
+        }
+        Transaction transaction = transactionOpt.get();
+        if (!"PENDING".equals(transaction.getStatus()) && !"FAILED".equals(transaction.getStatus())) {
+            // Settled already; no need to ask the gateway
+            return PaymentSettlementService.Outcome.ALREADY_FINAL;
         }
 
-        return response;
+        // Ask under the id the gateway used in the webhook (e.g. Khalti's pidx)
+        PaymentVerificationResponse verification = gateway.verifyPayment(webhook.getTransactionId(), transaction.getAmount());
+        return settlementService.apply(transaction.getTransactionId(), verification);
     }
 
     public RefundResponse refund(String transactionId, BigDecimal amount, String reason) {
@@ -169,12 +145,7 @@ public class PaymentService {
     }
 
     private PaymentGateway getGateway(String gateway) {
-        if ("KHALTI".equalsIgnoreCase(gateway)) {
-            return khaltiGateway;
-        } else if ("ESEWA".equalsIgnoreCase(gateway)) {
-            return eSewaGateway;
-        }
-        return null;
+        return gatewayRegistry.get(gateway);
     }
 
     // New eSewa v2 form-based payment initiation
@@ -200,26 +171,12 @@ public class PaymentService {
                 String transactionUuid = (String) callbackData.get("transaction_uuid");
                 String status = (String) callbackData.get("status");
                 
-                // Find transaction by UUID
-                Transaction transaction = transactionRepository.findByTransactionId(transactionUuid)
-                        .orElse(null);
-                
-                if (transaction != null && "success".equalsIgnoreCase(status)) {
-                    transaction.setStatus("SUCCESS");
-                    transaction.setProcessedAt(Instant.now());
-                    transaction.setGatewayTransactionId(transactionUuid);
-                    transactionRepository.save(transaction);
-
-                    // Update payment status
-                    Payment payment = transaction.getPayment();
-                    if (payment != null) {
-                        payment.setStatus("COMPLETED");
-                        payment.setPaidAt(Instant.now());
-                        payment.setGateway("ESEWA");
-                        payment.setGatewayTransactionId(transactionUuid);
-                        paymentRepository.save(payment);
-                    }
-                    
+                PaymentSettlementService.Outcome outcome = "success".equalsIgnoreCase(status)
+                        ? settlementService.settle(transactionUuid, transactionUuid)
+                        : PaymentSettlementService.Outcome.NOT_FOUND;
+
+                if (outcome == PaymentSettlementService.Outcome.SETTLED
+                        || outcome == PaymentSettlementService.Outcome.ALREADY_FINAL) {
                     response.put("status", "success");
                     response.put("message", "Payment verified successfully");
                 } else {
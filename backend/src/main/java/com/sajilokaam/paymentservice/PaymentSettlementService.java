@@ -0,0 +1,134 @@
+package com.sajilokaam.paymentservice;
+
+import com.sajilokaam.invoice.Invoice;
+import com.sajilokaam.payment.Payment;
+import com.sajilokaam.paymentgateway.PaymentVerificationResponse;
+import com.sajilokaam.transaction.Transaction;
+import com.sajilokaam.transaction.TransactionRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * State machine for gateway transactions and the payment and invoice they settle.
+ *
+ * Every path that learns a transaction's outcome (browser verify, webhook, callback,
+ * background reconciliation) goes through here with a verification result from the gateway, so they agree on the transitions:
+ * PENDING or FAILED may become SUCCESS; only PENDING may become FAILED; a settled transaction
+ * is never moved back. Applying the same outcome twice is a no-op.
+ */
+@Service
+public class PaymentSettlementService {
+
+    /**
+     * UNVERIFIED: the outcome could not be confirmed with the gateway and nothing was changed
+     */
+    public enum Outcome { SETTLED, FAILED, STILL_PENDING, ALREADY_FINAL, NOT_FOUND, UNVERIFIED }
+
+    private final TransactionRepository transactionRepository;
+
+    public PaymentSettlementService(TransactionRepository transactionRepository) {
+        this.transactionRepository = transactionRepository;
+    }
+
+    /**
+     * Apply a gateway verification result to the transaction with this (our) transaction id
+     */
+    @Transactional
+    public Outcome apply(String transactionId, PaymentVerificationResponse response) {
+        if (response.isSuccess() && "SUCCESS".equals(response.getStatus())) {
+            return settle(transactionId, response.getGatewayTransactionId());
+        }
+        if ("PENDING".equals(response.getStatus())) {
+            return stillPending(transactionId);
+        }
+        return fail(transactionId, response.getMessage());
+    }
+
+    /**
+     * The gateway confirmed the payment: complete the transaction, its payment and invoice
+     */
+    @Transactional
+    public Outcome settle(String transactionId, String gatewayTransactionId) {
+        Optional<Transaction> transactionOpt = find(transactionId);
+        if (transactionOpt.isEmpty()) {
+            return Outcome.NOT_FOUND;
+        }
+        Transaction transaction = transactionOpt.get();
+        if (!"PENDING".equals(transaction.getStatus()) && !"FAILED".equals(transaction.getStatus())) {
+            return Outcome.ALREADY_FINAL;
+        }
+
+        Instant now = Instant.now();
+        transaction.setStatus("SUCCESS");
+        transaction.setProcessedAt(now);
+        transaction.setUpdatedAt(now);
+        if (gatewayTransactionId != null) {
+            transaction.setGatewayTransactionId(gatewayTransactionId);
+        }
+        transactionRepository.save(transaction);
+
+        Payment payment = transaction.getPayment();
+        if (payment != null) {
+            payment.setStatus("COMPLETED");
+            payment.setPaidAt(now);
+            payment.setUpdatedAt(now);
+            payment.setGateway(transaction.getGateway());
+            payment.setGatewayTransactionId(transaction.getGatewayTransactionId());
+
+            Invoice invoice = payment.getInvoice();
+            if (invoice != null && !"PAID".equals(invoice.getStatus())) {
+                invoice.setStatus("PAID");
+                invoice.setPaidAt(now);
+                invoice.setUpdatedAt(now);
+            }
+        }
+        return Outcome.SETTLED;
+    }
+
+    /**
+     * The gateway rejected the payment. Settled transactions are left alone.
+     */
+    @Transactional
+    public Outcome fail(String transactionId, String reason) {
+        Optional<Transaction> transactionOpt = find(transactionId);
+        if (transactionOpt.isEmpty()) {
+            return Outcome.NOT_FOUND;
+        }
+        Transaction transaction = transactionOpt.get();
+        if (!"PENDING".equals(transaction.getStatus())) {
+            return Outcome.ALREADY_FINAL;
+        }
+        transaction.setStatus("FAILED");
+        transaction.setFailureReason(reason);
+        transaction.setUpdatedAt(Instant.now());
+        transactionRepository.save(transaction);
+        return Outcome.FAILED;
+    }
+
+    private Outcome stillPending(String transactionId) {
+        Optional<Transaction> transactionOpt = find(transactionId);
+        if (transactionOpt.isEmpty()) {
+            return Outcome.NOT_FOUND;
+        }
+        Transaction transaction = transactionOpt.get();
+        if (!"PENDING".equals(transaction.getStatus())) {
+            return Outcome.ALREADY_FINAL;
+        }
+        // Marks it as checked, so the next reconciliation sweep looks at others first
+        transaction.setUpdatedAt(Instant.now());
+        transactionRepository.save(transaction);
+        return Outcome.STILL_PENDING;
+    }
+
+    /**
+     * Transaction with this id, which may be ours or the gateway's
+     */
+    public Optional<Transaction> find(String transactionId) {
+        Optional<Transaction> transaction = transactionRepository.findByTransactionId(transactionId);
+        // Gateways such as Khalti refer to a payment by their own id (pidx)
+        return transaction.isPresent() ? transaction : transactionRepository.findByGatewayTransactionId(transactionId);
+    }
+}
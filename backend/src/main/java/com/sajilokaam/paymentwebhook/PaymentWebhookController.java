@@ -0,0 +1,45 @@
+package com.sajilokaam.paymentwebhook;
+
+import com.sajilokaam.paymentgateway.PaymentGatewayRegistry;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * Receives server-to-server webhooks from payment gateways. Responds as soon as the payload
+ * is stored; processing happens in the background.
+ */
+@RestController
+@RequestMapping("/api/payments/webhooks")
+public class PaymentWebhookController {
+
+    private final PaymentWebhookInbox inbox;
+    private final PaymentGatewayRegistry gatewayRegistry;
+
+    public PaymentWebhookController(PaymentWebhookInbox inbox, PaymentGatewayRegistry gatewayRegistry) {
+        this.inbox = inbox;
+        this.gatewayRegistry = gatewayRegistry;
+    }
+
+    @PostMapping("/{gateway}")
+    public ResponseEntity<Map<String, Object>> receive(
+            @PathVariable String gateway,
+            @RequestBody String payload,
+            @RequestHeader(value = "X-Event-Id", required = false) String eventId) {
+        if (gatewayRegistry.get(gateway) == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", "Unknown gateway: " + gateway));
+        }
+        try {
+            boolean stored = inbox.append(gateway, payload, eventId);
+            return ResponseEntity.ok(Map.of("received", true, "duplicate", !stored));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (RuntimeException e) {
+            // Not stored: let the gateway retry
+            System.err.println("Failed to store " + gateway + " webhook: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("error", "Webhook not stored"));
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.sajilokaam.paymentwebhook;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import java.time.Instant;
+import java.util.List;
+
+public interface PaymentWebhookEventRepository extends JpaRepository<PaymentWebhookEvent, Long> {
+    List<PaymentWebhookEvent> findTop100ByStatusAndNextAttemptAtBeforeOrderByIdAsc(String status, Instant dueBefore);
+}
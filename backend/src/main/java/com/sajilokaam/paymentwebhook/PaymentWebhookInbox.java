@@ -0,0 +1,99 @@
+package com.sajilokaam.paymentwebhook;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sajilokaam.paymentgateway.PaymentGateway;
+import com.sajilokaam.paymentgateway.PaymentGatewayRegistry;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Entry point for gateway webhooks: stores the raw payload and hands it to
+ * {@link PaymentWebhookWorker}. Once {@link #append} returns the event is durable and the
+ * gateway can be acknowledged.
+ */
+@Service
+public class PaymentWebhookInbox {
+
+    private static final TypeReference<Map<String, Object>> PAYLOAD_TYPE = new TypeReference<>() {};
+
+    private final PaymentWebhookEventRepository repository;
+    private final PaymentGatewayRegistry gatewayRegistry;
+    private final PaymentWebhookWorker worker;
+    private final ObjectMapper objectMapper;
+
+    public PaymentWebhookInbox(PaymentWebhookEventRepository repository,
+                               PaymentGatewayRegistry gatewayRegistry,
+                               PaymentWebhookWorker worker,
+                               ObjectMapper objectMapper) {
+        this.repository = repository;
+        this.gatewayRegistry = gatewayRegistry;
+        this.worker = worker;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Store a webhook and queue it for processing. Returns false if the gateway already
+     * delivered this event. The event id comes from the header if given, else from the
+     * payload, else a hash of the payload.
+     *
+     * @throws IllegalArgumentException for an unknown gateway or a payload that is not JSON
+     */
+    public boolean append(String gatewayName, String payload, String headerEventId) {
+        PaymentGateway gateway = gatewayRegistry.get(gatewayName);
+        if (gateway == null) {
+            throw new IllegalArgumentException("Unknown gateway: " + gatewayName);
+        }
+        Map<String, Object> data;
+        try {
+            data = objectMapper.readValue(payload, PAYLOAD_TYPE);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Webhook payload is not a JSON object");
+        }
+        if (data == null) {
+            throw new IllegalArgumentException("Webhook payload is not a JSON object");
+        }
+
+        String eventId = headerEventId != null && !headerEventId.isBlank()
+                ? headerEventId.trim() : gateway.webhookEventId(data);
+        if (eventId == null) {
+            eventId = sha256(payload);
+        }
+        String transactionKey = gateway.webhookTransactionKey(data);
+
+        PaymentWebhookEvent event = new PaymentWebhookEvent();
+        event.setGateway(gateway.getGatewayName().toUpperCase(Locale.ROOT));
+        event.setEventId(truncate(eventId, 191));
+        event.setTransactionKey(truncate(transactionKey != null ? transactionKey : eventId, 255));
+        event.setPayload(payload);
+        try {
+            event = repository.saveAndFlush(event);
+        } catch (DataIntegrityViolationException e) {
+            // Unique (gateway, event_id): a retry of an event we already hold
+            return false;
+        }
+        worker.enqueue(event);
+        return true;
+    }
+
+    private static String truncate(String value, int max) {
+        return value.length() <= max ? value : value.substring(0, max);
+    }
+
+    private static String sha256(String payload) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(payload.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.sajilokaam.paymentwebhook;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sajilokaam.paymentgateway.PaymentGateway;
+import com.sajilokaam.paymentgateway.PaymentGatewayRegistry;
+import com.sajilokaam.paymentgateway.PaymentWebhookResponse;
+import com.sajilokaam.paymentservice.PaymentService;
+import com.sajilokaam.paymentservice.PaymentSettlementService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies inbox webhooks to transactions off the request thread. A webhook only triggers a
+ * verification with its gateway; see {@link PaymentService#applyWebhook}.
+ *
+ * Events are partitioned by transaction key over single-threaded workers, so webhooks for one
+ * transaction are applied in the order they were received while different transactions run in
+ * parallel. Queues are bounded: anything that does not fit, or was stored while the
+ * application was down, is picked up from the table by the poller. A failed event is retried
+ * by the poller up to the attempt limit, with the delay doubling after each attempt (from
+ * the base retry delay up to the maximum) so a gateway outage of a few minutes does not use
+ * up the attempts; the settlement state machine never moves a settled
+ * transaction back, so a retry landing after a later event cannot undo it.
+ */
+@Component
+public class PaymentWebhookWorker {
+
+    private static final TypeReference<Map<String, Object>> PAYLOAD_TYPE = new TypeReference<>() {};
+
+    private final PaymentWebhookEventRepository repository;
+    private final PaymentGatewayRegistry gatewayRegistry;
+    private final PaymentService paymentService;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final int maxAttempts;
+    private final long pollIntervalMillis;
+    private final long retryBaseMillis;
+    private final long retryMaxMillis;
+
+    private final ThreadPoolExecutor[] partitions;
+    private final Set<Long> queued = ConcurrentHashMap.newKeySet();
+
+    public PaymentWebhookWorker(PaymentWebhookEventRepository repository,
+                                PaymentGatewayRegistry gatewayRegistry,
+                                PaymentService paymentService,
+                                ObjectMapper objectMapper,
+                                MeterRegistry meterRegistry,
+                                @Value("${payment.webhooks.workers:4}") int workers,
+                                @Value("${payment.webhooks.queue-capacity:1000}") int queueCapacity,
+                                @Value("${payment.webhooks.max-attempts:10}") int maxAttempts,
+                                @Value("${payment.webhooks.poll-interval-ms:5000}") long pollIntervalMillis,
+                                @Value("${payment.webhooks.retry-base-ms:10000}") long retryBaseMillis,
+                                @Value("${payment.webhooks.retry-max-ms:3600000}") long retryMaxMillis) {
+        this.repository = repository;
+        this.gatewayRegistry = gatewayRegistry;
+        this.paymentService = paymentService;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.pollIntervalMillis = pollIntervalMillis;
+        this.retryBaseMillis = Math.max(0, retryBaseMillis);
+        this.retryMaxMillis = Math.max(this.retryBaseMillis, retryMaxMillis);
+
+        this.partitions = new ThreadPoolExecutor[Math.max(1, workers)];
+        for (int i = 0; i < partitions.length; i++) {
+            String threadName = "payment-webhook-" + (i + 1);
+            partitions[i] = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), runnable -> {
+                        Thread thread = new Thread(runnable, threadName);
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+        }
+
+        Gauge.builder("payment.webhooks.queued", queued, Set::size)
+                .description("Webhook events waiting for a worker")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (ThreadPoolExecutor partition : partitions) {
+            partition.shutdownNow();
+        }
+    }
+
+    /**
+     * Queue a stored event on its transaction's worker. Returns false if it is already queued
+     * or the queue is full, in which case the poller picks it up later.
+     */
+    public boolean enqueue(PaymentWebhookEvent event) {
+        Long id = event.getId();
+        if (!queued.add(id)) {
+            return false;
+        }
+        try {
+            partitions[partition(event.getTransactionKey())].execute(() -> {
+                try {
+                    process(id);
+                } finally {
+                    queued.remove(id);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            queued.remove(id);
+            return false;
+        }
+    }
+
+    /**
+     * Queue events that were not handed to a worker when they arrived, or whose retry is due,
+     * oldest first
+     */
+    @Scheduled(fixedDelayString = "${payment.webhooks.poll-interval-ms:5000}",
+            initialDelayString = "${payment.webhooks.poll-interval-ms:5000}")
+    public int poll() {
+        int enqueued = 0;
+        try {
+            Instant cutoff = Instant.now().minusMillis(pollIntervalMillis);
+            for (PaymentWebhookEvent event : repository.findTop100ByStatusAndNextAttemptAtBeforeOrderByIdAsc("RECEIVED", cutoff)) {
+                if (enqueue(event)) {
+                    enqueued++;
+                }
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Failed to poll payment webhook inbox: " + e.getMessage());
+        }
+        return enqueued;
+    }
+
+    /**
+     * Apply one stored event. Events already processed or given up on are skipped.
+     */
+    void process(Long id) {
+        Optional<PaymentWebhookEvent> eventOpt = repository.findById(id);
+        if (eventOpt.isEmpty() || !"RECEIVED".equals(eventOpt.get().getStatus())) {
+            return;
+        }
+        PaymentWebhookEvent event = eventOpt.get();
+        event.setAttempts(event.getAttempts() + 1);
+        try {
+            PaymentGateway gateway = gatewayRegistry.get(event.getGateway());
+            if (gateway == null) {
+                throw new IllegalStateException("Unknown gateway " + event.getGateway());
+            }
+            Map<String, Object> payload = objectMapper.readValue(event.getPayload(), PAYLOAD_TYPE);
+            PaymentWebhookResponse response = gateway.processWebhook(payload);
+            PaymentSettlementService.Outcome outcome = paymentService.applyWebhook(gateway, response);
+
+            event.setOutcome(outcome.name());
+            event.setLastError(null);
+            event.setProcessedAt(Instant.now());
+            event.setStatus("PROCESSED");
+            repository.save(event);
+            count(event.getGateway(), outcome.name());
+        } catch (Exception e) {
+            boolean exhausted = event.getAttempts() >= maxAttempts;
+            event.setLastError(e.getMessage());
+            if (exhausted) {
+                event.setProcessedAt(Instant.now());
+                event.setStatus("FAILED");
+            } else {
+                event.setNextAttemptAt(Instant.now().plusMillis(retryDelay(event.getAttempts())));
+            }
+            try {
+                repository.save(event);
+            } catch (RuntimeException saveError) {
+                System.err.println("Failed to record webhook " + id + " error: " + saveError.getMessage());
+            }
+            count(event.getGateway(), exhausted ? "FAILED" : "RETRY");
+            System.err.println("Failed to process " + event.getGateway() + " webhook " + event.getEventId()
+                    + " (attempt " + event.getAttempts() + "): " + e.getMessage());
+        }
+    }
+
+    /**
+     * Delay before the next attempt after this many failed ones
+     */
+    long retryDelay(int attempts) {
+        int doublings = Math.min(Math.max(attempts - 1, 0), 30);
+        return Math.min(retryMaxMillis, retryBaseMillis << doublings);
+    }
+
+    private int partition(String transactionKey) {
+        return Math.floorMod(transactionKey != null ? transactionKey.hashCode() : 0, partitions.length);
+    }
+
+    private void count(String gateway, String result) {
+        Counter.builder("payment.webhooks")
+                .tag("gateway", gateway)
+                .tag("result", result)
+                .register(meterRegistry)
+                .increment();
+    }
+}
@@ -0,0 +1,23 @@
+package com.sajilokaam.platformmetrics;
+
+import java.time.Instant;
+
+/**
+ * One point of a metric series: events counted in the period starting at {@code start} and
+ * the value observed at the end of it (null when not sampled).
+ */
+public class MetricPoint {
+    private final Instant start;
+    private final long events;
+    private final Long value;
+
+    public MetricPoint(Instant start, long events, Long value) {
+        this.start = start;
+        this.events = events;
+        this.value = value;
+    }
+
+    public Instant getStart() { return start; }
+    public long getEvents() { return events; }
+    public Long getValue() { return value; }
+}
@@ -0,0 +1,75 @@
+package com.sajilokaam.platformmetrics;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Fixed-size ring of time slots, each holding an event count and the last sampled value.
+ * Slot i holds absolute slot number n where n % capacity == i; a slot is reset the first time
+ * it is touched for a newer n, so old data ages out without a separate rotation step.
+ */
+class MetricRingBuffer {
+
+    private final long slotMillis;
+    private final long[] slotNumbers;
+    private final long[] events;
+    private final long[] values;
+    private final boolean[] hasValue;
+
+    MetricRingBuffer(int capacity, long slotMillis) {
+        this.slotMillis = slotMillis;
+        this.slotNumbers = new long[capacity];
+        this.events = new long[capacity];
+        this.values = new long[capacity];
+        this.hasValue = new boolean[capacity];
+        Arrays.fill(slotNumbers, -1L);
+    }
+
+    synchronized void addEvents(long nowMillis, long count) {
+        events[slot(nowMillis)] += count;
+    }
+
+    synchronized void recordValue(long nowMillis, long value) {
+        int index = slot(nowMillis);
+        values[index] = value;
+        hasValue[index] = true;
+    }
+
+    /**
+     * The most recent slots, oldest first, ending with the slot containing nowMillis.
+     * Slots with no data are returned with zero events and a null value.
+     */
+    synchronized List<MetricPoint> recent(long nowMillis, int slots) {
+        int count = Math.min(slots, slotNumbers.length);
+        long current = nowMillis / slotMillis;
+        List<MetricPoint> points = new ArrayList<>(count);
+        for (long n = current - count + 1; n <= current; n++) {
+            int index = (int) Math.floorMod(n, (long) slotNumbers.length);
+            Instant start = Instant.ofEpochMilli(n * slotMillis);
+            if (slotNumbers[index] == n) {
+                points.add(new MetricPoint(start, events[index], hasValue[index] ? values[index] : null));
+            } else {
+                points.add(new MetricPoint(start, 0, null));
+            }
+        }
+        return points;
+    }
+
+    int capacity() {
+        return slotNumbers.length;
+    }
+
+    private int slot(long nowMillis) {
+        long n = nowMillis / slotMillis;
+        int index = (int) Math.floorMod(n, (long) slotNumbers.length);
+        if (slotNumbers[index] != n) {
+            slotNumbers[index] = n;
+            events[index] = 0;
+            values[index] = 0;
+            hasValue[index] = false;
+        }
+        return index;
+    }
+}
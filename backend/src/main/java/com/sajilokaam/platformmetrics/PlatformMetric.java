@@ -0,0 +1,41 @@
+package com.sajilokaam.platformmetrics;
+
+/**
+ * Metrics kept by {@link PlatformMetricsStore}.
+ *
+ * Entity metrics are counted from insert/delete events and re-synced with COUNT(*) only
+ * occasionally; gauges are sampled once per snapshot interval.
+ */
+public enum PlatformMetric {
+    USERS("users"),
+    JOBS("jobs"),
+    BIDS("bids"),
+    PROJECTS("projects"),
+    TASKS("tasks"),
+    PAYMENTS("payments"),
+    OPEN_JOBS(null),
+    FREELANCERS(null),
+    CLIENTS(null),
+    PENDING_VERIFICATIONS(null),
+    APPROVED_PROFILES(null),
+    REJECTED_PROFILES(null),
+    // Completed payment amount in minor units (paisa)
+    REVENUE(null);
+
+    private final String table;
+
+    PlatformMetric(String table) {
+        this.table = table;
+    }
+
+    /**
+     * Table whose row count this metric tracks, or null for sampled gauges
+     */
+    public String getTable() {
+        return table;
+    }
+
+    public boolean isEntityCount() {
+        return table != null;
+    }
+}
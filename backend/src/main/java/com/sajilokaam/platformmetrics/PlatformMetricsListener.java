@@ -0,0 +1,74 @@
+package com.sajilokaam.platformmetrics;
+
+import com.sajilokaam.bid.Bid;
+import com.sajilokaam.job.Job;
+import com.sajilokaam.payment.Payment;
+import com.sajilokaam.project.Project;
+import com.sajilokaam.task.Task;
+import com.sajilokaam.user.User;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * JPA entity listener that feeds inserts and deletes of counted entities into
+ * {@link PlatformMetricsStore}. Counts are applied after commit, so rolled-back writes are
+ * never counted.
+ */
+@Component
+public class PlatformMetricsListener {
+
+    private final PlatformMetricsStore metricsStore;
+
+    public PlatformMetricsListener(PlatformMetricsStore metricsStore) {
+        this.metricsStore = metricsStore;
+    }
+
+    @PostPersist
+    public void onPersist(Object entity) {
+        PlatformMetric metric = metricFor(entity);
+        if (metric != null) {
+            afterCommit(() -> metricsStore.recordCreated(metric));
+        }
+    }
+
+    @PostRemove
+    public void onRemove(Object entity) {
+        PlatformMetric metric = metricFor(entity);
+        if (metric != null) {
+            afterCommit(() -> metricsStore.recordRemoved(metric));
+        }
+    }
+
+    private PlatformMetric metricFor(Object entity) {
+        if (entity instanceof User) {
+            return PlatformMetric.USERS;
+        } else if (entity instanceof Job) {
+            return PlatformMetric.JOBS;
+        } else if (entity instanceof Bid) {
+            return PlatformMetric.BIDS;
+        } else if (entity instanceof Project) {
+            return PlatformMetric.PROJECTS;
+        } else if (entity instanceof Task) {
+            return PlatformMetric.TASKS;
+        } else if (entity instanceof Payment) {
+            return PlatformMetric.PAYMENTS;
+        }
+        return null;
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
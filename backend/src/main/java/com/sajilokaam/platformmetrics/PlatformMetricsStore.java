@@ -0,0 +1,247 @@
+package com.sajilokaam.platformmetrics;
+
+import com.sajilokaam.payment.PaymentRollupService;
+import com.sajilokaam.payment.PaymentRollupService.PaymentRollup;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-app time series of platform-wide metrics for the admin dashboards.
+ *
+ * Entity totals are kept in memory and moved by {@link PlatformMetricsListener} on every
+ * committed insert and delete; they are re-synced with COUNT(*) only every resync interval to
+ * correct drift from bulk statements. Gauges are sampled once per snapshot interval. Recent
+ * history lives in per-metric ring buffers of one-minute slots; each snapshot also adds the
+ * new events and latest values to hourly rows in platform_metrics_hourly for long-range trends.
+ */
+@Service
+public class PlatformMetricsStore {
+
+    private static final long SLOT_MILLIS = 60_000L;
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO platform_metrics_hourly (metric, hour_start, event_count, total_value) VALUES (?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE event_count = event_count + VALUES(event_count), " +
+            "total_value = COALESCE(VALUES(total_value), total_value)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PaymentRollupService paymentRollupService;
+
+    private final Map<PlatformMetric, Series> series = new EnumMap<>(PlatformMetric.class);
+    private volatile boolean seeded;
+    private volatile Instant lastSnapshotAt;
+
+    public PlatformMetricsStore(JdbcTemplate jdbcTemplate,
+                                PaymentRollupService paymentRollupService,
+                                @Value("${platform.metrics.recent-minutes:1440}") int recentMinutes) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.paymentRollupService = paymentRollupService;
+        for (PlatformMetric metric : PlatformMetric.values()) {
+            series.put(metric, new Series(new MetricRingBuffer(Math.max(1, recentMinutes), SLOT_MILLIS)));
+        }
+    }
+
+    /**
+     * A row of an entity metric was committed
+     */
+    public void recordCreated(PlatformMetric metric) {
+        Series s = series.get(metric);
+        s.total.incrementAndGet();
+        s.unflushedEvents.incrementAndGet();
+        s.recent.addEvents(System.currentTimeMillis(), 1);
+    }
+
+    /**
+     * A row of an entity metric was deleted
+     */
+    public void recordRemoved(PlatformMetric metric) {
+        series.get(metric).total.decrementAndGet();
+    }
+
+    /**
+     * Current value: the live total for entity metrics, the last sample for gauges
+     */
+    public long current(PlatformMetric metric) {
+        if (!seeded) {
+            snapshot();
+        }
+        return series.get(metric).total.get();
+    }
+
+    public Map<PlatformMetric, Long> currentValues() {
+        if (!seeded) {
+            snapshot();
+        }
+        Map<PlatformMetric, Long> values = new EnumMap<>(PlatformMetric.class);
+        series.forEach((metric, s) -> values.put(metric, s.total.get()));
+        return values;
+    }
+
+    public Instant getLastSnapshotAt() {
+        return lastSnapshotAt;
+    }
+
+    /**
+     * Per-minute points for the last {@code minutes} minutes, oldest first, from memory
+     */
+    public List<MetricPoint> recent(PlatformMetric metric, int minutes) {
+        return series.get(metric).recent.recent(System.currentTimeMillis(), minutes);
+    }
+
+    /**
+     * Per-day points (UTC) from the hourly rollup table, oldest first. Events are summed over
+     * the day; the value is the last one persisted that day.
+     */
+    public List<MetricPoint> daily(PlatformMetric metric, LocalDate from, LocalDate to) {
+        return jdbcTemplate.query(
+                "SELECT DATE(hour_start) AS day, SUM(event_count) AS events, " +
+                "SUBSTRING_INDEX(GROUP_CONCAT(total_value ORDER BY hour_start DESC), ',', 1) AS last_value " +
+                "FROM platform_metrics_hourly WHERE metric = ? AND hour_start >= ? AND hour_start < ? " +
+                "GROUP BY DATE(hour_start) ORDER BY day",
+                (rs, rowNum) -> {
+                    String lastValue = rs.getString("last_value");
+                    return new MetricPoint(
+                            rs.getObject("day", LocalDate.class).atStartOfDay().toInstant(ZoneOffset.UTC),
+                            rs.getLong("events"),
+                            lastValue != null ? Long.valueOf(lastValue) : null);
+                },
+                metric.name(), from.atStartOfDay(), to.plusDays(1).atStartOfDay());
+    }
+
+    /**
+     * Growth over the period as a percentage of the value at its start, or null when the
+     * metric was zero at the start
+     */
+    public Double growthRate(PlatformMetric metric, List<MetricPoint> dailyPoints) {
+        long now = current(metric);
+        Long start;
+        if (metric.isEntityCount()) {
+            long events = dailyPoints.stream().mapToLong(MetricPoint::getEvents).sum();
+            start = now - events;
+        } else {
+            start = dailyPoints.stream().map(MetricPoint::getValue).filter(v -> v != null).findFirst().orElse(null);
+        }
+        if (start == null || start <= 0) {
+            return null;
+        }
+        return (now - start) * 100.0 / start;
+    }
+
+    /**
+     * Sample gauges, record the current values in the ring buffers and persist the events and
+     * values since the last snapshot to the hourly rollups
+     */
+    @Scheduled(fixedDelayString = "${platform.metrics.snapshot-interval-ms:60000}")
+    public synchronized void snapshot() {
+        if (!seeded) {
+            resync();
+        }
+        try {
+            sampleGauges();
+        } catch (RuntimeException e) {
+            System.err.println("Failed to sample platform metrics: " + e.getMessage());
+        }
+
+        long now = System.currentTimeMillis();
+        LocalDateTime hourStart = LocalDateTime.ofInstant(Instant.ofEpochMilli(now), ZoneOffset.UTC)
+                .truncatedTo(ChronoUnit.HOURS);
+        series.forEach((metric, s) -> {
+            long value = s.total.get();
+            s.recent.recordValue(now, value);
+            long events = s.unflushedEvents.getAndSet(0);
+            try {
+                jdbcTemplate.update(UPSERT_SQL, metric.name(), hourStart, events, value);
+            } catch (RuntimeException e) {
+                // Keep the events for the next snapshot
+                s.unflushedEvents.addAndGet(events);
+                System.err.println("Failed to persist platform metric " + metric + ": " + e.getMessage());
+            }
+        });
+        lastSnapshotAt = Instant.ofEpochMilli(now);
+    }
+
+    /**
+     * Reset entity totals from COUNT(*). Events committed while the counts run may be off by
+     * a few until the next resync.
+     */
+    @Scheduled(fixedDelayString = "${platform.metrics.resync-interval-ms:3600000}",
+            initialDelayString = "${platform.metrics.resync-interval-ms:3600000}")
+    public synchronized void resync() {
+        try {
+            for (PlatformMetric metric : PlatformMetric.values()) {
+                if (metric.isEntityCount()) {
+                    Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + metric.getTable(), Long.class);
+                    series.get(metric).total.set(count != null ? count : 0L);
+                }
+            }
+            sampleGauges();
+            seeded = true;
+        } catch (RuntimeException e) {
+            System.err.println("Failed to resync platform metrics: " + e.getMessage());
+        }
+    }
+
+    private void sampleGauges() {
+        set(PlatformMetric.OPEN_JOBS, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM jobs WHERE status = 'OPEN'", Long.class));
+
+        Map<String, Long> freelancers = countByStatus("freelancer_profiles");
+        Map<String, Long> clients = countByStatus("client_profiles");
+        set(PlatformMetric.FREELANCERS, sum(freelancers));
+        set(PlatformMetric.CLIENTS, sum(clients));
+        set(PlatformMetric.PENDING_VERIFICATIONS, freelancers.getOrDefault("SUBMITTED", 0L) + clients.getOrDefault("SUBMITTED", 0L));
+        set(PlatformMetric.APPROVED_PROFILES, freelancers.getOrDefault("APPROVED", 0L) + clients.getOrDefault("APPROVED", 0L));
+        set(PlatformMetric.REJECTED_PROFILES, freelancers.getOrDefault("REJECTED", 0L) + clients.getOrDefault("REJECTED", 0L));
+
+        BigDecimal revenue = BigDecimal.ZERO;
+        for (PaymentRollup rollup : paymentRollupService.totals()) {
+            if ("COMPLETED".equals(rollup.getStatus())) {
+                revenue = revenue.add(rollup.getAmount());
+            }
+        }
+        set(PlatformMetric.REVENUE, revenue.movePointRight(2).longValue());
+    }
+
+    // Plain JDBC rather than repositories: entity listeners depend on this bean, so it must not
+    // depend on the EntityManagerFactory that creates them
+    private Map<String, Long> countByStatus(String table) {
+        Map<String, Long> counts = new HashMap<>();
+        jdbcTemplate.query("SELECT status, COUNT(*) AS n FROM " + table + " GROUP BY status",
+                rs -> {
+                    counts.put(String.valueOf(rs.getString("status")), rs.getLong("n"));
+                });
+        return counts;
+    }
+
+    private long sum(Map<String, Long> counts) {
+        return counts.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    private void set(PlatformMetric metric, Long value) {
+        series.get(metric).total.set(value != null ? value : 0L);
+    }
+
+    private static class Series {
+        private final AtomicLong total = new AtomicLong();
+        private final AtomicLong unflushedEvents = new AtomicLong();
+        private final MetricRingBuffer recent;
+
+        Series(MetricRingBuffer recent) {
+            this.recent = recent;
+        }
+    }
+}
@@ -1,9 +1,13 @@
 package com.sajilokaam.pricing;
 
+import com.sajilokaam.config.ReferenceDataCacheConfig;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.math.BigDecimal;
 
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = ReferenceDataCacheConfig.ENTITY_REGION)
 @Table(name = "subscription_plans")
 public class SubscriptionPlan {
     @Id
@@ -3,6 +3,7 @@ package com.sajilokaam.profile;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.sajilokaam.user.User;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Formula;
 
 import java.math.BigDecimal;
 import java.time.Instant;
@@ -102,11 +103,12 @@ public class FreelancerProfile {
     @Enumerated(EnumType.STRING)
     private ProfileStatus status = ProfileStatus.DRAFT;
 
-    // Upwork-style features
-    @Column(name = "connects_available")
+    // Upwork-style features. Connects are kept by ConnectsLedger; read-only here, so saving a
+    // profile can never overwrite a balance changed concurrently.
+    @Formula("(SELECT COALESCE(MAX(cb.balance), 0) FROM connects_balances cb WHERE cb.user_id = user_id)")
     private Integer connectsAvailable = 0;
 
-    @Column(name = "connects_total_purchased")
+    @Formula("(SELECT COALESCE(MAX(cb.total_purchased), 0) FROM connects_balances cb WHERE cb.user_id = user_id)")
     private Integer connectsTotalPurchased = 0;
 
     @Enumerated(EnumType.STRING)
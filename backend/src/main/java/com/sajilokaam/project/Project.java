@@ -2,12 +2,15 @@ package com.sajilokaam.project;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.sajilokaam.job.Job;
+import com.sajilokaam.platformmetrics.PlatformMetricsListener;
+import com.sajilokaam.report.ReportDataChangeListener;
 import com.sajilokaam.user.User;
 import jakarta.persistence.*;
 import java.math.BigDecimal;
 import java.time.Instant;
 
 @Entity
+@EntityListeners({ReportDataChangeListener.class, PlatformMetricsListener.class})
 @Table(name = "projects", indexes = {
         @Index(name = "idx_projects_job", columnList = "job_id"),
         @Index(name = "idx_projects_freelancer", columnList = "freelancer_id"),
@@ -5,13 +5,15 @@ import com.sajilokaam.activitylog.ActivityLogRepository;
 import com.sajilokaam.activitylog.ActivityLogService;
 import com.sajilokaam.auth.JwtService;
 import com.sajilokaam.bid.Bid;
+import com.sajilokaam.bid.BidAwardService;
 import com.sajilokaam.bid.BidRepository;
 import com.sajilokaam.conversation.Conversation;
 import com.sajilokaam.conversation.ConversationRepository;
-import com.sajilokaam.escrow.EscrowAccount;
 import com.sajilokaam.escrow.EscrowAccountRepository;
+import com.sajilokaam.escrow.EscrowService;
 import com.sajilokaam.job.Job;
 import com.sajilokaam.job.JobRepository;
+import com.sajilokaam.report.ProjectDataVersions;
 import com.sajilokaam.user.User;
 import com.sajilokaam.user.UserRepository;
 import org.springframework.http.ResponseEntity;
@@ -39,6 +41,9 @@ public class ProjectController {
     private final com.sajilokaam.task.TaskRepository taskRepository;
     private final ActivityLogService activityLogService;
     private final ActivityLogRepository activityLogRepository;
+    private final ProjectDataVersions projectDataVersions;
+    private final BidAwardService bidAwardService;
+    private final EscrowService escrowService;
 
     public ProjectController(ProjectRepository projectRepository, JobRepository jobRepository,
                             BidRepository bidRepository, UserRepository userRepository,
@@ -46,7 +51,10 @@ public class ProjectController {
                             EscrowAccountRepository escrowAccountRepository,
                             com.sajilokaam.task.TaskRepository taskRepository,
                             ActivityLogService activityLogService,
-                            ActivityLogRepository activityLogRepository) {
+                            ActivityLogRepository activityLogRepository,
+                            ProjectDataVersions projectDataVersions,
+                            BidAwardService bidAwardService,
+                            EscrowService escrowService) {
         this.projectRepository = projectRepository;
         this.jobRepository = jobRepository;
         this.bidRepository = bidRepository;
@@ -57,6 +65,9 @@ public class ProjectController {
         this.taskRepository = taskRepository;
         this.activityLogService = activityLogService;
         this.activityLogRepository = activityLogRepository;
+        this.projectDataVersions = projectDataVersions;
+        this.bidAwardService = bidAwardService;
+        this.escrowService = escrowService;
     }
 
     @GetMapping
@@ -126,6 +137,7 @@ public class ProjectController {
     }
 
     @PostMapping("/accept-bid/{bidId}")
+    @Transactional
     public ResponseEntity<Project> acceptBid(
             @PathVariable Long bidId,
             @RequestBody ProjectCreateRequest request,
@@ -145,35 +157,25 @@ public class ProjectController {
             return ResponseEntity.status(401).build();
         }
 
-        Optional<Bid> bidOpt = bidRepository.findById(bidId);
-        if (bidOpt.isEmpty()) {
-            return ResponseEntity.notFound().build();
-        }
-
-        Bid bid = bidOpt.get();
-        Job job = bid.getJob();
-
-        // Verify user is the client who owns the job
-        if (!job.getClient().getId().equals(userOpt.get().getId())) {
-            return ResponseEntity.status(403).build();
-        }
-
         if (request.getTitle() == null || request.getTitle().isBlank()) {
             return ResponseEntity.badRequest().build();
         }
 
-        // Update bid status to ACCEPTED
-        bid.setStatus("ACCEPTED");
-        bidRepository.save(bid);
-
-        // Reject all other pending bids for this job
-        List<Bid> otherBids = bidRepository.findByJobId(job.getId());
-        for (Bid otherBid : otherBids) {
-            if (!otherBid.getId().equals(bidId) && "PENDING".equals(otherBid.getStatus())) {
-                otherBid.setStatus("REJECTED");
-                bidRepository.save(otherBid);
-            }
-        }
+        // Accepts the bid and rejects all other pending bids for this job under a job lock
+        BidAwardService.BidAward award = bidAwardService.award(null, bidId, userOpt.get().getId());
+        switch (award.getStatus()) {
+            case BID_NOT_FOUND:
+                return ResponseEntity.notFound().build();
+            case NOT_JOB_OWNER:
+                return ResponseEntity.status(403).build();
+            case BID_NOT_PENDING:
+            case JOB_ALREADY_AWARDED:
+                return ResponseEntity.status(409).build();
+            default:
+                break;
+        }
+        Bid bid = award.getBid();
+        Job job = bid.getJob();
 
         // Create project with freelancer and client associated
         Project project = new Project();
@@ -326,6 +328,8 @@ public class ProjectController {
         });
 
         taskRepository.deleteByIdDirect(taskId);
+        // Bulk delete bypasses entity listeners, so invalidate cached reports explicitly
+        projectDataVersions.bump(projectId);
         return ResponseEntity.noContent().build();
     }
 
@@ -395,16 +399,9 @@ public class ProjectController {
             return ResponseEntity.badRequest().body(java.util.Map.of("error", "Project is not active"));
         }
 
-        // Find and release escrow
-        List<EscrowAccount> escrows = escrowAccountRepository.findAll().stream()
-                .filter(e -> e.getProject().getId().equals(project.getId()))
-                .toList();
-
-        if (!escrows.isEmpty()) {
-            EscrowAccount escrow = escrows.get(0);
-            escrow.setStatus("RELEASED");
-            escrow.setReleasedAmount(escrow.getTotalAmount());
-            escrowAccountRepository.save(escrow);
+        // Release whatever the project's escrow still holds, through the ledger
+        for (Long escrowId : escrowAccountRepository.findIdsByProjectId(project.getId())) {
+            escrowService.releaseRemaining(escrowId, userOpt.get(), "Project completed");
         }
 
         // Update project status
@@ -0,0 +1,118 @@
+package com.sajilokaam.report;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Small buffered CSV writer for report exports. Writes fields straight to the underlying
+ * stream without building per-row strings or going through String.format.
+ */
+public class CsvWriter implements Flushable, Closeable {
+
+    private static final int BUFFER_SIZE = 32 * 1024;
+
+    private final Writer out;
+    private boolean firstField = true;
+
+    public CsvWriter(OutputStream outputStream) {
+        this.out = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+
+    /**
+     * Write a free-form line (report titles, section headings), not escaped
+     */
+    public CsvWriter line(String text) throws IOException {
+        out.write(text);
+        return endRow();
+    }
+
+    /**
+     * Write a header or other raw row, not escaped
+     */
+    public CsvWriter raw(String text) throws IOException {
+        separator();
+        out.write(String.valueOf(text));
+        return this;
+    }
+
+    public CsvWriter field(String value) throws IOException {
+        separator();
+        if (value == null || value.isEmpty()) {
+            return this;
+        }
+        // Escape quotes and wrap in quotes if contains comma, quote, or newline
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            out.write(value);
+            return this;
+        }
+        out.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                out.write('"');
+            }
+            out.write(c);
+        }
+        out.write('"');
+        return this;
+    }
+
+    public CsvWriter field(long value) throws IOException {
+        separator();
+        out.write(Long.toString(value));
+        return this;
+    }
+
+    public CsvWriter field(Object value) throws IOException {
+        return field(value != null ? value.toString() : null);
+    }
+
+    /**
+     * Write minutes as hours with two decimals, e.g. 90 -> 1.50
+     */
+    public CsvWriter hours(int minutes) throws IOException {
+        separator();
+        long hundredths = Math.round(minutes * 100 / 60.0);
+        if (hundredths < 0) {
+            out.write('-');
+            hundredths = -hundredths;
+        }
+        out.write(Long.toString(hundredths / 100));
+        out.write('.');
+        long fraction = hundredths % 100;
+        if (fraction < 10) {
+            out.write('0');
+        }
+        out.write(Long.toString(fraction));
+        return this;
+    }
+
+    public CsvWriter endRow() throws IOException {
+        out.write('\n');
+        firstField = true;
+        return this;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    private void separator() throws IOException {
+        if (!firstField) {
+            out.write(',');
+        }
+        firstField = false;
+    }
+}
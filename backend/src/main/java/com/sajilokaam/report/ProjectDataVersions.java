@@ -0,0 +1,40 @@
+package com.sajilokaam.report;
+
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory version counter per project, bumped whenever report data of the project changes
+ * (see {@link ReportDataChangeListener}). Report artifacts are cached under the version they
+ * were rendered from, so checking for an up-to-date artifact needs no database access.
+ *
+ * Versions are only meaningful within one process: they start from a random epoch, and a
+ * change whose project can't be determined bumps every project at once.
+ */
+@Component
+public class ProjectDataVersions {
+
+    private final String epoch = UUID.randomUUID().toString().substring(0, 8);
+    private final AtomicLong generation = new AtomicLong();
+    private final ConcurrentHashMap<Long, AtomicLong> versions = new ConcurrentHashMap<>();
+
+    public String current(Long projectId) {
+        AtomicLong version = versions.get(projectId);
+        return epoch + "." + generation.get() + "." + (version != null ? version.get() : 0);
+    }
+
+    public void bump(Long projectId) {
+        if (projectId == null) {
+            bumpAll();
+            return;
+        }
+        versions.computeIfAbsent(projectId, id -> new AtomicLong()).incrementAndGet();
+    }
+
+    public void bumpAll() {
+        generation.incrementAndGet();
+    }
+}
@@ -0,0 +1,87 @@
+package com.sajilokaam.report;
+
+import com.sajilokaam.invoicepdf.PdfFont;
+import com.sajilokaam.invoicepdf.PdfLayout;
+import com.sajilokaam.invoicepdf.PdfTable;
+import com.sajilokaam.project.Project;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.Date;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Renders the project PDF report. Task rows are read from a streaming result set and flowed
+ * across as many pages as needed, so report size is not limited by the first page or the heap.
+ */
+@Service
+public class ProjectReportPdfService {
+
+    private static final float MARGIN = PdfLayout.MARGIN;
+    private static final float LINE_HEIGHT = 15;
+
+    private final ReportExportService reportExportService;
+    private final long maxMainMemoryBytes;
+
+    public ProjectReportPdfService(ReportExportService reportExportService,
+                                   @Value("${pdf.render.max-main-memory-bytes:4194304}") long maxMainMemoryBytes) {
+        this.reportExportService = reportExportService;
+        this.maxMainMemoryBytes = maxMainMemoryBytes;
+    }
+
+    /**
+     * Render the report straight to the given stream. The stream is not closed.
+     */
+    public void writeProjectReport(Project project, OutputStream out) throws IOException {
+        try (PdfLayout layout = new PdfLayout(maxMainMemoryBytes)) {
+            layout.line(PdfFont.BOLD, 16, LINE_HEIGHT * 2, "Project Report: " + project.getTitle());
+            layout.line(PdfFont.REGULAR, 10, LINE_HEIGHT * 2,
+                    "Generated: " + LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+
+            // Project Details
+            layout.line(PdfFont.BOLD, 12, LINE_HEIGHT * 1.5f, "Project Details");
+            layout.line(PdfFont.REGULAR, 10, LINE_HEIGHT, "Title: " + project.getTitle());
+            if (project.getDescription() != null && !project.getDescription().isEmpty()) {
+                layout.paragraph(PdfFont.REGULAR, 10, LINE_HEIGHT, "Description: " + project.getDescription());
+            }
+            layout.line(PdfFont.REGULAR, 10, LINE_HEIGHT * 2, "Created: " + project.getCreatedAt());
+
+            // Tasks Section
+            layout.ensureSpace(LINE_HEIGHT * 4);
+            layout.line(PdfFont.BOLD, 12, LINE_HEIGHT * 1.5f,
+                    "Tasks (" + reportExportService.countTasks(project.getId()) + ")");
+
+            PdfTable table = new PdfTable()
+                    .column("ID", MARGIN, 35)
+                    .column("Title", 90, 220)
+                    .column("Status", 315, 75)
+                    .column("Assignee", 395, 100)
+                    .column("Due Date", 500, 62)
+                    .fontSize(9)
+                    .rowHeight(LINE_HEIGHT)
+                    .headerGap(LINE_HEIGHT + 5)
+                    .ruleTo(PdfLayout.PAGE_WIDTH - MARGIN);
+            layout.beginTable(table);
+            reportExportService.forEachTask(project.getId(), rs -> {
+                String assignee = rs.getString("assignee_name");
+                Date dueDate = rs.getDate("due_date");
+                try {
+                    layout.row(Long.toString(rs.getLong("id")),
+                            rs.getString("title"),
+                            rs.getString("status"),
+                            assignee != null ? assignee : "Unassigned",
+                            dueDate != null ? dueDate.toLocalDate().toString() : "");
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            layout.endTable();
+
+            layout.writeTo(out);
+        }
+    }
+}
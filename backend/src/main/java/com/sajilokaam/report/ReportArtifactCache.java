@@ -0,0 +1,182 @@
+package com.sajilokaam.report;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Rendered report files on local disk, indexed in memory by (project, report type, data
+ * version). Bounded by entry count and total bytes; least recently used files are deleted first.
+ * The index does not survive a restart, so leftover files are removed on startup.
+ *
+ * Entries also expire after a fixed time to live. Data versions only see changes made through
+ * JPA entities on this instance, so the TTL bounds how long a report can lag behind bulk
+ * JPQL/JDBC updates or writes handled by another instance.
+ */
+@Service
+public class ReportArtifactCache {
+
+    private final Path directory;
+    private final int maxEntries;
+    private final long maxBytes;
+    private final Duration ttl;
+
+    // Access-ordered, so iteration starts at the least recently used entry
+    private final LinkedHashMap<String, ReportArtifact> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long currentBytes = 0;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    public ReportArtifactCache(
+            @Value("${report.artifacts.dir:reports/artifacts}") String directory,
+            @Value("${report.artifacts.max-entries:200}") int maxEntries,
+            @Value("${report.artifacts.max-bytes:268435456}") long maxBytes,
+            @Value("${report.artifacts.ttl-seconds:600}") long ttlSeconds,
+            MeterRegistry meterRegistry) {
+        this.directory = Paths.get(directory);
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+        this.hits = Counter.builder("report.artifacts.cache.requests")
+                .tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("report.artifacts.cache.requests")
+                .tag("result", "miss").register(meterRegistry);
+        this.evictions = Counter.builder("report.artifacts.cache.evictions").register(meterRegistry);
+        Gauge.builder("report.artifacts.cache.entries", this, ReportArtifactCache::size).register(meterRegistry);
+        Gauge.builder("report.artifacts.cache.bytes", this, ReportArtifactCache::estimatedBytes).register(meterRegistry);
+
+        try {
+            Files.createDirectories(this.directory);
+            try (DirectoryStream<Path> stale = Files.newDirectoryStream(this.directory)) {
+                for (Path file : stale) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to prepare report artifact directory: " + e.getMessage());
+        }
+    }
+
+    static String key(Long projectId, ReportType type, String dataVersion) {
+        return projectId + ":" + type + ":" + dataVersion;
+    }
+
+    /**
+     * A fresh file to render a new artifact into
+     */
+    Path newFile(ReportType type) {
+        return directory.resolve(UUID.randomUUID() + type.getExtension());
+    }
+
+    /**
+     * Look up a rendered artifact. Returns null (and records a miss) if absent or expired.
+     */
+    public ReportArtifact get(String key) {
+        ReportArtifact expired;
+        synchronized (this) {
+            ReportArtifact artifact = entries.get(key);
+            if (artifact != null && artifact.getCreatedAt().plus(ttl).isAfter(Instant.now())) {
+                hits.increment();
+                return artifact;
+            }
+            misses.increment();
+            if (artifact == null) {
+                return null;
+            }
+            entries.remove(key);
+            currentBytes -= artifact.getSizeBytes();
+            expired = artifact;
+        }
+        try {
+            Files.deleteIfExists(expired.getPath());
+        } catch (IOException e) {
+            System.err.println("Failed to delete expired report artifact: " + e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * Index a fully written file. If it exceeds the whole budget it is still returned so
+     * the requesting job can serve it, but it is not retained and the job owns the file.
+     */
+    public ReportArtifact put(String key, Path file, ReportType type, String filename) throws IOException {
+        ReportArtifact artifact = new ReportArtifact(file, type.getContentType(), filename, Files.size(file));
+        List<ReportArtifact> removed = new ArrayList<>();
+        synchronized (this) {
+            if (artifact.getSizeBytes() <= maxBytes) {
+                artifact.retained = true;
+                ReportArtifact previous = entries.put(key, artifact);
+                if (previous != null) {
+                    currentBytes -= previous.getSizeBytes();
+                    removed.add(previous);
+                }
+                currentBytes += artifact.getSizeBytes();
+                Iterator<Map.Entry<String, ReportArtifact>> it = entries.entrySet().iterator();
+                while ((entries.size() > maxEntries || currentBytes > maxBytes) && it.hasNext()) {
+                    ReportArtifact evicted = it.next().getValue();
+                    currentBytes -= evicted.getSizeBytes();
+                    it.remove();
+                    evictions.increment();
+                    removed.add(evicted);
+                }
+            }
+        }
+        // Open downloads keep reading an unlinked file, so deleting here is safe
+        for (ReportArtifact old : removed) {
+            Files.deleteIfExists(old.getPath());
+        }
+        return artifact;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long estimatedBytes() {
+        return currentBytes;
+    }
+
+    /**
+     * A rendered report file.
+     */
+    public static class ReportArtifact {
+        private final Path path;
+        private final String contentType;
+        private final String filename;
+        private final long sizeBytes;
+        private final Instant createdAt = Instant.now();
+        private volatile boolean retained;
+
+        ReportArtifact(Path path, String contentType, String filename, long sizeBytes) {
+            this.path = path;
+            this.contentType = contentType;
+            this.filename = filename;
+            this.sizeBytes = sizeBytes;
+        }
+
+        public Path getPath() { return path; }
+        public String getContentType() { return contentType; }
+        public String getFilename() { return filename; }
+        public long getSizeBytes() { return sizeBytes; }
+        public Instant getCreatedAt() { return createdAt; }
+        public boolean isRetained() { return retained; }
+    }
+}
@@ -0,0 +1,69 @@
+package com.sajilokaam.report;
+
+import com.sajilokaam.project.Project;
+import com.sajilokaam.task.Task;
+import com.sajilokaam.timelog.TimeLog;
+import com.sajilokaam.user.User;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.hibernate.Hibernate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * JPA entity listener on the entities that feed project reports. Bumps the owning project's
+ * data version after every insert, update and delete so cached report artifacts go stale.
+ * The version is bumped again after commit, so a report rendered while the transaction was
+ * still open is never cached under the post-change version.
+ *
+ * Users appear in the reports of every project they take part in (names on tasks and time
+ * logs), so a user change bumps all projects. Versions are per instance: changes made by
+ * another instance, or by bulk JPQL/SQL statements that bypass entity listeners, are only
+ * picked up when {@link ReportArtifactCache} entries expire.
+ */
+@Component
+public class ReportDataChangeListener {
+
+    private final ProjectDataVersions projectDataVersions;
+
+    public ReportDataChangeListener(ProjectDataVersions projectDataVersions) {
+        this.projectDataVersions = projectDataVersions;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(Object entity) {
+        Long projectId;
+        if (entity instanceof Project project) {
+            projectId = project.getId();
+        } else if (entity instanceof Task task) {
+            projectId = projectIdOf(task);
+        } else if (entity instanceof User) {
+            projectId = null;
+        } else if (entity instanceof TimeLog timeLog) {
+            Task task = timeLog.getTask();
+            // Never trigger lazy loading from inside a flush; fall back to bumping everything
+            projectId = task != null && Hibernate.isInitialized(task) ? projectIdOf(task) : null;
+        } else {
+            return;
+        }
+
+        projectDataVersions.bump(projectId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    projectDataVersions.bump(projectId);
+                }
+            });
+        }
+    }
+
+    private Long projectIdOf(Task task) {
+        // Reading the id of an uninitialized proxy does not hit the database
+        return task.getProject() != null ? task.getProject().getId() : null;
+    }
+}
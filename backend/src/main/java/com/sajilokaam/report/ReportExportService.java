@@ -0,0 +1,165 @@
+package com.sajilokaam.report;
+
+import com.sajilokaam.project.Project;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Streams report rows from the database straight into a CsvWriter.
+ * Each section is a single joined query read through a streaming (server-side) result set,
+ * so memory stays bounded no matter how many tasks or time logs a project has.
+ */
+@Service
+public class ReportExportService {
+
+    private static final String TASKS_SQL =
+            "SELECT t.id, t.title, t.description, t.status, u.full_name AS assignee_name, t.due_date, t.created_at " +
+            "FROM tasks t LEFT JOIN users u ON u.id = t.assignee_id " +
+            "WHERE t.project_id = ? ORDER BY t.id";
+
+    private static final String TIME_LOGS_SQL =
+            "SELECT t.id AS task_id, t.title AS task_title, u.full_name AS user_name, tl.minutes, tl.logged_at " +
+            "FROM time_logs tl " +
+            "JOIN tasks t ON t.id = tl.task_id " +
+            "JOIN users u ON u.id = tl.user_id " +
+            "WHERE t.project_id = ? ORDER BY t.id, tl.id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ReportExportService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Full project report: details, tasks and time logs. The stream is not closed.
+     */
+    public void writeProjectReport(Project project, OutputStream out) throws IOException {
+        CsvWriter csv = new CsvWriter(out);
+        String description = project.getDescription();
+
+        // Write CSV header
+        csv.line("Project Report: " + project.getTitle());
+        csv.line("Generated: " + LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+        csv.endRow();
+        csv.line("Project Details");
+        csv.raw("Title").field(project.getTitle()).endRow();
+        csv.raw("Description").field(description != null ? description : "").endRow();
+        csv.raw("Created").raw(project.getCreatedAt().toString()).endRow();
+        csv.endRow();
+
+        // Tasks section
+        csv.line("Tasks");
+        csv.line("ID,Title,Status,Assignee,Due Date,Created At");
+        writeTasks(project.getId(), csv, false);
+        csv.endRow();
+
+        // Time logs section
+        csv.line("Time Logs");
+        csv.line("Task ID,Task Title,User,Minutes,Hours,Logged At");
+        writeTimeLogs(project.getId(), csv);
+        csv.flush();
+    }
+
+    public void writeTasksReport(Project project, OutputStream out) throws IOException {
+        CsvWriter csv = new CsvWriter(out);
+        csv.line("Tasks Report - Project: " + project.getTitle());
+        csv.line("Generated: " + LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+        csv.endRow();
+        csv.line("ID,Title,Description,Status,Assignee,Due Date,Created At");
+        writeTasks(project.getId(), csv, true);
+        csv.flush();
+    }
+
+    public void writeTimeLogsReport(Project project, OutputStream out) throws IOException {
+        CsvWriter csv = new CsvWriter(out);
+        csv.line("Time Logs Report - Project: " + project.getTitle());
+        csv.line("Generated: " + LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+        csv.endRow();
+        csv.line("Task ID,Task Title,User,Minutes,Hours,Logged At");
+        writeTimeLogs(project.getId(), csv);
+        csv.flush();
+    }
+
+    /**
+     * Write one row per task: ID,Title[,Description],Status,Assignee,Due Date,Created At
+     */
+    public void writeTasks(Long projectId, CsvWriter csv, boolean includeDescription) {
+        stream(TASKS_SQL, projectId, rs -> {
+            try {
+                csv.field(rs.getLong("id"))
+                        .field(rs.getString("title"));
+                if (includeDescription) {
+                    csv.field(rs.getString("description"));
+                }
+                String assignee = rs.getString("assignee_name");
+                Date dueDate = rs.getDate("due_date");
+                csv.raw(rs.getString("status"))
+                        .field(assignee != null ? assignee : "Unassigned")
+                        .field(dueDate != null ? dueDate.toLocalDate() : null)
+                        .field(toInstantString(rs.getTimestamp("created_at")))
+                        .endRow();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * Write one row per time log: Task ID,Task Title,User,Minutes,Hours,Logged At
+     */
+    public void writeTimeLogs(Long projectId, CsvWriter csv) {
+        stream(TIME_LOGS_SQL, projectId, rs -> {
+            try {
+                int minutes = rs.getInt("minutes");
+                csv.field(rs.getLong("task_id"))
+                        .field(rs.getString("task_title"))
+                        .field(rs.getString("user_name"))
+                        .field(minutes)
+                        .hours(minutes)
+                        .field(toInstantString(rs.getTimestamp("logged_at")))
+                        .endRow();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    public int countTasks(Long projectId) {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM tasks WHERE project_id = ?", Integer.class, projectId);
+        return count != null ? count : 0;
+    }
+
+    /**
+     * Hand each task row of the tasks export query to the handler, in id order
+     */
+    void forEachTask(Long projectId, RowCallbackHandler handler) {
+        stream(TASKS_SQL, projectId, handler);
+    }
+
+    private void stream(String sql, Long projectId, RowCallbackHandler handler) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            // MySQL Connector/J streams rows one at a time instead of buffering the whole result
+            statement.setFetchSize(Integer.MIN_VALUE);
+            statement.setLong(1, projectId);
+            return statement;
+        }, handler);
+    }
+
+    private String toInstantString(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toInstant().toString() : "";
+    }
+}
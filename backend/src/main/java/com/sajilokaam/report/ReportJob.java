@@ -0,0 +1,102 @@
+package com.sajilokaam.report;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.sajilokaam.report.ReportArtifactCache.ReportArtifact;
+
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * One user's request for a report. Jobs asking for the same (project, type, data version)
+ * while it is being rendered share a single render.
+ */
+public class ReportJob {
+
+    public enum Status { QUEUED, RUNNING, COMPLETED, FAILED }
+
+    private final String id = UUID.randomUUID().toString();
+    private final Long projectId;
+    private final ReportType type;
+    private final String requestedBy;
+    private final Instant createdAt = Instant.now();
+    private final boolean fromCache;
+    private final Render render;
+
+    ReportJob(Long projectId, ReportType type, String requestedBy, Render render, boolean fromCache) {
+        this.projectId = projectId;
+        this.type = type;
+        this.requestedBy = requestedBy;
+        this.render = render;
+        this.fromCache = fromCache;
+    }
+
+    public String getId() { return id; }
+    public Long getProjectId() { return projectId; }
+    public ReportType getType() { return type; }
+    public Instant getCreatedAt() { return createdAt; }
+    public boolean isFromCache() { return fromCache; }
+
+    @JsonIgnore
+    public String getRequestedBy() { return requestedBy; }
+
+    public Status getStatus() {
+        CompletableFuture<ReportArtifact> result = render.result;
+        if (!result.isDone()) {
+            return render.started ? Status.RUNNING : Status.QUEUED;
+        }
+        return result.isCompletedExceptionally() ? Status.FAILED : Status.COMPLETED;
+    }
+
+    public Instant getCompletedAt() {
+        ReportArtifact artifact = getArtifact();
+        return artifact != null ? artifact.getCreatedAt() : null;
+    }
+
+    public Long getSizeBytes() {
+        ReportArtifact artifact = getArtifact();
+        return artifact != null ? artifact.getSizeBytes() : null;
+    }
+
+    public String getDownloadUrl() {
+        return getStatus() == Status.COMPLETED ? "/api/reports/jobs/" + id + "/download" : null;
+    }
+
+    public String getError() {
+        if (!render.result.isCompletedExceptionally()) {
+            return null;
+        }
+        try {
+            render.result.join();
+            return null;
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            return cause.getMessage() != null ? cause.getMessage() : "Report generation failed";
+        }
+    }
+
+    /**
+     * The rendered file, or null until the job has completed
+     */
+    @JsonIgnore
+    public ReportArtifact getArtifact() {
+        CompletableFuture<ReportArtifact> result = render.result;
+        return result.isDone() && !result.isCompletedExceptionally() ? result.join() : null;
+    }
+
+    /**
+     * A single render, shared by every job waiting on the same artifact
+     */
+    static class Render {
+        final CompletableFuture<ReportArtifact> result = new CompletableFuture<>();
+        volatile boolean started;
+
+        static Render completed(ReportArtifact artifact) {
+            Render render = new Render();
+            render.started = true;
+            render.result.complete(artifact);
+            return render;
+        }
+    }
+}
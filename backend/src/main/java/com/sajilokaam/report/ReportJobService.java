@@ -0,0 +1,170 @@
+package com.sajilokaam.report;
+
+import com.sajilokaam.project.Project;
+import com.sajilokaam.project.ProjectRepository;
+import com.sajilokaam.report.ReportArtifactCache.ReportArtifact;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Renders project reports in the background on a bounded worker pool, off the request threads.
+ *
+ * Artifacts are cached by (project, report type, data version). A request for a project whose
+ * data has not changed since the last render is answered from the cache without touching the
+ * database; concurrent requests for the same artifact share one render.
+ */
+@Service
+public class ReportJobService {
+
+    private final ReportArtifactCache artifactCache;
+    private final ProjectDataVersions projectDataVersions;
+    private final ProjectRepository projectRepository;
+    private final ReportExportService reportExportService;
+    private final ProjectReportPdfService projectReportPdfService;
+    private final Duration retention;
+    private final ThreadPoolExecutor executor;
+
+    private final Map<String, ReportJob> jobs = new ConcurrentHashMap<>();
+    private final Map<String, ReportJob.Render> inFlight = new ConcurrentHashMap<>();
+
+    public ReportJobService(ReportArtifactCache artifactCache,
+                            ProjectDataVersions projectDataVersions,
+                            ProjectRepository projectRepository,
+                            ReportExportService reportExportService,
+                            ProjectReportPdfService projectReportPdfService,
+                            @Value("${report.jobs.workers:2}") int workers,
+                            @Value("${report.jobs.queue-capacity:20}") int queueCapacity,
+                            @Value("${report.jobs.retention-minutes:60}") long retentionMinutes) {
+        this.artifactCache = artifactCache;
+        this.projectDataVersions = projectDataVersions;
+        this.projectRepository = projectRepository;
+        this.reportExportService = reportExportService;
+        this.projectReportPdfService = projectReportPdfService;
+        this.retention = Duration.ofMinutes(retentionMinutes);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        // Rejects once every worker is busy and the queue is full, instead of queueing without bound
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "report-worker-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Submit a report job. Returns null if the project does not exist.
+     *
+     * @throws java.util.concurrent.RejectedExecutionException if the render queue is full
+     */
+    public ReportJob submit(Long projectId, ReportType type, String requestedBy) {
+        pruneExpiredJobs();
+
+        String dataVersion = projectDataVersions.current(projectId);
+        String key = ReportArtifactCache.key(projectId, type, dataVersion);
+
+        ReportArtifact cached = artifactCache.get(key);
+        if (cached != null) {
+            return register(new ReportJob(projectId, type, requestedBy, ReportJob.Render.completed(cached), true));
+        }
+
+        ReportJob.Render render = inFlight.get(key);
+        if (render == null) {
+            Optional<Project> projectOpt = projectRepository.findById(projectId);
+            if (projectOpt.isEmpty()) {
+                return null;
+            }
+            render = inFlight.computeIfAbsent(key, k -> start(k, projectOpt.get(), type));
+        }
+        return register(new ReportJob(projectId, type, requestedBy, render, false));
+    }
+
+    public Optional<ReportJob> findJob(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId));
+    }
+
+    private ReportJob register(ReportJob job) {
+        jobs.put(job.getId(), job);
+        return job;
+    }
+
+    private ReportJob.Render start(String key, Project project, ReportType type) {
+        ReportJob.Render render = new ReportJob.Render();
+        executor.execute(() -> {
+            render.started = true;
+            try {
+                render.result.complete(renderArtifact(key, project, type));
+            } catch (Exception e) {
+                render.result.completeExceptionally(e);
+            } finally {
+                inFlight.remove(key, render);
+            }
+        });
+        return render;
+    }
+
+    private ReportArtifact renderArtifact(String key, Project project, ReportType type) throws IOException {
+        Path file = artifactCache.newFile(type);
+        boolean completed = false;
+        try {
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file))) {
+                switch (type) {
+                    case PROJECT_CSV -> reportExportService.writeProjectReport(project, out);
+                    case TASKS_CSV -> reportExportService.writeTasksReport(project, out);
+                    case TIME_LOGS_CSV -> reportExportService.writeTimeLogsReport(project, out);
+                    case PROJECT_PDF -> projectReportPdfService.writeProjectReport(project, out);
+                }
+            }
+            ReportArtifact artifact = artifactCache.put(key, file, type, type.filename(project.getId()));
+            completed = true;
+            return artifact;
+        } finally {
+            if (!completed) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    private void pruneExpiredJobs() {
+        Instant cutoff = Instant.now().minus(retention);
+        Iterator<ReportJob> it = jobs.values().iterator();
+        while (it.hasNext()) {
+            ReportJob job = it.next();
+            if (job.getCreatedAt().isBefore(cutoff) && job.getStatus() != ReportJob.Status.QUEUED
+                    && job.getStatus() != ReportJob.Status.RUNNING) {
+                it.remove();
+                ReportArtifact artifact = job.getArtifact();
+                if (artifact != null && !artifact.isRetained()) {
+                    // Too large for the cache, so this job was the only owner of the file
+                    try {
+                        Files.deleteIfExists(artifact.getPath());
+                    } catch (IOException e) {
+                        System.err.println("Failed to delete report artifact: " + e.getMessage());
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.sajilokaam.report;
+
+/**
+ * Project reports that can be rendered as background jobs.
+ */
+public enum ReportType {
+    PROJECT_CSV("text/csv; charset=UTF-8", "project_%d_report", ".csv"),
+    TASKS_CSV("text/csv; charset=UTF-8", "tasks_report_%d", ".csv"),
+    TIME_LOGS_CSV("text/csv; charset=UTF-8", "time_logs_report_%d", ".csv"),
+    PROJECT_PDF("application/pdf", "project_%d_report", ".pdf");
+
+    private final String contentType;
+    private final String filenamePattern;
+    private final String extension;
+
+    ReportType(String contentType, String filenamePattern, String extension) {
+        this.contentType = contentType;
+        this.filenamePattern = filenamePattern;
+        this.extension = extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public String filename(Long projectId) {
+        return String.format(filenamePattern, projectId) + extension;
+    }
+}
@@ -1,11 +1,15 @@
 package com.sajilokaam.role;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.sajilokaam.config.ReferenceDataCacheConfig;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.util.HashSet;
 import java.util.Set;
 
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = ReferenceDataCacheConfig.ENTITY_REGION)
 @Table(name = "roles")
 @JsonIgnoreProperties({"users"})
 public class Role {
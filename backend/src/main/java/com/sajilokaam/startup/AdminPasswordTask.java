@@ -0,0 +1,48 @@
+package com.sajilokaam.startup;
+
+import com.sajilokaam.user.User;
+import com.sajilokaam.user.UserRepository;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+/**
+ * Sets the seeded admin account's password to the default once, instead of on every boot,
+ * so a password changed afterwards is kept.
+ */
+@Component
+public class AdminPasswordTask implements StartupTask {
+
+    private static final String ADMIN_EMAIL = "admin@sajilokaam.com";
+
+    private final UserRepository userRepository;
+    private final PasswordEncoder passwordEncoder;
+
+    public AdminPasswordTask(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+        this.userRepository = userRepository;
+        this.passwordEncoder = passwordEncoder;
+    }
+
+    @Override
+    public String getId() {
+        return "admin-password";
+    }
+
+    @Override
+    public int getVersion() {
+        return 1;
+    }
+
+    @Override
+    public String run() {
+        Optional<User> adminOpt = userRepository.findByEmail(ADMIN_EMAIL);
+        if (adminOpt.isEmpty()) {
+            return "Admin user not found";
+        }
+        User admin = adminOpt.get();
+        admin.setPassword(passwordEncoder.encode("admin123"));
+        userRepository.save(admin);
+        return "Admin password reset to default";
+    }
+}
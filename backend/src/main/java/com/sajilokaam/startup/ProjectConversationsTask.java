@@ -0,0 +1,85 @@
+package com.sajilokaam.startup;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Creates the conversation between client and freelancer for projects that have none.
+ *
+ * Works in set-based batches ordered by project id: each batch finds the next projects missing
+ * a conversation with one anti-join, then inserts their conversations and both participants
+ * with three INSERT ... SELECT statements in one transaction.
+ */
+@Component
+public class ProjectConversationsTask implements StartupTask {
+
+    private static final String MISSING =
+            "FROM projects p LEFT JOIN conversations c ON c.project_id = p.id " +
+            "WHERE c.id IS NULL AND p.client_id IS NOT NULL AND p.freelancer_id IS NOT NULL ";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    public ProjectConversationsTask(JdbcTemplate jdbcTemplate,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${startup.tasks.batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    @Override
+    public String getId() {
+        return "project-conversations";
+    }
+
+    @Override
+    public int getVersion() {
+        return 1;
+    }
+
+    @Override
+    public String run() {
+        long afterId = 0;
+        int created = 0;
+        while (true) {
+            List<Long> projectIds = jdbcTemplate.queryForList(
+                    "SELECT p.id " + MISSING + "AND p.id > ? ORDER BY p.id LIMIT ?", Long.class, afterId, batchSize);
+            if (projectIds.isEmpty()) {
+                break;
+            }
+            long from = projectIds.get(0);
+            long to = projectIds.get(projectIds.size() - 1);
+            Integer batch = transactionTemplate.execute(status -> createBatch(from, to));
+            created += batch != null ? batch : 0;
+            afterId = to;
+        }
+        return "Created " + created + " conversations";
+    }
+
+    private int createBatch(long fromProjectId, long toProjectId) {
+        Long lastConversationId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM conversations", Long.class);
+        Timestamp now = Timestamp.from(Instant.now());
+        int created = jdbcTemplate.update(
+                "INSERT INTO conversations (project_id, title, created_at, updated_at) " +
+                "SELECT p.id, LEFT(CONCAT('Project: ', p.title), 255), ?, ? " + MISSING + "AND p.id BETWEEN ? AND ?",
+                now, now, fromProjectId, toProjectId);
+        for (String participant : List.of("client_id", "freelancer_id")) {
+            // IGNORE: client and freelancer may be the same user
+            jdbcTemplate.update(
+                    "INSERT IGNORE INTO conversation_participants (conversation_id, user_id) " +
+                    "SELECT c.id, p." + participant + " FROM conversations c JOIN projects p ON p.id = c.project_id " +
+                    "WHERE c.id > ? AND p.id BETWEEN ? AND ?",
+                    lastConversationId, fromProjectId, toProjectId);
+        }
+        return created;
+    }
+}
@@ -0,0 +1,22 @@
+package com.sajilokaam.startup;
+
+/**
+ * A one-shot data-repair task run by {@link StartupTaskRunner} after the application is ready.
+ *
+ * A task runs once per version across all instances; bump the version to run it again.
+ * Tasks must be safe to re-run, since a failed or interrupted run is retried on a later boot.
+ */
+public interface StartupTask {
+
+    /**
+     * Stable identifier, recorded in startup_tasks
+     */
+    String getId();
+
+    int getVersion();
+
+    /**
+     * Do the work. Returns a short summary for the task record.
+     */
+    String run();
+}
@@ -0,0 +1,135 @@
+package com.sajilokaam.startup;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs pending {@link StartupTask}s once the application is ready, on a background thread, so
+ * data repairs never delay startup.
+ *
+ * Each (task, version) is claimed by inserting its startup_tasks row, so with several
+ * instances only one runs it. A completed task is skipped on every later boot. A failed task,
+ * or one left RUNNING by a crashed instance for longer than the stale timeout, is claimed
+ * again on the next boot.
+ */
+@Component
+public class StartupTaskRunner {
+
+    private final List<StartupTask> tasks;
+    private final JdbcTemplate jdbcTemplate;
+    private final StartupTimings timings;
+    private final boolean enabled;
+    private final Duration staleAfter;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "startup-tasks");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public StartupTaskRunner(List<StartupTask> tasks,
+                             JdbcTemplate jdbcTemplate,
+                             StartupTimings timings,
+                             @Value("${startup.tasks.enabled:true}") boolean enabled,
+                             @Value("${startup.tasks.stale-after-minutes:30}") long staleAfterMinutes) {
+        this.tasks = tasks.stream().sorted(Comparator.comparing(StartupTask::getId)).toList();
+        this.jdbcTemplate = jdbcTemplate;
+        this.timings = timings;
+        this.enabled = enabled;
+        this.staleAfter = Duration.ofMinutes(staleAfterMinutes);
+    }
+
+    @EventListener
+    public void onReady(ApplicationReadyEvent event) {
+        if (enabled && !tasks.isEmpty()) {
+            executor.execute(this::runPending);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Run every task not yet completed at its current version. Returns the number run.
+     */
+    public int runPending() {
+        int ran = 0;
+        for (StartupTask task : tasks) {
+            try {
+                if (claim(task)) {
+                    run(task);
+                    ran++;
+                }
+            } catch (RuntimeException e) {
+                System.err.println("Failed to claim startup task " + task.getId() + ": " + e.getMessage());
+            }
+        }
+        return ran;
+    }
+
+    /**
+     * Recorded runs, newest first
+     */
+    public List<Map<String, Object>> history() {
+        return jdbcTemplate.queryForList(
+                "SELECT task_id, version, status, started_at, completed_at, duration_ms, detail " +
+                "FROM startup_tasks ORDER BY started_at DESC");
+    }
+
+    private boolean claim(StartupTask task) {
+        Timestamp now = Timestamp.from(Instant.now());
+        try {
+            jdbcTemplate.update("INSERT INTO startup_tasks (task_id, version, status, started_at) VALUES (?, ?, 'RUNNING', ?)",
+                    task.getId(), task.getVersion(), now);
+            return true;
+        } catch (DuplicateKeyException e) {
+            return jdbcTemplate.update(
+                    "UPDATE startup_tasks SET status = 'RUNNING', started_at = ?, completed_at = NULL, detail = NULL " +
+                    "WHERE task_id = ? AND version = ? AND (status = 'FAILED' OR (status = 'RUNNING' AND started_at < ?))",
+                    now, task.getId(), task.getVersion(), Timestamp.from(Instant.now().minus(staleAfter))) == 1;
+        }
+    }
+
+    private void run(StartupTask task) {
+        long start = System.nanoTime();
+        String status;
+        String detail;
+        try {
+            detail = task.run();
+            status = "COMPLETED";
+        } catch (RuntimeException e) {
+            detail = e.getMessage();
+            status = "FAILED";
+            System.err.println("Startup task " + task.getId() + " v" + task.getVersion() + " failed: " + e.getMessage());
+        }
+        Duration duration = Duration.ofNanos(System.nanoTime() - start);
+        timings.recordTask(task.getId(), duration);
+        jdbcTemplate.update(
+                "UPDATE startup_tasks SET status = ?, completed_at = ?, duration_ms = ?, detail = ? " +
+                "WHERE task_id = ? AND version = ?",
+                status, Timestamp.from(Instant.now()), duration.toMillis(), truncate(detail),
+                task.getId(), task.getVersion());
+        System.out.println("Startup task " + task.getId() + " v" + task.getVersion() + " " + status
+                + " in " + duration.toMillis() + "ms" + (detail != null ? ": " + detail : ""));
+    }
+
+    private String truncate(String detail) {
+        return detail != null && detail.length() > 1000 ? detail.substring(0, 1000) : detail;
+    }
+}
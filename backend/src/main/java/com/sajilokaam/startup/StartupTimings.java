@@ -0,0 +1,103 @@
+package com.sajilokaam.startup;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.support.ServletRequestHandledEvent;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Durations of the startup phases of this process, from JVM start to application ready and to
+ * the first handled request, plus the background startup tasks. Logged once when the application is ready, recorded as
+ * {@code startup.phase} timers and served on the admin startup endpoint.
+ */
+@Component
+public class StartupTimings {
+
+    private final MeterRegistry meterRegistry;
+    private final long jvmStartMillis = ManagementFactory.getRuntimeMXBean().getStartTime();
+    private final long beansCreatedMillis = System.currentTimeMillis();
+    private final Map<String, Long> phases = new LinkedHashMap<>();
+
+    private volatile long refreshedMillis;
+    private volatile long startedMillis;
+    private final AtomicBoolean firstRequestSeen = new AtomicBoolean();
+
+    public StartupTimings(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @EventListener
+    public void onRefreshed(ContextRefreshedEvent event) {
+        if (refreshedMillis == 0) {
+            refreshedMillis = System.currentTimeMillis();
+        }
+    }
+
+    @EventListener
+    public void onStarted(ApplicationStartedEvent event) {
+        startedMillis = System.currentTimeMillis();
+    }
+
+    @EventListener
+    public void onReady(ApplicationReadyEvent event) {
+        long ready = System.currentTimeMillis();
+        long refreshed = refreshedMillis != 0 ? refreshedMillis : ready;
+        long started = startedMillis != 0 ? startedMillis : ready;
+        // Split at this bean's creation: before it, JVM and Boot bootstrap plus the beans created earlier
+        record("jvm-to-context", beansCreatedMillis - jvmStartMillis);
+        record("context-refresh", Math.max(0, refreshed - beansCreatedMillis));
+        record("runners", ready - started);
+        record("total", ready - jvmStartMillis);
+
+        StringBuilder summary = new StringBuilder("Startup phases:");
+        phases().forEach((phase, millis) -> summary.append(' ').append(phase).append('=').append(millis).append("ms"));
+        System.out.println(summary);
+    }
+
+    /**
+     * Time to first request: JVM start until the first request has been handled
+     */
+    @EventListener
+    public void onRequestHandled(ServletRequestHandledEvent event) {
+        if (!firstRequestSeen.get() && firstRequestSeen.compareAndSet(false, true)) {
+            record("first-request", System.currentTimeMillis() - jvmStartMillis);
+        }
+    }
+
+    /**
+     * Record a background startup task
+     */
+    public void recordTask(String taskId, Duration duration) {
+        record("task:" + taskId, duration.toMillis());
+    }
+
+    /**
+     * Phase name to duration in milliseconds, in the order they were recorded
+     */
+    public Map<String, Long> phases() {
+        synchronized (phases) {
+            return new LinkedHashMap<>(phases);
+        }
+    }
+
+    private void record(String phase, long millis) {
+        synchronized (phases) {
+            phases.put(phase, millis);
+        }
+        Timer.builder("startup.phase")
+                .tag("phase", phase)
+                .register(meterRegistry)
+                .record(Math.max(0, millis), TimeUnit.MILLISECONDS);
+    }
+}
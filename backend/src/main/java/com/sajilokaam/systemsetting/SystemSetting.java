@@ -1,10 +1,14 @@
 package com.sajilokaam.systemsetting;
 
+import com.sajilokaam.config.ReferenceDataCacheConfig;
 import com.sajilokaam.user.User;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.Instant;
 
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = ReferenceDataCacheConfig.ENTITY_REGION)
 @Table(name = "system_settings", indexes = {
         @Index(name = "idx_settings_key", columnList = "setting_key")
 })
@@ -1,9 +1,17 @@
 package com.sajilokaam.systemsetting;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
+import java.util.List;
 import java.util.Optional;
 
 public interface SystemSettingRepository extends JpaRepository<SystemSetting, Long> {
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<SystemSetting> findAll();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<SystemSetting> findBySettingKey(String settingKey);
 }
 
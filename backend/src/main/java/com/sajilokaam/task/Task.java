@@ -1,7 +1,9 @@
 package com.sajilokaam.task;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.sajilokaam.platformmetrics.PlatformMetricsListener;
 import com.sajilokaam.project.Project;
+import com.sajilokaam.report.ReportDataChangeListener;
 import com.sajilokaam.tasklabel.TaskLabel;
 import com.sajilokaam.user.User;
 import jakarta.persistence.*;
@@ -11,6 +13,7 @@ import java.util.HashSet;
 import java.util.Set;
 
 @Entity
+@EntityListeners({ReportDataChangeListener.class, PlatformMetricsListener.class})
 @Table(name = "tasks", indexes = {
         @Index(name = "idx_tasks_project", columnList = "project_id"),
         @Index(name = "idx_tasks_priority", columnList = "priority")
@@ -1,5 +1,6 @@
 package com.sajilokaam.taskactivity;
 
+import com.sajilokaam.config.IdGenerators;
 import com.sajilokaam.task.Task;
 import com.sajilokaam.user.User;
 import jakarta.persistence.*;
@@ -13,7 +14,10 @@ import java.time.Instant;
 })
 public class TaskActivity {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "task_activities_id")
+    @TableGenerator(name = "task_activities_id", table = IdGenerators.TABLE, pkColumnName = IdGenerators.NAME_COLUMN,
+            valueColumnName = IdGenerators.VALUE_COLUMN, pkColumnValue = "task_activities",
+            allocationSize = IdGenerators.ALLOCATION_SIZE)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
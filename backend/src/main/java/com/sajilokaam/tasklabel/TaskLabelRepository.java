@@ -1,9 +1,17 @@
 package com.sajilokaam.tasklabel;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
+import java.util.List;
 import java.util.Optional;
 
 public interface TaskLabelRepository extends JpaRepository<TaskLabel, Long> {
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<TaskLabel> findAll();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<TaskLabel> findByName(String name);
 }
 
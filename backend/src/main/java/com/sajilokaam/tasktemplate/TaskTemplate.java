@@ -1,9 +1,13 @@
 package com.sajilokaam.tasktemplate;
 
+import com.sajilokaam.config.ReferenceDataCacheConfig;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.Instant;
 
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = ReferenceDataCacheConfig.ENTITY_REGION)
 @Table(name = "task_templates")
 public class TaskTemplate {
     @Id
@@ -1,7 +1,13 @@
 package com.sajilokaam.tasktemplate;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
+import java.util.List;
 
 public interface TaskTemplateRepository extends JpaRepository<TaskTemplate, Long> {
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<TaskTemplate> findAll();
 }
 
@@ -1,9 +1,17 @@
 package com.sajilokaam.timecategory;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
+import java.util.List;
 import java.util.Optional;
 
 public interface TimeCategoryRepository extends JpaRepository<TimeCategory, Long> {
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<TimeCategory> findAll();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<TimeCategory> findByName(String name);
 }
 
@@ -1,5 +1,7 @@
 package com.sajilokaam.timelog;
 
+import com.sajilokaam.config.IdGenerators;
+import com.sajilokaam.report.ReportDataChangeListener;
 import com.sajilokaam.task.Task;
 import com.sajilokaam.timecategory.TimeCategory;
 import com.sajilokaam.timersession.TimerSession;
@@ -9,6 +11,7 @@ import java.time.Instant;
 import java.time.LocalDateTime;
 
 @Entity
+@EntityListeners(ReportDataChangeListener.class)
 @Table(name = "time_logs", indexes = {
         @Index(name = "idx_timelog_session", columnList = "timer_session_id"),
         @Index(name = "idx_timelog_category", columnList = "category_id"),
@@ -17,7 +20,10 @@ import java.time.LocalDateTime;
 })
 public class TimeLog {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "time_logs_id")
+    @TableGenerator(name = "time_logs_id", table = IdGenerators.TABLE, pkColumnName = IdGenerators.NAME_COLUMN,
+            valueColumnName = IdGenerators.VALUE_COLUMN, pkColumnValue = "time_logs",
+            allocationSize = IdGenerators.ALLOCATION_SIZE)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -1,6 +1,10 @@
 package com.sajilokaam.transaction;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 
@@ -10,5 +14,18 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
     List<Transaction> findByPaymentId(Long paymentId);
     List<Transaction> findByGateway(String gateway);
     List<Transaction> findByStatus(String status);
+
+    /**
+     * Pending transactions created before createdBefore and not checked since checkedBefore,
+     * least recently checked first
+     */
+    @Query("SELECT t FROM Transaction t WHERE t.status = 'PENDING' AND t.createdAt < :createdBefore " +
+           "AND t.updatedAt < :checkedBefore ORDER BY t.updatedAt ASC")
+    List<Transaction> findStalePending(@Param("createdBefore") Instant createdBefore,
+                                       @Param("checkedBefore") Instant checkedBefore,
+                                       Pageable pageable);
+
+    @Query("SELECT MIN(t.createdAt) FROM Transaction t WHERE t.status = 'PENDING'")
+    Instant findOldestPendingCreatedAt();
 }
 
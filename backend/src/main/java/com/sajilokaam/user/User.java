@@ -2,13 +2,19 @@ package com.sajilokaam.user;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.sajilokaam.config.ReferenceDataCacheConfig;
+import com.sajilokaam.platformmetrics.PlatformMetricsListener;
+import com.sajilokaam.report.ReportDataChangeListener;
 import com.sajilokaam.role.Role;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.Instant;
 import java.util.HashSet;
 import java.util.Set;
 
 @Entity
+@EntityListeners({PlatformMetricsListener.class, ReportDataChangeListener.class})
 @Table(name = "users", indexes = {
         @Index(name = "idx_users_email", columnList = "email", unique = true)
 })
@@ -39,6 +45,7 @@ public class User {
             inverseJoinColumns = @JoinColumn(name = "role_id")
     )
     @com.fasterxml.jackson.annotation.JsonIgnoreProperties({"users"})
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = ReferenceDataCacheConfig.COLLECTION_REGION)
     private Set<Role> roles = new HashSet<>();
 
     @Column(name = "reset_token", length = 255)
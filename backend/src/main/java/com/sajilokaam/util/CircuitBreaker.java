@@ -0,0 +1,89 @@
+package com.sajilokaam.util;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Minimal consecutive-failure circuit breaker for calls to remote services.
+ * CLOSED lets calls through; after failureThreshold consecutive failures it OPENs and
+ * rejects calls immediately until openDurationMs has elapsed, then lets a single probe
+ * through (HALF_OPEN). A successful probe closes the circuit, a failed one re-opens it.
+ */
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final String name;
+    private final int failureThreshold;
+    private final long openDurationNanos;
+    private final LongSupplier nanoClock;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures = 0;
+    private long openedAt = 0;
+    private boolean probeInFlight = false;
+
+    public CircuitBreaker(String name, int failureThreshold, long openDurationMs) {
+        this(name, failureThreshold, openDurationMs, System::nanoTime);
+    }
+
+    CircuitBreaker(String name, int failureThreshold, long openDurationMs, LongSupplier nanoClock) {
+        this.name = name;
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openDurationNanos = openDurationMs * 1_000_000L;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Returns true if a call may be attempted now. Every permitted call must be followed
+     * by recordSuccess() or recordFailure().
+     */
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (nanoClock.getAsLong() - openedAt < openDurationNanos) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+            probeInFlight = false;
+        }
+        if (state == State.HALF_OPEN) {
+            if (probeInFlight) {
+                return false;
+            }
+            probeInFlight = true;
+        }
+        return true;
+    }
+
+    public synchronized void recordSuccess() {
+        consecutiveFailures = 0;
+        probeInFlight = false;
+        if (state != State.CLOSED) {
+            System.out.println("Circuit breaker [" + name + "] closed");
+        }
+        state = State.CLOSED;
+    }
+
+    public synchronized void recordFailure() {
+        consecutiveFailures++;
+        probeInFlight = false;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            if (state != State.OPEN) {
+                System.err.println("Circuit breaker [" + name + "] opened after " + consecutiveFailures + " consecutive failures");
+            }
+            state = State.OPEN;
+            openedAt = nanoClock.getAsLong();
+        }
+    }
+
+    public synchronized State getState() {
+        // Report an expired OPEN state as HALF_OPEN without consuming the probe
+        if (state == State.OPEN && nanoClock.getAsLong() - openedAt >= openDurationNanos) {
+            return State.HALF_OPEN;
+        }
+        return state;
+    }
+
+    public String getName() {
+        return name;
+    }
+}
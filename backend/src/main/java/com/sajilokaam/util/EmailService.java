@@ -1,6 +1,6 @@
 package com.sajilokaam.util;
 
-import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
@@ -13,7 +13,7 @@ import jakarta.mail.internet.MimeMessage;
 @Service
 public class EmailService {
 
-    private final JavaMailSender mailSender;
+    private final ObjectProvider<JavaMailSender> mailSenderProvider;
 
     @Value("${mail.from.address:noreply@sajilokaam.com}")
     private String fromAddress;
@@ -24,25 +24,15 @@ public class EmailService {
     @Value("${app.frontend.url:http://localhost:5173}")
     private String frontendUrl;
 
-    public EmailService(@Autowired(required = false) JavaMailSender mailSender) {
-        // Allow null JavaMailSender - email will be logged to console instead
-        this.mailSender = mailSender;
-        System.out.println("EmailService initialized. SMTP configured: " + (mailSender != null));
-        if (mailSender == null) {
-            System.out.println("================================================");
-            System.out.println("WARNING: Email sending is DISABLED!");
-            System.out.println("Password reset tokens will be logged to console.");
-            System.out.println("To enable email sending, set these environment variables:");
-            System.out.println("  - SMTP_USERNAME=your-email@gmail.com");
-            System.out.println("  - SMTP_PASSWORD=your-app-password");
-            System.out.println("  - SMTP_HOST=smtp.gmail.com (optional, defaults to Gmail)");
-            System.out.println("  - SMTP_PORT=587 (optional, defaults to 587)");
-            System.out.println("================================================");
-        }
+    public EmailService(ObjectProvider<JavaMailSender> mailSenderProvider) {
+        // Resolved on first send so the mail sender can be created lazily; when SMTP is not
+        // configured there is none and emails are logged to console instead
+        this.mailSenderProvider = mailSenderProvider;
     }
 
     public void sendPasswordResetEmail(String toEmail, String resetToken) {
         try {
+            JavaMailSender mailSender = mailSenderProvider.getIfAvailable();
             if (mailSender == null) {
                 System.err.println("JavaMailSender is not configured. Cannot send email.");
                 System.out.println("Password reset token for " + toEmail + ": " + resetToken);
@@ -80,6 +70,7 @@ public class EmailService {
 
     public void sendVerificationEmail(String toEmail, String verificationToken) {
         try {
+            JavaMailSender mailSender = mailSenderProvider.getIfAvailable();
             if (mailSender == null) {
                 System.err.println("JavaMailSender is not configured. Cannot send email.");
                 System.out.println("Email verification token for " + toEmail + ": " + verificationToken);
@@ -0,0 +1,74 @@
+package com.sajilokaam.util;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Minimal token-bucket rate limiter for calls to remote services. Holds up to burst permits,
+ * refilled at permitsPerSecond; acquire() blocks until a permit is available.
+ */
+public class RateLimiter {
+
+    private final String name;
+    private final double permitsPerNano;
+    private final double burst;
+    private final LongSupplier nanoClock;
+
+    private double available;
+    private long refilledAt;
+
+    public RateLimiter(String name, double permitsPerSecond, int burst) {
+        this(name, permitsPerSecond, burst, System::nanoTime);
+    }
+
+    RateLimiter(String name, double permitsPerSecond, int burst, LongSupplier nanoClock) {
+        if (permitsPerSecond <= 0) {
+            throw new IllegalArgumentException("permitsPerSecond must be positive");
+        }
+        this.name = name;
+        this.permitsPerNano = permitsPerSecond / 1_000_000_000d;
+        this.burst = Math.max(1, burst);
+        this.nanoClock = nanoClock;
+        this.available = this.burst;
+        this.refilledAt = nanoClock.getAsLong();
+    }
+
+    /**
+     * Take a permit if one is available now
+     */
+    public synchronized boolean tryAcquire() {
+        refill();
+        if (available >= 1) {
+            available -= 1;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Take a permit, waiting for one if necessary
+     */
+    public void acquire() throws InterruptedException {
+        while (true) {
+            long waitNanos;
+            synchronized (this) {
+                refill();
+                if (available >= 1) {
+                    available -= 1;
+                    return;
+                }
+                waitNanos = (long) Math.ceil((1 - available) / permitsPerNano);
+            }
+            Thread.sleep(Math.max(1, waitNanos / 1_000_000L), (int) (waitNanos % 1_000_000L));
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    private void refill() {
+        long now = nanoClock.getAsLong();
+        available = Math.min(burst, available + (now - refilledAt) * permitsPerNano);
+        refilledAt = now;
+    }
+}
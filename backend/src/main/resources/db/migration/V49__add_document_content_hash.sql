@@ -0,0 +1,4 @@
+-- Content hash of uploaded documents, computed while streaming the upload to disk
+ALTER TABLE document_processings
+  ADD COLUMN content_hash VARCHAR(64) NULL AFTER file_size_bytes,
+  ADD INDEX idx_doc_processing_content_hash (content_hash);
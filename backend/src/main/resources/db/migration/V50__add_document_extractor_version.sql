@@ -0,0 +1,4 @@
+-- Extractor version that produced a document's OCR text and suggestions,
+-- so cached extraction results are only reused by the same pipeline version
+ALTER TABLE document_processings
+  ADD COLUMN extractor_version VARCHAR(50) NULL AFTER content_hash;
@@ -0,0 +1,4 @@
+-- Page-level progress for documents being OCR'd
+ALTER TABLE document_processings
+  ADD COLUMN pages_total INT NULL AFTER ocr_text,
+  ADD COLUMN pages_processed INT NULL AFTER pages_total;
@@ -0,0 +1,3 @@
+-- Optimistic-lock version for invoices; rendered PDFs are stored per (invoice, version)
+ALTER TABLE invoices
+  ADD COLUMN version BIGINT NOT NULL DEFAULT 0 AFTER sent_at;
@@ -0,0 +1,23 @@
+-- Per-day payment counters by gateway and status, kept up to date on every payment write.
+-- day is the UTC creation date of the payment; a status change moves the payment between
+-- rows of the same day.
+CREATE TABLE payment_rollups_daily (
+  day DATE NOT NULL,
+  gateway VARCHAR(50) NOT NULL,
+  status VARCHAR(50) NOT NULL,
+  payment_count BIGINT NOT NULL DEFAULT 0,
+  total_amount DECIMAL(16,2) NOT NULL DEFAULT 0,
+  PRIMARY KEY (day, gateway, status),
+  INDEX idx_payment_rollups_status (status)
+);
+
+-- Backfill from existing payments
+SET @previous_time_zone = @@session.time_zone;
+SET time_zone = '+00:00';
+
+INSERT INTO payment_rollups_daily (day, gateway, status, payment_count, total_amount)
+SELECT DATE(created_at), COALESCE(gateway, 'OFFLINE'), COALESCE(status, 'PENDING'), COUNT(*), COALESCE(SUM(amount), 0)
+FROM payments
+GROUP BY DATE(created_at), COALESCE(gateway, 'OFFLINE'), COALESCE(status, 'PENDING');
+
+SET time_zone = @previous_time_zone;
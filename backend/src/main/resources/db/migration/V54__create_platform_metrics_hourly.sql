@@ -0,0 +1,40 @@
+-- Hourly platform metric history for the admin analytics trends.
+-- hour_start is UTC; event_count is the number of rows created in the hour, total_value the
+-- last value observed in it (NULL for backfilled hours).
+CREATE TABLE platform_metrics_hourly (
+  metric VARCHAR(50) NOT NULL,
+  hour_start DATETIME NOT NULL,
+  event_count BIGINT NOT NULL DEFAULT 0,
+  total_value BIGINT NULL,
+  PRIMARY KEY (metric, hour_start)
+);
+
+-- Backfill creation events from existing rows
+SET @previous_time_zone = @@session.time_zone;
+SET time_zone = '+00:00';
+
+INSERT INTO platform_metrics_hourly (metric, hour_start, event_count)
+SELECT 'USERS', DATE_FORMAT(created_at, '%Y-%m-%d %H:00:00'), COUNT(*) FROM users
+WHERE created_at IS NOT NULL GROUP BY DATE_FORMAT(created_at, '%Y-%m-%d %H:00:00');
+
+INSERT INTO platform_metrics_hourly (metric, hour_start, event_count)
+SELECT 'JOBS', DATE_FORMAT(created_at, '%Y-%m-%d %H:00:00'), COUNT(*) FROM jobs
+WHERE created_at IS NOT NULL GROUP BY DATE_FORMAT(created_at, '%Y-%m-%d %H:00:00');
+
+INSERT INTO platform_metrics_hourly (metric, hour_start, event_count)
+SELECT 'BIDS', DATE_FORMAT(created_at, '%Y-%m-%d %H:00:00'), COUNT(*) FROM bids
+WHERE created_at IS NOT NULL GROUP BY DATE_FORMAT(created_at, '%Y-%m-%d %H:00:00');
+
+INSERT INTO platform_metrics_hourly (metric, hour_start, event_count)
+SELECT 'PROJECTS', DATE_FORMAT(created_at, '%Y-%m-%d %H:00:00'), COUNT(*) FROM projects
+WHERE created_at IS NOT NULL GROUP BY DATE_FORMAT(created_at, '%Y-%m-%d %H:00:00');
+
+INSERT INTO platform_metrics_hourly (metric, hour_start, event_count)
+SELECT 'TASKS', DATE_FORMAT(created_at, '%Y-%m-%d %H:00:00'), COUNT(*) FROM tasks
+WHERE created_at IS NOT NULL GROUP BY DATE_FORMAT(created_at, '%Y-%m-%d %H:00:00');
+
+INSERT INTO platform_metrics_hourly (metric, hour_start, event_count)
+SELECT 'PAYMENTS', DATE_FORMAT(created_at, '%Y-%m-%d %H:00:00'), COUNT(*) FROM payments
+WHERE created_at IS NOT NULL GROUP BY DATE_FORMAT(created_at, '%Y-%m-%d %H:00:00');
+
+SET time_zone = @previous_time_zone;
@@ -0,0 +1,6 @@
+-- One payment per gateway transaction: verification requests set idempotency_key to
+-- "<METHOD>:<gateway transaction id>". Existing rows keep NULL, which the unique key allows.
+ALTER TABLE payments
+  ADD COLUMN idempotency_key VARCHAR(150) NULL AFTER gateway_transaction_id,
+  ADD COLUMN version BIGINT NOT NULL DEFAULT 0 AFTER notes,
+  ADD CONSTRAINT uk_payments_idempotency_key UNIQUE (idempotency_key);
@@ -0,0 +1,2 @@
+-- Supports the reconciliation sweep over stale pending transactions (least recently checked first)
+CREATE INDEX idx_transactions_status_updated ON transactions (status, updated_at);
@@ -0,0 +1,17 @@
+-- Durable inbox for gateway webhooks: the raw payload is stored before the gateway is
+-- acknowledged and processed asynchronously. (gateway, event_id) dedupes gateway retries.
+CREATE TABLE payment_webhook_inbox (
+  id BIGINT AUTO_INCREMENT PRIMARY KEY,
+  gateway VARCHAR(50) NOT NULL,
+  event_id VARCHAR(191) NOT NULL,
+  transaction_key VARCHAR(255) NOT NULL,
+  payload TEXT NOT NULL,
+  status VARCHAR(30) NOT NULL DEFAULT 'RECEIVED',
+  attempts INT NOT NULL DEFAULT 0,
+  outcome VARCHAR(30) NULL,
+  last_error TEXT NULL,
+  received_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  processed_at TIMESTAMP NULL,
+  UNIQUE KEY uk_webhook_inbox_event (gateway, event_id),
+  INDEX idx_webhook_inbox_status (status, id)
+);
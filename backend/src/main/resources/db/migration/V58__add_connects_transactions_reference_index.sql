@@ -0,0 +1,2 @@
+-- Lets a bid award find the connects spent on all rejected bids in one query
+CREATE INDEX idx_connects_transactions_reference ON connects_transactions (reference_type, reference_id);
@@ -0,0 +1,15 @@
+-- Compact connects balance per user, changed only by conditional UPDATEs in ConnectsLedger.
+-- freelancer_profiles.connects_available / connects_total_purchased are no longer written.
+CREATE TABLE connects_balances (
+  user_id BIGINT NOT NULL PRIMARY KEY,
+  balance INT NOT NULL DEFAULT 0,
+  total_purchased INT NOT NULL DEFAULT 0,
+  version BIGINT NOT NULL DEFAULT 0,
+  updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  CONSTRAINT fk_connects_balances_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+  CONSTRAINT chk_connects_balances_non_negative CHECK (balance >= 0)
+);
+
+INSERT INTO connects_balances (user_id, balance, total_purchased)
+SELECT user_id, COALESCE(connects_available, 0), COALESCE(connects_total_purchased, 0)
+FROM freelancer_profiles;
@@ -0,0 +1,60 @@
+-- Escrow ledger: every movement of escrowed money is an append-only posting that debits one
+-- ledger account and credits another. escrow_accounts keeps the running balances, changed only
+-- by conditional UPDATEs, and escrow_balance_snapshots records verified balances periodically.
+ALTER TABLE escrow_accounts
+  ADD COLUMN held_amount DECIMAL(12,2) NOT NULL DEFAULT 0,
+  ADD COLUMN ledger_version BIGINT NOT NULL DEFAULT 0,
+  ADD COLUMN snapshot_version BIGINT NOT NULL DEFAULT 0;
+
+UPDATE escrow_accounts
+SET released_amount = COALESCE(released_amount, 0),
+    refunded_amount = COALESCE(refunded_amount, 0);
+
+UPDATE escrow_accounts
+SET held_amount = GREATEST(total_amount - released_amount - refunded_amount, 0);
+
+CREATE TABLE escrow_postings (
+  id BIGINT AUTO_INCREMENT PRIMARY KEY,
+  escrow_account_id BIGINT NOT NULL,
+  entry_type VARCHAR(20) NOT NULL, -- DEPOSIT, RELEASE, REFUND
+  debit_account VARCHAR(30) NOT NULL,
+  credit_account VARCHAR(30) NOT NULL,
+  amount DECIMAL(12,2) NOT NULL,
+  reference_type VARCHAR(50) NULL,
+  reference_id BIGINT NULL,
+  created_by BIGINT NULL,
+  created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  FOREIGN KEY (escrow_account_id) REFERENCES escrow_accounts(id) ON DELETE CASCADE,
+  INDEX idx_escrow_postings_account (escrow_account_id, id),
+  CONSTRAINT chk_escrow_postings_amount CHECK (amount > 0)
+);
+
+-- Opening postings for existing accounts, so postings add up to the running balances
+INSERT INTO escrow_postings (escrow_account_id, entry_type, debit_account, credit_account, amount, reference_type, created_at)
+SELECT id, 'DEPOSIT', 'ESCROW_HELD', 'CLIENT_FUNDING', total_amount, 'opening', created_at
+FROM escrow_accounts WHERE total_amount > 0;
+
+INSERT INTO escrow_postings (escrow_account_id, entry_type, debit_account, credit_account, amount, reference_type, created_at)
+SELECT id, 'RELEASE', 'FREELANCER_PAYABLE', 'ESCROW_HELD', released_amount, 'opening', updated_at
+FROM escrow_accounts WHERE released_amount > 0;
+
+INSERT INTO escrow_postings (escrow_account_id, entry_type, debit_account, credit_account, amount, reference_type, created_at)
+SELECT id, 'REFUND', 'CLIENT_REFUND', 'ESCROW_HELD', refunded_amount, 'opening', updated_at
+FROM escrow_accounts WHERE refunded_amount > 0;
+
+UPDATE escrow_accounts a
+SET ledger_version = (SELECT COUNT(*) FROM escrow_postings p WHERE p.escrow_account_id = a.id);
+
+CREATE TABLE escrow_balance_snapshots (
+  id BIGINT AUTO_INCREMENT PRIMARY KEY,
+  escrow_account_id BIGINT NOT NULL,
+  last_posting_id BIGINT NOT NULL,
+  ledger_version BIGINT NOT NULL,
+  deposited_amount DECIMAL(12,2) NOT NULL,
+  released_amount DECIMAL(12,2) NOT NULL,
+  refunded_amount DECIMAL(12,2) NOT NULL,
+  held_amount DECIMAL(12,2) NOT NULL,
+  taken_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  FOREIGN KEY (escrow_account_id) REFERENCES escrow_accounts(id) ON DELETE CASCADE,
+  INDEX idx_escrow_snapshots_account (escrow_account_id, last_posting_id)
+);
@@ -0,0 +1,12 @@
+-- One row per (task, version) of the startup data-repair tasks; a completed row means the
+-- task is not run again until its version is bumped.
+CREATE TABLE startup_tasks (
+  task_id VARCHAR(100) NOT NULL,
+  version INT NOT NULL,
+  status VARCHAR(20) NOT NULL, -- RUNNING, COMPLETED, FAILED
+  started_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  completed_at TIMESTAMP NULL,
+  duration_ms BIGINT NULL,
+  detail VARCHAR(1000) NULL,
+  PRIMARY KEY (task_id, version)
+);
@@ -0,0 +1,18 @@
+-- Pooled id allocation for high-volume tables, so Hibernate can batch their inserts
+-- (IDENTITY ids need one round trip per row). Hibernate reserves allocationSize ids per
+-- round trip; next_val is the upper end of the next block, so each is seeded one block
+-- (50) above the current maximum id.
+-- Rows in these tables must be inserted through JPA from now on: an AUTO_INCREMENT insert
+-- could take an id from a block an instance has reserved but not used yet.
+CREATE TABLE id_generators (
+  name VARCHAR(255) NOT NULL PRIMARY KEY,
+  next_val BIGINT NOT NULL
+);
+
+INSERT INTO id_generators (name, next_val)
+SELECT 'activity_logs', COALESCE(MAX(id), 0) + 50 FROM activity_logs
+UNION ALL SELECT 'notifications', COALESCE(MAX(id), 0) + 50 FROM notifications
+UNION ALL SELECT 'messages', COALESCE(MAX(id), 0) + 50 FROM messages
+UNION ALL SELECT 'time_logs', COALESCE(MAX(id), 0) + 50 FROM time_logs
+UNION ALL SELECT 'task_activities', COALESCE(MAX(id), 0) + 50 FROM task_activities
+UNION ALL SELECT 'extracted_task_suggestions', COALESCE(MAX(id), 0) + 50 FROM extracted_task_suggestions;
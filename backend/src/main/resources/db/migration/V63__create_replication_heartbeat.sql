@@ -0,0 +1,9 @@
+-- Heartbeat for read replica lag: with a replica configured, the application writes the
+-- current time here on the primary every second and reads it back from the replica; the age
+-- of the replica's copy is its replication lag.
+CREATE TABLE replication_heartbeat (
+  id TINYINT NOT NULL PRIMARY KEY,
+  beat_millis BIGINT NOT NULL
+);
+
+INSERT INTO replication_heartbeat (id, beat_millis) VALUES (1, 0);
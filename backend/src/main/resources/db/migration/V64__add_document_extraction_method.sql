@@ -0,0 +1,4 @@
+-- How a document's suggestions were produced (ML service or the rule-based fallback), so
+-- only ML results are reused for later uploads of the same content
+ALTER TABLE document_processings
+  ADD COLUMN extraction_method VARCHAR(20) NULL AFTER extractor_version;
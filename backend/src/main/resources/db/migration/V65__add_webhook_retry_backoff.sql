@@ -0,0 +1,8 @@
+-- When a received webhook is next due; failed attempts push it back exponentially so a
+-- gateway outage does not use up the attempts within seconds
+ALTER TABLE payment_webhook_inbox
+  ADD COLUMN next_attempt_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP AFTER attempts;
+
+UPDATE payment_webhook_inbox SET next_attempt_at = received_at;
+
+CREATE INDEX idx_webhook_inbox_due ON payment_webhook_inbox (status, next_attempt_at);
@@ -0,0 +1,169 @@
+package com.sajilokaam.bid;
+
+import com.sajilokaam.job.Job;
+import com.sajilokaam.job.JobRepository;
+import com.sajilokaam.project.Project;
+import com.sajilokaam.project.ProjectRepository;
+import com.sajilokaam.user.User;
+import com.sajilokaam.user.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Many clients accepting bids on the same job at once, against the test database: exactly
+ * one award, one project and one event, and every other bid rejected.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+class BidAwardServiceConcurrencyTest {
+
+    private static final int BIDS = 200;
+    private static final int THREADS = 16;
+    private static final int ATTEMPTS = 64;
+
+    @Autowired private BidAwardService bidAwardService;
+    @Autowired private BidRepository bidRepository;
+    @Autowired private JobRepository jobRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private ProjectRepository projectRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private PlatformTransactionManager transactionManager;
+    @Autowired private AwardEvents awardEvents;
+
+    private final List<Long> userIds = new ArrayList<>();
+    private Job job;
+    private User client;
+    private List<Long> bidIds;
+
+    @TestConfiguration
+    static class Config {
+        @Bean
+        AwardEvents awardEvents() {
+            return new AwardEvents();
+        }
+    }
+
+    static class AwardEvents {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @EventListener
+        public void onAward(BidAwardedEvent event) {
+            count.incrementAndGet();
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        String run = Long.toString(System.nanoTime());
+        client = user("award-client-" + run);
+        job = new Job();
+        job.setClient(client);
+        job.setTitle("Award stress " + run);
+        job.setStatus("OPEN");
+        job = jobRepository.save(job);
+
+        bidIds = new ArrayList<>();
+        for (int i = 0; i < BIDS; i++) {
+            Bid bid = new Bid();
+            bid.setJob(job);
+            bid.setFreelancer(user("award-freelancer-" + i + "-" + run));
+            bid.setAmount(BigDecimal.valueOf(100 + i));
+            bid.setStatus("PENDING");
+            bidIds.add(bidRepository.save(bid).getId());
+        }
+        awardEvents.count.set(0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM projects WHERE job_id = ?", job.getId());
+        jdbcTemplate.update("DELETE FROM bids WHERE job_id = ?", job.getId());
+        jdbcTemplate.update("DELETE FROM jobs WHERE id = ?", job.getId());
+        for (Long userId : userIds) {
+            jdbcTemplate.update("DELETE FROM notifications WHERE user_id = ?", userId);
+            jdbcTemplate.update("DELETE FROM users WHERE id = ?", userId);
+        }
+    }
+
+    @Test
+    void concurrentAcceptsAwardTheJobExactlyOnce() throws Exception {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<BidAwardService.Status>> results = new ArrayList<>();
+
+        for (int i = 0; i < ATTEMPTS; i++) {
+            // Half the attempts double-click the same few bids, the rest pick different ones
+            Long bidId = bidIds.get(i % 2 == 0 ? i % 4 : i);
+            results.add(executor.submit(() -> {
+                start.await();
+                return transaction.execute(status -> {
+                    BidAwardService.BidAward award = bidAwardService.award(job.getId(), bidId, client.getId());
+                    if (award.isAwarded()) {
+                        // What the controllers do in the same transaction
+                        Project project = new Project();
+                        project.setJob(job);
+                        project.setClient(client);
+                        project.setFreelancer(award.getBid().getFreelancer());
+                        project.setTitle(job.getTitle());
+                        project.setBudget(award.getBid().getAmount());
+                        project.setStatus("PENDING_PAYMENT");
+                        projectRepository.save(project);
+                    }
+                    return award.getStatus();
+                });
+            }));
+        }
+        start.countDown();
+
+        Map<BidAwardService.Status, Integer> counts = new EnumMap<>(BidAwardService.Status.class);
+        for (Future<BidAwardService.Status> result : results) {
+            counts.merge(result.get(), 1, Integer::sum);
+        }
+        executor.shutdown();
+
+        assertEquals(1, counts.get(BidAwardService.Status.AWARDED));
+        assertEquals(ATTEMPTS - 1, counts.getOrDefault(BidAwardService.Status.BID_NOT_PENDING, 0)
+                + counts.getOrDefault(BidAwardService.Status.JOB_ALREADY_AWARDED, 0));
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM bids WHERE job_id = ? AND status = 'ACCEPTED'", Integer.class, job.getId()));
+        assertEquals(BIDS - 1, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM bids WHERE job_id = ? AND status = 'REJECTED'", Integer.class, job.getId()));
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM projects WHERE job_id = ?", Integer.class, job.getId()));
+        assertEquals(1, awardEvents.count.get());
+    }
+
+    private User user(String name) {
+        User user = new User();
+        user.setEmail(name + "@test.local");
+        user.setPassword("x");
+        user.setFullName(name);
+        user = userRepository.save(user);
+        userIds.add(user.getId());
+        return user;
+    }
+}
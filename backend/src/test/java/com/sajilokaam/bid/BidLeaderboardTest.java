@@ -0,0 +1,57 @@
+package com.sajilokaam.bid;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class BidLeaderboardTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        meterRegistry = new SimpleMeterRegistry();
+        when(jdbcTemplate.queryForList(startsWith("SELECT client_id"), eq(Long.class), eq(7L)))
+                .thenReturn(List.of(70L));
+        when(jdbcTemplate.query(anyString(), ArgumentMatchers.<RowMapper<JobBidAggregate.RankedBid>>any(), eq(7L)))
+                .thenReturn(List.of());
+    }
+
+    @Test
+    void servesCachedAggregateWithinTtl() {
+        BidLeaderboard leaderboard = leaderboard(3600);
+
+        assertEquals(0L, leaderboard.count(7L));
+        assertEquals(0L, leaderboard.count(7L));
+
+        assertEquals(1.0, meterRegistry.counter("bids.leaderboard.loads").count());
+    }
+
+    @Test
+    void reloadsAggregateOnceExpired() {
+        BidLeaderboard leaderboard = leaderboard(0);
+
+        assertEquals(0L, leaderboard.count(7L));
+        assertEquals(0L, leaderboard.count(7L));
+
+        // Bids placed through another instance are picked up on reload
+        assertEquals(2.0, meterRegistry.counter("bids.leaderboard.loads").count());
+        assertEquals(1, leaderboard.cachedJobs());
+    }
+
+    private BidLeaderboard leaderboard(long ttlSeconds) {
+        return new BidLeaderboard(jdbcTemplate, mock(SimpMessagingTemplate.class), meterRegistry, 10, 100, ttlSeconds);
+    }
+}
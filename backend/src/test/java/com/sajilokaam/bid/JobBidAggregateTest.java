@@ -0,0 +1,81 @@
+package com.sajilokaam.bid;
+
+import com.sajilokaam.bid.dto.BidComparisonResponse;
+import com.sajilokaam.bid.dto.BidLeaderboardResponse;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JobBidAggregateTest {
+
+    @Test
+    void summarisesBidsLowestFirst() {
+        JobBidAggregate aggregate = new JobBidAggregate(7L, 70L, List.of(
+                bid(1L, "300.00"), bid(2L, "100.00"), bid(3L, "250.00"), bid(4L, "500.00")));
+
+        BidLeaderboardResponse summary = aggregate.summary(3);
+
+        assertEquals(7L, summary.getJobId());
+        assertEquals(4, summary.getCount());
+        assertEquals(new BigDecimal("100.00"), summary.getMinAmount());
+        assertEquals(new BigDecimal("500.00"), summary.getMaxAmount());
+        assertEquals(new BigDecimal("275.00"), summary.getMedianAmount());
+        assertEquals(List.of(2L, 3L, 1L), summary.getTop().stream().map(BidLeaderboardResponse.Entry::getBidId).toList());
+        assertEquals(1, summary.getTop().get(0).getRank());
+    }
+
+    @Test
+    void editsMoveBidsAndKeepFreelancerDetails() {
+        JobBidAggregate aggregate = new JobBidAggregate(7L, 70L, List.of(
+                bid(1L, "300.00"), bid(2L, "100.00"), bid(3L, "250.00")));
+
+        assertTrue(aggregate.update(1L, new BigDecimal("50.00"), "cheaper", "PENDING"));
+        assertFalse(aggregate.update(99L, new BigDecimal("10.00"), null, "PENDING"));
+
+        List<BidComparisonResponse> ranked = aggregate.ranked();
+        assertEquals(List.of(1L, 2L, 3L), ranked.stream().map(BidComparisonResponse::getBidId).toList());
+        assertEquals("cheaper", ranked.get(0).getMessage());
+        assertEquals("Freelancer 1", ranked.get(0).getFreelancerName());
+        assertEquals("EXPERT", ranked.get(0).getExperienceLevel());
+        assertEquals(new BigDecimal("100.00"), aggregate.summary(10).getMedianAmount());
+    }
+
+    @Test
+    void tracksNewWithdrawnAndAwardedBids() {
+        JobBidAggregate aggregate = new JobBidAggregate(7L, 70L, List.of(bid(1L, "300.00")));
+
+        aggregate.put(bid(2L, "200.00"));
+        aggregate.put(bid(3L, "200.00"));
+        assertTrue(aggregate.remove(1L));
+        assertFalse(aggregate.remove(1L));
+        assertTrue(aggregate.setStatus(3L, "ACCEPTED"));
+        assertTrue(aggregate.setStatus(2L, "REJECTED"));
+
+        BidLeaderboardResponse summary = aggregate.summary(10);
+        assertEquals(2, summary.getCount());
+        // Equal amounts are ordered by bid id
+        assertEquals(List.of(2L, 3L), summary.getTop().stream().map(BidLeaderboardResponse.Entry::getBidId).toList());
+        assertEquals("REJECTED", summary.getTop().get(0).getStatus());
+        assertEquals("ACCEPTED", summary.getTop().get(1).getStatus());
+        assertEquals(new BigDecimal("200.00"), summary.getMedianAmount());
+    }
+
+    @Test
+    void emptyJobHasNoAmounts() {
+        BidLeaderboardResponse summary = new JobBidAggregate(7L, 70L, List.of()).summary(10);
+
+        assertEquals(0, summary.getCount());
+        assertNull(summary.getMinAmount());
+        assertNull(summary.getMedianAmount());
+        assertTrue(summary.getTop().isEmpty());
+    }
+
+    private JobBidAggregate.RankedBid bid(Long id, String amount) {
+        return new JobBidAggregate.RankedBid(id, id * 10, "Freelancer " + id, "f" + id + "@example.com", "EXPERT",
+                new BigDecimal(amount), "Bid " + id, "PENDING", Instant.parse("2026-01-01T00:00:00Z"));
+    }
+}
@@ -0,0 +1,34 @@
+package com.sajilokaam.config;
+
+import com.sajilokaam.invoice.Invoice;
+import org.junit.jupiter.api.Test;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class ConcurrentUpdateHandlerTest {
+
+    private final MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new StaleInvoiceController())
+            .setControllerAdvice(new ConcurrentUpdateHandler())
+            .build();
+
+    @Test
+    void staleVersionIsAConflict() throws Exception {
+        mockMvc.perform(put("/invoices/1"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error").exists());
+    }
+
+    @RestController
+    static class StaleInvoiceController {
+        @PutMapping("/invoices/1")
+        public void update() {
+            throw new ObjectOptimisticLockingFailureException(Invoice.class, 1L);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.sajilokaam.config;
+
+import com.sajilokaam.escrow.EscrowSnapshotJob;
+import com.sajilokaam.invoicepdf.InvoicePdfService;
+import com.sajilokaam.mldocument.OcrService;
+import com.sajilokaam.util.EmailService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LazyBeansConfigTest {
+
+    private final LazyInitializationExcludeFilter filter = LazyBeansConfig.onlyHeavyBeansLazy();
+
+    @Test
+    void heavyBeansAreLazy() {
+        assertFalse(excluded(OcrService.class));
+        assertFalse(excluded(InvoicePdfService.class));
+        assertFalse(excluded(JavaMailSender.class));
+        assertFalse(excluded(JavaMailSenderImpl.class));
+    }
+
+    @Test
+    void everythingElseStaysEager() {
+        assertTrue(excluded(EmailService.class));
+        assertTrue(excluded(EscrowSnapshotJob.class));
+        assertTrue(excluded(null));
+    }
+
+    private boolean excluded(Class<?> type) {
+        return filter.isExcluded("bean", new RootBeanDefinition(), type);
+    }
+}
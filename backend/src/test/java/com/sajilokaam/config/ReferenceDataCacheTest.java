@@ -0,0 +1,79 @@
+package com.sajilokaam.config;
+
+import com.sajilokaam.jobcategory.JobCategory;
+import com.sajilokaam.jobcategory.JobCategoryRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Reference data served from the second-level and query caches, against the test database:
+ * repeated reads hit the cache and writes through JPA are visible on the next read.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+class ReferenceDataCacheTest {
+
+    @Autowired private JobCategoryRepository categoryRepository;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    private Statistics statistics;
+    private String name;
+    private Long categoryId;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        name = "Cache test " + System.nanoTime();
+        JobCategory category = new JobCategory();
+        category.setName(name);
+        categoryId = categoryRepository.save(category).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM job_categories WHERE name LIKE ?", name + "%");
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @Test
+    void repeatedLookupsByIdHitTheCacheAndSeeUpdates() {
+        categoryRepository.findById(categoryId).orElseThrow();
+        long hits = statistics.getSecondLevelCacheHitCount();
+        assertEquals(name, categoryRepository.findById(categoryId).orElseThrow().getName());
+        assertTrue(statistics.getSecondLevelCacheHitCount() > hits);
+
+        JobCategory category = categoryRepository.findById(categoryId).orElseThrow();
+        category.setDescription("Updated through JPA");
+        categoryRepository.save(category);
+
+        assertEquals("Updated through JPA", categoryRepository.findById(categoryId).orElseThrow().getDescription());
+    }
+
+    @Test
+    void cachedQueryResultsAreInvalidatedByWrites() {
+        categoryRepository.findByName(name).orElseThrow();
+        long queryHits = statistics.getQueryCacheHitCount();
+        categoryRepository.findByName(name).orElseThrow();
+        assertTrue(statistics.getQueryCacheHitCount() > queryHits);
+
+        JobCategory renamed = categoryRepository.findById(categoryId).orElseThrow();
+        renamed.setName(name + " renamed");
+        categoryRepository.save(renamed);
+
+        long queryMisses = statistics.getQueryCacheMissCount();
+        assertTrue(categoryRepository.findByName(name).isEmpty());
+        assertTrue(statistics.getQueryCacheMissCount() > queryMisses);
+        assertTrue(categoryRepository.findByName(name + " renamed").isPresent());
+    }
+}
@@ -0,0 +1,106 @@
+package com.sajilokaam.connects;
+
+import com.sajilokaam.user.User;
+import com.sajilokaam.user.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Many bids spending the same freelancer's connects at once, against the test database: the
+ * balance never goes negative and every successful spend has exactly one ledger row.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+class ConnectsLedgerConcurrencyTest {
+
+    private static final int BALANCE = 10;
+    private static final int THREADS = 16;
+    private static final int ATTEMPTS = 64;
+
+    @Autowired private ConnectsService connectsService;
+    @Autowired private UserRepository userRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    private User freelancer;
+
+    @BeforeEach
+    void setUp() {
+        String run = Long.toString(System.nanoTime());
+        freelancer = new User();
+        freelancer.setEmail("connects-" + run + "@test.local");
+        freelancer.setPassword("x");
+        freelancer.setFullName("connects-" + run);
+        freelancer = userRepository.save(freelancer);
+        connectsService.purchaseConnects(freelancer, BALANCE, null);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM connects_transactions WHERE user_id = ?", freelancer.getId());
+        jdbcTemplate.update("DELETE FROM connects_balances WHERE user_id = ?", freelancer.getId());
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", freelancer.getId());
+    }
+
+    @Test
+    void concurrentSpendsNeverOverdraw() throws Exception {
+        assertTrue(connectsService.hasEnoughConnects(freelancer.getId(), BALANCE));
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < ATTEMPTS; i++) {
+            long bidId = 1_000_000L + i;
+            results.add(executor.submit(() -> {
+                start.await();
+                return connectsService.spendConnects(freelancer, 1, bidId, "Bid " + bidId);
+            }));
+        }
+        start.countDown();
+
+        int spent = 0;
+        for (Future<Boolean> result : results) {
+            if (result.get()) {
+                spent++;
+            }
+        }
+        executor.shutdown();
+
+        assertEquals(BALANCE, spent);
+        assertEquals(0, connectsService.getConnectsBalance(freelancer.getId()));
+        assertFalse(connectsService.hasEnoughConnects(freelancer.getId(), 1));
+        assertEquals(BALANCE, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM connects_transactions WHERE user_id = ? AND type = 'SPENT'",
+                Integer.class, freelancer.getId()));
+        // Each spend saw its own balance: 9, 8, ... 0
+        assertEquals(BALANCE, jdbcTemplate.queryForObject(
+                "SELECT COUNT(DISTINCT balance_after) FROM connects_transactions WHERE user_id = ? AND type = 'SPENT'",
+                Integer.class, freelancer.getId()));
+    }
+
+    @Test
+    void refundsCreditEachSpendOnce() {
+        assertTrue(connectsService.spendConnects(freelancer, 2, 2_000_001L, "Bid A"));
+        assertTrue(connectsService.spendConnects(freelancer, 2, 2_000_002L, "Bid B"));
+
+        assertEquals(2, connectsService.refundBids(List.of(2_000_001L, 2_000_002L, 2_000_003L), "Not selected"));
+        assertEquals(0, connectsService.refundBids(List.of(2_000_001L), "Not selected"));
+
+        assertEquals(BALANCE, connectsService.getConnectsBalance(freelancer.getId()));
+        assertEquals(BALANCE, jdbcTemplate.queryForObject(
+                "SELECT total_purchased FROM connects_balances WHERE user_id = ?", Integer.class, freelancer.getId()));
+    }
+}
@@ -0,0 +1,173 @@
+package com.sajilokaam.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Routing against two in-memory H2 databases in MySQL mode standing in for primary and
+ * replica; "replication" of the heartbeat is done by hand.
+ */
+class ReadWriteRoutingDataSourceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private HikariDataSource primary;
+    private HikariDataSource replica;
+    private ReadWriteRoutingDataSource dataSource;
+    private ReplicaLagMonitor monitor;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readOnly;
+    private TransactionTemplate readWrite;
+
+    @BeforeEach
+    void setUp() {
+        primary = database("primary");
+        replica = database("replica");
+        dataSource = new ReadWriteRoutingDataSource(primary, replica, 60_000, meterRegistry);
+        monitor = new ReplicaLagMonitor(dataSource, 5000, meterRegistry);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        JdbcTransactionManager transactionManager = new JdbcTransactionManager(dataSource);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.close();
+    }
+
+    @Test
+    void readOnlyTransactionsUseCaughtUpReplica() {
+        // Nothing checked yet
+        assertEquals("primary", readOnly.execute(status -> server()));
+        assertEquals(1, connections("primary", ReadWriteRoutingDataSource.REPLICA_UNCHECKED));
+
+        catchUp();
+        assertNull(dataSource.replicaUnavailableReason());
+        assertTrue(monitor.getLagMillis() < 5000);
+
+        assertEquals("replica", readOnly.execute(status -> server()));
+        assertEquals("primary", readWrite.execute(status -> server()));
+        assertEquals("primary", server());
+        assertEquals(1, connections("replica", ReadWriteRoutingDataSource.READ_ONLY));
+    }
+
+    @Test
+    void laggingReplicaFallsBackToPrimary() {
+        catchUp();
+        new JdbcTemplate(replica).update("UPDATE replication_heartbeat SET beat_millis = ?", System.currentTimeMillis() - 60_000);
+        monitor.check();
+
+        assertTrue(monitor.getLagMillis() >= 60_000);
+        assertEquals(ReadWriteRoutingDataSource.REPLICA_LAGGING, dataSource.replicaUnavailableReason());
+        assertEquals("primary", readOnly.execute(status -> server()));
+        assertEquals(1, connections("primary", ReadWriteRoutingDataSource.REPLICA_LAGGING));
+
+        catchUp();
+        assertEquals("replica", readOnly.execute(status -> server()));
+    }
+
+    @Test
+    void unreachableReplicaFallsBackToPrimary() {
+        catchUp();
+        replica.close();
+
+        assertEquals("primary", readOnly.execute(status -> server()));
+        assertEquals(1, connections("primary", ReadWriteRoutingDataSource.REPLICA_DOWN));
+        assertEquals(ReadWriteRoutingDataSource.REPLICA_DOWN, dataSource.replicaUnavailableReason());
+
+        monitor.check();
+        assertTrue(Double.isNaN(monitor.getLagMillis()));
+        assertEquals(ReadWriteRoutingDataSource.REPLICA_DOWN, dataSource.replicaUnavailableReason());
+    }
+
+    @Test
+    void heldConnectionIsReroutedBetweenTransactions() throws SQLException {
+        catchUp();
+        // As with open-in-view: one connection for a read-only transaction, then a read-write one
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setReadOnly(true);
+            connection.setAutoCommit(false);
+            assertEquals("replica", server(connection));
+            connection.commit();
+            connection.setAutoCommit(true);
+            connection.setReadOnly(false);
+
+            connection.setAutoCommit(false);
+            assertEquals("primary", server(connection));
+            connection.commit();
+            connection.setAutoCommit(true);
+
+            // After a write the connection stays on the primary, so it reads its own writes
+            connection.setReadOnly(true);
+            connection.setAutoCommit(false);
+            assertEquals("primary", server(connection));
+            connection.commit();
+        }
+        assertEquals(1, connections("replica", ReadWriteRoutingDataSource.READ_ONLY));
+        assertEquals(1, connections("primary", ReadWriteRoutingDataSource.READ_WRITE));
+    }
+
+    @Test
+    void connectionUnusedInTransactionTakesNoPhysicalConnection() {
+        readWrite.executeWithoutResult(status -> { });
+        readOnly.executeWithoutResult(status -> { });
+
+        assertEquals(0, meterRegistry.find("datasource.routing.connections").counters().size());
+    }
+
+    /**
+     * Write a heartbeat, copy it to the replica and check again, as a caught-up replica would
+     */
+    private void catchUp() {
+        monitor.check();
+        Long beat = new JdbcTemplate(primary).queryForObject("SELECT beat_millis FROM replication_heartbeat", Long.class);
+        new JdbcTemplate(replica).update("UPDATE replication_heartbeat SET beat_millis = ?", beat);
+        monitor.check();
+    }
+
+    private String server() {
+        return jdbcTemplate.queryForObject("SELECT name FROM server_name", String.class);
+    }
+
+    private String server(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT name FROM server_name")) {
+            rs.next();
+            return rs.getString(1);
+        }
+    }
+
+    private double connections(String target, String reason) {
+        Counter counter = meterRegistry.find("datasource.routing.connections").tag("target", target).tag("reason", reason).counter();
+        return counter != null ? counter.count() : 0;
+    }
+
+    private static HikariDataSource database(String name) {
+        HikariDataSource pool = new HikariDataSource();
+        pool.setJdbcUrl("jdbc:h2:mem:" + name + System.nanoTime() + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+        pool.setPoolName(name);
+        pool.setMaximumPoolSize(2);
+        pool.setConnectionTimeout(1000);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(pool);
+        jdbcTemplate.execute("CREATE TABLE replication_heartbeat (id TINYINT NOT NULL PRIMARY KEY, beat_millis BIGINT NOT NULL)");
+        jdbcTemplate.update("INSERT INTO replication_heartbeat (id, beat_millis) VALUES (1, 0)");
+        jdbcTemplate.execute("CREATE TABLE server_name (name VARCHAR(20))");
+        jdbcTemplate.update("INSERT INTO server_name (name) VALUES (?)", name);
+        return pool;
+    }
+}
@@ -0,0 +1,64 @@
+package com.sajilokaam.diagnostics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VirtualThreadPinningMonitorTest {
+
+    private final VirtualThreadPinningMonitor monitor = new VirtualThreadPinningMonitor(new SimpleMeterRegistry(), true, 10);
+
+    @AfterEach
+    void tearDown() {
+        monitor.stop();
+    }
+
+    @Test
+    void groupsPinningsBySite() {
+        monitor.record("a.B.c:1", "Native frame or <clinit> on stack", Duration.ofMillis(30), List.of("a.B.c:1"));
+        monitor.record("a.B.c:1", "Native frame or <clinit> on stack", Duration.ofMillis(50), List.of("a.B.c:1"));
+        monitor.record("x.Y.z:2", null, Duration.ofMillis(20), List.of("x.Y.z:2"));
+
+        List<VirtualThreadPinningMonitor.PinnedSite> sites = monitor.sites();
+        assertEquals(2, sites.size());
+        assertEquals("a.B.c:1", sites.get(0).getSite());
+        assertEquals(2, sites.get(0).getCount());
+        assertEquals(80, sites.get(0).getTotalMillis());
+        assertEquals(50, sites.get(0).getMaxMillis());
+        assertEquals(3, monitor.totalPinned());
+    }
+
+    @Test
+    void detectsVirtualThreadBlockedInClassInitializer() throws Exception {
+        monitor.start();
+        assertTrue(monitor.isRunning());
+
+        // A virtual thread cannot unmount while running a static initializer
+        Thread.ofVirtual().start(() -> SlowInit.touch()).join();
+
+        long deadline = System.nanoTime() + Duration.ofSeconds(15).toNanos();
+        while (monitor.totalPinned() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(100);
+        }
+        assertTrue(monitor.totalPinned() > 0);
+        assertTrue(monitor.sites().get(0).getSite().startsWith(SlowInit.class.getName()));
+    }
+
+    static class SlowInit {
+        static {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        static void touch() {
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.sajilokaam.escrow;
+
+import com.sajilokaam.auth.AdminSecurityService;
+import com.sajilokaam.user.User;
+import com.sajilokaam.user.UserContextService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class EscrowControllerTest {
+
+    private final User client = user(1L);
+    private final User freelancer = user(2L);
+    private final User stranger = user(3L);
+    private EscrowService escrowService;
+    private EscrowController controller;
+
+    @BeforeEach
+    void setUp() {
+        EscrowAccount account = new EscrowAccount();
+        account.setId(10L);
+        account.setClient(client);
+        account.setFreelancer(freelancer);
+        EscrowAccountRepository accountRepository = mock(EscrowAccountRepository.class);
+        when(accountRepository.findById(10L)).thenReturn(Optional.of(account));
+
+        UserContextService userContextService = mock(UserContextService.class);
+        when(userContextService.resolveUser(any())).thenReturn(Optional.empty());
+        when(userContextService.resolveUser("Bearer client")).thenReturn(Optional.of(client));
+        when(userContextService.resolveUser("Bearer freelancer")).thenReturn(Optional.of(freelancer));
+        when(userContextService.resolveUser("Bearer stranger")).thenReturn(Optional.of(stranger));
+
+        escrowService = mock(EscrowService.class);
+        controller = new EscrowController(escrowService, accountRepository, userContextService,
+                mock(AdminSecurityService.class));
+    }
+
+    @Test
+    void onlyTheClientCanRefund() {
+        EscrowController.EscrowRefundRequest request = new EscrowController.EscrowRefundRequest();
+        request.setAmount(new BigDecimal("100"));
+
+        assertEquals(401, controller.refundFunds(10L, request, null).getStatusCode().value());
+        assertEquals(403, controller.refundFunds(10L, request, "Bearer stranger").getStatusCode().value());
+        assertEquals(403, controller.refundFunds(10L, request, "Bearer freelancer").getStatusCode().value());
+        verify(escrowService, never()).refundFunds(any(), any(), any());
+
+        assertEquals(200, controller.refundFunds(10L, request, "Bearer client").getStatusCode().value());
+        verify(escrowService).refundFunds(10L, new BigDecimal("100"), 1L);
+    }
+
+    @Test
+    void onlyTheClientCanRelease() {
+        EscrowController.EscrowReleaseRequest request = new EscrowController.EscrowReleaseRequest();
+        request.setAmount(new BigDecimal("100"));
+        request.setReleaseType("MILESTONE");
+
+        assertEquals(401, controller.releaseFunds(10L, request, null).getStatusCode().value());
+        assertEquals(403, controller.releaseFunds(10L, request, "Bearer stranger").getStatusCode().value());
+        assertEquals(403, controller.releaseFunds(10L, request, "Bearer freelancer").getStatusCode().value());
+        assertEquals(404, controller.releaseFunds(99L, request, "Bearer client").getStatusCode().value());
+        verify(escrowService, never()).releaseFunds(any(), any(), any(), any(), any(), any(), any());
+
+        assertEquals(200, controller.releaseFunds(10L, request, "Bearer client").getStatusCode().value());
+        verify(escrowService).releaseFunds(10L, new BigDecimal("100"), "MILESTONE", 1L, null, null, null);
+    }
+
+    @Test
+    void balanceIsForTheAccountParties() {
+        assertEquals(401, controller.getBalance(10L, null).getStatusCode().value());
+        assertEquals(403, controller.getBalance(10L, "Bearer stranger").getStatusCode().value());
+        verify(escrowService, never()).getBalance(any());
+        // A balance missing from the service reads as not found, but only after the checks
+        assertEquals(404, controller.getBalance(10L, "Bearer freelancer").getStatusCode().value());
+    }
+
+    private static User user(Long id) {
+        User user = new User();
+        user.setId(id);
+        return user;
+    }
+}
@@ -0,0 +1,155 @@
+package com.sajilokaam.escrow;
+
+import com.sajilokaam.job.Job;
+import com.sajilokaam.job.JobRepository;
+import com.sajilokaam.project.Project;
+import com.sajilokaam.project.ProjectRepository;
+import com.sajilokaam.user.User;
+import com.sajilokaam.user.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Many partial releases of one escrow account at once, against the test database: they stop
+ * exactly at the deposited amount and the postings add up to the running balances.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+class EscrowLedgerConcurrencyTest {
+
+    private static final int THREADS = 16;
+    private static final int ATTEMPTS = 40;
+
+    @Autowired private EscrowService escrowService;
+    @Autowired private EscrowSnapshotJob snapshotJob;
+    @Autowired private UserRepository userRepository;
+    @Autowired private JobRepository jobRepository;
+    @Autowired private ProjectRepository projectRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    private final List<Long> userIds = new ArrayList<>();
+    private Job job;
+    private EscrowAccount account;
+
+    @BeforeEach
+    void setUp() {
+        String run = Long.toString(System.nanoTime());
+        User client = user("escrow-client-" + run);
+        User freelancer = user("escrow-freelancer-" + run);
+        job = new Job();
+        job.setClient(client);
+        job.setTitle("Escrow stress " + run);
+        job.setStatus("OPEN");
+        job = jobRepository.save(job);
+
+        Project project = new Project();
+        project.setJob(job);
+        project.setClient(client);
+        project.setFreelancer(freelancer);
+        project.setTitle(job.getTitle());
+        project.setBudget(new BigDecimal("100.00"));
+        project.setStatus("ACTIVE");
+        project = projectRepository.save(project);
+
+        account = escrowService.createAccount(project.getId(), new BigDecimal("100.00"), client.getId(), freelancer.getId());
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM projects WHERE job_id = ?", job.getId());
+        jdbcTemplate.update("DELETE FROM jobs WHERE id = ?", job.getId());
+        for (Long userId : userIds) {
+            jdbcTemplate.update("DELETE FROM users WHERE id = ?", userId);
+        }
+    }
+
+    @Test
+    void concurrentReleasesStopAtTheDeposit() throws Exception {
+        Long releasedBy = userIds.get(0);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < ATTEMPTS; i++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                try {
+                    escrowService.releaseFunds(account.getId(), new BigDecimal("5.00"), "PARTIAL", releasedBy,
+                            null, null, null);
+                    return true;
+                } catch (IllegalStateException e) {
+                    return false;
+                }
+            }));
+        }
+        start.countDown();
+
+        int released = 0;
+        for (Future<Boolean> result : results) {
+            if (result.get()) {
+                released++;
+            }
+        }
+        executor.shutdown();
+
+        assertEquals(20, released);
+        EscrowBalance balance = escrowService.getBalance(account.getId());
+        assertEquals(0, balance.getReleased().compareTo(new BigDecimal("100.00")));
+        assertEquals(0, balance.getHeld().signum());
+        assertEquals("RELEASED", balance.getStatus());
+        // One deposit plus one posting per successful release
+        assertEquals(21, balance.getVersion());
+        assertEquals(20, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM escrow_releases WHERE escrow_account_id = ?", Integer.class, account.getId()));
+    }
+
+    @Test
+    void snapshotsAgreeWithRunningBalances() {
+        Long userId = userIds.get(0);
+        escrowService.releaseFunds(account.getId(), new BigDecimal("30.00"), "MILESTONE", userId, null, null, null);
+        escrowService.refundFunds(account.getId(), new BigDecimal("20.00"), userId);
+        assertThrows(IllegalStateException.class, () -> escrowService.refundFunds(account.getId(), new BigDecimal("60.00"), userId));
+
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        assertEquals(Boolean.TRUE, transaction.execute(status -> snapshotJob.snapshot(account.getId())));
+        escrowService.releaseFunds(account.getId(), new BigDecimal("50.00"), "COMPLETE", userId, null, null, null);
+        assertEquals(Boolean.TRUE, transaction.execute(status -> snapshotJob.snapshot(account.getId())));
+
+        BigDecimal held = jdbcTemplate.queryForObject(
+                "SELECT held_amount FROM escrow_balance_snapshots WHERE escrow_account_id = ? " +
+                "ORDER BY last_posting_id DESC LIMIT 1", BigDecimal.class, account.getId());
+        BigDecimal released = jdbcTemplate.queryForObject(
+                "SELECT released_amount FROM escrow_balance_snapshots WHERE escrow_account_id = ? " +
+                "ORDER BY last_posting_id DESC LIMIT 1", BigDecimal.class, account.getId());
+        assertEquals(0, held.signum());
+        assertEquals(0, released.compareTo(new BigDecimal("80.00")));
+        assertEquals(0, escrowService.getBalance(account.getId()).getRefunded().compareTo(new BigDecimal("20.00")));
+    }
+
+    private User user(String name) {
+        User user = new User();
+        user.setEmail(name + "@test.local");
+        user.setPassword("x");
+        user.setFullName(name);
+        user = userRepository.save(user);
+        userIds.add(user.getId());
+        return user;
+    }
+}
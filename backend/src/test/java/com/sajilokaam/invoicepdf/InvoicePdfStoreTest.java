@@ -0,0 +1,85 @@
+package com.sajilokaam.invoicepdf;
+
+import com.sajilokaam.invoice.Invoice;
+import com.sajilokaam.invoice.InvoiceRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class InvoicePdfStoreTest {
+
+    @TempDir
+    Path dir;
+
+    private InvoicePdfService pdfService;
+    private InvoicePdfStore store;
+
+    @BeforeEach
+    void setUp() {
+        pdfService = mock(InvoicePdfService.class);
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(1);
+            try {
+                out.write("%PDF-test".getBytes());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return null;
+        }).when(pdfService).writeInvoicePdf(any(), any());
+        store = new InvoicePdfStore(pdfService, mock(InvoiceRepository.class), dir.toString(), 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.shutdown();
+    }
+
+    @Test
+    void rendersEachVersionOnce() {
+        Invoice invoice = invoice(7L, 0L);
+
+        Path first = store.getOrRender(invoice);
+        Path second = store.getOrRender(invoice);
+
+        assertEquals(first, second);
+        assertEquals(first, store.find(7L, 0L));
+        verify(pdfService, times(1)).writeInvoicePdf(any(), any());
+    }
+
+    @Test
+    void renderingNewVersionDeletesOlderOnes() {
+        Path v0 = store.getOrRender(invoice(7L, 0L));
+        Path other = store.getOrRender(invoice(8L, 0L));
+
+        Path v1 = store.getOrRender(invoice(7L, 1L));
+
+        assertFalse(Files.exists(v0));
+        assertTrue(Files.exists(v1));
+        assertTrue(Files.exists(other));
+        assertNull(store.find(7L, 0L));
+    }
+
+    @Test
+    void etagChangesWithVersion() {
+        assertNotEquals(InvoicePdfStore.etag(7L, 0L), InvoicePdfStore.etag(7L, 1L));
+        assertTrue(InvoicePdfStore.etag(7L, 0L).startsWith("W/\""));
+    }
+
+    private Invoice invoice(Long id, Long version) {
+        Invoice invoice = new Invoice();
+        invoice.setId(id);
+        invoice.setVersion(version);
+        return invoice;
+    }
+}
@@ -0,0 +1,69 @@
+package com.sajilokaam.invoicepdf;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PDFs rendered per second for invoice-sized (one page) and report-sized (many pages) tables.
+ *
+ * Run with: ./mvnw test-compile exec:java -Dexec.classpathScope=test
+ *           -Dexec.mainClass=com.sajilokaam.invoicepdf.PdfLayoutBenchmark
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PdfLayoutBenchmark {
+
+    @Param({"10", "2000"})
+    private int rows;
+
+    @Param({"4194304"})
+    private long maxMainMemoryBytes;
+
+    @Benchmark
+    @Threads(1)
+    public int renderSingleThread() throws IOException {
+        return render();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public int renderFourThreads() throws IOException {
+        return render();
+    }
+
+    private int render() throws IOException {
+        try (PdfLayout layout = new PdfLayout(maxMainMemoryBytes)) {
+            layout.text(PdfFont.BOLD, 24, PdfLayout.MARGIN, "INVOICE").space(30);
+            layout.paragraph(PdfFont.REGULAR, 10, 14,
+                    "Notes: Payment due within thirty days of the issue date. Late payments incur a fee.");
+            layout.beginTable(new PdfTable()
+                    .column("Description", PdfLayout.MARGIN, 190)
+                    .column("Qty", 250, 45)
+                    .column("Price", 300, 95, PdfTable.Align.RIGHT)
+                    .column("Amount", 400, 100, PdfTable.Align.RIGHT)
+                    .ruleTo(500));
+            for (int i = 0; i < rows; i++) {
+                layout.row("Line item " + i + " - design, development and review work", "1", "Rs. 1500.00", "Rs. 1500.00");
+            }
+            layout.endTable();
+            layout.writeTo(OutputStream.nullOutputStream());
+            return layout.getPageCount();
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(PdfLayoutBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
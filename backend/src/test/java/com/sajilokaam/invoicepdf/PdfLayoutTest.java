@@ -0,0 +1,74 @@
+package com.sajilokaam.invoicepdf;
+
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PdfLayoutTest {
+
+    @Test
+    void tableFlowsOntoNewPagesWithRepeatedHeader() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (PdfLayout layout = new PdfLayout(64 * 1024)) {
+            layout.beginTable(new PdfTable()
+                    .column("Description", PdfLayout.MARGIN, 190)
+                    .column("Amount", 400, 100));
+            for (int i = 0; i < 200; i++) {
+                layout.row("Item " + i, "Rs. " + i + ".00");
+            }
+            layout.endTable();
+            layout.writeTo(out);
+        }
+
+        try (PDDocument document = Loader.loadPDF(out.toByteArray())) {
+            assertTrue(document.getNumberOfPages() > 1);
+            PDFTextStripper stripper = new PDFTextStripper();
+            for (int page = 1; page <= document.getNumberOfPages(); page++) {
+                stripper.setStartPage(page);
+                stripper.setEndPage(page);
+                assertTrue(stripper.getText(document).startsWith("Description"), "header on page " + page);
+            }
+            stripper.setStartPage(1);
+            stripper.setEndPage(document.getNumberOfPages());
+            String text = stripper.getText(document);
+            assertTrue(text.contains("Item 0"));
+            assertTrue(text.contains("Item 199"));
+        }
+    }
+
+    @Test
+    void unsupportedCharactersAreReplacedInsteadOfFailing() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (PdfLayout layout = new PdfLayout(64 * 1024)) {
+            layout.line(PdfFont.REGULAR, 10, 15, "Kathmandu काठमाडौं\tcafé");
+            layout.writeTo(out);
+        }
+        try (PDDocument document = Loader.loadPDF(out.toByteArray())) {
+            assertTrue(new PDFTextStripper().getText(document).contains("café"));
+        }
+    }
+
+    @Test
+    void fitTruncatesToWidth() {
+        String fitted = PdfFont.REGULAR.fit("A very long task title that will not fit in a narrow column", 10, 80);
+        assertTrue(fitted.endsWith("..."));
+        assertTrue(PdfFont.REGULAR.width(fitted, 10) <= 80);
+        assertEquals("Short", PdfFont.REGULAR.fit("Short", 10, 80));
+    }
+
+    @Test
+    void wrapKeepsLinesWithinWidth() {
+        List<String> lines = PdfFont.REGULAR.wrap(
+                "Payment is due within thirty days.\nLate payments incur a fee of two percent per month.", 10, 120);
+        assertTrue(lines.size() > 2);
+        for (String line : lines) {
+            assertTrue(PdfFont.REGULAR.width(line, 10) <= 120, line);
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.sajilokaam.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Closed-loop HTTP load against a running backend: each of N concurrent clients requests the
+ * main read endpoints in turn, and throughput, p50 and p99 are reported per endpoint. Run it
+ * once against the app on platform threads and once with the "virtual" profile to compare;
+ * scripts/thread-mode-loadtest.sh does both.
+ *
+ * Run with: ./mvnw test-compile exec:java -Dexec.classpathScope=test
+ *           -Dexec.mainClass=com.sajilokaam.loadtest.ThreadModeLoadTest
+ *           -Dexec.args="http://localhost:8080 200 30 5"
+ * Arguments: base URL, concurrent clients, measured seconds, warmup seconds, optional job id.
+ */
+public class ThreadModeLoadTest {
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final String baseUrl;
+    private final List<String> paths;
+
+    ThreadModeLoadTest(String baseUrl, List<String> paths) {
+        this.baseUrl = baseUrl;
+        this.paths = paths;
+    }
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+        int warmupSeconds = args.length > 3 ? Integer.parseInt(args[3]) : 5;
+
+        ThreadModeLoadTest probe = new ThreadModeLoadTest(baseUrl, List.of());
+        Long jobId = args.length > 4 ? Long.valueOf(args[4]) : probe.firstJobId();
+        List<String> paths = new ArrayList<>(List.of("/actuator/health", "/api/jobs"));
+        if (jobId != null) {
+            paths.add("/api/jobs/" + jobId);
+            paths.add("/api/jobs/" + jobId + "/bids/count");
+            paths.add("/api/jobs/" + jobId + "/bids/leaderboard");
+        } else {
+            System.out.println("No jobs found; only list and health endpoints are loaded");
+        }
+
+        ThreadModeLoadTest test = new ThreadModeLoadTest(baseUrl, paths);
+        System.out.println("Warming up for " + warmupSeconds + "s with " + clients + " clients");
+        test.run(clients, Duration.ofSeconds(warmupSeconds));
+        System.out.println("Measuring for " + seconds + "s with " + clients + " clients against " + baseUrl);
+        Result[] results = test.run(clients, Duration.ofSeconds(seconds));
+        test.print(results, seconds);
+    }
+
+    Result[] run(int clients, Duration duration) throws InterruptedException {
+        Result[] results = new Result[paths.size()];
+        for (int i = 0; i < results.length; i++) {
+            results[i] = new Result(paths.get(i));
+        }
+        long deadline = System.nanoTime() + duration.toNanos();
+        // Client threads are virtual so the generator itself is never the limit
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clients; c++) {
+                int offset = c;
+                executor.execute(() -> {
+                    Result[] local = new Result[paths.size()];
+                    for (int i = 0; i < local.length; i++) {
+                        local[i] = new Result(paths.get(i));
+                    }
+                    for (int n = offset; System.nanoTime() < deadline; n++) {
+                        int index = n % paths.size();
+                        request(paths.get(index), local[index]);
+                    }
+                    for (int i = 0; i < local.length; i++) {
+                        synchronized (results[i]) {
+                            results[i].merge(local[i]);
+                        }
+                    }
+                });
+            }
+            executor.shutdown();
+            executor.awaitTermination(duration.toSeconds() + 60, TimeUnit.SECONDS);
+        }
+        return results;
+    }
+
+    private void request(String path, Result result) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+        long start = System.nanoTime();
+        try {
+            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+            result.add(System.nanoTime() - start, response.statusCode() >= 400);
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            result.add(System.nanoTime() - start, true);
+        }
+    }
+
+    private Long firstJobId() {
+        try {
+            HttpResponse<String> response = client.send(
+                    HttpRequest.newBuilder(URI.create(baseUrl + "/api/jobs")).GET().build(),
+                    HttpResponse.BodyHandlers.ofString());
+            JsonNode jobs = new ObjectMapper().readTree(response.body());
+            return jobs.isArray() && !jobs.isEmpty() ? jobs.get(0).get("id").asLong() : null;
+        } catch (Exception e) {
+            System.err.println("Failed to look up a job: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void print(Result[] results, int seconds) {
+        System.out.printf("%-40s %9s %7s %9s %9s %9s%n", "endpoint", "requests", "errors", "req/s", "p50 ms", "p99 ms");
+        long total = 0;
+        for (Result result : results) {
+            total += result.count;
+            System.out.printf("%-40s %9d %7d %9.1f %9.1f %9.1f%n", result.path, result.count, result.errors,
+                    result.count / (double) seconds, result.percentileMillis(50), result.percentileMillis(99));
+        }
+        System.out.printf("%-40s %9d %7s %9.1f%n", "total", total, "", total / (double) seconds);
+    }
+
+    static class Result {
+        private final String path;
+        private long[] latencies = new long[1024];
+        private int count;
+        private int errors;
+
+        Result(String path) {
+            this.path = path;
+        }
+
+        void add(long nanos, boolean error) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = nanos;
+            if (error) {
+                errors++;
+            }
+        }
+
+        void merge(Result other) {
+            if (count + other.count > latencies.length) {
+                latencies = Arrays.copyOf(latencies, Math.max(latencies.length * 2, count + other.count));
+            }
+            System.arraycopy(other.latencies, 0, latencies, count, other.count);
+            count += other.count;
+            errors += other.errors;
+        }
+
+        double percentileMillis(double percentile) {
+            if (count == 0) {
+                return 0;
+            }
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(percentile / 100 * count) - 1;
+            return sorted[Math.max(0, Math.min(index, count - 1))] / 1_000_000.0;
+        }
+    }
+}
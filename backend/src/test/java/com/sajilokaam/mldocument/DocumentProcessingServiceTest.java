@@ -0,0 +1,111 @@
+package com.sajilokaam.mldocument;
+
+import com.sajilokaam.project.Project;
+import com.sajilokaam.project.ProjectRepository;
+import com.sajilokaam.task.TaskRepository;
+import com.sajilokaam.user.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class DocumentProcessingServiceTest {
+
+    private final StoredDocument document = new StoredDocument(Path.of("requirements.txt"), "requirements.txt",
+            "text/plain", 100, "abc123");
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private DocumentProcessingRepository documentProcessingRepository;
+    private OcrService ocrService;
+    private MlTaskExtractionClient mlClient;
+    private ExtractionCache extractionCache;
+    private DocumentProcessingService service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        AtomicLong ids = new AtomicLong();
+        documentProcessingRepository = mock(DocumentProcessingRepository.class);
+        when(documentProcessingRepository.save(any(DocumentProcessing.class))).thenAnswer(invocation -> {
+            DocumentProcessing processing = invocation.getArgument(0);
+            if (processing.getId() == null) {
+                processing.setId(ids.incrementAndGet());
+            }
+            return processing;
+        });
+        ProjectRepository projectRepository = mock(ProjectRepository.class);
+        when(projectRepository.findById(any())).thenReturn(Optional.of(new Project()));
+        ocrService = mock(OcrService.class);
+        when(ocrService.extractText(any(), anyString(), any())).thenReturn("Build login page");
+        TaskExtractionService taskExtractionService = mock(TaskExtractionService.class);
+        when(taskExtractionService.extractTasks(anyString(), any())).thenAnswer(invocation -> List.of(suggestion("rule")));
+        mlClient = mock(MlTaskExtractionClient.class);
+        extractionCache = new ExtractionCache("1", 10, 1_000_000, meterRegistry);
+
+        service = new DocumentProcessingService(documentProcessingRepository, mock(ExtractedTaskSuggestionRepository.class),
+                projectRepository, mock(TaskRepository.class), ocrService, taskExtractionService, mlClient, extractionCache);
+    }
+
+    @Test
+    void ruleBasedFallbackIsNeverReused() throws Exception {
+        when(mlClient.isServiceAvailable()).thenReturn(false);
+
+        DocumentProcessing first = service.processDocument(document, 1L, new User()).join();
+        service.processDocument(document, 1L, new User()).join();
+
+        assertEquals(DocumentProcessingService.METHOD_RULE_BASED, first.getExtractionMethod());
+        verify(ocrService, times(2)).extractText(any(), anyString(), any());
+        verify(documentProcessingRepository, times(2))
+                .findFirstByContentHashAndExtractorVersionAndExtractionMethodAndStatusOrderByProcessingCompletedAtDesc(
+                        "abc123", "1", DocumentProcessingService.METHOD_ML, "COMPLETED");
+        assertEquals(0, extractionCache.size());
+        assertEquals(2.0, requests("miss"));
+    }
+
+    @Test
+    void mlResultsAreReused() throws Exception {
+        when(mlClient.isServiceAvailable()).thenReturn(true);
+        when(mlClient.extractTasksFromMlService(anyString(), any())).thenAnswer(invocation -> List.of(suggestion("ml")));
+
+        DocumentProcessing first = service.processDocument(document, 1L, new User()).join();
+        DocumentProcessing second = service.processDocument(document, 1L, new User()).join();
+
+        assertEquals(DocumentProcessingService.METHOD_ML, first.getExtractionMethod());
+        assertEquals(DocumentProcessingService.METHOD_ML, second.getExtractionMethod());
+        verify(ocrService, times(1)).extractText(any(), anyString(), any());
+        assertEquals(1.0, requests("hit"));
+    }
+
+    @Test
+    void storedMlResultCountsAsHit() throws Exception {
+        DocumentProcessing previous = new DocumentProcessing();
+        previous.setId(99L);
+        previous.setOcrText("Build login page");
+        when(documentProcessingRepository
+                .findFirstByContentHashAndExtractorVersionAndExtractionMethodAndStatusOrderByProcessingCompletedAtDesc(
+                        "abc123", "1", DocumentProcessingService.METHOD_ML, "COMPLETED"))
+                .thenReturn(Optional.of(previous));
+
+        service.processDocument(document, 1L, new User()).join();
+
+        verify(ocrService, never()).extractText(any(), anyString(), any());
+        assertEquals(1.0, requests("hit"));
+        assertEquals(0.0, requests("miss"));
+    }
+
+    private double requests(String result) {
+        return meterRegistry.get("mldocument.extraction.cache.requests").tag("result", result).counter().count();
+    }
+
+    private static ExtractedTaskSuggestion suggestion(String title) {
+        ExtractedTaskSuggestion suggestion = new ExtractedTaskSuggestion();
+        suggestion.setSuggestedTitle(title);
+        return suggestion;
+    }
+}
@@ -0,0 +1,148 @@
+package com.sajilokaam.mldocument;
+
+import com.sajilokaam.config.PooledRestTemplates;
+import com.sajilokaam.support.StubHttpServer;
+import com.sajilokaam.util.CircuitBreaker;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MlTaskExtractionClientTest {
+
+    private static final String TASKS_RESPONSE = """
+            {"tasks": [{"suggestedTitle": "Build login page", "suggestedPriority": "HIGH", "confidenceScore": 0.9}]}
+            """;
+
+    private StubHttpServer stub;
+    private MlTaskExtractionClient client;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        stub = new StubHttpServer();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (client != null) {
+            client.shutdown();
+        }
+        stub.close();
+    }
+
+    @Test
+    void extractsTasksFromService() {
+        stub.on("/extract-tasks", body -> StubHttpServer.Response.json(200, TASKS_RESPONSE));
+        client = newClient(false, 500);
+
+        List<ExtractedTaskSuggestion> suggestions = client.extractTasksFromMlService("Build login page", 1L);
+
+        assertEquals(1, suggestions.size());
+        assertEquals("Build login page", suggestions.get(0).getSuggestedTitle());
+        assertEquals("HIGH", suggestions.get(0).getSuggestedPriority());
+    }
+
+    @Test
+    void opensCircuitAfterRepeatedFailuresAndStopsCallingService() {
+        stub.on("/extract-tasks", body -> StubHttpServer.Response.json(500, "{\"error\": \"boom\"}"));
+        client = newClient(false, 500);
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue(client.extractTasksFromMlService("text", 1L).isEmpty());
+        }
+        assertEquals(CircuitBreaker.State.OPEN, client.getCircuitState());
+
+        int callsBefore = stub.requests().size();
+        assertTrue(client.extractTasksFromMlService("text", 1L).isEmpty());
+        assertFalse(client.isServiceAvailable());
+        assertEquals(callsBefore, stub.requests().size());
+    }
+
+    @Test
+    void timesOutSlowService() {
+        stub.on("/extract-tasks", body -> StubHttpServer.Response.delayed(2000, 200, TASKS_RESPONSE));
+        client = newClient(false, 300);
+
+        long start = System.nanoTime();
+        assertTrue(client.extractTasksFromMlService("text", 1L).isEmpty());
+        assertTrue((System.nanoTime() - start) / 1_000_000 < 1500);
+    }
+
+    @Test
+    void batchesConcurrentRequestsIntoOneCall() {
+        stub.on("/extract-tasks", body -> StubHttpServer.Response.json(200, """
+                {"results": [
+                  {"id": "0", "tasks": [{"suggestedTitle": "Task A"}]},
+                  {"id": "1", "tasks": [{"suggestedTitle": "Task B"}]},
+                  {"id": "2", "tasks": [{"suggestedTitle": "Task C"}]}
+                ]}
+                """));
+        client = newClient(true, 500);
+
+        List<CompletableFuture<List<ExtractedTaskSuggestion>>> futures = List.of(
+                CompletableFuture.supplyAsync(() -> client.extractTasksFromMlService("a", 1L)),
+                CompletableFuture.supplyAsync(() -> client.extractTasksFromMlService("b", 2L)),
+                CompletableFuture.supplyAsync(() -> client.extractTasksFromMlService("c", 3L)));
+
+        for (CompletableFuture<List<ExtractedTaskSuggestion>> future : futures) {
+            assertEquals(1, future.join().size());
+        }
+        assertTrue(stub.requests().size() < 3, "expected requests to be coalesced");
+        assertTrue(stub.requests().get(0).contains("documents"));
+    }
+
+    @Test
+    void batchedCallersAreReleasedOnShutdown() {
+        stub.on("/extract-tasks", body -> StubHttpServer.Response.delayed(2000, 200, TASKS_RESPONSE));
+        client = newClient(true, 5000);
+
+        // The first request holds the worker; the second stays queued behind it
+        CompletableFuture<List<ExtractedTaskSuggestion>> inFlight =
+                CompletableFuture.supplyAsync(() -> client.extractTasksFromMlService("a", 1L));
+        waitForRequests(1);
+        CompletableFuture<List<ExtractedTaskSuggestion>> queued =
+                CompletableFuture.supplyAsync(() -> client.extractTasksFromMlService("b", 2L));
+
+        long start = System.nanoTime();
+        client.shutdown();
+
+        assertTrue(queued.join().isEmpty());
+        assertTrue(client.extractTasksFromMlService("c", 3L).isEmpty());
+        assertTrue((System.nanoTime() - start) / 1_000_000 < 1500);
+        // The batch already sent is bounded by the read timeout
+        assertNotNull(inFlight.join());
+    }
+
+    @Test
+    void batchedCallerGivesUpAfterResultTimeout() {
+        stub.on("/extract-tasks", body -> StubHttpServer.Response.delayed(2000, 200, TASKS_RESPONSE));
+        client = newClient(true, 5000, 300);
+
+        long start = System.nanoTime();
+        assertTrue(client.extractTasksFromMlService("text", 1L).isEmpty());
+        assertTrue((System.nanoTime() - start) / 1_000_000 < 1500);
+    }
+
+    private void waitForRequests(int count) {
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (stub.requests().size() < count && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+    }
+
+    private MlTaskExtractionClient newClient(boolean batching, long readTimeoutMs) {
+        return newClient(batching, readTimeoutMs, 10_000);
+    }
+
+    private MlTaskExtractionClient newClient(boolean batching, long readTimeoutMs, long resultTimeoutMs) {
+        return new MlTaskExtractionClient(
+                PooledRestTemplates.create(4, 500, readTimeoutMs),
+                stub.baseUrl(),
+                3, 60_000,
+                batching, 8, 200, resultTimeoutMs);
+    }
+}
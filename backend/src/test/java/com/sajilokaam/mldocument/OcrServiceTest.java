@@ -0,0 +1,63 @@
+package com.sajilokaam.mldocument;
+
+import net.sourceforge.tess4j.Tesseract;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OcrServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final OcrService ocrService = new OcrService(2, () -> {
+        // No tessdata here, so every OCR attempt fails
+        Tesseract tesseract = new Tesseract();
+        tesseract.setDatapath("/nonexistent/tessdata");
+        return tesseract;
+    });
+
+    @AfterEach
+    void tearDown() {
+        ocrService.shutdown();
+    }
+
+    @Test
+    void pdfWithBlankPageExtractsWithoutTesseract() throws Exception {
+        Path pdf = tempDir.resolve("requirements.pdf");
+        try (PDDocument document = new PDDocument()) {
+            PDPage page = new PDPage();
+            document.addPage(page);
+            try (PDPageContentStream content = new PDPageContentStream(document, page)) {
+                content.beginText();
+                content.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA), 12);
+                content.newLineAtOffset(72, 700);
+                content.showText("Build the login page with email and password");
+                content.endText();
+            }
+            document.addPage(new PDPage());
+            document.save(pdf.toFile());
+        }
+        List<Integer> progress = new ArrayList<>();
+
+        String text = ocrService.extractText(pdf, "PDF", (processed, total) -> {
+            synchronized (progress) {
+                progress.add(processed);
+            }
+        });
+
+        assertTrue(text.contains("Build the login page with email and password"));
+        assertTrue(progress.contains(2));
+    }
+}
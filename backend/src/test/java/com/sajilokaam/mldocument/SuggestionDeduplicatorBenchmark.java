@@ -0,0 +1,96 @@
+package com.sajilokaam.mldocument;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of suggestion de-duplication for long requirements documents.
+ *
+ * Run with: ./mvnw test-compile exec:java -Dexec.classpathScope=test
+ *           -Dexec.mainClass=com.sajilokaam.mldocument.SuggestionDeduplicatorBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SuggestionDeduplicatorBenchmark {
+
+    private static final String[] VERBS = {
+            "Implement", "Create", "Design", "Build", "Test", "Fix", "Update", "Deploy", "Configure", "Refactor"
+    };
+
+    @Param({"1000", "10000"})
+    private int candidateLines;
+
+    // Requirements documents often start every line the same way ("The system shall ...")
+    @Param({"random", "shared-prefix"})
+    private String titles;
+
+    private List<ExtractedTaskSuggestion> suggestions;
+    private final SuggestionDeduplicator deduplicator = new SuggestionDeduplicator();
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        suggestions = new ArrayList<>(candidateLines);
+        for (int i = 0; i < candidateLines; i++) {
+            String title;
+            if (i > 0 && random.nextInt(5) == 0) {
+                // Roughly one in five lines is a near-duplicate of an earlier one (OCR noise, rewording)
+                title = mutate(random, suggestions.get(random.nextInt(i)).getSuggestedTitle());
+            } else {
+                title = VERBS[random.nextInt(VERBS.length)] + " " + randomWords(random, 3 + random.nextInt(6));
+                if (titles.equals("shared-prefix")) {
+                    title = "The system shall " + title.toLowerCase();
+                }
+            }
+            ExtractedTaskSuggestion suggestion = new ExtractedTaskSuggestion();
+            suggestion.setSuggestedTitle(title);
+            suggestion.setConfidenceScore(BigDecimal.valueOf(60 + random.nextInt(30), 2));
+            suggestions.add(suggestion);
+        }
+    }
+
+    @Benchmark
+    public List<ExtractedTaskSuggestion> deduplicateAndSort() {
+        return deduplicator.deduplicateAndSort(suggestions);
+    }
+
+    private static String randomWords(Random random, int count) {
+        StringBuilder sb = new StringBuilder();
+        for (int w = 0; w < count; w++) {
+            if (w > 0) sb.append(' ');
+            int length = 3 + random.nextInt(7);
+            for (int c = 0; c < length; c++) {
+                sb.append((char) ('a' + random.nextInt(26)));
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String mutate(Random random, String title) {
+        StringBuilder sb = new StringBuilder(title);
+        int edits = 1 + random.nextInt(3);
+        for (int e = 0; e < edits && sb.length() > 1; e++) {
+            int position = random.nextInt(sb.length());
+            sb.setCharAt(position, (char) ('a' + random.nextInt(26)));
+        }
+        return sb.toString();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(SuggestionDeduplicatorBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
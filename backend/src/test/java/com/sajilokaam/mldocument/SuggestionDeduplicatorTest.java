@@ -0,0 +1,96 @@
+package com.sajilokaam.mldocument;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SuggestionDeduplicatorTest {
+
+    private final SuggestionDeduplicator deduplicator = new SuggestionDeduplicator();
+
+    @Test
+    void keepsHigherConfidenceNearDuplicate() {
+        List<ExtractedTaskSuggestion> result = deduplicator.deduplicateAndSort(List.of(
+                suggestion("Implement user authentication", "0.70"),
+                suggestion("Implement user authentcation", "0.85"),
+                suggestion("Design the reporting dashboard", "0.60")));
+
+        assertEquals(2, result.size());
+        assertEquals("Implement user authentcation", result.get(0).getSuggestedTitle());
+        assertEquals("Design the reporting dashboard", result.get(1).getSuggestedTitle());
+    }
+
+    @Test
+    void treatsContainedTitlesAsDuplicates() {
+        List<ExtractedTaskSuggestion> result = deduplicator.deduplicateAndSort(List.of(
+                suggestion("Create payment page", "0.75"),
+                suggestion("Create payment page with Khalti checkout", "0.70")));
+
+        assertEquals(1, result.size());
+        assertEquals("Create payment page", result.get(0).getSuggestedTitle());
+    }
+
+    @Test
+    void findsShortTitlesInsideLongOnes() {
+        // 3-shingle Jaccard of these pairs is about 0.1, far below what LSH reliably surfaces
+        for (int i = 0; i < 50; i++) {
+            String longTitle = "Milestone " + i + ": set up the reporting module, then export report data to CSV "
+                    + "and PDF for the client review meeting";
+            List<ExtractedTaskSuggestion> result = deduplicator.deduplicateAndSort(List.of(
+                    suggestion("export report", "0.80"),
+                    suggestion(longTitle, "0.90")));
+
+            assertEquals(1, result.size(), longTitle);
+            assertEquals(longTitle, result.get(0).getSuggestedTitle());
+
+            result = deduplicator.deduplicateAndSort(List.of(
+                    suggestion(longTitle, "0.90"),
+                    suggestion("Export Report", "0.80")));
+            assertEquals(1, result.size(), longTitle);
+        }
+    }
+
+    @Test
+    void findsDuplicatesAmongTitlesWithACommonPrefix() {
+        // Such titles collide in most LSH bands, so buckets fill up
+        Random random = new Random(7);
+        List<ExtractedTaskSuggestion> suggestions = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            StringBuilder title = new StringBuilder("The system shall");
+            for (int w = 0; w < 4; w++) {
+                title.append(' ');
+                for (int c = 0; c < 5 + random.nextInt(5); c++) {
+                    title.append((char) ('a' + random.nextInt(26)));
+                }
+            }
+            suggestions.add(suggestion(title.toString(), "0.80"));
+        }
+        suggestions.add(suggestion(suggestions.get(150).getSuggestedTitle(), "0.70"));
+        suggestions.add(suggestion(suggestions.get(100).getSuggestedTitle().substring(4), "0.70"));
+
+        List<ExtractedTaskSuggestion> result = deduplicator.deduplicateAndSort(suggestions);
+
+        assertEquals(200, result.size());
+        assertTrue(result.stream().allMatch(s -> s.getConfidenceScore().compareTo(new BigDecimal("0.80")) == 0));
+    }
+
+    @Test
+    void boundedLevenshteinMatchesFullDistanceWithinBound() {
+        assertEquals(1, SuggestionDeduplicator.boundedLevenshtein("kitten", "sitten", 2));
+        assertEquals(3, SuggestionDeduplicator.boundedLevenshtein("kitten", "sitting", 3));
+        assertEquals(3, SuggestionDeduplicator.boundedLevenshtein("kitten", "sitting", 2)); // bound + 1
+        assertEquals(0, SuggestionDeduplicator.boundedLevenshtein("same", "same", 0));
+    }
+
+    private ExtractedTaskSuggestion suggestion(String title, String confidence) {
+        ExtractedTaskSuggestion suggestion = new ExtractedTaskSuggestion();
+        suggestion.setSuggestedTitle(title);
+        suggestion.setConfidenceScore(new BigDecimal(confidence));
+        return suggestion;
+    }
+}
@@ -0,0 +1,65 @@
+package com.sajilokaam.notification;
+
+import com.sajilokaam.user.User;
+import com.sajilokaam.user.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Notification fan-out against the test database, with ids from the pooled table generator
+ * and batched inserts: every row is written and gets its own id, across several id blocks.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+class NotificationBatchInsertTest {
+
+    private static final int FAN_OUT = 130;
+
+    @Autowired private NotificationService notificationService;
+    @Autowired private UserRepository userRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setEmail("batch-insert-" + System.nanoTime() + "@test.local");
+        user.setPassword("x");
+        user.setFullName("Batch insert");
+        user = userRepository.save(user);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM notifications WHERE user_id = ?", user.getId());
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", user.getId());
+    }
+
+    @Test
+    void fanOutGetsDistinctIdsAndPersistsEveryRow() {
+        List<Notification> saved = notificationService.notifyUsers(
+                Collections.nCopies(FAN_OUT, user), "SYSTEM", "Batch", "Batched insert", null, null);
+
+        Set<Long> ids = new HashSet<>();
+        saved.forEach(notification -> ids.add(notification.getId()));
+        assertEquals(FAN_OUT, ids.size());
+        assertFalse(ids.contains(null));
+
+        List<Long> stored = jdbcTemplate.queryForList(
+                "SELECT id FROM notifications WHERE user_id = ?", Long.class, user.getId());
+        assertEquals(ids, new HashSet<>(stored));
+    }
+}
@@ -0,0 +1,153 @@
+package com.sajilokaam.notification;
+
+import com.sajilokaam.config.IdGenerators;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Notification fan-outs per second, each inserting {@code rows} notifications in one
+ * transaction the way Hibernate issues them:
+ * identity - one INSERT and generated-key read per row (IDENTITY ids, no batching)
+ * pooled-batch - ids reserved from id_generators in blocks, JDBC batches of 50
+ * pooled-batch-rewrite - as pooled-batch with rewriteBatchedStatements, one multi-row INSERT per batch
+ *
+ * Needs the MySQL database of the test profile (override with -Dbench.jdbc.url/user/password);
+ * it works on temporary tables only.
+ * Run with: ./mvnw test-compile exec:java -Dexec.classpathScope=test
+ *           -Dexec.mainClass=com.sajilokaam.notification.NotificationInsertBenchmark
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class NotificationInsertBenchmark {
+
+    private static final String INSERT =
+            "INSERT INTO bench_notifications (user_id, type, title, message, is_read, created_at) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_WITH_ID =
+            "INSERT INTO bench_notifications (id, user_id, type, title, message, is_read, created_at) VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final int BATCH_SIZE = 50;
+
+    @Param({"identity", "pooled-batch", "pooled-batch-rewrite"})
+    private String mode;
+
+    @Param({"200"})
+    private int rows;
+
+    private Connection connection;
+    private Connection generatorConnection;
+    private long nextId;
+    private long blockEnd;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        String url = System.getProperty("bench.jdbc.url",
+                "jdbc:mysql://localhost:3306/sajilokaam?useSSL=false&allowPublicKeyRetrieval=true&serverTimezone=UTC");
+        if (mode.endsWith("rewrite")) {
+            url += "&rewriteBatchedStatements=true";
+        }
+        String user = System.getProperty("bench.jdbc.user", "root");
+        String password = System.getProperty("bench.jdbc.password", "");
+        connection = DriverManager.getConnection(url, user, password);
+        // Hibernate reserves id blocks on a separate connection, outside the business transaction
+        generatorConnection = DriverManager.getConnection(url, user, password);
+
+        // Temporary copies of the tables (same columns and indexes, no foreign keys), so the
+        // benchmark leaves nothing behind and never takes ids the application has reserved
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TEMPORARY TABLE bench_notifications LIKE notifications");
+        }
+        try (Statement statement = generatorConnection.createStatement()) {
+            statement.execute("CREATE TEMPORARY TABLE bench_id_generators LIKE " + IdGenerators.TABLE);
+            statement.execute("INSERT INTO bench_id_generators (name, next_val) VALUES ('notifications', "
+                    + IdGenerators.ALLOCATION_SIZE + ")");
+        }
+        connection.setAutoCommit(false);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        connection.close();
+        generatorConnection.close();
+    }
+
+    /**
+     * One fan-out of {@code rows} rows; rows per second is the reported ops/s times {@code rows}
+     */
+    @Benchmark
+    public int fanOut() throws SQLException {
+        Timestamp now = Timestamp.from(Instant.now());
+        if (mode.equals("identity")) {
+            try (PreparedStatement insert = connection.prepareStatement(INSERT, Statement.RETURN_GENERATED_KEYS)) {
+                for (int i = 0; i < rows; i++) {
+                    bind(insert, 1, i, now);
+                    insert.executeUpdate();
+                    try (ResultSet keys = insert.getGeneratedKeys()) {
+                        keys.next();
+                    }
+                }
+            }
+        } else {
+            try (PreparedStatement insert = connection.prepareStatement(INSERT_WITH_ID)) {
+                for (int i = 0; i < rows; i++) {
+                    insert.setLong(1, nextId());
+                    bind(insert, 2, i, now);
+                    insert.addBatch();
+                    if ((i + 1) % BATCH_SIZE == 0) {
+                        insert.executeBatch();
+                    }
+                }
+                insert.executeBatch();
+            }
+        }
+        connection.commit();
+        return rows;
+    }
+
+    private void bind(PreparedStatement insert, int first, int i, Timestamp now) throws SQLException {
+        insert.setLong(first, 1L + i % 100);
+        insert.setString(first + 1, "BENCHMARK");
+        insert.setString(first + 2, "Notification " + i);
+        insert.setString(first + 3, "Insert benchmark notification body");
+        insert.setBoolean(first + 4, false);
+        insert.setTimestamp(first + 5, now);
+    }
+
+    private long nextId() throws SQLException {
+        if (nextId == 0 || nextId > blockEnd) {
+            // Same reservation as Hibernate's pooled optimizer: the stored value is the end of the block
+            try (PreparedStatement update = generatorConnection.prepareStatement(
+                    "UPDATE bench_id_generators SET next_val = LAST_INSERT_ID(next_val + ?) WHERE name = 'notifications'")) {
+                update.setInt(1, IdGenerators.ALLOCATION_SIZE);
+                update.executeUpdate();
+            }
+            try (Statement select = generatorConnection.createStatement();
+                 ResultSet result = select.executeQuery("SELECT LAST_INSERT_ID()")) {
+                result.next();
+                blockEnd = result.getLong(1) - IdGenerators.ALLOCATION_SIZE;
+                nextId = blockEnd - IdGenerators.ALLOCATION_SIZE + 1;
+            }
+        }
+        return nextId++;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(NotificationInsertBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
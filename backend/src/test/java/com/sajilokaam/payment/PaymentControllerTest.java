@@ -0,0 +1,121 @@
+package com.sajilokaam.payment;
+
+import com.sajilokaam.escrow.EscrowAccountRepository;
+import com.sajilokaam.invoice.Invoice;
+import com.sajilokaam.invoice.InvoiceRepository;
+import com.sajilokaam.project.ProjectRepository;
+import com.sajilokaam.user.User;
+import com.sajilokaam.user.UserContextService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class PaymentControllerTest {
+
+    private final List<Payment> payments = new ArrayList<>();
+    private final Map<Long, Invoice> invoices = Map.of(1L, invoice(1L), 2L, invoice(2L));
+    private PaymentController controller;
+
+    @BeforeEach
+    void setUp() {
+        PaymentRepository paymentRepository = mock(PaymentRepository.class);
+        when(paymentRepository.save(any(Payment.class))).thenAnswer(invocation -> {
+            Payment payment = invocation.getArgument(0);
+            payment.setId((long) payments.size() + 1);
+            payments.add(payment);
+            return payment;
+        });
+        InvoiceRepository invoiceRepository = mock(InvoiceRepository.class);
+        when(invoiceRepository.findById(any()))
+                .thenAnswer(invocation -> Optional.ofNullable(invoices.get(invocation.<Long>getArgument(0))));
+        UserContextService userContextService = mock(UserContextService.class);
+        when(userContextService.resolveUser(any())).thenAnswer(invocation -> {
+            String authorization = invocation.getArgument(0);
+            return authorization != null ? Optional.of(user(Long.parseLong(authorization.substring("Bearer ".length()))))
+                    : Optional.empty();
+        });
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(mock(TransactionStatus.class));
+
+        controller = new PaymentController(paymentRepository, invoiceRepository, mock(ProjectRepository.class),
+                mock(EscrowAccountRepository.class), new PaymentIdempotency(600_000, 100, new SimpleMeterRegistry()),
+                userContextService, transactionManager);
+    }
+
+    @Test
+    void esewaVerificationsWithoutRefIdAreKeyedByInvoice() {
+        ResponseEntity<Map<String, Object>> first = controller.verifyPayment(manualVerify(1L), null, null);
+        ResponseEntity<Map<String, Object>> second = controller.verifyPayment(manualVerify(2L), null, null);
+
+        assertEquals(1L, first.getBody().get("invoiceId"));
+        assertEquals(2L, second.getBody().get("invoiceId"));
+        assertEquals("PAID", invoices.get(1L).getStatus());
+        assertEquals("PAID", invoices.get(2L).getStatus());
+        assertEquals(2, payments.size());
+        assertEquals("ESEWA:INV-1", payments.get(0).getIdempotencyKey());
+        assertEquals("ESEWA:INV-2", payments.get(1).getIdempotencyKey());
+
+        // A repeated callback for the same invoice is still answered once
+        controller.verifyPayment(manualVerify(1L), null, null);
+        assertEquals(2, payments.size());
+    }
+
+    @Test
+    void idempotencyKeyIsScopedToUserAndInvoice() {
+        ResponseEntity<Map<String, Object>> first = controller.verifyPayment(manualVerify(1L), "key-1", "Bearer 10");
+        // Another user sending the same key gets their own verification, not the first result
+        ResponseEntity<Map<String, Object>> second = controller.verifyPayment(manualVerify(2L), "key-1", "Bearer 20");
+
+        assertEquals(1L, first.getBody().get("invoiceId"));
+        assertEquals(2L, second.getBody().get("invoiceId"));
+        assertEquals(2, payments.size());
+    }
+
+    @Test
+    void reusedKeyWithDifferentPayloadIsRejected() {
+        controller.verifyPayment(manualVerify(1L), "key-1", "Bearer 10");
+
+        PaymentController.VerifyPaymentRequest changed = manualVerify(1L);
+        changed.setAmount(new BigDecimal("1.00"));
+        ResponseEntity<Map<String, Object>> response = controller.verifyPayment(changed, "key-1", "Bearer 10");
+
+        assertEquals(422, response.getStatusCode().value());
+        assertEquals(1, payments.size());
+    }
+
+    private static PaymentController.VerifyPaymentRequest manualVerify(Long invoiceId) {
+        PaymentController.VerifyPaymentRequest request = new PaymentController.VerifyPaymentRequest();
+        request.setInvoiceId(invoiceId);
+        request.setTransactionCode("MANUAL_VERIFY");
+        return request;
+    }
+
+    private static User user(Long id) {
+        User user = new User();
+        user.setId(id);
+        return user;
+    }
+
+    private static Invoice invoice(Long id) {
+        User client = user(10L);
+        Invoice invoice = new Invoice();
+        invoice.setId(id);
+        invoice.setClient(client);
+        invoice.setStatus("SENT");
+        invoice.setTotalAmount(new BigDecimal("1000.00"));
+        return invoice;
+    }
+}
@@ -0,0 +1,126 @@
+package com.sajilokaam.payment;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PaymentIdempotencyTest {
+
+    @Test
+    void concurrentDuplicatesShareOneExecution() throws Exception {
+        PaymentIdempotency idempotency = new PaymentIdempotency(60_000, 100, new SimpleMeterRegistry());
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<ResponseEntity<Map<String, Object>>>> results = new ArrayList<>();
+            results.add(pool.submit(() -> idempotency.execute("KHALTI:tok", () -> {
+                executions.incrementAndGet();
+                started.countDown();
+                await(release);
+                return ResponseEntity.ok(Map.of("paymentId", 1L));
+            })));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            for (int i = 0; i < 7; i++) {
+                results.add(pool.submit(() -> idempotency.execute("KHALTI:tok", () -> {
+                    executions.incrementAndGet();
+                    return ResponseEntity.ok(Map.of("paymentId", 2L));
+                })));
+            }
+            release.countDown();
+
+            for (Future<ResponseEntity<Map<String, Object>>> result : results) {
+                assertEquals(1L, result.get(5, TimeUnit.SECONDS).getBody().get("paymentId"));
+            }
+            assertEquals(1, executions.get());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void successIsReplayedButFailureIsRetried() {
+        PaymentIdempotency idempotency = new PaymentIdempotency(60_000, 100, new SimpleMeterRegistry());
+        AtomicInteger executions = new AtomicInteger();
+
+        idempotency.execute("ESEWA:a", () -> {
+            executions.incrementAndGet();
+            return ResponseEntity.badRequest().body(Map.of("error", "gateway down"));
+        });
+        ResponseEntity<Map<String, Object>> retried = idempotency.execute("ESEWA:a", () -> {
+            executions.incrementAndGet();
+            return ResponseEntity.ok(Map.of("status", "SUCCESS"));
+        });
+        ResponseEntity<Map<String, Object>> replayed = idempotency.execute("ESEWA:a", () -> {
+            executions.incrementAndGet();
+            return ResponseEntity.ok(Map.of("status", "SECOND"));
+        });
+
+        assertEquals(2, executions.get());
+        assertSame(retried, replayed);
+    }
+
+    @Test
+    void keyReusedForDifferentRequestIsRejected() {
+        PaymentIdempotency idempotency = new PaymentIdempotency(60_000, 100, new SimpleMeterRegistry());
+        AtomicInteger executions = new AtomicInteger();
+        String first = PaymentIdempotency.fingerprint("invoice=1");
+
+        ResponseEntity<Map<String, Object>> original = idempotency.execute("khalti:k", first, () -> {
+            executions.incrementAndGet();
+            return ResponseEntity.ok(Map.of("invoiceId", 1L));
+        });
+        ResponseEntity<Map<String, Object>> replayed = idempotency.execute("khalti:k", first, () -> {
+            executions.incrementAndGet();
+            return ResponseEntity.ok(Map.of("invoiceId", 1L));
+        });
+        ResponseEntity<Map<String, Object>> mismatched = idempotency.execute("khalti:k",
+                PaymentIdempotency.fingerprint("invoice=2"), () -> {
+                    executions.incrementAndGet();
+                    return ResponseEntity.ok(Map.of("invoiceId", 2L));
+                });
+
+        assertSame(original, replayed);
+        assertEquals(422, mismatched.getStatusCode().value());
+        assertFalse(mismatched.getBody().containsKey("invoiceId"));
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void expiredAndOverflowEntriesAreDropped() throws Exception {
+        PaymentIdempotency idempotency = new PaymentIdempotency(60_000, 2, new SimpleMeterRegistry());
+        for (int i = 0; i < 5; i++) {
+            idempotency.execute("key-" + i, () -> ResponseEntity.ok(Map.of()));
+        }
+        assertEquals(2, idempotency.cachedCount());
+
+        PaymentIdempotency shortLived = new PaymentIdempotency(1, 100, new SimpleMeterRegistry());
+        AtomicInteger executions = new AtomicInteger();
+        shortLived.execute("k", () -> ResponseEntity.ok(Map.of("n", executions.incrementAndGet())));
+        Thread.sleep(5);
+        shortLived.execute("k", () -> ResponseEntity.ok(Map.of("n", executions.incrementAndGet())));
+        assertEquals(2, executions.get());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
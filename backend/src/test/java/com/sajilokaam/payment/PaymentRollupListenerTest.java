@@ -0,0 +1,71 @@
+package com.sajilokaam.payment;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class PaymentRollupListenerTest {
+
+    private static final Instant CREATED_AT = Instant.parse("2026-03-01T23:30:00Z");
+
+    private PaymentRollupService rollupService;
+    private PaymentRollupListener listener;
+
+    @BeforeEach
+    void setUp() {
+        rollupService = mock(PaymentRollupService.class);
+        listener = new PaymentRollupListener(rollupService);
+    }
+
+    @Test
+    void statusChangeMovesPaymentBetweenCells() {
+        Payment payment = payment("KHALTI", "PENDING", "250.00");
+        listener.onPersist(payment);
+
+        payment.setStatus("COMPLETED");
+        listener.onUpdate(payment);
+
+        verify(rollupService).apply(CREATED_AT, "KHALTI", "PENDING", 1, new BigDecimal("250.00"));
+        verify(rollupService).apply(CREATED_AT, "KHALTI", "PENDING", -1, new BigDecimal("-250.00"));
+        verify(rollupService).apply(CREATED_AT, "KHALTI", "COMPLETED", 1, new BigDecimal("250.00"));
+    }
+
+    @Test
+    void updateWithoutRollupChangeWritesNothing() {
+        Payment payment = payment("ESEWA", "COMPLETED", "100.00");
+        listener.onLoad(payment);
+
+        payment.setNotes("reconciled");
+        payment.setAmount(new BigDecimal("100.0"));
+        listener.onUpdate(payment);
+
+        verify(rollupService, never()).apply(any(), anyString(), anyString(), anyLong(), any());
+    }
+
+    @Test
+    void removeSubtractsLastCountedState() {
+        Payment payment = payment("ESEWA", "COMPLETED", "100.00");
+        listener.onLoad(payment);
+        payment.setStatus("REFUNDED");
+
+        listener.onRemove(payment);
+
+        verify(rollupService).apply(CREATED_AT, "ESEWA", "COMPLETED", -1, new BigDecimal("-100.00"));
+    }
+
+    private Payment payment(String gateway, String status, String amount) {
+        Payment payment = new Payment();
+        payment.setGateway(gateway);
+        payment.setStatus(status);
+        payment.setAmount(new BigDecimal(amount));
+        payment.setCreatedAt(CREATED_AT);
+        return payment;
+    }
+}
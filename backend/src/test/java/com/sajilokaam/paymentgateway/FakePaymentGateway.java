@@ -0,0 +1,108 @@
+package com.sajilokaam.paymentgateway;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * In-memory {@link PaymentGateway} for tests. Verification results are scripted per
+ * transaction id; unscripted transactions verify as SUCCESS.
+ */
+public class FakePaymentGateway implements PaymentGateway {
+
+    private final String name;
+    private final Map<String, Function<String, PaymentVerificationResponse>> scripted = new ConcurrentHashMap<>();
+    private final AtomicInteger verifyCalls = new AtomicInteger();
+    private final AtomicInteger concurrentCalls = new AtomicInteger();
+    private final AtomicInteger maxConcurrentCalls = new AtomicInteger();
+    private volatile long verifyDelayMillis;
+    private volatile boolean live = true;
+
+    public FakePaymentGateway(String name) {
+        this.name = name;
+    }
+
+    public FakePaymentGateway pending(String transactionId) {
+        scripted.put(transactionId, id -> new PaymentVerificationResponse(false, "PENDING", id, null, null, "Pending"));
+        return this;
+    }
+
+    public FakePaymentGateway failed(String transactionId) {
+        scripted.put(transactionId, id -> PaymentVerificationResponse.failure("Declined"));
+        return this;
+    }
+
+    public FakePaymentGateway unavailable(String transactionId) {
+        scripted.put(transactionId, id -> {
+            throw new IllegalStateException("Connection refused");
+        });
+        return this;
+    }
+
+    public FakePaymentGateway simulated() {
+        this.live = false;
+        return this;
+    }
+
+    public FakePaymentGateway withVerifyDelay(long millis) {
+        this.verifyDelayMillis = millis;
+        return this;
+    }
+
+    public int getVerifyCalls() {
+        return verifyCalls.get();
+    }
+
+    public int getMaxConcurrentCalls() {
+        return maxConcurrentCalls.get();
+    }
+
+    @Override
+    public PaymentInitiationResponse initiatePayment(PaymentRequest request) {
+        return PaymentInitiationResponse.success("http://localhost/fake/" + request.getTransactionId(),
+                name + "-" + request.getTransactionId());
+    }
+
+    @Override
+    public PaymentVerificationResponse verifyPayment(String transactionId) {
+        verifyCalls.incrementAndGet();
+        maxConcurrentCalls.accumulateAndGet(concurrentCalls.incrementAndGet(), Math::max);
+        try {
+            if (verifyDelayMillis > 0) {
+                Thread.sleep(verifyDelayMillis);
+            }
+            return scripted.getOrDefault(transactionId,
+                    id -> PaymentVerificationResponse.success(id, name + "-GW-" + id, BigDecimal.TEN)).apply(transactionId);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } finally {
+            concurrentCalls.decrementAndGet();
+        }
+    }
+
+    @Override
+    public PaymentWebhookResponse processWebhook(Map<String, Object> webhookData) {
+        String transactionId = (String) webhookData.get("transaction_id");
+        boolean completed = "COMPLETED".equals(webhookData.get("status"));
+        return new PaymentWebhookResponse(completed, transactionId, name + "-GW-" + transactionId,
+                completed ? "SUCCESS" : "FAILED", BigDecimal.TEN, "Fake webhook");
+    }
+
+    @Override
+    public boolean isLive() {
+        return live;
+    }
+
+    @Override
+    public RefundResponse refund(String transactionId, BigDecimal amount, String reason) {
+        return RefundResponse.success(name + "-REFUND-" + transactionId, amount);
+    }
+
+    @Override
+    public String getGatewayName() {
+        return name;
+    }
+}
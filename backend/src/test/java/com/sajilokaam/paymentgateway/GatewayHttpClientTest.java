@@ -0,0 +1,157 @@
+package com.sajilokaam.paymentgateway;
+
+import com.sajilokaam.paymentgateway.impl.ESewaGateway;
+import com.sajilokaam.paymentgateway.impl.KhaltiGateway;
+import com.sajilokaam.support.StubHttpServer;
+import com.sajilokaam.util.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GatewayHttpClientTest {
+
+    private StubHttpServer stub;
+    private SimpleMeterRegistry meterRegistry;
+    private GatewayHttpClients httpClients;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        stub = new StubHttpServer();
+        meterRegistry = new SimpleMeterRegistry();
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("payment.gateway.http.read-timeout-ms", "300")
+                .withProperty("payment.gateway.http.max-concurrent-calls", "2")
+                .withProperty("payment.gateway.http.bulkhead-wait-ms", "0")
+                .withProperty("payment.gateway.http.circuit-breaker.failure-threshold", "3")
+                .withProperty("payment.gateway.http.esewa.max-concurrent-calls", "1");
+        httpClients = new GatewayHttpClients(environment, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        httpClients.shutdown();
+        stub.close();
+    }
+
+    @Test
+    void verifiesKhaltiPaymentThroughPooledClient() {
+        stub.on("/epayment/lookup/", body -> StubHttpServer.Response.json(200,
+                "{\"pidx\": \"P1\", \"status\": \"Completed\", \"total_amount\": 150000, \"transaction_id\": \"KT-9\"}"));
+
+        PaymentVerificationResponse response = khalti().verifyPayment("P1");
+
+        assertTrue(response.isSuccess());
+        assertEquals("KT-9", response.getGatewayTransactionId());
+        assertEquals(0, new BigDecimal("1500.00").compareTo(response.getAmount()));
+        assertTrue(stub.requests().get(0).contains("\"pidx\":\"P1\""));
+        assertEquals(1, meterRegistry.get("payment.gateway.http")
+                .tag("gateway", "KHALTI").tag("operation", "lookup").tag("outcome", "success").timer().count());
+    }
+
+    @Test
+    void reportsPendingKhaltiPaymentAsPending() {
+        stub.on("/epayment/lookup/", body -> StubHttpServer.Response.json(200, "{\"pidx\": \"P1\", \"status\": \"Initiated\"}"));
+
+        assertEquals("PENDING", khalti().verifyPayment("P1").getStatus());
+    }
+
+    @Test
+    void timesOutSlowGatewayInsteadOfFailingThePayment() {
+        stub.on("/epayment/lookup/", body -> StubHttpServer.Response.delayed(2000, 200, "{\"status\": \"Completed\"}"));
+        KhaltiGateway khalti = khalti();
+
+        long start = System.nanoTime();
+        assertThrows(GatewayUnavailableException.class, () -> khalti.verifyPayment("P1"));
+        assertTrue((System.nanoTime() - start) / 1_000_000 < 1500, "read timeout should cut the call short");
+    }
+
+    @Test
+    void bulkheadRejectsCallsBeyondTheLimitWithoutTouchingOtherGateways() {
+        stub.on("/epayment/lookup/", body -> StubHttpServer.Response.delayed(200, 200, "{\"status\": \"Completed\"}"));
+        stub.on("/api/epay/transaction/status/", body -> StubHttpServer.Response.json(200,
+                "{\"status\": \"COMPLETE\", \"ref_id\": \"R1\", \"total_amount\": 100}"));
+        KhaltiGateway khalti = khalti();
+        ExecutorService executor = Executors.newFixedThreadPool(5);
+        CountDownLatch start = new CountDownLatch(1);
+
+        List<CompletableFuture<PaymentVerificationResponse>> calls = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            String pidx = "P" + i;
+            calls.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return khalti.verifyPayment(pidx);
+            }, executor));
+        }
+        start.countDown();
+        // eSewa has its own bulkhead and pool
+        assertTrue(esewa().verifyPayment("T1", BigDecimal.valueOf(100)).isSuccess());
+
+        int succeeded = 0;
+        int rejected = 0;
+        for (CompletableFuture<PaymentVerificationResponse> call : calls) {
+            try {
+                assertTrue(call.join().isSuccess());
+                succeeded++;
+            } catch (CompletionException e) {
+                assertInstanceOf(GatewayUnavailableException.class, e.getCause());
+                rejected++;
+            }
+        }
+        executor.shutdown();
+        assertTrue(succeeded >= 2, "two calls may run at once");
+        assertTrue(rejected >= 1, "calls beyond the bulkhead are rejected instead of queueing");
+        assertEquals(rejected, meterRegistry.get("payment.gateway.http.rejected")
+                .tag("gateway", "KHALTI").tag("reason", "rejected").counter().count());
+    }
+
+    @Test
+    void opensCircuitAfterRepeatedServerErrors() {
+        stub.on("/epayment/lookup/", body -> StubHttpServer.Response.json(503, "{\"detail\": \"down\"}"));
+        KhaltiGateway khalti = khalti();
+
+        for (int i = 0; i < 3; i++) {
+            assertThrows(GatewayUnavailableException.class, () -> khalti.verifyPayment("P1"));
+        }
+        assertEquals(CircuitBreaker.State.OPEN, khalti.getHttpClient().getCircuitState());
+
+        int callsBefore = stub.requests().size();
+        assertThrows(GatewayUnavailableException.class, () -> khalti.verifyPayment("P1"));
+        assertEquals(callsBefore, stub.requests().size());
+    }
+
+    @Test
+    void clientErrorsAreGatewayAnswersNotOutages() {
+        stub.on("/epayment/lookup/", body -> StubHttpServer.Response.json(404, "{\"detail\": \"Not found\"}"));
+        KhaltiGateway khalti = khalti();
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals("FAILED", khalti.verifyPayment("P1").getStatus());
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, khalti.getHttpClient().getCircuitState());
+    }
+
+    private KhaltiGateway khalti() {
+        return new KhaltiGateway(httpClients, "secret", "public", stub.baseUrl(), true);
+    }
+
+    private ESewaGateway esewa() {
+        return new ESewaGateway(httpClients, "EPAYTEST", "secret", stub.baseUrl(), true);
+    }
+}
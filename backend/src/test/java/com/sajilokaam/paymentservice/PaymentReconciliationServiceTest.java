@@ -0,0 +1,170 @@
+package com.sajilokaam.paymentservice;
+
+import com.sajilokaam.invoice.Invoice;
+import com.sajilokaam.payment.Payment;
+import com.sajilokaam.paymentgateway.FakePaymentGateway;
+import com.sajilokaam.paymentgateway.PaymentGatewayRegistry;
+import com.sajilokaam.transaction.Transaction;
+import com.sajilokaam.transaction.TransactionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class PaymentReconciliationServiceTest {
+
+    private final Map<String, Transaction> transactions = new ConcurrentHashMap<>();
+    private FakePaymentGateway khalti;
+    private FakePaymentGateway esewa;
+    private SimpleMeterRegistry meterRegistry;
+    private TransactionRepository repository;
+    private PaymentReconciliationService service;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(TransactionRepository.class);
+        when(repository.findByTransactionId(anyString()))
+                .thenAnswer(invocation -> Optional.ofNullable(transactions.get(invocation.<String>getArgument(0))));
+        when(repository.save(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(repository.findStalePending(any(), any(), any())).thenAnswer(invocation -> {
+            Instant createdBefore = invocation.getArgument(0);
+            Instant checkedBefore = invocation.getArgument(1);
+            Pageable page = invocation.getArgument(2);
+            return transactions.values().stream()
+                    .filter(t -> "PENDING".equals(t.getStatus()))
+                    .filter(t -> t.getCreatedAt().isBefore(createdBefore) && t.getUpdatedAt().isBefore(checkedBefore))
+                    .sorted(Comparator.comparing(Transaction::getUpdatedAt))
+                    .limit(page.getPageSize())
+                    .toList();
+        });
+
+        khalti = new FakePaymentGateway("KHALTI");
+        esewa = new FakePaymentGateway("ESEWA");
+        meterRegistry = new SimpleMeterRegistry();
+        service = service(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void settlesPaymentAndInvoiceOfConfirmedTransaction() {
+        Transaction transaction = pending("T1", "KHALTI", Duration.ofHours(1));
+
+        Map<PaymentReconciliationService.Result, Integer> results = service.reconcile();
+
+        assertEquals(1, results.get(PaymentReconciliationService.Result.SETTLED));
+        assertEquals("SUCCESS", transaction.getStatus());
+        assertEquals("COMPLETED", transaction.getPayment().getStatus());
+        assertEquals("PAID", transaction.getPayment().getInvoice().getStatus());
+        assertEquals(1.0, meterRegistry.get("payment.reconciliation.outcomes")
+                .tag("gateway", "KHALTI").tag("result", "SETTLED").counter().count());
+        assertEquals(1, meterRegistry.get("payment.reconciliation.lag").timer().count());
+    }
+
+    @Test
+    void sweepsEveryBatchAndLeavesFreshTransactionsAlone() {
+        for (int i = 0; i < 5; i++) {
+            pending("OLD" + i, i % 2 == 0 ? "KHALTI" : "ESEWA", Duration.ofHours(1));
+        }
+        Transaction fresh = pending("NEW", "KHALTI", Duration.ofMinutes(1));
+        khalti.pending("OLD0");
+        esewa.failed("OLD1");
+        esewa.unavailable("OLD3");
+
+        Map<PaymentReconciliationService.Result, Integer> results = service.reconcile();
+
+        assertEquals(2, results.get(PaymentReconciliationService.Result.SETTLED));
+        assertEquals(1, results.get(PaymentReconciliationService.Result.STILL_PENDING));
+        assertEquals(1, results.get(PaymentReconciliationService.Result.FAILED));
+        assertEquals(1, results.get(PaymentReconciliationService.Result.ERROR));
+        assertEquals("PENDING", fresh.getStatus());
+        assertEquals("PENDING", transactions.get("OLD3").getStatus());
+        assertEquals("FAILED", transactions.get("OLD1").getStatus());
+
+        // Checked transactions are not re-verified until the recheck interval has passed
+        int calls = khalti.getVerifyCalls() + esewa.getVerifyCalls();
+        service.reconcile();
+        assertEquals(calls, khalti.getVerifyCalls() + esewa.getVerifyCalls());
+    }
+
+    @Test
+    void expiresTransactionsStillPendingAfterTheWindow() {
+        Transaction transaction = pending("T1", "ESEWA", Duration.ofHours(100));
+        esewa.pending("T1");
+
+        Map<PaymentReconciliationService.Result, Integer> results = service.reconcile();
+
+        assertEquals(1, results.get(PaymentReconciliationService.Result.EXPIRED));
+        assertEquals("FAILED", transaction.getStatus());
+        assertEquals("PENDING", transaction.getPayment().getStatus());
+    }
+
+    @Test
+    void neverTrustsSimulatedGateways() {
+        khalti.simulated();
+        Transaction transaction = pending("T1", "KHALTI", Duration.ofHours(1));
+
+        Map<PaymentReconciliationService.Result, Integer> results = service.reconcile();
+
+        assertEquals(1, results.get(PaymentReconciliationService.Result.STILL_PENDING));
+        assertEquals("PENDING", transaction.getStatus());
+        assertEquals("SENT", transaction.getPayment().getInvoice().getStatus());
+        assertEquals(0, khalti.getVerifyCalls());
+    }
+
+    @Test
+    void disabledReconciliationChecksNothing() {
+        PaymentReconciliationService disabled = service(false);
+        try {
+            Transaction transaction = pending("T1", "KHALTI", Duration.ofHours(1));
+
+            assertTrue(disabled.reconcile().isEmpty());
+            assertEquals("PENDING", transaction.getStatus());
+            assertEquals(0, khalti.getVerifyCalls());
+        } finally {
+            disabled.shutdown();
+        }
+    }
+
+    private PaymentReconciliationService service(boolean enabled) {
+        return new PaymentReconciliationService(repository,
+                new PaymentGatewayRegistry(List.of(khalti, esewa)),
+                new PaymentSettlementService(repository),
+                meterRegistry,
+                enabled, 15, 10, 72, 2, 10, 4, 1000);
+    }
+
+    private Transaction pending(String id, String gateway, Duration age) {
+        Invoice invoice = new Invoice();
+        invoice.setStatus("SENT");
+        Payment payment = new Payment();
+        payment.setInvoice(invoice);
+
+        Transaction transaction = new Transaction();
+        transaction.setId((long) transactions.size() + 1);
+        transaction.setTransactionId(id);
+        transaction.setGateway(gateway);
+        transaction.setPayment(payment);
+        transaction.setCreatedAt(Instant.now().minus(age));
+        transaction.setUpdatedAt(Instant.now().minus(age));
+        transactions.put(id, transaction);
+        return transaction;
+    }
+}
@@ -0,0 +1,251 @@
+package com.sajilokaam.paymentwebhook;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sajilokaam.paymentgateway.FakePaymentGateway;
+import com.sajilokaam.payment.PaymentRepository;
+import com.sajilokaam.paymentgateway.PaymentGatewayRegistry;
+import com.sajilokaam.paymentservice.ESewaPaymentHelper;
+import com.sajilokaam.paymentservice.PaymentService;
+import com.sajilokaam.paymentservice.PaymentSettlementService;
+import com.sajilokaam.transaction.Transaction;
+import com.sajilokaam.transaction.TransactionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class PaymentWebhookInboxTest {
+
+    private final Map<Long, PaymentWebhookEvent> events = new ConcurrentHashMap<>();
+    private final Map<String, Transaction> transactions = new ConcurrentHashMap<>();
+    private final AtomicLong ids = new AtomicLong();
+    private TransactionRepository transactionRepository;
+    private FakePaymentGateway khalti;
+    private SimpleMeterRegistry meterRegistry;
+    private PaymentWebhookWorker worker;
+    private PaymentWebhookInbox inbox;
+
+    @BeforeEach
+    void setUp() {
+        PaymentWebhookEventRepository repository = mock(PaymentWebhookEventRepository.class);
+        when(repository.saveAndFlush(any(PaymentWebhookEvent.class))).thenAnswer(invocation -> {
+            PaymentWebhookEvent event = invocation.getArgument(0);
+            boolean duplicate = events.values().stream().anyMatch(e ->
+                    e.getGateway().equals(event.getGateway()) && e.getEventId().equals(event.getEventId()));
+            if (duplicate) {
+                throw new DataIntegrityViolationException("Duplicate entry");
+            }
+            event.setId(ids.incrementAndGet());
+            events.put(event.getId(), event);
+            return event;
+        });
+        when(repository.save(any(PaymentWebhookEvent.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(repository.findById(any()))
+                .thenAnswer(invocation -> Optional.ofNullable(events.get(invocation.<Long>getArgument(0))));
+        when(repository.findTop100ByStatusAndNextAttemptAtBeforeOrderByIdAsc(anyString(), any())).thenAnswer(invocation ->
+                events.values().stream()
+                        .filter(e -> e.getStatus().equals(invocation.getArgument(0)))
+                        .filter(e -> e.getNextAttemptAt().isBefore(invocation.getArgument(1)))
+                        .toList());
+
+        transactionRepository = mock(TransactionRepository.class);
+        when(transactionRepository.findByTransactionId(anyString()))
+                .thenAnswer(invocation -> Optional.ofNullable(transactions.get(invocation.<String>getArgument(0))));
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        khalti = new FakePaymentGateway("KHALTI");
+        PaymentGatewayRegistry registry = new PaymentGatewayRegistry(List.of(khalti));
+        PaymentService paymentService = new PaymentService(mock(PaymentRepository.class), transactionRepository,
+                registry, new PaymentSettlementService(transactionRepository), mock(ESewaPaymentHelper.class));
+        ObjectMapper objectMapper = new ObjectMapper();
+        meterRegistry = new SimpleMeterRegistry();
+        worker = new PaymentWebhookWorker(repository, registry, paymentService,
+                objectMapper, meterRegistry, 2, 10, 2, 0, 60_000, 600_000);
+        inbox = new PaymentWebhookInbox(repository, registry, worker, objectMapper);
+    }
+
+    @AfterEach
+    void tearDown() {
+        worker.shutdown();
+    }
+
+    @Test
+    void storesEventOnceAndSettlesTransaction() throws InterruptedException {
+        Transaction transaction = pending("T1");
+        String payload = "{\"event_id\":\"E1\",\"transaction_id\":\"T1\",\"status\":\"COMPLETED\"}";
+
+        assertTrue(inbox.append("khalti", payload, null));
+        assertFalse(inbox.append("KHALTI", payload, null));
+
+        assertEquals(1, events.size());
+        PaymentWebhookEvent event = awaitHandled(events.values().iterator().next());
+        assertEquals("PROCESSED", event.getStatus());
+        assertEquals("SETTLED", event.getOutcome());
+        assertEquals("E1", event.getEventId());
+        assertEquals("T1", event.getTransactionKey());
+        assertEquals("SUCCESS", transaction.getStatus());
+        assertEquals(1, khalti.getVerifyCalls());
+    }
+
+    @Test
+    void completedWebhookIsNotTrustedWithoutGatewayConfirmation() {
+        Transaction transaction = pending("T1");
+        khalti.pending("T1");
+        PaymentWebhookEvent event = stored("{\"event_id\":\"E1\",\"transaction_id\":\"T1\",\"status\":\"COMPLETED\"}");
+
+        worker.process(event.getId());
+
+        assertEquals("PROCESSED", event.getStatus());
+        assertEquals("STILL_PENDING", event.getOutcome());
+        assertEquals("PENDING", transaction.getStatus());
+        assertEquals(1, khalti.getVerifyCalls());
+    }
+
+    @Test
+    void gatewayOutageLeavesWebhookForRetry() {
+        Transaction transaction = pending("T1");
+        khalti.unavailable("T1");
+        PaymentWebhookEvent event = stored("{\"event_id\":\"E1\",\"transaction_id\":\"T1\",\"status\":\"COMPLETED\"}");
+
+        worker.process(event.getId());
+
+        assertEquals("RECEIVED", event.getStatus());
+        assertEquals("Connection refused", event.getLastError());
+        assertEquals("PENDING", transaction.getStatus());
+    }
+
+    @Test
+    void webhooksOfSimulatedGatewayAreNotApplied() {
+        khalti.simulated();
+        Transaction transaction = pending("T1");
+        PaymentWebhookEvent event = stored("{\"event_id\":\"E1\",\"transaction_id\":\"T1\",\"status\":\"COMPLETED\"}");
+
+        worker.process(event.getId());
+
+        assertEquals("PROCESSED", event.getStatus());
+        assertEquals("UNVERIFIED", event.getOutcome());
+        assertEquals("PENDING", transaction.getStatus());
+        assertEquals(0, khalti.getVerifyCalls());
+    }
+
+    @Test
+    void failedEventIsRetriedWithExponentialBackoff() {
+        pending("T1");
+        khalti.unavailable("T1");
+        PaymentWebhookEvent event = stored("{\"event_id\":\"E1\",\"transaction_id\":\"T1\",\"status\":\"COMPLETED\"}");
+
+        worker.process(event.getId());
+
+        // Not due again until the retry delay has passed
+        assertTrue(event.getNextAttemptAt().isAfter(Instant.now().plusSeconds(50)));
+        assertEquals(0, worker.poll());
+        assertEquals(60_000, worker.retryDelay(1));
+        assertEquals(240_000, worker.retryDelay(3));
+        assertEquals(600_000, worker.retryDelay(10));
+    }
+
+    @Test
+    void laterEventsForSettledTransactionAreNoOps() throws InterruptedException {
+        Transaction transaction = pending("T1");
+
+        inbox.append("KHALTI", "{\"event_id\":\"E1\",\"transaction_id\":\"T1\",\"status\":\"COMPLETED\"}", null);
+        inbox.append("KHALTI", "{\"event_id\":\"E2\",\"transaction_id\":\"T1\",\"status\":\"EXPIRED\"}", null);
+
+        assertEquals("SETTLED", awaitHandled(events.get(1L)).getOutcome());
+        // Same transaction, same worker: the failure is applied after the settlement
+        assertEquals("ALREADY_FINAL", awaitHandled(events.get(2L)).getOutcome());
+        assertEquals("SUCCESS", transaction.getStatus());
+    }
+
+    @Test
+    void usesHeaderOrPayloadHashAsEventId() {
+        inbox.append("KHALTI", "{\"transaction_id\":\"T1\",\"status\":\"COMPLETED\"}", "H1");
+        inbox.append("KHALTI", "{\"transaction_id\":\"T2\",\"status\":\"COMPLETED\"}", null);
+
+        assertEquals("H1", events.get(1L).getEventId());
+        assertEquals(64, events.get(2L).getEventId().length());
+        assertFalse(inbox.append("KHALTI", "{\"transaction_id\":\"T2\",\"status\":\"COMPLETED\"}", null));
+    }
+
+    @Test
+    void rejectsUnknownGatewayAndInvalidPayload() {
+        assertThrows(IllegalArgumentException.class, () -> inbox.append("PAYPAL", "{}", null));
+        assertThrows(IllegalArgumentException.class, () -> inbox.append("KHALTI", "not json", null));
+        assertTrue(events.isEmpty());
+    }
+
+    @Test
+    void retriesFailedEventsFromThePollerUntilAttemptsRunOut() {
+        when(transactionRepository.findByTransactionId("T1")).thenThrow(new IllegalStateException("Database down"));
+        PaymentWebhookEvent event = stored("{\"event_id\":\"E1\",\"transaction_id\":\"T1\",\"status\":\"COMPLETED\"}");
+
+        worker.process(event.getId());
+        assertEquals("RECEIVED", event.getStatus());
+        assertEquals("Database down", event.getLastError());
+
+        worker.process(event.getId());
+        assertEquals("FAILED", event.getStatus());
+        assertEquals(2, event.getAttempts());
+
+        // Given up on: neither polled nor processed again
+        worker.process(event.getId());
+        assertEquals(2, event.getAttempts());
+        assertEquals(0, worker.poll());
+        assertEquals(1.0, meterRegistry.get("payment.webhooks").tag("result", "FAILED").counter().count());
+    }
+
+    @Test
+    void pollerQueuesEventsThatWereNotHandedToAWorker() throws InterruptedException {
+        Transaction transaction = pending("T1");
+        PaymentWebhookEvent event = stored("{\"event_id\":\"E1\",\"transaction_id\":\"T1\",\"status\":\"COMPLETED\"}");
+
+        assertEquals(1, worker.poll());
+
+        assertEquals("PROCESSED", awaitHandled(event).getStatus());
+        assertEquals("SUCCESS", transaction.getStatus());
+    }
+
+    private PaymentWebhookEvent stored(String payload) {
+        PaymentWebhookEvent event = new PaymentWebhookEvent();
+        event.setId(ids.incrementAndGet());
+        event.setGateway("KHALTI");
+        event.setEventId("E" + event.getId());
+        event.setTransactionKey("T1");
+        event.setPayload(payload);
+        event.setReceivedAt(Instant.now().minusSeconds(60));
+        event.setNextAttemptAt(event.getReceivedAt());
+        events.put(event.getId(), event);
+        return event;
+    }
+
+    private Transaction pending(String transactionId) {
+        Transaction transaction = new Transaction();
+        transaction.setTransactionId(transactionId);
+        transaction.setGateway("KHALTI");
+        transaction.setAmount(BigDecimal.TEN);
+        transactions.put(transactionId, transaction);
+        return transaction;
+    }
+
+    private PaymentWebhookEvent awaitHandled(PaymentWebhookEvent event) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while ("RECEIVED".equals(event.getStatus()) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        return event;
+    }
+}
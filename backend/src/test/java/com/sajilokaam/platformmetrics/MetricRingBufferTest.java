@@ -0,0 +1,49 @@
+package com.sajilokaam.platformmetrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetricRingBufferTest {
+
+    private static final long MINUTE = 60_000L;
+
+    @Test
+    void countsEventsPerSlotOldestFirst() {
+        MetricRingBuffer buffer = new MetricRingBuffer(5, MINUTE);
+        long t0 = 100 * MINUTE;
+
+        buffer.addEvents(t0, 2);
+        buffer.addEvents(t0 + 10_000, 1);
+        buffer.addEvents(t0 + 2 * MINUTE, 4);
+        buffer.recordValue(t0 + 2 * MINUTE, 42);
+
+        List<MetricPoint> points = buffer.recent(t0 + 2 * MINUTE, 3);
+
+        assertEquals(3, points.size());
+        assertEquals(3, points.get(0).getEvents());
+        assertNull(points.get(0).getValue());
+        assertEquals(0, points.get(1).getEvents());
+        assertEquals(4, points.get(2).getEvents());
+        assertEquals(42L, points.get(2).getValue());
+        assertEquals(t0, points.get(0).getStart().toEpochMilli());
+    }
+
+    @Test
+    void slotsOlderThanCapacityAgeOut() {
+        MetricRingBuffer buffer = new MetricRingBuffer(3, MINUTE);
+        long t0 = 100 * MINUTE;
+
+        buffer.addEvents(t0, 7);
+        // Same ring index as t0, three slots later
+        buffer.addEvents(t0 + 3 * MINUTE, 1);
+
+        List<MetricPoint> points = buffer.recent(t0 + 3 * MINUTE, 10);
+
+        assertEquals(3, points.size());
+        assertEquals(1, points.get(2).getEvents());
+        assertEquals(0, points.stream().filter(p -> p.getEvents() == 7).count());
+    }
+}
@@ -0,0 +1,80 @@
+package com.sajilokaam.report;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvWriterTest {
+
+    @Test
+    void quotesFieldsWithCommasQuotesAndNewlines() throws IOException {
+        String csv = write(writer -> writer
+                .field("plain").field("a,b").field("say \"hi\"").field("two\nlines").field((String) null).field("")
+                .endRow());
+
+        assertEquals("plain,\"a,b\",\"say \"\"hi\"\"\",\"two\nlines\",,\n", csv);
+    }
+
+    @Test
+    void escapesLikeThePreviousExport() throws IOException {
+        List<String> values = Arrays.asList("Design, build", "\"quoted\"", "line\nbreak", "naïve café", "",
+                null, "tab\there", "carriage\rreturn", ",\"\n");
+
+        for (String value : values) {
+            assertEquals(escapeCsv(value) + "\n", write(writer -> writer.field(value).endRow()), "value: " + value);
+        }
+    }
+
+    @Test
+    void separatesFieldsAndRows() throws IOException {
+        String csv = write(writer -> writer
+                .line("Project Report")
+                .raw("Task ID,Title").endRow()
+                .field(42L).field((Object) 7).field((Object) null).endRow());
+
+        assertEquals("Project Report\nTask ID,Title\n42,7,\n", csv);
+    }
+
+    @Test
+    void roundsHoursLikeTheFormattedExport() throws IOException {
+        for (int minutes = -600; minutes <= 6000; minutes++) {
+            int value = minutes;
+            String expected = String.format(Locale.ROOT, "%.2f", value / 60.0);
+            assertEquals(expected + "\n", write(writer -> writer.hours(value).endRow()), "minutes: " + minutes);
+        }
+        assertEquals("1.50\n", write(writer -> writer.hours(90).endRow()));
+        assertEquals("0.02\n", write(writer -> writer.hours(1).endRow()));
+    }
+
+    private interface Rows {
+        void write(CsvWriter writer) throws IOException;
+    }
+
+    private static String write(Rows rows) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (CsvWriter writer = new CsvWriter(out)) {
+            rows.write(writer);
+        }
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * The escaping ReportController used before exports were streamed
+     */
+    private static String escapeCsv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.contains(",") || value.contains("\"") || value.contains("\n")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+}
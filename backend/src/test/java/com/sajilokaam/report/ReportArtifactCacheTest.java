@@ -0,0 +1,77 @@
+package com.sajilokaam.report;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReportArtifactCacheTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void evictsLeastRecentlyUsedAndDeletesItsFile() throws Exception {
+        ReportArtifactCache cache = new ReportArtifactCache(dir.toString(), 2, 1024, 600, new SimpleMeterRegistry());
+
+        ReportArtifactCache.ReportArtifact first = put(cache, "a", 10);
+        put(cache, "b", 10);
+        assertNotNull(cache.get("a")); // "b" is now least recently used
+        put(cache, "c", 10);
+
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("a"));
+        assertNotNull(cache.get("c"));
+        assertTrue(Files.exists(first.getPath()));
+        assertEquals(2, cache.size());
+        assertEquals(20, cache.estimatedBytes());
+    }
+
+    @Test
+    void oversizedArtifactIsReturnedButNotRetained() throws Exception {
+        ReportArtifactCache cache = new ReportArtifactCache(dir.toString(), 10, 100, 600, new SimpleMeterRegistry());
+
+        ReportArtifactCache.ReportArtifact artifact = put(cache, "big", 500);
+
+        assertFalse(artifact.isRetained());
+        assertTrue(Files.exists(artifact.getPath()));
+        assertNull(cache.get("big"));
+        assertEquals(0, cache.estimatedBytes());
+    }
+
+    @Test
+    void expiredArtifactIsAMissAndItsFileIsDeleted() throws Exception {
+        ReportArtifactCache cache = new ReportArtifactCache(dir.toString(), 10, 1024, 0, new SimpleMeterRegistry());
+
+        ReportArtifactCache.ReportArtifact artifact = put(cache, "a", 10);
+
+        assertNull(cache.get("a"));
+        assertFalse(Files.exists(artifact.getPath()));
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.estimatedBytes());
+    }
+
+    @Test
+    void dataVersionChangesOnlyForTheBumpedProject() {
+        ProjectDataVersions versions = new ProjectDataVersions();
+        String one = versions.current(1L);
+        String two = versions.current(2L);
+
+        versions.bump(1L);
+        assertNotEquals(one, versions.current(1L));
+        assertEquals(two, versions.current(2L));
+
+        versions.bumpAll();
+        assertNotEquals(two, versions.current(2L));
+    }
+
+    private ReportArtifactCache.ReportArtifact put(ReportArtifactCache cache, String key, int size) throws Exception {
+        Path file = cache.newFile(ReportType.PROJECT_CSV);
+        Files.write(file, new byte[size]);
+        return cache.put(key, file, ReportType.PROJECT_CSV, "report.csv");
+    }
+}
@@ -0,0 +1,106 @@
+package com.sajilokaam.startup;
+
+import com.sajilokaam.job.Job;
+import com.sajilokaam.job.JobRepository;
+import com.sajilokaam.project.Project;
+import com.sajilokaam.project.ProjectRepository;
+import com.sajilokaam.user.User;
+import com.sajilokaam.user.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Backfilling project conversations against the test database: every project without one gets
+ * exactly one, with client and freelancer as participants, and a second run changes nothing.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+class ProjectConversationsTaskTest {
+
+    private static final int PROJECTS = 7;
+
+    @Autowired private ProjectConversationsTask task;
+    @Autowired private UserRepository userRepository;
+    @Autowired private JobRepository jobRepository;
+    @Autowired private ProjectRepository projectRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    private final List<Long> userIds = new ArrayList<>();
+    private final List<Long> projectIds = new ArrayList<>();
+    private Job job;
+
+    @BeforeEach
+    void setUp() {
+        String run = Long.toString(System.nanoTime());
+        User client = user("conv-client-" + run);
+        User freelancer = user("conv-freelancer-" + run);
+        job = new Job();
+        job.setClient(client);
+        job.setTitle("Conversations " + run);
+        job.setStatus("CLOSED");
+        job = jobRepository.save(job);
+
+        for (int i = 0; i < PROJECTS; i++) {
+            Project project = new Project();
+            project.setJob(job);
+            project.setClient(client);
+            project.setFreelancer(freelancer);
+            project.setTitle("Project " + i + " " + run);
+            project.setBudget(new BigDecimal("10.00"));
+            project.setStatus("ACTIVE");
+            projectIds.add(projectRepository.save(project).getId());
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM conversations WHERE project_id IN (SELECT id FROM projects WHERE job_id = ?)", job.getId());
+        jdbcTemplate.update("DELETE FROM projects WHERE job_id = ?", job.getId());
+        jdbcTemplate.update("DELETE FROM jobs WHERE id = ?", job.getId());
+        for (Long userId : userIds) {
+            jdbcTemplate.update("DELETE FROM users WHERE id = ?", userId);
+        }
+    }
+
+    @Test
+    void createsOneConversationPerProjectWithBothParticipants() {
+        task.run();
+
+        for (Long projectId : projectIds) {
+            List<Long> conversations = jdbcTemplate.queryForList(
+                    "SELECT id FROM conversations WHERE project_id = ?", Long.class, projectId);
+            assertEquals(1, conversations.size());
+            List<Long> participants = jdbcTemplate.queryForList(
+                    "SELECT user_id FROM conversation_participants WHERE conversation_id = ? ORDER BY user_id",
+                    Long.class, conversations.get(0));
+            assertEquals(userIds.stream().sorted().toList(), participants);
+        }
+
+        task.run();
+        Integer total = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM conversations c JOIN projects p ON p.id = c.project_id WHERE p.job_id = ?",
+                Integer.class, job.getId());
+        assertEquals(PROJECTS, total);
+    }
+
+    private User user(String name) {
+        User user = new User();
+        user.setEmail(name + "@test.local");
+        user.setPassword("x");
+        user.setFullName(name);
+        user = userRepository.save(user);
+        userIds.add(user.getId());
+        return user;
+    }
+}
@@ -0,0 +1,90 @@
+package com.sajilokaam.support;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+/**
+ * Tiny in-process HTTP server for testing clients of other services (ML service, payment
+ * gateways) without the real thing. Each path is answered by a handler that receives the
+ * request body and returns a canned response; every request body is recorded.
+ */
+public class StubHttpServer implements AutoCloseable {
+
+    private final HttpServer server;
+    private final List<String> requests = new CopyOnWriteArrayList<>();
+
+    public StubHttpServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+    }
+
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    /**
+     * Answer requests to the given path with the handler's response.
+     */
+    public StubHttpServer on(String path, Function<String, Response> handler) {
+        server.createContext(path, exchange -> handle(exchange, handler));
+        return this;
+    }
+
+    public List<String> requests() {
+        return requests;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange, Function<String, Response> handler) throws IOException {
+        String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+        requests.add(body);
+        Response response = handler.apply(body);
+        if (response.delayMs > 0) {
+            try {
+                Thread.sleep(response.delayMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        byte[] bytes = response.body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(response.status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    public static class Response {
+        private final int status;
+        private final String body;
+        private final long delayMs;
+
+        private Response(int status, String body, long delayMs) {
+            this.status = status;
+            this.body = body;
+            this.delayMs = delayMs;
+        }
+
+        public static Response json(int status, String body) {
+            return new Response(status, body, 0);
+        }
+
+        public static Response delayed(long delayMs, int status, String body) {
+            return new Response(status, body, delayMs);
+        }
+    }
+}
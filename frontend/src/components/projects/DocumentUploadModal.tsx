@@ -87,16 +87,14 @@ export function DocumentUploadModal({
     try {
       setUploading(true);
 
-      // Upload document and extract tasks using ML
-      const formData = new FormData();
-      formData.append('file', file);
-
+      // Upload document and extract tasks using ML (raw body, streamed to storage)
       const response = await api.post(
-        `/projects/${projectId}/documents/upload`,
-        formData,
+        `/projects/${projectId}/documents/upload-stream`,
+        file,
         {
+          params: { filename: file.name },
           headers: {
-            'Content-Type': 'multipart/form-data'
+            'Content-Type': file.type || 'application/octet-stream'
           }
         }
       );
@@ -428,9 +428,28 @@ def extract_tasks():
             }
         ]
     }
+
+    Batch request body (several documents per call):
+    {
+        "documents": [{"id": "0", "text": "..."}, {"id": "1", "text": "..."}]
+    }
+
+    Batch response:
+    {
+        "results": [{"id": "0", "tasks": [...]}, {"id": "1", "tasks": [...]}]
+    }
     """
     try:
         data = request.get_json()
+
+        if data and 'documents' in data:
+            results = []
+            for document in data['documents'] or []:
+                text = document.get('text') or ''
+                tasks = extractor.extract_tasks(text) if text.strip() else []
+                results.append({"id": document.get('id'), "tasks": tasks})
+            logger.info(f"Extracted tasks for batch of {len(results)} documents")
+            return jsonify({"results": results})
         
         if not data or 'text' not in data:
             return jsonify({"error": "Missing 'text' field"}), 400